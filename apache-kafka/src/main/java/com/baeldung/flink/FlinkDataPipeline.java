@@ -2,7 +2,7 @@ package com.baeldung.flink;
 
 import com.baeldung.flink.model.Backup;
 import com.baeldung.flink.model.InputMessage;
-import com.baeldung.flink.operator.BackupAggregator;
+import com.baeldung.flink.operator.CompactBackupAggregator;
 import com.baeldung.flink.operator.InputMessageTimestampAssigner;
 import com.baeldung.flink.operator.WordsCapitalizer;
 import org.apache.flink.streaming.api.TimeCharacteristic;
@@ -57,7 +57,7 @@ public class FlinkDataPipeline {
         DataStream<InputMessage> inputMessagesStream = environment.addSource(flinkKafkaConsumer);
 
         inputMessagesStream.timeWindowAll(Time.hours(24))
-            .aggregate(new BackupAggregator())
+            .aggregate(new CompactBackupAggregator())
             .addSink(flinkKafkaProducer);
 
         environment.execute();
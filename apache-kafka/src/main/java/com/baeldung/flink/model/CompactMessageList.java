@@ -0,0 +1,342 @@
+package com.baeldung.flink.model;
+
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.types.Value;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A list of {@link InputMessage}s that keeps them encoded instead of as objects. Added messages are appended to an
+ * open block of bytes, and every block that reaches {@link #BLOCK_SIZE} is deflated and sealed, so a list takes about
+ * the compressed size of its messages plus one open block, instead of several objects per message.
+ * <p>
+ * Messages are decoded again when they are read, one block at a time, so iterating over the list doesn't need more
+ * memory either. As a Flink {@link Value}, the list is written to state and checkpoints as its blocks, and lists are
+ * merged by moving blocks, without decoding their messages.
+ * <p>
+ * Every message is its sender, recipient and text, each as the varint of its UTF-8 length plus one (0 for null)
+ * followed by the bytes, and its sent time as a flag, the zigzag varint of its epoch second minus the one of the
+ * previous message in the block, and the varint of its nanoseconds.
+ */
+public class CompactMessageList extends AbstractList<InputMessage> implements Value {
+
+    static final int BLOCK_SIZE = 16 * 1024;
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Block> sealed = new ArrayList<>();
+    private byte[] open = new byte[256];
+    private int openLength;
+    private int openCount;
+    private long openLastSecond;
+    private int size;
+
+    // the block decoded last by get(int), so that reading the list by index doesn't decode a block for every message
+    private transient Cursor cursor;
+
+    @Override
+    public boolean add(InputMessage message) {
+        LocalDateTime sentAt = message.getSentAt();
+        writeString(message.getSender());
+        writeString(message.getRecipient());
+        writeString(message.getMessage());
+        if (sentAt == null) {
+            ensureOpen(1);
+            open[openLength++] = 0;
+        } else {
+            long second = sentAt.toEpochSecond(ZoneOffset.UTC);
+            ensureOpen(1 + 10 + 5);
+            open[openLength++] = 1;
+            writeVarlong((second - openLastSecond) << 1 ^ (second - openLastSecond) >> 63);
+            writeVarlong(sentAt.getNano());
+            openLastSecond = second;
+        }
+        openCount++;
+        size++;
+        modCount++;
+        if (openLength >= BLOCK_SIZE) {
+            seal();
+        }
+        return true;
+    }
+
+    /**
+     * Moves the messages of the other list to the end of this one, block by block.
+     */
+    public void merge(CompactMessageList other) {
+        if (other.size == 0) {
+            return;
+        }
+        seal();
+        sealed.addAll(other.sealed);
+        if (other.openCount > 0) {
+            sealed.add(Block.deflate(other.open, other.openLength, other.openCount));
+        }
+        size += other.size;
+        modCount++;
+    }
+
+    @Override
+    public InputMessage get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (cursor == null || cursor.modCount != modCount || index < cursor.index) {
+            cursor = new Cursor(index);
+        }
+        while (cursor.index < index) {
+            cursor.next();
+        }
+        return cursor.next();
+    }
+
+    @Override
+    public Iterator<InputMessage> iterator() {
+        return new Cursor(0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the bytes taken by the encoded messages
+     */
+    public long encodedSize() {
+        long bytes = openLength;
+        for (Block block : sealed) {
+            bytes += block.data.length;
+        }
+        return bytes;
+    }
+
+    @Override
+    public void write(DataOutputView out) throws IOException {
+        out.writeInt(sealed.size());
+        for (Block block : sealed) {
+            out.writeInt(block.count);
+            out.writeInt(block.length);
+            out.writeInt(block.data.length);
+            out.write(block.data);
+        }
+        out.writeInt(openCount);
+        out.writeLong(openLastSecond);
+        out.writeInt(openLength);
+        out.write(open, 0, openLength);
+    }
+
+    @Override
+    public void read(DataInputView in) throws IOException {
+        int blocks = in.readInt();
+        sealed = new ArrayList<>(blocks);
+        size = 0;
+        for (int i = 0; i < blocks; i++) {
+            int count = in.readInt();
+            int length = in.readInt();
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            sealed.add(new Block(data, length, count));
+            size += count;
+        }
+        openCount = in.readInt();
+        openLastSecond = in.readLong();
+        openLength = in.readInt();
+        open = new byte[Math.max(256, openLength)];
+        in.readFully(open, 0, openLength);
+        size += openCount;
+        modCount++;
+    }
+
+    private void seal() {
+        if (openCount > 0) {
+            sealed.add(Block.deflate(open, openLength, openCount));
+            openLength = 0;
+            openCount = 0;
+            openLastSecond = 0;
+        }
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            ensureOpen(1);
+            open[openLength++] = 0;
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureOpen(5 + bytes.length);
+        writeVarlong(bytes.length + 1L);
+        System.arraycopy(bytes, 0, open, openLength, bytes.length);
+        openLength += bytes.length;
+    }
+
+    private void writeVarlong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            open[openLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        open[openLength++] = (byte) value;
+    }
+
+    private void ensureOpen(int bytes) {
+        if (openLength + bytes > open.length) {
+            open = Arrays.copyOf(open, Math.max(openLength + bytes, 2 * open.length));
+        }
+    }
+
+    private static class Block implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        final byte[] data;
+        final int length;
+        final int count;
+
+        Block(byte[] data, int length, int count) {
+            this.data = data;
+            this.length = length;
+            this.count = count;
+        }
+
+        static Block deflate(byte[] bytes, int length, int count) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(bytes, 0, length);
+                deflater.finish();
+                byte[] data = new byte[length / 2 + 64];
+                int size = 0;
+                while (!deflater.finished()) {
+                    if (size == data.length) {
+                        data = Arrays.copyOf(data, 2 * data.length);
+                    }
+                    size += deflater.deflate(data, size, data.length - size);
+                }
+                return new Block(Arrays.copyOf(data, size), length, count);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        byte[] inflate() {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data);
+                byte[] bytes = new byte[length];
+                int size = 0;
+                while (size < length) {
+                    int inflated = inflater.inflate(bytes, size, length - size);
+                    if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new IllegalStateException("Block ended after " + size + " of " + length + " bytes");
+                    }
+                    size += inflated;
+                }
+                return bytes;
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt message block", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Decodes the messages in order, holding one decoded block at a time.
+     */
+    private class Cursor implements Iterator<InputMessage> {
+
+        final int modCount = CompactMessageList.this.modCount;
+        int index;
+        int block = -1;
+        byte[] bytes;
+        int position;
+        int remainingInBlock;
+        long lastSecond;
+
+        Cursor(int index) {
+            // skip whole blocks without inflating them
+            int skipped = 0;
+            while (block + 1 < sealed.size() && skipped + sealed.get(block + 1).count <= index) {
+                block++;
+                skipped += sealed.get(block).count;
+            }
+            this.index = skipped;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public InputMessage next() {
+            if (modCount != CompactMessageList.this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (remainingInBlock == 0) {
+                block++;
+                if (block < sealed.size()) {
+                    Block next = sealed.get(block);
+                    bytes = next.inflate();
+                    remainingInBlock = next.count;
+                } else {
+                    bytes = open;
+                    remainingInBlock = openCount;
+                }
+                position = 0;
+                lastSecond = 0;
+            }
+            InputMessage message = new InputMessage();
+            message.setSender(readString());
+            message.setRecipient(readString());
+            message.setMessage(readString());
+            if (bytes[position++] != 0) {
+                long delta = readVarlong();
+                long second = lastSecond + (delta >>> 1 ^ -(delta & 1));
+                message.setSentAt(LocalDateTime.ofEpochSecond(second, (int) readVarlong(), ZoneOffset.UTC));
+                lastSecond = second;
+            }
+            remainingInBlock--;
+            index++;
+            return message;
+        }
+
+        private String readString() {
+            int length = (int) readVarlong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private long readVarlong() {
+            long value = 0;
+            for (int shift = 0;; shift += 7) {
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.baeldung.flink.operator;
+
+import com.baeldung.flink.model.Backup;
+import com.baeldung.flink.model.CompactMessageList;
+import com.baeldung.flink.model.InputMessage;
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.windowing.time.Time;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregates the messages of a window into a {@link Backup} like {@link BackupAggregator}, but encodes every message
+ * into a {@link CompactMessageList} as it arrives, instead of keeping it as an object until the window fires. The
+ * window state is the compressed bytes of its messages, and so is the list of the resulting backup.
+ */
+public class CompactBackupAggregator implements AggregateFunction<InputMessage, CompactMessageList, Backup> {
+
+    /**
+     * Backs up the messages of every window in two steps: the messages are split by sender into {@code shards}
+     * parallel windows, which each aggregate theirs into a {@link CompactMessageList}, and the single backup of the
+     * window only merges those lists. The messages of a sender keep their order, but the backup lists the shards one
+     * after the other.
+     */
+    public static DataStream<Backup> backups(DataStream<InputMessage> messages, Time windowSize, int shards) {
+        return messages.keyBy(new SenderShard(shards))
+            .timeWindow(windowSize)
+            .aggregate(new Partial())
+            .timeWindowAll(windowSize)
+            .aggregate(new Merging());
+    }
+
+    @Override
+    public CompactMessageList createAccumulator() {
+        return new CompactMessageList();
+    }
+
+    @Override
+    public CompactMessageList add(InputMessage inputMessage, CompactMessageList inputMessages) {
+        inputMessages.add(inputMessage);
+        return inputMessages;
+    }
+
+    @Override
+    public Backup getResult(CompactMessageList inputMessages) {
+        return new Backup(inputMessages, LocalDateTime.now());
+    }
+
+    @Override
+    public CompactMessageList merge(CompactMessageList inputMessages, CompactMessageList acc1) {
+        inputMessages.merge(acc1);
+        return inputMessages;
+    }
+
+    static class SenderShard implements KeySelector<InputMessage, Integer> {
+
+        private final int shards;
+
+        SenderShard(int shards) {
+            this.shards = shards;
+        }
+
+        @Override
+        public Integer getKey(InputMessage inputMessage) {
+            String sender = inputMessage.getSender();
+            return sender == null ? 0 : Math.floorMod(sender.hashCode(), shards);
+        }
+    }
+
+    /**
+     * The first step, the messages of one shard.
+     */
+    static class Partial implements AggregateFunction<InputMessage, CompactMessageList, CompactMessageList> {
+
+        @Override
+        public CompactMessageList createAccumulator() {
+            return new CompactMessageList();
+        }
+
+        @Override
+        public CompactMessageList add(InputMessage inputMessage, CompactMessageList inputMessages) {
+            inputMessages.add(inputMessage);
+            return inputMessages;
+        }
+
+        @Override
+        public CompactMessageList getResult(CompactMessageList inputMessages) {
+            return inputMessages;
+        }
+
+        @Override
+        public CompactMessageList merge(CompactMessageList inputMessages, CompactMessageList acc1) {
+            inputMessages.merge(acc1);
+            return inputMessages;
+        }
+    }
+
+    /**
+     * The second step, the lists of all shards.
+     */
+    static class Merging implements AggregateFunction<CompactMessageList, CompactMessageList, Backup> {
+
+        @Override
+        public CompactMessageList createAccumulator() {
+            return new CompactMessageList();
+        }
+
+        @Override
+        public CompactMessageList add(CompactMessageList shard, CompactMessageList inputMessages) {
+            inputMessages.merge(shard);
+            return inputMessages;
+        }
+
+        @Override
+        public Backup getResult(CompactMessageList inputMessages) {
+            return new Backup(inputMessages, LocalDateTime.now());
+        }
+
+        @Override
+        public CompactMessageList merge(CompactMessageList inputMessages, CompactMessageList acc1) {
+            inputMessages.merge(acc1);
+            return inputMessages;
+        }
+    }
+}
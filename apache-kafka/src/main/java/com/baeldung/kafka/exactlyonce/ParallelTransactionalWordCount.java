@@ -0,0 +1,252 @@
+package com.baeldung.kafka.exactlyonce;
+
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.OutOfOrderSequenceException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.apache.kafka.common.errors.UnsupportedVersionException;
+import org.apache.kafka.common.errors.WakeupException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.singleton;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.AUTO_OFFSET_RESET_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.GROUP_ID_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.ISOLATION_LEVEL_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG;
+import static org.apache.kafka.clients.producer.ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG;
+import static org.apache.kafka.clients.producer.ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG;
+import static org.apache.kafka.clients.producer.ProducerConfig.TRANSACTIONAL_ID_CONFIG;
+import static org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG;
+
+/**
+ * Counts words like {@link TransactionalWordCount}, exactly once, but on several worker threads. Every worker has a
+ * consumer in the same group, so the partitions of the input topic are shared out among the workers, and a
+ * transactional producer of its own, which commits the offsets of that consumer with the counts.
+ * <p>
+ * A worker counts the words of all the records it polls in a {@link WordCounts} table, and only emits the counts and
+ * commits its transaction once per commit interval, instead of once per poll. A longer interval means fewer and
+ * larger transactions, with fewer output records, but counts that are published later.
+ * <p>
+ * The producers are fenced by the consumer group generation, so the brokers need to be version 2.5 or newer.
+ */
+public class ParallelTransactionalWordCount implements AutoCloseable {
+
+    private static final String CONSUMER_GROUP_ID = "parallel-word-count";
+    private static final String OUTPUT_TOPIC = "output";
+    private static final String INPUT_TOPIC = "input";
+
+    private final String bootstrapServers;
+    private final String groupId;
+    private final String inputTopic;
+    private final String outputTopic;
+    private final int workers;
+    private final Duration commitInterval;
+    private final List<Worker> running = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicLong processed = new AtomicLong();
+
+    public ParallelTransactionalWordCount(String bootstrapServers, int workers, Duration commitInterval) {
+        this(bootstrapServers, CONSUMER_GROUP_ID, INPUT_TOPIC, OUTPUT_TOPIC, workers, commitInterval);
+    }
+
+    ParallelTransactionalWordCount(String bootstrapServers, String groupId, String inputTopic, String outputTopic, int workers, Duration commitInterval) {
+        this.bootstrapServers = bootstrapServers;
+        this.groupId = groupId;
+        this.inputTopic = inputTopic;
+        this.outputTopic = outputTopic;
+        this.workers = workers;
+        this.commitInterval = commitInterval;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime()
+            .availableProcessors();
+        Duration commitInterval = Duration.ofMillis(args.length > 1 ? Long.parseLong(args[1]) : 100);
+
+        ParallelTransactionalWordCount wordCount = new ParallelTransactionalWordCount("localhost:9092", workers, commitInterval);
+        Runtime.getRuntime()
+            .addShutdownHook(new Thread(wordCount::close));
+        wordCount.start();
+        wordCount.join();
+    }
+
+    public synchronized void start() {
+        for (int i = 0; i < workers; i++) {
+            Worker worker = new Worker(groupId + "-" + i);
+            Thread thread = new Thread(worker, "word-count-" + i);
+            running.add(worker);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * @return the input records counted and committed so far
+     */
+    public long processed() {
+        return processed.get();
+    }
+
+    public void join() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Stops the workers, each one commits the counts of its current batch first.
+     */
+    @Override
+    public synchronized void close() {
+        running.forEach(Worker::stop);
+        try {
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+        }
+        running.clear();
+        threads.clear();
+    }
+
+    private KafkaConsumer<String, String> createKafkaConsumer() {
+        Properties props = new Properties();
+        props.put(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(GROUP_ID_CONFIG, groupId);
+        props.put(ENABLE_AUTO_COMMIT_CONFIG, "false");
+        props.put(AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
+        props.put(VALUE_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
+        return new KafkaConsumer<>(props);
+    }
+
+    private KafkaProducer<String, String> createKafkaProducer(String transactionalId) {
+        Properties props = new Properties();
+        props.put(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ENABLE_IDEMPOTENCE_CONFIG, "true");
+        props.put(TRANSACTIONAL_ID_CONFIG, transactionalId);
+        props.put(KEY_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
+        props.put(VALUE_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
+        return new KafkaProducer<>(props);
+    }
+
+    private class Worker implements Runnable, ConsumerRebalanceListener {
+
+        private final KafkaConsumer<String, String> consumer = createKafkaConsumer();
+        private final KafkaProducer<String, String> producer;
+        private final WordCounts counts = new WordCounts();
+        private final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        private final Duration pollTimeout = commitInterval.compareTo(Duration.ofMillis(100)) < 0 ? commitInterval : Duration.ofMillis(100);
+        private volatile boolean stopped;
+        private long batchRecords;
+        private long batchStart;
+
+        Worker(String transactionalId) {
+            producer = createKafkaProducer(transactionalId);
+        }
+
+        @Override
+        public void run() {
+            try {
+                producer.initTransactions();
+                consumer.subscribe(singleton(inputTopic), this);
+                while (!stopped) {
+                    ConsumerRecords<String, String> records = consumer.poll(pollTimeout);
+                    if (!records.isEmpty() && offsets.isEmpty()) {
+                        batchStart = System.nanoTime();
+                    }
+                    for (ConsumerRecord<String, String> record : records) {
+                        counts.addWords(record.value());
+                        offsets.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+                    }
+                    batchRecords += records.count();
+                    if (!offsets.isEmpty() && System.nanoTime() - batchStart >= commitInterval.toNanos()) {
+                        commit();
+                    }
+                }
+                commit();
+            } catch (WakeupException e) {
+                if (!stopped) {
+                    throw e;
+                }
+                commit();
+            } finally {
+                consumer.close();
+                producer.close();
+            }
+        }
+
+        void stop() {
+            stopped = true;
+            consumer.wakeup();
+        }
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            // the offsets of the batch must be committed while this worker still owns the partitions
+            commit();
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        }
+
+        private void commit() {
+            if (offsets.isEmpty()) {
+                return;
+            }
+            try {
+                producer.beginTransaction();
+                counts.forEach((word, count) -> producer.send(new ProducerRecord<>(outputTopic, word, Integer.toString(count))));
+                producer.sendOffsetsToTransaction(offsets, consumer.groupMetadata());
+                producer.commitTransaction();
+                processed.addAndGet(batchRecords);
+            } catch (ProducerFencedException | OutOfOrderSequenceException | UnsupportedVersionException | AuthorizationException e) {
+                // another worker took over the transactional id, or the producer can't go on, so this worker stops
+                throw e;
+            } catch (KafkaException e) {
+                producer.abortTransaction();
+                rewind();
+            } finally {
+                counts.clear();
+                offsets.clear();
+                batchRecords = 0;
+            }
+        }
+
+        /**
+         * Goes back to the last committed offsets, so that the records of the aborted batch are counted again.
+         */
+        private void rewind() {
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(offsets.keySet());
+            for (TopicPartition partition : offsets.keySet()) {
+                OffsetAndMetadata offset = committed.get(partition);
+                if (offset == null) {
+                    consumer.seekToBeginning(singleton(partition));
+                } else {
+                    consumer.seek(partition, offset);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.baeldung.kafka.exactlyonce;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Counts words in an open addressing hash table of plain arrays, instead of a {@code Map<String, Integer>} of boxed
+ * counts. Words are hashed and compared where they are in the line, so only the first occurrence of a word allocates a
+ * string for it. {@link #clear()} keeps the arrays, to be filled again by the next batch.
+ */
+class WordCounts {
+
+    private String[] words = new String[1024];
+    private int[] hashes = new int[1024];
+    private int[] counts = new int[1024];
+    private int size;
+
+    /**
+     * Counts the words of the line, which are separated by single spaces. Unlike {@code split(" ")}, empty words
+     * between two spaces aren't counted.
+     */
+    void addWords(String line) {
+        int start = 0;
+        int length = line.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || line.charAt(i) == ' ') {
+                if (i > start) {
+                    add(line, start, i);
+                }
+                start = i + 1;
+            }
+        }
+    }
+
+    int get(String word) {
+        int slot = find(word, 0, word.length(), word.hashCode());
+        return words[slot] == null ? 0 : counts[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(ObjIntConsumer<String> action) {
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != null) {
+                action.accept(words[i], counts[i]);
+            }
+        }
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(words, null);
+            size = 0;
+        }
+    }
+
+    private void add(String line, int start, int end) {
+        // the same hash as String.hashCode, so that get can use the one of the word
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + line.charAt(i);
+        }
+        int slot = find(line, start, end, hash);
+        if (words[slot] != null) {
+            counts[slot]++;
+            return;
+        }
+        words[slot] = line.substring(start, end);
+        hashes[slot] = hash;
+        counts[slot] = 1;
+        // at most half full, so that probe sequences stay short
+        if (++size > words.length / 2) {
+            grow();
+        }
+    }
+
+    /**
+     * @return the slot of the word, or the empty slot it belongs in
+     */
+    private int find(String line, int start, int end, int hash) {
+        int mask = words.length - 1;
+        int length = end - start;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (words[slot] != null) {
+            String word = words[slot];
+            if (hashes[slot] == hash && word.length() == length && word.regionMatches(0, line, start, length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        String[] oldWords = words;
+        int[] oldHashes = hashes;
+        int[] oldCounts = counts;
+        words = new String[2 * oldWords.length];
+        hashes = new int[words.length];
+        counts = new int[words.length];
+        int mask = words.length - 1;
+        for (int i = 0; i < oldWords.length; i++) {
+            if (oldWords[i] != null) {
+                int slot = (oldHashes[i] ^ oldHashes[i] >>> 16) & mask;
+                while (words[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                words[slot] = oldWords[i];
+                hashes[slot] = oldHashes[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
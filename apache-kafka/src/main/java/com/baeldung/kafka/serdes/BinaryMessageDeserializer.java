@@ -0,0 +1,179 @@
+package com.baeldung.kafka.serdes;
+
+import com.baeldung.kafka.dto.MessageDto;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static com.baeldung.kafka.serdes.BinaryMessageFormat.FLAG_DEFLATED;
+import static com.baeldung.kafka.serdes.BinaryMessageFormat.MAGIC;
+import static com.baeldung.kafka.serdes.BinaryMessageFormat.SCHEMA_ID;
+
+/**
+ * Reads records written by {@link BinaryMessageSerializer}. The strings are decoded right from the record, without
+ * copying it first, and {@link #deserialize(ByteBuffer)} reads from a buffer of the consumer, from its position to
+ * its limit, without copying it into an array either. Deflated records are inflated into a buffer of the calling
+ * thread, which is reused.
+ * <p>
+ * The uncompressed length of a deflated record comes from the record itself, so bodies longer than
+ * {@link #MAX_BODY_SIZE_CONFIG} bytes are rejected before any buffer is allocated for them.
+ */
+public class BinaryMessageDeserializer implements Deserializer<MessageDto> {
+
+    public static final String MAX_BODY_SIZE_CONFIG = "binary.serde.max.body.bytes";
+
+    /**
+     * About the default {@code max.message.bytes} of a topic.
+     */
+    public static final int DEFAULT_MAX_BODY_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<Inflation> INFLATION = ThreadLocal.withInitial(Inflation::new);
+
+    private int maxBodySize;
+
+    public BinaryMessageDeserializer() {
+        this(DEFAULT_MAX_BODY_SIZE);
+    }
+
+    /**
+     * @param maxBodySize the longest uncompressed body of a deflated record that is inflated
+     */
+    public BinaryMessageDeserializer(int maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object maxSize = configs.get(MAX_BODY_SIZE_CONFIG);
+        if (maxSize != null) {
+            maxBodySize = Integer.parseInt(maxSize.toString());
+        }
+    }
+
+    @Override
+    public MessageDto deserialize(String topic, byte[] data) {
+        return data == null ? null : deserialize(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Reads a record from the position to the limit of the buffer, neither of which is changed.
+     */
+    public MessageDto deserialize(ByteBuffer data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            ByteBuffer record = data.slice();
+            if (record.get() != MAGIC) {
+                throw new SerializationException("Unknown magic byte, the record wasn't written by BinaryMessageSerializer");
+            }
+            int schemaId = record.getInt();
+            if (schemaId != SCHEMA_ID) {
+                throw new SerializationException("Unknown schema id " + schemaId);
+            }
+            byte flags = record.get();
+            ByteBuffer body = (flags & FLAG_DEFLATED) != 0 ? INFLATION.get()
+                .inflate(record, maxBodySize) : record;
+            MessageDto message = new MessageDto();
+            message.setMessage(readString(body));
+            message.setVersion(readString(body));
+            return message;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated or corrupt MessageDto record", e);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static String readString(ByteBuffer body) {
+        int length = readVarint(body) - 1;
+        if (length < 0) {
+            return null;
+        }
+        int position = body.position();
+        if (length > body.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        body.position(position + length);
+        if (body.hasArray()) {
+            return new String(body.array(), body.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        }
+        ByteBuffer bytes = body.duplicate();
+        bytes.position(position)
+            .limit(position + length);
+        return StandardCharsets.UTF_8.decode(bytes)
+            .toString();
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint");
+    }
+
+    /**
+     * The inflater and output buffer of one thread, the buffer only grows.
+     */
+    private static class Inflation {
+
+        final Inflater inflater = new Inflater();
+        byte[] inflated = new byte[1024];
+        byte[] input = new byte[0];
+
+        ByteBuffer inflate(ByteBuffer record, int maxBodySize) {
+            int length = readVarint(record);
+            if (length < 0) {
+                throw new SerializationException("Negative body length " + length);
+            }
+            if (length > maxBodySize) {
+                throw new SerializationException("Body of " + length + " bytes exceeds the maximum of " + maxBodySize);
+            }
+            if (inflated.length < length) {
+                inflated = new byte[Math.max(length, 2 * inflated.length)];
+            }
+            inflater.reset();
+            if (record.hasArray()) {
+                inflater.setInput(record.array(), record.arrayOffset() + record.position(), record.remaining());
+            } else {
+                // the inflater of Java 8 only reads from arrays
+                if (input.length < record.remaining()) {
+                    input = new byte[record.remaining()];
+                }
+                int remaining = record.remaining();
+                record.duplicate()
+                    .get(input, 0, remaining);
+                inflater.setInput(input, 0, remaining);
+            }
+            try {
+                int size = 0;
+                while (size < length && !inflater.finished()) {
+                    int inflatedBytes = inflater.inflate(inflated, size, length - size);
+                    if (inflatedBytes == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    size += inflatedBytes;
+                }
+                if (size != length) {
+                    throw new SerializationException("Deflated body has " + size + " bytes instead of " + length);
+                }
+            } catch (DataFormatException e) {
+                throw new SerializationException("Corrupt deflated MessageDto record", e);
+            }
+            return ByteBuffer.wrap(inflated, 0, length);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.baeldung.kafka.serdes;
+
+/**
+ * Wire format of {@link BinaryMessageSerializer} and {@link BinaryMessageDeserializer}:
+ * <pre>
+ * header: magic byte 0 | schema id (int) | flags (1 byte)
+ * body:   message | version
+ * </pre>
+ * Every string is the varint of its UTF-8 length plus one, 0 for null, followed by its UTF-8 bytes. When the
+ * {@link #FLAG_DEFLATED} flag is set, the body is preceded by the varint of its uncompressed length and deflated.
+ * The schema id names the fields of the body and their order, so that a reader can reject, or later translate,
+ * messages written with a schema it doesn't know.
+ */
+final class BinaryMessageFormat {
+
+    static final byte MAGIC = 0;
+    static final int SCHEMA_ID = 1;
+    static final byte FLAG_DEFLATED = 1;
+    static final int HEADER_SIZE = 1 + Integer.BYTES + 1;
+
+    private BinaryMessageFormat() {
+    }
+}
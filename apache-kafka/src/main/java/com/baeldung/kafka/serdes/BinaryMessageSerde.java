@@ -0,0 +1,11 @@
+package com.baeldung.kafka.serdes;
+
+import com.baeldung.kafka.dto.MessageDto;
+import org.apache.kafka.common.serialization.Serdes;
+
+public class BinaryMessageSerde extends Serdes.WrapperSerde<MessageDto> {
+
+    public BinaryMessageSerde() {
+        super(new BinaryMessageSerializer(), new BinaryMessageDeserializer());
+    }
+}
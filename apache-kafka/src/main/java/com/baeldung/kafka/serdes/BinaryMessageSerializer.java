@@ -0,0 +1,207 @@
+package com.baeldung.kafka.serdes;
+
+import com.baeldung.kafka.dto.MessageDto;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static com.baeldung.kafka.serdes.BinaryMessageFormat.FLAG_DEFLATED;
+import static com.baeldung.kafka.serdes.BinaryMessageFormat.HEADER_SIZE;
+import static com.baeldung.kafka.serdes.BinaryMessageFormat.MAGIC;
+import static com.baeldung.kafka.serdes.BinaryMessageFormat.SCHEMA_ID;
+
+/**
+ * Writes a {@link MessageDto} in the compact {@link BinaryMessageFormat} instead of JSON. The fields are encoded into
+ * a buffer of the calling thread, which is reused, so the only allocation per record is the returned array.
+ * <p>
+ * Bodies of at least {@link #COMPRESSION_THRESHOLD_CONFIG} bytes are deflated, unless that doesn't make them
+ * smaller. Compression is off by default: small records compress poorly one by one, and for those the producer's
+ * {@code compression.type}, which compresses whole batches, is the better choice.
+ */
+public class BinaryMessageSerializer implements Serializer<MessageDto> {
+
+    public static final String COMPRESSION_THRESHOLD_CONFIG = "binary.serde.compression.threshold.bytes";
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private int compressionThreshold;
+
+    public BinaryMessageSerializer() {
+        this(-1);
+    }
+
+    /**
+     * @param compressionThreshold the body size from which records are deflated, -1 never deflates
+     */
+    public BinaryMessageSerializer(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object threshold = configs.get(COMPRESSION_THRESHOLD_CONFIG);
+        if (threshold != null) {
+            compressionThreshold = Integer.parseInt(threshold.toString());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, MessageDto data) {
+        if (data == null) {
+            return null;
+        }
+        Buffers buffers = BUFFERS.get();
+        int length = buffers.writeString(0, data.getMessage());
+        length = buffers.writeString(length, data.getVersion());
+
+        if (compressionThreshold >= 0 && length >= compressionThreshold) {
+            byte[] deflated = buffers.deflate(length);
+            if (deflated != null) {
+                return deflated;
+            }
+        }
+        byte[] record = new byte[HEADER_SIZE + length];
+        writeHeader(record, (byte) 0);
+        System.arraycopy(buffers.body, 0, record, HEADER_SIZE, length);
+        return record;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static void writeHeader(byte[] record, byte flags) {
+        record[0] = MAGIC;
+        record[1] = (byte) (SCHEMA_ID >>> 24);
+        record[2] = (byte) (SCHEMA_ID >>> 16);
+        record[3] = (byte) (SCHEMA_ID >>> 8);
+        record[4] = (byte) SCHEMA_ID;
+        record[5] = flags;
+    }
+
+    private static int writeVarint(byte[] target, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            target[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[position++] = (byte) value;
+        return position;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * The buffers of one thread, they only grow.
+     */
+    private static class Buffers {
+
+        byte[] body = new byte[1024];
+        char[] chars = new char[256];
+        byte[] deflated = new byte[1024];
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+        /**
+         * @return the position after the string
+         */
+        int writeString(int position, String value) {
+            if (value == null) {
+                ensureBody(position + 1);
+                body[position] = 0;
+                return position + 1;
+            }
+            int length = value.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, 2 * chars.length)];
+            }
+            // copying the chars out once is cheaper than a charAt call for each of them
+            value.getChars(0, length, chars, 0);
+            // at most 3 bytes per char, a surrogate pair takes 4 bytes for its 2 chars, so the string is encoded in one
+            // pass after room for the longest length prefix it can need
+            int maxBytes = 3 * length;
+            int reserved = varintSize(maxBytes + 1);
+            ensureBody(position + reserved + maxBytes);
+            int end = encodeUtf8(chars, length, body, position + reserved);
+            int utf8Length = end - position - reserved;
+            int prefix = varintSize(utf8Length + 1);
+            if (prefix < reserved) {
+                System.arraycopy(body, position + reserved, body, position + prefix, utf8Length);
+                end -= reserved - prefix;
+            }
+            writeVarint(body, position, utf8Length + 1);
+            return end;
+        }
+
+        /**
+         * @return the deflated record, or null when deflating doesn't make the body smaller
+         */
+        byte[] deflate(int length) {
+            deflater.reset();
+            deflater.setInput(body, 0, length);
+            deflater.finish();
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == deflated.length) {
+                    if (size >= length) {
+                        return null;
+                    }
+                    deflated = Arrays.copyOf(deflated, 2 * deflated.length);
+                }
+                size += deflater.deflate(deflated, size, deflated.length - size);
+            }
+            if (size + 5 >= length) {
+                return null;
+            }
+            byte[] record = new byte[HEADER_SIZE + varintSize(length) + size];
+            writeHeader(record, FLAG_DEFLATED);
+            int position = writeVarint(record, HEADER_SIZE, length);
+            System.arraycopy(deflated, 0, record, position, size);
+            return record;
+        }
+
+        private void ensureBody(int capacity) {
+            if (capacity > body.length) {
+                body = Arrays.copyOf(body, Math.max(capacity, 2 * body.length));
+            }
+        }
+    }
+
+    private static int encodeUtf8(char[] chars, int length, byte[] target, int position) {
+        int i = 0;
+        // most text is ASCII, which is copied by this tight loop
+        while (i < length && chars[i] < 0x80) {
+            target[position++] = (byte) chars[i++];
+        }
+        for (; i < length; i++) {
+            char c = chars[i];
+            if (c < 0x80) {
+                target[position++] = (byte) c;
+            } else if (c < 0x800) {
+                target[position++] = (byte) (0xC0 | (c >> 6));
+                target[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars[i + 1])) {
+                int codePoint = Character.toCodePoint(c, chars[++i]);
+                target[position++] = (byte) (0xF0 | (codePoint >> 18));
+                target[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                target[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                target[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // an unpaired surrogate is written as '?', like String.getBytes does
+                target[position++] = '?';
+            } else {
+                target[position++] = (byte) (0xE0 | (c >> 12));
+                target[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                target[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+}
@@ -19,11 +19,9 @@ public class CustomDeserializer implements Deserializer<MessageDto> {
     public MessageDto deserialize(String topic, byte[] data) {
         try {
             if (data == null){
-                System.out.println("Null received at deserializing");
                 return null;
             }
-            System.out.println("Deserializing...");
-            return objectMapper.readValue(new String(data, "UTF-8"), MessageDto.class);
+            return objectMapper.readValue(data, MessageDto.class);
         } catch (Exception e) {
             throw new SerializationException("Error when deserializing byte[] to MessageDto");
         }
@@ -18,10 +18,8 @@ public class CustomSerializer implements Serializer<MessageDto> {
     public byte[] serialize(String topic, MessageDto data) {
         try {
             if (data == null){
-                System.out.println("Null received at serializing");
                 return null;
             }
-            System.out.println("Serializing...");
             return objectMapper.writeValueAsBytes(data);
         } catch (Exception e) {
             throw new SerializationException("Error when serializing MessageDto to byte[]");
@@ -0,0 +1,101 @@
+package com.baeldung.kafka.serdes;
+
+import com.baeldung.kafka.dto.MessageDto;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization throughput of {@link CustomSerializer} (JSON) against
+ * {@link BinaryMessageSerializer}, without and with compression, for a short message and for a 4 KB log-like one.
+ * The size of a record in each format is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerdeBenchmark {
+
+    @Param({ "json", "binary", "binary-deflate" })
+    public String format;
+
+    @Param({ "small", "large" })
+    public String payload;
+
+    private Serializer<MessageDto> serializer;
+    private Deserializer<MessageDto> deserializer;
+    private MessageDto message;
+    private byte[] record;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SerdeBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        switch (format) {
+        case "json":
+            serializer = new CustomSerializer();
+            deserializer = new CustomDeserializer();
+            break;
+        case "binary":
+            serializer = new BinaryMessageSerializer();
+            deserializer = new BinaryMessageDeserializer();
+            break;
+        default:
+            serializer = new BinaryMessageSerializer(512);
+            deserializer = new BinaryMessageDeserializer();
+        }
+        message = new MessageDto("small".equals(payload) ? "test message" : logLines(4096), "1.0");
+        record = serializer.serialize("topic", message);
+        System.out.printf("%n%s, %s: %d bytes per record%n", format, payload, record.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize("topic", message);
+    }
+
+    @Benchmark
+    public MessageDto deserialize() {
+        return deserializer.deserialize("topic", record);
+    }
+
+    private static String logLines(int length) {
+        String[] levels = { "INFO", "WARN", "DEBUG" };
+        String[] events = { "order created", "payment accepted", "shipment delayed", "customer notified" };
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(length + 100);
+        while (text.length() < length) {
+            text.append("2022-04-09T10:15:")
+                .append(10 + random.nextInt(50))
+                .append(' ')
+                .append(levels[random.nextInt(levels.length)])
+                .append(" [orders] ")
+                .append(events[random.nextInt(events.length)])
+                .append(" id=")
+                .append(random.nextInt(1_000_000))
+                .append('\n');
+        }
+        return text.substring(0, length);
+    }
+}
@@ -0,0 +1,191 @@
+package com.baeldung.flink;
+
+import com.baeldung.flink.model.Backup;
+import com.baeldung.flink.model.CompactMessageList;
+import com.baeldung.flink.model.InputMessage;
+import com.baeldung.flink.operator.BackupAggregator;
+import com.baeldung.flink.operator.CompactBackupAggregator;
+import com.baeldung.flink.operator.InputMessageTimestampAssigner;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.streaming.api.TimeCharacteristic;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.functions.sink.SinkFunction;
+import org.apache.flink.streaming.api.windowing.time.Time;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactBackupAggregatorIntegrationTest {
+
+    // the windows are days in UTC, but the timestamp assigner reads the times in the default zone
+    private static final LocalDateTime DAY = LocalDateTime.ofInstant(Instant.parse("2018-06-01T00:00:00Z"), ZoneId.systemDefault());
+    private static final String[] TEXTS = { "Are we still on for lunch today?", "Running late, start without me", "Can you send me the report?",
+      "Thanks, got it", "Call me when you are free", "The build is green again" };
+
+    @Before
+    public void setup() {
+        CollectingSink.backups.clear();
+    }
+
+    @Test
+    public void givenMultipleInputMessagesFromDifferentDays_whenCompactBackupAggregatorIsUsed_thenMessagesAreGroupedProperly() throws Exception {
+        List<InputMessage> firstBackupMessages = messages(DAY, 1_000);
+        List<InputMessage> secondBackupMessages = messages(DAY.plusDays(1), 10);
+        List<InputMessage> inputMessages = new ArrayList<>(firstBackupMessages);
+        inputMessages.addAll(secondBackupMessages);
+
+        StreamExecutionEnvironment env = environment(1);
+        env.fromCollection(inputMessages)
+          .assignTimestampsAndWatermarks(new InputMessageTimestampAssigner())
+          .timeWindowAll(Time.hours(24))
+          .aggregate(new CompactBackupAggregator())
+          .addSink(new CollectingSink());
+
+        env.execute();
+
+        assertEquals(2, CollectingSink.backups.size());
+        assertEquals(firstBackupMessages, CollectingSink.backups.get(0).getInputMessages());
+        assertEquals(secondBackupMessages, CollectingSink.backups.get(1).getInputMessages());
+    }
+
+    @Test
+    public void givenMultipleInputMessagesFromDifferentDays_whenBackupsArePreAggregated_thenEverySenderKeepsItsOrder() throws Exception {
+        List<InputMessage> firstBackupMessages = messages(DAY, 1_000);
+        List<InputMessage> secondBackupMessages = messages(DAY.plusDays(1), 10);
+        List<InputMessage> inputMessages = new ArrayList<>(firstBackupMessages);
+        inputMessages.addAll(secondBackupMessages);
+
+        StreamExecutionEnvironment env = environment(2);
+        DataStream<InputMessage> messages = env.fromCollection(inputMessages)
+          .assignTimestampsAndWatermarks(new InputMessageTimestampAssigner());
+        CompactBackupAggregator.backups(messages, Time.hours(24), 4)
+          .addSink(new CollectingSink());
+
+        env.execute();
+
+        assertEquals(2, CollectingSink.backups.size());
+        List<List<InputMessage>> backups = CollectingSink.backups.stream()
+          .map(Backup::getInputMessages)
+          .sorted(Comparator.comparing(List::size))
+          .collect(Collectors.toList());
+        assertEquals(bySender(secondBackupMessages), bySender(backups.get(0)));
+        assertEquals(bySender(firstBackupMessages), bySender(backups.get(1)));
+    }
+
+    @Test
+    public void givenGrowingWindows_whenMessagesAreAggregated_thenCompactStateIsSmaller() throws Exception {
+        TypeSerializer<List<InputMessage>> listSerializer = TypeInformation.of(new TypeHint<List<InputMessage>>() {
+        })
+          .createSerializer(new ExecutionConfig());
+        TypeSerializer<CompactMessageList> compactSerializer = TypeInformation.of(CompactMessageList.class)
+          .createSerializer(new ExecutionConfig());
+
+        for (int windowSize : new int[] { 1_000, 10_000, 100_000 }) {
+            List<InputMessage> window = messages(DAY, windowSize);
+
+            int listState = stateSize(new BackupAggregator(), listSerializer, window);
+            int compactState = stateSize(new CompactBackupAggregator(), compactSerializer, window);
+            double listRate = throughput(window, new BackupAggregator());
+            double compactRate = throughput(window, new CompactBackupAggregator());
+
+            System.out.printf("%,7d messages: state %,10d bytes as list, %,9d bytes compact; %,7.0f messages/s as list, %,7.0f messages/s compact%n", windowSize,
+              listState, compactState, listRate, compactRate);
+            // a window smaller than a block isn't compressed yet
+            assertTrue(compactState < (windowSize < 10_000 ? listState : listState / 2));
+        }
+    }
+
+    private static <ACC> int stateSize(AggregateFunction<InputMessage, ACC, Backup> aggregator, TypeSerializer<ACC> serializer, List<InputMessage> window)
+      throws Exception {
+        ACC accumulator = aggregator.createAccumulator();
+        for (InputMessage message : window) {
+            accumulator = aggregator.add(message, accumulator);
+        }
+        DataOutputSerializer out = new DataOutputSerializer(1024);
+        serializer.serialize(accumulator, out);
+
+        // the state must restore to the same messages
+        ACC restored = serializer.deserialize(new DataInputDeserializer(out.getSharedBuffer(), 0, out.length()));
+        assertEquals(window, aggregator.getResult(restored)
+          .getInputMessages());
+        return out.length();
+    }
+
+    private static double throughput(List<InputMessage> window, AggregateFunction<InputMessage, ?, Backup> aggregator) throws Exception {
+        CollectingSink.backups.clear();
+        StreamExecutionEnvironment env = environment(1);
+        env.fromCollection(window)
+          .assignTimestampsAndWatermarks(new InputMessageTimestampAssigner())
+          .timeWindowAll(Time.hours(24))
+          .aggregate(aggregator)
+          .addSink(new CollectingSink());
+
+        long start = System.nanoTime();
+        env.execute();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(window.size(), CollectingSink.backups.get(0)
+          .getInputMessages()
+          .size());
+        return window.size() / seconds;
+    }
+
+    private static StreamExecutionEnvironment environment(int parallelism) {
+        StreamExecutionEnvironment env = StreamExecutionEnvironment.createLocalEnvironment(parallelism);
+        env.setStreamTimeCharacteristic(TimeCharacteristic.EventTime);
+        return env;
+    }
+
+    /**
+     * @return messages between a few users, spread over the first 23 hours of the day
+     */
+    private static List<InputMessage> messages(LocalDateTime day, int count) {
+        Random random = new Random(count);
+        List<InputMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime sentAt = day.plusNanos(i * (23 * 3_600_000_000_000L / count));
+            messages.add(new InputMessage("user" + random.nextInt(50), "user" + random.nextInt(50), sentAt, TEXTS[random.nextInt(TEXTS.length)] + " #" + i));
+        }
+        return messages;
+    }
+
+    private static Map<String, List<InputMessage>> bySender(List<InputMessage> messages) {
+        Map<String, List<InputMessage>> bySender = new HashMap<>();
+        for (InputMessage message : messages) {
+            bySender.computeIfAbsent(message.getSender(), sender -> new ArrayList<>())
+              .add(message);
+        }
+        return bySender;
+    }
+
+    private static class CollectingSink implements SinkFunction<Backup> {
+
+        static final List<Backup> backups = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void invoke(Backup value, Context context) {
+            backups.add(value);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.baeldung.kafka.exactlyonce;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// This live test needs a Docker instance running so that kafka container can be created
+
+public class ParallelTransactionalWordCountLiveTest {
+
+    private static final String INPUT_TOPIC = "word-count-input";
+    private static final int PARTITIONS = 8;
+    private static final int LINES = 200_000;
+    // a worker that died stops the count from ever reaching LINES
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final String[] WORDS = { "put", "any", "space", "separated", "data", "here", "for", "count", "output", "will", "contain", "of",
+        "every", "word", "in", "the", "message" };
+
+    @ClassRule
+    public static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:6.2.1"));
+
+    private static final Map<String, Long> expected = new HashMap<>();
+
+    @BeforeClass
+    public static void produceInput() throws Exception {
+        try (AdminClient adminClient = AdminClient.create(Collections.singletonMap(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers()))) {
+            adminClient.createTopics(Collections.singleton(new NewTopic(INPUT_TOPIC, PARTITIONS, (short) 1)))
+                .all()
+                .get();
+        }
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        props.put(ProducerConfig.LINGER_MS_CONFIG, "10");
+        Random random = new Random(42);
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(props)) {
+            for (int i = 0; i < LINES; i++) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < 10; j++) {
+                    String word = WORDS[random.nextInt(WORDS.length)];
+                    line.append(j == 0 ? "" : " ")
+                        .append(word);
+                    expected.merge(word, 1L, Long::sum);
+                }
+                producer.send(new ProducerRecord<>(INPUT_TOPIC, Integer.toString(i), line.toString()));
+            }
+        }
+    }
+
+    @Test
+    public void givenInputTopic_whenCountingWithOneFourAndEightWorkers_thenThroughputIsMeasuredAndCountsAreExact() throws Exception {
+        // the first run warms up the JIT, and a commit per poll shows what the commit interval saves
+        count("warm-up", 1, Duration.ofMillis(200));
+        count("1 worker, commit per poll", 1, Duration.ZERO);
+        for (int workers : new int[] { 1, 4, 8 }) {
+            count(workers + (workers == 1 ? " worker" : " workers"), workers, Duration.ofMillis(200));
+        }
+    }
+
+    private static void count(String name, int workers, Duration commitInterval) throws Exception {
+        String run = "word-count-" + name.replaceAll("\\W+", "-");
+        ParallelTransactionalWordCount wordCount = new ParallelTransactionalWordCount(kafka.getBootstrapServers(), run, INPUT_TOPIC, run + "-output",
+            workers, commitInterval);
+
+        long start = System.nanoTime();
+        double seconds;
+        wordCount.start();
+        try {
+            while (wordCount.processed() < LINES) {
+                assertTrue(name + ": only " + wordCount.processed() + " lines processed in " + TIMEOUT, System.nanoTime() - start < TIMEOUT.toNanos());
+                Thread.sleep(10);
+            }
+            seconds = (System.nanoTime() - start) / 1e9;
+        } finally {
+            wordCount.close();
+        }
+
+        System.out.printf("%-26s %,d lines in %.2f s, %,.0f lines/s%n", name + ":", LINES, seconds, LINES / seconds);
+        assertEquals(expected, committedCounts(run + "-output"));
+    }
+
+    /**
+     * @return the sums of the counts in the committed transactions of the output topic
+     */
+    private static Map<String, Long> committedCounts(String outputTopic) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, outputTopic + "-verifier");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        Map<String, Long> counts = new HashMap<>();
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(props)) {
+            consumer.subscribe(Arrays.asList(outputTopic));
+            int emptyPolls = 0;
+            while (emptyPolls < 5) {
+                int polled = 0;
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofSeconds(1))) {
+                    counts.merge(record.key(), Long.parseLong(record.value()), Long::sum);
+                    polled++;
+                }
+                emptyPolls = polled == 0 ? emptyPolls + 1 : 0;
+            }
+        }
+        return counts;
+    }
+}
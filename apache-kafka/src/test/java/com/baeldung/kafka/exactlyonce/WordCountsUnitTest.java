@@ -0,0 +1,68 @@
+package com.baeldung.kafka.exactlyonce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WordCountsUnitTest {
+
+    @Test
+    void givenLines_whenAddingWords_thenEveryWordIsCounted() {
+        WordCounts counts = new WordCounts();
+
+        counts.addWords("Put any space separated data here for count");
+        counts.addWords("Output will contain count of every word in the message");
+
+        assertEquals(2, counts.get("count"));
+        assertEquals(1, counts.get("Output"));
+        assertEquals(0, counts.get("missing"));
+        assertEquals(17, counts.size());
+    }
+
+    @Test
+    void givenRepeatedSpaces_whenAddingWords_thenEmptyWordsAreSkipped() {
+        WordCounts counts = new WordCounts();
+
+        counts.addWords("  a  b a ");
+
+        assertEquals(2, counts.get("a"));
+        assertEquals(1, counts.get("b"));
+        assertEquals(0, counts.get(""));
+        assertEquals(2, counts.size());
+    }
+
+    @Test
+    void givenManyWords_whenTableGrows_thenCountsMatchHashMap() {
+        WordCounts counts = new WordCounts();
+        Map<String, Integer> expected = new HashMap<>();
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            String word = "w" + (i * 7919 % 5000);
+            line.append(word)
+                .append(' ');
+            expected.merge(word, 1, Integer::sum);
+        }
+
+        counts.addWords(line.toString());
+
+        Map<String, Integer> actual = new HashMap<>();
+        counts.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void givenClearedCounts_whenAddingWords_thenOnlyNewWordsAreCounted() {
+        WordCounts counts = new WordCounts();
+        counts.addWords("a b c");
+
+        counts.clear();
+        counts.addWords("c d");
+
+        assertEquals(0, counts.get("a"));
+        assertEquals(1, counts.get("c"));
+        assertEquals(2, counts.size());
+    }
+}
@@ -0,0 +1,116 @@
+package com.baeldung.kafka.serdes;
+
+import com.baeldung.kafka.dto.MessageDto;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryMessageSerdeUnitTest {
+
+    private final BinaryMessageSerializer serializer = new BinaryMessageSerializer();
+    private final BinaryMessageDeserializer deserializer = new BinaryMessageDeserializer();
+
+    @Test
+    void givenMessage_whenSerialized_thenRecordIsSmallerThanJsonAndReadsBack() {
+        MessageDto message = MessageDto.builder()
+            .message("test")
+            .version("1.0")
+            .build();
+
+        byte[] record = serializer.serialize("topic", message);
+
+        assertArrayEquals(new byte[] { 0, 0, 0, 0, 1, 0, 5, 't', 'e', 's', 't', 4, '1', '.', '0' }, record);
+        assertTrue(record.length < new CustomSerializer().serialize("topic", message).length);
+        assertEquals(message, deserializer.deserialize("topic", record));
+    }
+
+    @Test
+    void givenNullsAndNonAsciiText_whenRoundTripped_thenTheyArePreserved() {
+        String text = "café € 😀 \ud800 end";
+        MessageDto message = new MessageDto(text, null);
+
+        MessageDto read = deserializer.deserialize("topic", serializer.serialize("topic", message));
+
+        assertEquals(new String(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), read.getMessage());
+        assertNull(read.getVersion());
+        assertNull(serializer.serialize("topic", null));
+        assertNull(deserializer.deserialize("topic", (byte[]) null));
+    }
+
+    @Test
+    void givenCompressionThreshold_whenLargeMessageSerialized_thenItIsDeflated() {
+        BinaryMessageSerializer compressing = new BinaryMessageSerializer();
+        compressing.configure(Collections.singletonMap(BinaryMessageSerializer.COMPRESSION_THRESHOLD_CONFIG, "256"), false);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            text.append("line ")
+                .append(i % 7)
+                .append(" of a repetitive payload\n");
+        }
+        MessageDto large = new MessageDto(text.toString(), "2.0");
+        MessageDto small = new MessageDto("short", "2.0");
+
+        byte[] deflated = compressing.serialize("topic", large);
+        byte[] plain = compressing.serialize("topic", small);
+
+        assertEquals(BinaryMessageFormat.FLAG_DEFLATED, deflated[5]);
+        assertTrue(deflated.length < text.length() / 10);
+        assertEquals(0, plain[5]);
+        assertEquals(large, deserializer.deserialize("topic", deflated));
+        assertEquals(small, deserializer.deserialize("topic", plain));
+    }
+
+    @Test
+    void givenRecordInsideLargerBuffer_whenDeserialized_thenOnlyItsBytesAreReadAndPositionIsKept() {
+        MessageDto message = new MessageDto("in a batch", "1.0");
+        byte[] record = serializer.serialize("topic", message);
+        for (ByteBuffer batch : new ByteBuffer[] { ByteBuffer.allocate(100), ByteBuffer.allocateDirect(100) }) {
+            batch.put(new byte[] { 9, 9, 9 })
+                .put(record)
+                .put(new byte[] { 7, 7 });
+            batch.position(3)
+                .limit(3 + record.length);
+
+            assertEquals(message, deserializer.deserialize(batch));
+            assertEquals(3, batch.position());
+        }
+    }
+
+    @Test
+    void givenForeignOrTruncatedRecord_whenDeserialized_thenSerializationExceptionIsThrown() {
+        byte[] record = serializer.serialize("topic", new MessageDto("test", "1.0"));
+        byte[] json = new CustomSerializer().serialize("topic", new MessageDto("test", "1.0"));
+        byte[] otherSchema = record.clone();
+        otherSchema[4] = 2;
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("topic", json));
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("topic", otherSchema));
+        for (int length = 0; length < record.length; length++) {
+            byte[] truncated = new byte[length];
+            System.arraycopy(record, 0, truncated, 0, length);
+            assertThrows(SerializationException.class, () -> deserializer.deserialize("topic", truncated));
+        }
+    }
+
+    @Test
+    void givenDeflatedRecordClaimingHugeBody_whenDeserialized_thenItIsRejectedBeforeInflating() {
+        byte[] record = { 0, 0, 0, 0, 1, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0 };
+        BinaryMessageDeserializer limited = new BinaryMessageDeserializer();
+        limited.configure(Collections.singletonMap(BinaryMessageDeserializer.MAX_BODY_SIZE_CONFIG, "16"), false);
+        byte[] large = new BinaryMessageSerializer(0).serialize("topic", new MessageDto(String.join("", Collections.nCopies(10, "test")), "1.0"));
+
+        SerializationException exception = assertThrows(SerializationException.class, () -> deserializer.deserialize("topic", record));
+        assertTrue(exception.getMessage()
+            .contains("exceeds the maximum"));
+        assertThrows(SerializationException.class, () -> limited.deserialize("topic", large));
+    }
+}
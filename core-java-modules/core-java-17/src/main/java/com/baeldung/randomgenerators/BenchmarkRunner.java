@@ -4,7 +4,11 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
 
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.random.RandomGenerator;
 
@@ -105,6 +109,77 @@ public class BenchmarkRunner {
         generateRandomNumbers(RandomGenerator.of("Xoshiro256PlusPlus"));
     }
 
+    @State(Scope.Benchmark)
+    public static class Samples {
+        final int[] ints = new int[1 << 20];
+        final double[] doubles = new double[1 << 20];
+        final Random random = new Random();
+        final ParallelRandomEngine engine = new ParallelRandomEngine(42);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static int[] fillIntsWithOldRandom(Samples samples) {
+        int[] ints = samples.ints;
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = OldRandom.getRandomInt(1000);
+        }
+        return ints;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static int[] fillIntsWithSharedRandom(Samples samples) {
+        int[] ints = samples.ints;
+        Random random = samples.random;
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = random.nextInt(1000);
+        }
+        return ints;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static int[] fillIntsWithThreadLocalRandom(Samples samples) {
+        int[] ints = samples.ints;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = random.nextInt(1000);
+        }
+        return ints;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static int[] fillIntsWithParallelRandomEngine(Samples samples) {
+        samples.engine.fill(samples.ints, 1000);
+        return samples.ints;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static double[] fillGaussiansWithThreadLocalRandom(Samples samples) {
+        double[] doubles = samples.doubles;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = random.nextGaussian();
+        }
+        return doubles;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static double[] fillGaussiansWithParallelRandomEngine(Samples samples) {
+        samples.engine.fill(samples.doubles, ParallelRandomEngine.DoubleSampler.normal(0, 1));
+        return samples.doubles;
+    }
+
     private static void generateRandomNumbers(RandomGenerator generator) {
         generator.nextLong();
         generator.nextInt();
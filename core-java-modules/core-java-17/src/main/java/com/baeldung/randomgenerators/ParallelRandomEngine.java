@@ -0,0 +1,147 @@
+package com.baeldung.randomgenerators;
+
+import java.nio.DoubleBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Fills arrays and buffers with random samples on a {@link ForkJoinPool}. Unlike
+ * {@link SplittableGeneratorMultiThread}, which submits a task per number, every fork-join leaf fills a whole range
+ * of the target with its own generator.
+ * <p>
+ * The target is always divided into the same tree of ranges, and every inner node of the tree hands a
+ * {@link SplittableGenerator#split() split} generator to its left half. So the generator of every leaf depends only on
+ * the seed and the position of the leaf, and an engine created with the same seed produces the same numbers however
+ * many threads the pool has and in whatever order the leaves run.
+ */
+public class ParallelRandomEngine {
+
+    public static final String DEFAULT_ALGORITHM = "L64X128MixRandom";
+
+    static final int LEAF_SIZE = 1 << 14;
+
+    private final SplittableGenerator root;
+    private final ForkJoinPool pool;
+
+    public ParallelRandomEngine(long seed) {
+        this(DEFAULT_ALGORITHM, seed, ForkJoinPool.commonPool());
+    }
+
+    public ParallelRandomEngine(String algorithm, long seed, ForkJoinPool pool) {
+        this.root = RandomGeneratorFactory.<SplittableGenerator> of(algorithm)
+          .create(seed);
+        this.pool = pool;
+    }
+
+    public void fill(double[] target, DoubleSampler sampler) {
+        run(target.length, (generator, from, to) -> {
+            for (int i = from; i < to; i++) {
+                target[i] = sampler.sample(generator);
+            }
+        });
+    }
+
+    public void fill(long[] target, LongSampler sampler) {
+        run(target.length, (generator, from, to) -> {
+            for (int i = from; i < to; i++) {
+                target[i] = sampler.sample(generator);
+            }
+        });
+    }
+
+    /**
+     * Fills {@code target} with uniformly distributed ints from 0 (inclusive) to {@code bound} (exclusive).
+     */
+    public void fill(int[] target, int bound) {
+        run(target.length, (generator, from, to) -> {
+            for (int i = from; i < to; i++) {
+                target[i] = generator.nextInt(bound);
+            }
+        });
+    }
+
+    /**
+     * Fills the buffer from its position to its limit without moving the position, so a direct buffer can hold more
+     * samples than fit comfortably into heap arrays.
+     */
+    public void fill(DoubleBuffer target, DoubleSampler sampler) {
+        int offset = target.position();
+        run(target.remaining(), (generator, from, to) -> {
+            for (int i = from; i < to; i++) {
+                target.put(offset + i, sampler.sample(generator));
+            }
+        });
+    }
+
+    private void run(int length, RangeFiller filler) {
+        SplittableGenerator generator;
+        // every call continues from a new split of the root, so consecutive calls don't repeat numbers
+        synchronized (root) {
+            generator = root.split();
+        }
+        pool.invoke(new FillTask(generator, filler, 0, length));
+    }
+
+    public interface DoubleSampler {
+
+        double sample(RandomGenerator generator);
+
+        static DoubleSampler uniform() {
+            return RandomGenerator::nextDouble;
+        }
+
+        static DoubleSampler normal(double mean, double standardDeviation) {
+            return generator -> generator.nextGaussian(mean, standardDeviation);
+        }
+
+        static DoubleSampler exponential(double mean) {
+            return generator -> generator.nextExponential() * mean;
+        }
+    }
+
+    public interface LongSampler {
+
+        long sample(RandomGenerator generator);
+
+        /**
+         * @see ZipfSampler
+         */
+        static LongSampler zipf(long elements, double exponent) {
+            return new ZipfSampler(elements, exponent);
+        }
+    }
+
+    private interface RangeFiller {
+
+        void fill(RandomGenerator generator, int from, int to);
+    }
+
+    private static class FillTask extends RecursiveAction {
+
+        private final SplittableGenerator generator;
+        private final RangeFiller filler;
+        private final int from;
+        private final int to;
+
+        FillTask(SplittableGenerator generator, RangeFiller filler, int from, int to) {
+            this.generator = generator;
+            this.filler = filler;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                filler.fill(generator, from, to);
+                return;
+            }
+            // split at a multiple of the leaf size, so the tree only depends on the length
+            int middle = from + ((to - from) / LEAF_SIZE + 1) / 2 * LEAF_SIZE;
+            invokeAll(new FillTask(generator.split(), filler, from, middle), new FillTask(generator, filler, middle, to));
+        }
+    }
+}
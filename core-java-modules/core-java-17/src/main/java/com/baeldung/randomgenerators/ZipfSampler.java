@@ -0,0 +1,64 @@
+package com.baeldung.randomgenerators;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples ranks from 1 to {@code elements} where rank k has a probability proportional to {@code 1 / k^exponent},
+ * using the rejection-inversion method of Hörmann and Derflinger. It needs no table, so it works for any number of
+ * elements, and takes a constant expected number of random doubles per sample.
+ */
+class ZipfSampler implements ParallelRandomEngine.LongSampler {
+
+    private final long elements;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralElements;
+    private final double s;
+
+    ZipfSampler(long elements, double exponent) {
+        if (elements <= 0 || exponent <= 0) {
+            throw new IllegalArgumentException("Elements and exponent must be positive");
+        }
+        this.elements = elements;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralElements = hIntegral(elements + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    @Override
+    public long sample(RandomGenerator generator) {
+        while (true) {
+            double u = hIntegralElements + generator.nextDouble() * (hIntegralX1 - hIntegralElements);
+            double x = hIntegralInverse(u);
+            long k = Math.max(1, Math.min(elements, (long) (x + 0.5)));
+            // most samples are accepted by the first, cheap test
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1OverX((1 - exponent) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(-1, x * (1 - exponent));
+        return Math.exp(log1pOverX(t) * x);
+    }
+
+    private static double expm1OverX(double x) {
+        // the series avoids the cancellation of expm1(x) / x for x near 0, which happens for exponents near 1
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x / 2 * (1 + x / 3 * (1 + x / 4));
+    }
+
+    private static double log1pOverX(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - x / 4));
+    }
+}
@@ -0,0 +1,118 @@
+package com.baeldung.randomgenerators;
+
+import com.baeldung.randomgenerators.ParallelRandomEngine.DoubleSampler;
+import com.baeldung.randomgenerators.ParallelRandomEngine.LongSampler;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ParallelRandomEngineUnitTest {
+
+    private static final int SIZE = 1_000_000;
+
+    @Test
+    void givenSameSeed_whenFillingWithDifferentParallelism_thenSameNumbersAreGenerated() {
+        ForkJoinPool singleThread = new ForkJoinPool(1);
+        ForkJoinPool fourThreads = new ForkJoinPool(4);
+        try {
+            double[] first = new double[SIZE];
+            double[] second = new double[SIZE];
+
+            new ParallelRandomEngine(ParallelRandomEngine.DEFAULT_ALGORITHM, 42, singleThread).fill(first, DoubleSampler.uniform());
+            new ParallelRandomEngine(ParallelRandomEngine.DEFAULT_ALGORITHM, 42, fourThreads).fill(second, DoubleSampler.uniform());
+
+            assertThat(second).isEqualTo(first);
+        } finally {
+            singleThread.shutdown();
+            fourThreads.shutdown();
+        }
+    }
+
+    @Test
+    void givenOneEngine_whenFillingTwice_thenNumbersAreNotRepeated() {
+        ParallelRandomEngine engine = new ParallelRandomEngine(42);
+        long[] first = new long[1000];
+        long[] second = new long[1000];
+
+        engine.fill(first, RandomGenerator::nextLong);
+        engine.fill(second, RandomGenerator::nextLong);
+
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    @Test
+    void givenNormalSampler_whenFilling_thenMeanAndDeviationMatch() {
+        double[] samples = new double[SIZE];
+
+        new ParallelRandomEngine(1).fill(samples, DoubleSampler.normal(10, 2));
+
+        double mean = Arrays.stream(samples).average().orElseThrow();
+        double variance = Arrays.stream(samples).map(x -> (x - mean) * (x - mean)).sum() / SIZE;
+        assertThat(mean).isCloseTo(10, within(0.01));
+        assertThat(Math.sqrt(variance)).isCloseTo(2, within(0.01));
+    }
+
+    @Test
+    void givenExponentialSampler_whenFilling_thenMeanMatches() {
+        double[] samples = new double[SIZE];
+
+        new ParallelRandomEngine(2).fill(samples, DoubleSampler.exponential(3));
+
+        assertThat(Arrays.stream(samples).allMatch(x -> x >= 0)).isTrue();
+        assertThat(Arrays.stream(samples).average().orElseThrow()).isCloseTo(3, within(0.02));
+    }
+
+    @Test
+    void givenZipfSampler_whenFilling_thenRankFrequenciesFollowThePowerLaw() {
+        long[] samples = new long[SIZE];
+
+        new ParallelRandomEngine(3).fill(samples, LongSampler.zipf(10, 1));
+
+        double harmonic = 0;
+        for (int k = 1; k <= 10; k++) {
+            harmonic += 1.0 / k;
+        }
+        long[] counts = new long[11];
+        for (long sample : samples) {
+            counts[(int) sample]++;
+        }
+        assertThat(counts[0]).isZero();
+        for (int k = 1; k <= 10; k++) {
+            assertThat((double) counts[k] / SIZE).isCloseTo(1 / (k * harmonic), within(0.003));
+        }
+    }
+
+    @Test
+    void givenDirectBuffer_whenFilling_thenOnlyTheRemainingPartIsWritten() {
+        DoubleBuffer buffer = ByteBuffer.allocateDirect(100_000 * Double.BYTES)
+          .asDoubleBuffer();
+        buffer.position(10)
+          .limit(99_990);
+
+        new ParallelRandomEngine(4).fill(buffer, DoubleSampler.uniform());
+
+        assertThat(buffer.position()).isEqualTo(10);
+        buffer.limit(buffer.capacity());
+        assertThat(buffer.get(9)).isZero();
+        assertThat(buffer.get(99_990)).isZero();
+        for (int i = 10; i < 99_990; i++) {
+            assertThat(buffer.get(i)).isBetween(0.0, 1.0);
+        }
+    }
+
+    @Test
+    void givenBound_whenFillingInts_thenAllAreInRange() {
+        int[] numbers = new int[SIZE];
+
+        new ParallelRandomEngine(5).fill(numbers, 10);
+
+        assertThat(Arrays.stream(numbers).allMatch(number -> number >= 0 && number < 10)).isTrue();
+    }
+}
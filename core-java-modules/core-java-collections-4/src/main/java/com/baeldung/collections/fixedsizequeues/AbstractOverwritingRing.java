@@ -0,0 +1,106 @@
+package com.baeldung.collections.fixedsizequeues;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The sequencing shared by the concurrent overwriting rings. Every offer claims the next sequence number, and the
+ * element with sequence {@code s} goes into slot {@code s & mask}, replacing the element offered {@code capacity}
+ * offers earlier.
+ * <p>
+ * Each slot has a version that works like a seqlock: it is {@code 2s + 1} while the element with sequence {@code s}
+ * is written and {@code 2s + 2} once it is published. Readers copy a slot only when its version holds the sequence
+ * they expect before and after reading the value, so taking a snapshot never blocks and never retries. A slot that is
+ * being written is left out of the snapshot.
+ * <p>
+ * Producers don't block each other either, with one exception: a producer that finds its slot still being written by
+ * a producer a whole lap behind, which only happens when that one was preempted mid-write, yields until it is done.
+ */
+abstract class AbstractOverwritingRing {
+
+    private static final long EMPTY = 0;
+
+    final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicLongArray versions;
+
+    AbstractOverwritingRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.versions = new AtomicLongArray(capacity);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return how many elements the ring holds, which is the capacity once it has been filled
+     */
+    public int size() {
+        return (int) Math.min(nextSequence.get(), capacity());
+    }
+
+    /**
+     * @return how many elements were offered since the ring was created, including the overwritten ones
+     */
+    public long totalOffered() {
+        return nextSequence.get();
+    }
+
+    long nextSequence() {
+        return nextSequence.getAndIncrement();
+    }
+
+    /**
+     * Marks the slot of {@code sequence} as being written.
+     *
+     * @return false when a producer with a later sequence already took the slot, so the element is outdated and
+     * must not be written
+     */
+    boolean beginWrite(long sequence) {
+        int slot = (int) sequence & mask;
+        long writing = 2 * sequence + 1;
+        while (true) {
+            long version = versions.get(slot);
+            if (version != EMPTY && sequenceOf(version) >= sequence) {
+                return false;
+            }
+            if ((version & 1) == 1) {
+                Thread.yield();
+            } else if (versions.compareAndSet(slot, version, writing)) {
+                return true;
+            }
+        }
+    }
+
+    void endWrite(long sequence) {
+        versions.set((int) sequence & mask, 2 * sequence + 2);
+    }
+
+    /**
+     * @return the sequence of the oldest element that may still be in a ring whose next sequence is {@code end}
+     */
+    long firstSequence(long end) {
+        return Math.max(0, end - capacity());
+    }
+
+    /**
+     * @return the version to pass to {@link #isUnchanged} after reading the value, or -1 when the slot doesn't hold
+     * a published element with this sequence
+     */
+    long publishedVersion(long sequence) {
+        long version = versions.get((int) sequence & mask);
+        return version == 2 * sequence + 2 ? version : -1;
+    }
+
+    boolean isUnchanged(long sequence, long version) {
+        return versions.get((int) sequence & mask) == version;
+    }
+
+    private static long sequenceOf(long version) {
+        return (version - 1) / 2;
+    }
+}
@@ -0,0 +1,59 @@
+package com.baeldung.collections.fixedsizequeues;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link ConcurrentOverwritingRing} for primitive {@code long} values, such as metric samples, that keeps them in an
+ * {@link AtomicLongArray} so that offers allocate nothing.
+ */
+public class ConcurrentOverwritingLongRing extends AbstractOverwritingRing {
+
+    private final AtomicLongArray items;
+
+    /**
+     * @param capacity a power of two, so that the slot of a sequence is a mask away
+     */
+    public ConcurrentOverwritingLongRing(int capacity) {
+        super(capacity);
+        items = new AtomicLongArray(capacity);
+    }
+
+    public void offer(long value) {
+        long sequence = nextSequence();
+        if (beginWrite(sequence)) {
+            items.lazySet((int) sequence & mask, value);
+            endWrite(sequence);
+        }
+    }
+
+    /**
+     * @return the values in the ring, oldest first
+     */
+    public long[] snapshot() {
+        long[] snapshot = new long[capacity()];
+        return Arrays.copyOf(snapshot, snapshot(snapshot));
+    }
+
+    /**
+     * Copies the values in the ring, oldest first, into {@code target}, which can be reused between calls to avoid
+     * allocating. If {@code target} is shorter than the ring, only the newest values are copied.
+     *
+     * @return the number of values copied
+     */
+    public int snapshot(long[] target) {
+        long end = totalOffered();
+        long first = Math.max(firstSequence(end), end - target.length);
+        int count = 0;
+        for (long sequence = first; sequence < end; sequence++) {
+            long version = publishedVersion(sequence);
+            if (version != -1) {
+                long value = items.get((int) sequence & mask);
+                if (isUnchanged(sequence, version)) {
+                    target[count++] = value;
+                }
+            }
+        }
+        return count;
+    }
+}
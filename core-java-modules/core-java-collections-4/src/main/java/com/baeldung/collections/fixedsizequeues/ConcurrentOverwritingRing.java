@@ -0,0 +1,53 @@
+package com.baeldung.collections.fixedsizequeues;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent counterpart of {@link FifoFixedSizeQueue} for keeping the last {@code capacity} elements: any number of
+ * threads may {@link #offer} without locking, and once the ring is full every offer overwrites the oldest element.
+ * Instead of polling, readers take a {@link #snapshot()} of the elements in the order they were offered.
+ */
+public class ConcurrentOverwritingRing<E> extends AbstractOverwritingRing {
+
+    private final AtomicReferenceArray<E> items;
+
+    /**
+     * @param capacity a power of two, so that the slot of a sequence is a mask away
+     */
+    public ConcurrentOverwritingRing(int capacity) {
+        super(capacity);
+        items = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void offer(E e) {
+        if (e == null) {
+            throw new NullPointerException("Ring doesn't allow nulls");
+        }
+        long sequence = nextSequence();
+        if (beginWrite(sequence)) {
+            items.lazySet((int) sequence & mask, e);
+            endWrite(sequence);
+        }
+    }
+
+    /**
+     * @return the elements in the ring, oldest first
+     */
+    public List<E> snapshot() {
+        long end = totalOffered();
+        long first = firstSequence(end);
+        List<E> snapshot = new ArrayList<>((int) (end - first));
+        for (long sequence = first; sequence < end; sequence++) {
+            long version = publishedVersion(sequence);
+            if (version != -1) {
+                E item = items.get((int) sequence & mask);
+                if (isUnchanged(sequence, version)) {
+                    snapshot.add(item);
+                }
+            }
+        }
+        return snapshot;
+    }
+}
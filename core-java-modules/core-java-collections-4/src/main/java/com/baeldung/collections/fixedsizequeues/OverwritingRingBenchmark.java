@@ -0,0 +1,111 @@
+package com.baeldung.collections.fixedsizequeues;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of offering into the concurrent overwriting rings, compared with a {@link FifoFixedSizeQueue} and an
+ * {@link ArrayDeque} that are guarded by {@code synchronized}. {@link #main} runs every benchmark with 1, 2, 4, 8 and 16
+ * producer threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverwritingRingBenchmark {
+
+    private static final int CAPACITY = 1024;
+
+    private ConcurrentOverwritingRing<Long> ring;
+    private ConcurrentOverwritingLongRing longRing;
+    private ConcurrentOverwritingDoubleRing doubleRing;
+    private FifoFixedSizeQueue<Long> fifoQueue;
+    private ArrayDeque<Long> deque;
+
+    public static void main(String[] args) throws RunnerException {
+        for (int producers : new int[] { 1, 2, 4, 8, 16 }) {
+            new Runner(new OptionsBuilder().include(OverwritingRingBenchmark.class.getSimpleName())
+                .threads(producers)
+                .build()).run();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ring = new ConcurrentOverwritingRing<>(CAPACITY);
+        longRing = new ConcurrentOverwritingLongRing(CAPACITY);
+        doubleRing = new ConcurrentOverwritingDoubleRing(CAPACITY);
+        fifoQueue = new FifoFixedSizeQueue<>(CAPACITY);
+        deque = new ArrayDeque<>(CAPACITY);
+        // every offer replaces the oldest element, as in the steady state of a "last N events" buffer
+        for (long i = 0; i < CAPACITY; i++) {
+            ring.offer(i);
+            longRing.offer(i);
+            doubleRing.offer(i);
+            fifoQueue.offer(i);
+            deque.offerLast(i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+
+        // a boxed value per producer, so that boxing isn't part of what is measured
+        final Long event = Long.valueOf(System.nanoTime());
+        long sample;
+    }
+
+    @Benchmark
+    public void offerConcurrentRing(Producer producer) {
+        ring.offer(producer.event);
+    }
+
+    @Benchmark
+    public void offerConcurrentLongRing(Producer producer) {
+        longRing.offer(producer.sample++);
+    }
+
+    @Benchmark
+    public void offerConcurrentDoubleRing(Producer producer) {
+        doubleRing.offer(producer.sample++);
+    }
+
+    @Benchmark
+    public void offerSynchronizedFifoFixedSizeQueue(Producer producer) {
+        synchronized (fifoQueue) {
+            fifoQueue.offer(producer.event);
+        }
+    }
+
+    @Benchmark
+    public void offerSynchronizedArrayDeque(Producer producer) {
+        synchronized (deque) {
+            if (deque.size() == CAPACITY) {
+                deque.pollFirst();
+            }
+            deque.offerLast(producer.event);
+        }
+    }
+
+    @Benchmark
+    public List<Long> snapshotConcurrentRing() {
+        return ring.snapshot();
+    }
+}
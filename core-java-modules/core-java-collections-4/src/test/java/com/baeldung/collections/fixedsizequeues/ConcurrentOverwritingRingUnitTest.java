@@ -0,0 +1,141 @@
+package com.baeldung.collections.fixedsizequeues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentOverwritingRingUnitTest {
+
+    @Test
+    void givenCapacityThatIsNotAPowerOfTwo_whenCreatingRing_thenIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentOverwritingRing<String>(10));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentOverwritingLongRing(0));
+    }
+
+    @Test
+    void givenEmptyRing_whenSnapshot_thenEmpty() {
+        ConcurrentOverwritingRing<String> toTest = new ConcurrentOverwritingRing<>(4);
+
+        assertTrue(toTest.snapshot()
+            .isEmpty());
+        assertEquals(0, toTest.size());
+    }
+
+    @Test
+    void givenNull_whenOffer_thenNullPointerException() {
+        ConcurrentOverwritingRing<String> toTest = new ConcurrentOverwritingRing<>(4);
+
+        assertThrows(NullPointerException.class, () -> toTest.offer(null));
+    }
+
+    @Test
+    void givenRingNotFull_whenSnapshot_thenElementsInOfferOrder() {
+        ConcurrentOverwritingRing<String> toTest = new ConcurrentOverwritingRing<>(4);
+        toTest.offer("1");
+        toTest.offer("2");
+
+        assertEquals(Arrays.asList("1", "2"), toTest.snapshot());
+        assertEquals(2, toTest.size());
+    }
+
+    @Test
+    void givenFullRing_whenOffer_thenOldestIsOverwritten() {
+        ConcurrentOverwritingRing<String> toTest = new ConcurrentOverwritingRing<>(2);
+        toTest.offer("1");
+        toTest.offer("2");
+        toTest.offer("3");
+
+        assertEquals(Arrays.asList("2", "3"), toTest.snapshot());
+        assertEquals(2, toTest.size());
+        assertEquals(3, toTest.totalOffered());
+    }
+
+    @Test
+    void givenLongRing_whenOfferingMoreThanCapacity_thenSnapshotHoldsNewestValues() {
+        ConcurrentOverwritingLongRing toTest = new ConcurrentOverwritingLongRing(4);
+        for (long i = 1; i <= 6; i++) {
+            toTest.offer(i);
+        }
+
+        assertArrayEquals(new long[] { 3, 4, 5, 6 }, toTest.snapshot());
+
+        long[] target = new long[2];
+        assertEquals(2, toTest.snapshot(target));
+        assertArrayEquals(new long[] { 5, 6 }, target);
+    }
+
+    @Test
+    void givenDoubleRing_whenOffer_thenSnapshotKeepsExactValues() {
+        ConcurrentOverwritingDoubleRing toTest = new ConcurrentOverwritingDoubleRing(2);
+        toTest.offer(-0.0);
+        toTest.offer(Double.NaN);
+
+        double[] snapshot = toTest.snapshot();
+
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(snapshot[0]));
+        assertTrue(Double.isNaN(snapshot[1]));
+    }
+
+    @Test
+    void givenConcurrentProducers_whenTakingSnapshots_thenEveryProducersValuesAreInOrder() throws Exception {
+        int producers = 4;
+        int offersPerProducer = 200_000;
+        ConcurrentOverwritingLongRing toTest = new ConcurrentOverwritingLongRing(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            results.add(executor.submit(() -> {
+                start.await();
+                // the producer is in the high bits, its running counter in the low bits
+                for (long i = 1; i <= offersPerProducer; i++) {
+                    toTest.offer(producer << 32 | i);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+
+        long[] snapshot = new long[64];
+        while (!allDone(results)) {
+            assertProducersInOrder(snapshot, toTest.snapshot(snapshot), producers);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        for (Future<?> result : results) {
+            result.get();
+        }
+
+        assertEquals((long) producers * offersPerProducer, toTest.totalOffered());
+        assertEquals(64, toTest.size());
+        assertEquals(64, toTest.snapshot().length);
+    }
+
+    private static boolean allDone(List<Future<?>> results) {
+        return results.stream()
+            .allMatch(Future::isDone);
+    }
+
+    private static void assertProducersInOrder(long[] snapshot, int count, int producers) {
+        long[] last = new long[producers];
+        for (int i = 0; i < count; i++) {
+            int producer = (int) (snapshot[i] >>> 32);
+            long value = snapshot[i] & 0xFFFFFFFFL;
+            assertTrue(value > last[producer], "values of producer " + producer + " out of order");
+            last[producer] = value;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.baeldung.map.bytearrays;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Map from {@code byte[]} keys to {@code long} values that keeps keys and values out of the Java heap, as an
+ * alternative to {@code HashMap<BytesKey, Long>} for indexes with many millions of keys.
+ * <p>
+ * The map is split into segments, each guarded by its own lock, so writers to different segments don't block each
+ * other. Every segment appends its entries, the key bytes followed by the value, to pages of direct memory, and finds
+ * them through an open-addressing table in another direct buffer. A table slot stores the hash and length of its key
+ * next to the entry address, so most mismatches are rejected without reading the key, and growing the table never
+ * rehashes a key.
+ * <p>
+ * Lookups accept a {@link ByteBuffer}, so a key can be looked up straight from a slice of a larger buffer without
+ * being copied into an array. Entries can't be removed: the map is meant for append-only indexes, such as
+ * deduplication.
+ */
+public class OffHeapBytesMap implements AutoCloseable {
+
+    static final int DEFAULT_PAGE_SIZE = 16 * 1024 * 1024;
+
+    // entry address + 1 (0 marks an empty slot), key hash, key length
+    private static final int SLOT_SIZE = Long.BYTES + 2 * Integer.BYTES;
+    private static final int MAX_TABLE_CAPACITY = 1 << 26;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final int pageSize;
+    private volatile boolean closed;
+
+    public OffHeapBytesMap(long expectedEntries) {
+        this(segmentsFor(expectedEntries), (int) Math.min(MAX_TABLE_CAPACITY, expectedEntries / segmentsFor(expectedEntries) + 1), DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param segments number of independently locked segments, a power of two
+     * @param expectedEntriesPerSegment entries a segment holds before its table grows
+     * @param pageSize bytes of direct memory allocated at a time for entries, the largest key is 8 bytes smaller
+     */
+    public OffHeapBytesMap(int segments, int expectedEntriesPerSegment, int pageSize) {
+        if (segments <= 0 || Integer.bitCount(segments) != 1) {
+            throw new IllegalArgumentException("Segment count must be a power of two: " + segments);
+        }
+        this.segments = new Segment[segments];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segments);
+        this.pageSize = pageSize;
+        for (int i = 0; i < segments; i++) {
+            this.segments[i] = new Segment(tableCapacity(expectedEntriesPerSegment));
+        }
+    }
+
+    /**
+     * @return true if the key was not in the map before
+     */
+    public boolean put(byte[] key, long value) {
+        return put(ByteBuffer.wrap(key), value, true);
+    }
+
+    /**
+     * @return true if the key was added, false if it was in the map already, in which case its value is unchanged
+     */
+    public boolean putIfAbsent(byte[] key, long value) {
+        return put(ByteBuffer.wrap(key), value, false);
+    }
+
+    public boolean putIfAbsent(ByteBuffer key, long value) {
+        return put(key, value, false);
+    }
+
+    public long getOrDefault(byte[] key, long defaultValue) {
+        return getOrDefault(ByteBuffer.wrap(key), defaultValue);
+    }
+
+    /**
+     * Looks up the bytes between the position and the limit of {@code key}, without changing the buffer.
+     */
+    public long getOrDefault(ByteBuffer key, long defaultValue) {
+        checkOpen();
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash, defaultValue);
+    }
+
+    public boolean containsKey(byte[] key) {
+        return containsKey(ByteBuffer.wrap(key));
+    }
+
+    public boolean containsKey(ByteBuffer key) {
+        checkOpen();
+        int hash = hash(key);
+        return segmentFor(hash).contains(key, hash);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the direct memory held by tables and entry pages
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Drops the references to the direct buffers, which are then freed by the garbage collector, as Java offers no
+     * public API to free direct memory eagerly.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private boolean put(ByteBuffer key, long value, boolean overwrite) {
+        checkOpen();
+        if (key.remaining() > pageSize - Long.BYTES) {
+            throw new IllegalArgumentException("Key of " + key.remaining() + " bytes doesn't fit into a page of " + pageSize + " bytes");
+        }
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, overwrite);
+    }
+
+    private Segment segmentFor(int hash) {
+        // the high bits pick the segment, the low bits the slot, so both stay well distributed
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Map has been closed");
+        }
+    }
+
+    static int hash(ByteBuffer key) {
+        int hash = 1;
+        for (int i = key.position(); i < key.limit(); i++) {
+            hash = 31 * hash + key.get(i);
+        }
+        // murmur3 finalizer, Arrays.hashCode alone clusters badly in a power of two table
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    static int tableCapacity(long entries) {
+        long minimum = Math.max(2, (long) Math.ceil(entries / 0.75));
+        return (int) Math.min(MAX_TABLE_CAPACITY, Long.highestOneBit(minimum - 1) << 1);
+    }
+
+    private static int segmentsFor(long expectedEntries) {
+        // roughly one segment per million entries, between 16 and 1024
+        long segments = Math.max(16, Math.min(1024, expectedEntries >>> 20));
+        return Integer.highestOneBit((int) segments);
+    }
+
+    private class Segment {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final List<ByteBuffer> pages = new ArrayList<>();
+        private ByteBuffer table;
+        private int mask;
+        private int size;
+        private int pageOffset = pageSize;
+
+        Segment(int capacity) {
+            this.table = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+            this.mask = capacity - 1;
+        }
+
+        long get(ByteBuffer key, int hash, long defaultValue) {
+            Lock readLock = lock.readLock();
+            readLock.lock();
+            try {
+                int slot = find(key, hash);
+                return slot < 0 ? defaultValue : readValue(slot, key.remaining());
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        boolean contains(ByteBuffer key, int hash) {
+            Lock readLock = lock.readLock();
+            readLock.lock();
+            try {
+                return find(key, hash) >= 0;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        /**
+         * @return the slot holding the key, or {@code -(insertion slot) - 1} if it is missing
+         */
+        int find(ByteBuffer key, int hash) {
+            int keyLength = key.remaining();
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int offset = slot * SLOT_SIZE;
+                long address = table.getLong(offset) - 1;
+                if (address < 0) {
+                    return -slot - 1;
+                }
+                if (table.getInt(offset + Long.BYTES) == hash && table.getInt(offset + Long.BYTES + Integer.BYTES) == keyLength
+                    && keyEquals(address, key)) {
+                    return slot;
+                }
+            }
+        }
+
+        boolean put(ByteBuffer key, int hash, long value, boolean overwrite) {
+            Lock writeLock = lock.writeLock();
+            writeLock.lock();
+            try {
+                int slot = find(key, hash);
+                if (slot >= 0) {
+                    if (overwrite) {
+                        long address = table.getLong(slot * SLOT_SIZE) - 1;
+                        page(address).putLong(offsetInPage(address) + key.remaining(), value);
+                    }
+                    return false;
+                }
+                if (size + 1 > (mask + 1) / 4 * 3) {
+                    grow();
+                    slot = find(key, hash);
+                }
+                long address = append(key, value);
+                int offset = (-slot - 1) * SLOT_SIZE;
+                table.putLong(offset, address + 1);
+                table.putInt(offset + Long.BYTES, hash);
+                table.putInt(offset + Long.BYTES + Integer.BYTES, key.remaining());
+                size++;
+                return true;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        int size() {
+            Lock readLock = lock.readLock();
+            readLock.lock();
+            try {
+                return size;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        long offHeapBytes() {
+            Lock readLock = lock.readLock();
+            readLock.lock();
+            try {
+                return (long) table.capacity() + (long) pages.size() * pageSize;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        void clear() {
+            Lock writeLock = lock.writeLock();
+            writeLock.lock();
+            try {
+                pages.clear();
+                table = ByteBuffer.allocateDirect(SLOT_SIZE);
+                mask = 0;
+                size = 0;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        private void grow() {
+            int capacity = mask + 1;
+            if (capacity >= MAX_TABLE_CAPACITY) {
+                throw new IllegalStateException("Segment is full with " + size + " entries");
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect(capacity * 2 * SLOT_SIZE);
+            int grownMask = capacity * 2 - 1;
+            for (int offset = 0; offset < table.capacity(); offset += SLOT_SIZE) {
+                long address = table.getLong(offset);
+                if (address == 0) {
+                    continue;
+                }
+                // the cached hash places the entry without reading its key
+                int hash = table.getInt(offset + Long.BYTES);
+                int slot = hash & grownMask;
+                while (grown.getLong(slot * SLOT_SIZE) != 0) {
+                    slot = (slot + 1) & grownMask;
+                }
+                int target = slot * SLOT_SIZE;
+                grown.putLong(target, address);
+                grown.putInt(target + Long.BYTES, hash);
+                grown.putInt(target + Long.BYTES + Integer.BYTES, table.getInt(offset + Long.BYTES + Integer.BYTES));
+            }
+            table = grown;
+            mask = grownMask;
+        }
+
+        private long append(ByteBuffer key, long value) {
+            int entrySize = key.remaining() + Long.BYTES;
+            if (pageOffset + entrySize > pageSize) {
+                pages.add(ByteBuffer.allocateDirect(pageSize));
+                pageOffset = 0;
+            }
+            ByteBuffer page = pages.get(pages.size() - 1);
+            int start = pageOffset;
+            for (int i = key.position(), target = start; i < key.limit(); i++, target++) {
+                page.put(target, key.get(i));
+            }
+            page.putLong(start + key.remaining(), value);
+            pageOffset += entrySize;
+            return (long) (pages.size() - 1) * pageSize + start;
+        }
+
+        private boolean keyEquals(long address, ByteBuffer key) {
+            ByteBuffer page = page(address);
+            int offset = offsetInPage(address);
+            for (int i = key.position(); i < key.limit(); i++, offset++) {
+                if (page.get(offset) != key.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long readValue(int slot, int keyLength) {
+            long address = table.getLong(slot * SLOT_SIZE) - 1;
+            return page(address).getLong(offsetInPage(address) + keyLength);
+        }
+
+        private ByteBuffer page(long address) {
+            return pages.get((int) (address / pageSize));
+        }
+
+        private int offsetInPage(long address) {
+            return (int) (address % pageSize);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.baeldung.map.multikey;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe user cache in which every entry is reachable by a {@code long} id and, optionally, by a string id and
+ * by a {@link CompositeKey}. Unlike the other caches of this package it is bounded: entries expire a fixed time after
+ * they were stored, and once the cache is full entries are evicted with the CLOCK algorithm, an approximation of LRU
+ * described below. An entry always leaves all three indexes together.
+ * <p>
+ * Writes are serialized by a lock, lookups don't block: the string and composite indexes are concurrent maps, and
+ * the primitive long index is read optimistically. Writers mark an entry as removed before taking it out of the
+ * indexes, so a lookup racing with an eviction never returns the entry through one key after it was gone from
+ * another. Instead of reordering a list on every hit, a hit sets a flag on the entry, and eviction walks the entries
+ * in insertion order, giving flagged entries a second chance (the CLOCK algorithm).
+ */
+public class ConcurrentMultiKeyUserCache {
+
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+
+    private final StampedLock lock = new StampedLock();
+    private final LongKeyTable<Entry> byLongId;
+    private final Map<String, Entry> byStringId = new ConcurrentHashMap<>();
+    private final Map<CompositeKey, Entry> byCompositeKey = new ConcurrentHashMap<>();
+    private final ArrayDeque<Entry> clock = new ArrayDeque<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ConcurrentMultiKeyUserCache(int maximumSize, long ttl, TimeUnit unit) {
+        this(maximumSize, ttl, unit, System::nanoTime);
+    }
+
+    ConcurrentMultiKeyUserCache(int maximumSize, long ttl, TimeUnit unit, LongSupplier nanoTime) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.nanoTime = nanoTime;
+        this.byLongId = new LongKeyTable<>(maximumSize);
+    }
+
+    public User getById(long id) {
+        long stamp = lock.tryOptimisticRead();
+        Entry entry = byLongId.get(id);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                entry = byLongId.get(id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return hitOrMiss(entry);
+    }
+
+    public User getById(String id) {
+        return hitOrMiss(byStringId.get(id));
+    }
+
+    public User getByKey(CompositeKey key) {
+        return hitOrMiss(byCompositeKey.get(key));
+    }
+
+    public void storeById(long id, User user) {
+        store(id, null, null, user);
+    }
+
+    /**
+     * Stores {@code user} under all given keys. Entries that held any of the keys before are removed completely, so
+     * one key never leads to an entry that another key of the same user doesn't.
+     *
+     * @param stringId optional string id, may be null
+     * @param compositeKey optional composite key, may be null
+     */
+    public void store(long id, String stringId, CompositeKey compositeKey, User user) {
+        Objects.requireNonNull(user, "user must not be null");
+        Entry entry = new Entry(id, stringId, compositeKey, user, nanoTime.getAsLong() + ttlNanos);
+        long stamp = lock.writeLock();
+        try {
+            removeEntry(byLongId.get(id));
+            if (stringId != null) {
+                removeEntry(byStringId.get(stringId));
+            }
+            if (compositeKey != null) {
+                removeEntry(byCompositeKey.get(compositeKey));
+            }
+            byLongId.put(id, entry);
+            if (stringId != null) {
+                byStringId.put(stringId, entry);
+            }
+            if (compositeKey != null) {
+                byCompositeKey.put(compositeKey, entry);
+            }
+            clock.addLast(entry);
+            evictIfNeeded();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void invalidate(long id) {
+        long stamp = lock.writeLock();
+        try {
+            removeEntry(byLongId.get(id));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes all expired entries. Expired entries are never returned, but without this they only leave the cache
+     * when eviction reaches them.
+     */
+    public void cleanUp() {
+        long now = nanoTime.getAsLong();
+        long stamp = lock.writeLock();
+        try {
+            for (Iterator<Entry> entries = clock.iterator(); entries.hasNext(); ) {
+                Entry entry = entries.next();
+                if (entry.removed || entry.isExpired(now)) {
+                    entries.remove();
+                    if (!entry.removed) {
+                        unlink(entry);
+                        evictions.increment();
+                    }
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return byLongId.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private User hitOrMiss(Entry entry) {
+        if (entry == null || entry.removed || entry.isExpired(nanoTime.getAsLong())) {
+            misses.increment();
+            return null;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        hits.increment();
+        return entry.user;
+    }
+
+    private void evictIfNeeded() {
+        long now = nanoTime.getAsLong();
+        while (byLongId.size() > maximumSize) {
+            Entry candidate = clock.pollFirst();
+            if (candidate.removed) {
+                continue;
+            }
+            if (candidate.referenced && !candidate.isExpired(now)) {
+                // used since it was last looked at, so it gets another round
+                candidate.referenced = false;
+                clock.addLast(candidate);
+                continue;
+            }
+            unlink(candidate);
+            evictions.increment();
+        }
+        // replaced and invalidated entries are only marked, drop them once they make up half of the queue
+        if (clock.size() > 2 * Math.max(byLongId.size(), 16)) {
+            clock.removeIf(entry -> entry.removed);
+        }
+    }
+
+    private void removeEntry(Entry entry) {
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        entry.removed = true;
+        byLongId.remove(entry.longId);
+        if (entry.stringId != null) {
+            byStringId.remove(entry.stringId);
+        }
+        if (entry.compositeKey != null) {
+            byCompositeKey.remove(entry.compositeKey);
+        }
+    }
+
+    private static class Entry {
+
+        final long longId;
+        final String stringId;
+        final CompositeKey compositeKey;
+        final User user;
+        final long expiresAt;
+        // set by lookups without the lock, a lost update merely costs the entry its second chance
+        volatile boolean referenced;
+        volatile boolean removed;
+
+        Entry(long longId, String stringId, CompositeKey compositeKey, User user, long expiresAt) {
+            this.longId = longId;
+            this.stringId = stringId;
+            this.compositeKey = compositeKey;
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    public static class CompositeKey {
+        private final String tenant;
+        private final String name;
+
+        public CompositeKey(String tenant, String name) {
+            this.tenant = Objects.requireNonNull(tenant);
+            this.name = Objects.requireNonNull(name);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CompositeKey that = (CompositeKey) o;
+            return tenant.equals(that.tenant) && name.equals(that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * tenant.hashCode() + name.hashCode();
+        }
+    }
+}
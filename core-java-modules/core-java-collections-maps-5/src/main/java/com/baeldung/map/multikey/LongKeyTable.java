@@ -0,0 +1,126 @@
+package com.baeldung.map.multikey;
+
+/**
+ * Open-addressing table from primitive {@code long} keys to values, so lookups by a numeric id don't box the id into
+ * a {@code Long}. Removal shifts the following entries of the probe sequence back, so no tombstones pile up.
+ * <p>
+ * Writes must not run concurrently with anything else. A {@link #get(long)} racing with a write may return a wrong
+ * result, but always returns: the arrays are replaced together on resize and never filled beyond 75%. That makes it
+ * usable under an optimistic read of a {@link java.util.concurrent.locks.StampedLock}.
+ */
+class LongKeyTable<V> {
+
+    private Slots slots;
+    private int size;
+
+    LongKeyTable(int expectedSize) {
+        this.slots = new Slots(Integer.highestOneBit(Math.max(2, expectedSize * 4 / 3 + 1) - 1) << 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        Slots slots = this.slots;
+        for (int slot = slots.home(key); ; slot = slots.next(slot)) {
+            Object value = slots.values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (slots.keys[slot] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (size + 1 > slots.keys.length / 4 * 3) {
+            resize();
+        }
+        for (int slot = slots.home(key); ; slot = slots.next(slot)) {
+            if (slots.values[slot] == null) {
+                slots.keys[slot] = key;
+                slots.values[slot] = value;
+                size++;
+                return null;
+            }
+            if (slots.keys[slot] == key) {
+                V previous = (V) slots.values[slot];
+                slots.values[slot] = value;
+                return previous;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        for (int slot = slots.home(key); ; slot = slots.next(slot)) {
+            Object value = slots.values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (slots.keys[slot] == key) {
+                shiftBack(slot);
+                size--;
+                return (V) value;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void shiftBack(int gap) {
+        long[] keys = slots.keys;
+        Object[] values = slots.values;
+        for (int slot = slots.next(gap); values[slot] != null; slot = slots.next(slot)) {
+            int home = slots.home(keys[slot]);
+            // the entry may move into the gap unless its home lies cyclically between the gap and its slot
+            boolean homeAfterGap = gap <= slot ? gap < home && home <= slot : gap < home || home <= slot;
+            if (!homeAfterGap) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void resize() {
+        Slots old = slots;
+        Slots grown = new Slots(old.keys.length * 2);
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.values[i] != null) {
+                int slot = grown.home(old.keys[i]);
+                while (grown.values[slot] != null) {
+                    slot = grown.next(slot);
+                }
+                grown.keys[slot] = old.keys[i];
+                grown.values[slot] = old.values[i];
+            }
+        }
+        slots = grown;
+    }
+
+    private static class Slots {
+
+        final long[] keys;
+        final Object[] values;
+        final int mask;
+
+        Slots(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+
+        int home(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        int next(int slot) {
+            return (slot + 1) & mask;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.baeldung.map.bytearrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares heap usage, garbage collection and lookup latency of {@code HashMap<BytesKey, Long>} and
+ * {@link OffHeapBytesMap} holding the same random 16 byte keys. Run with a fixed heap, for example -Xmx4g, and one
+ * map at a time for the cleanest numbers.
+ */
+class OffHeapBytesMapManualTest {
+
+    private static final int KEYS = 5_000_000;
+    private static final int KEY_SIZE = 16;
+    private static final int LOOKUPS = 1_000_000;
+
+    private static Object lastMap;
+
+    @Test
+    void whenFillingBothMaps_thenPrintHeapGcAndLatency() {
+        byte[] keys = randomKeys();
+
+        measure("HashMap<BytesKey, Long>", new Target() {
+            final Map<BytesKey, Long> map = new HashMap<>();
+
+            @Override
+            public void put(byte[] key, long value) {
+                map.put(new BytesKey(key), value);
+            }
+
+            @Override
+            public long get(byte[] key, ByteBuffer slice) {
+                return map.getOrDefault(new BytesKey(key), -1L);
+            }
+
+            @Override
+            public Object retained() {
+                return map;
+            }
+        }, keys);
+
+        measure("OffHeapBytesMap", new Target() {
+            final OffHeapBytesMap map = new OffHeapBytesMap(KEYS);
+
+            @Override
+            public void put(byte[] key, long value) {
+                map.put(key, value);
+            }
+
+            @Override
+            public long get(byte[] key, ByteBuffer slice) {
+                return map.getOrDefault(slice, -1);
+            }
+
+            @Override
+            public Object retained() {
+                System.out.printf("  off-heap: %,d MB%n", map.offHeapBytes() >> 20);
+                return map;
+            }
+        }, keys);
+    }
+
+    private static void measure(String name, Target target, byte[] keys) {
+        System.out.println(name);
+        long heapBefore = usedHeapAfterGc();
+        long[] gcBefore = gcCountAndTime();
+        long start = System.nanoTime();
+        for (int i = 0; i < KEYS; i++) {
+            target.put(Arrays.copyOfRange(keys, i * KEY_SIZE, (i + 1) * KEY_SIZE), i);
+        }
+        long fillMillis = (System.nanoTime() - start) / 1_000_000;
+        long[] gcAfter = gcCountAndTime();
+        System.out.printf("  fill: %,d ms, %d collections taking %,d ms%n", fillMillis, gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+
+        Random random = new Random(1);
+        ByteBuffer all = ByteBuffer.wrap(keys);
+        long[] latencies = new long[LOOKUPS];
+        long found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            int index = random.nextInt(KEYS);
+            byte[] key = Arrays.copyOfRange(keys, index * KEY_SIZE, (index + 1) * KEY_SIZE);
+            ByteBuffer slice = all.duplicate();
+            slice.position(index * KEY_SIZE)
+                .limit((index + 1) * KEY_SIZE);
+            long lookupStart = System.nanoTime();
+            found += target.get(key, slice) >= 0 ? 1 : 0;
+            latencies[i] = System.nanoTime() - lookupStart;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("  lookups: %d found, p50 %d ns, p99 %d ns, p99.9 %d ns%n", found, latencies[LOOKUPS / 2], latencies[LOOKUPS / 100 * 99],
+            latencies[LOOKUPS / 1000 * 999]);
+
+        // keeps the map reachable while the heap is measured
+        lastMap = target.retained();
+        System.out.printf("  retained heap: %,d MB%n", (usedHeapAfterGc() - heapBefore) >> 20);
+        lastMap = null;
+    }
+
+    private static byte[] randomKeys() {
+        byte[] keys = new byte[KEYS * KEY_SIZE];
+        new Random(0).nextBytes(keys);
+        return keys;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long[] gcCountAndTime() {
+        long[] countAndTime = new long[2];
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            countAndTime[0] += gc.getCollectionCount();
+            countAndTime[1] += gc.getCollectionTime();
+        }
+        return countAndTime;
+    }
+
+    private interface Target {
+
+        void put(byte[] key, long value);
+
+        long get(byte[] key, ByteBuffer slice);
+
+        Object retained();
+    }
+}
@@ -0,0 +1,136 @@
+package com.baeldung.map.bytearrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffHeapBytesMapUnitTest {
+
+    @Test
+    void givenEqualByteArrayKeys_whenRetrievingFromMap_shouldFindTheSameEntry() {
+        // given
+        OffHeapBytesMap map = new OffHeapBytesMap(1, 4, 1024);
+        byte[] key1 = {1, 2, 3};
+        byte[] key2 = {1, 2, 3};
+
+        // when
+        boolean added1 = map.put(key1, 1);
+        boolean added2 = map.put(key2, 2);
+
+        // then
+        assertThat(added1).isTrue();
+        assertThat(added2).isFalse();
+        assertThat(map.getOrDefault(new byte[]{1, 2, 3}, -1)).isEqualTo(2);
+        assertThat(map.getOrDefault(new byte[]{1, 2}, -1)).isEqualTo(-1);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void givenExistingKey_whenPutIfAbsent_shouldKeepTheFirstValue() {
+        // given
+        OffHeapBytesMap map = new OffHeapBytesMap(100);
+        map.putIfAbsent(bytes("key"), 1);
+
+        // when
+        boolean added = map.putIfAbsent(bytes("key"), 2);
+
+        // then
+        assertThat(added).isFalse();
+        assertThat(map.getOrDefault(bytes("key"), -1)).isEqualTo(1);
+    }
+
+    @Test
+    void givenKeyInsideALargerBuffer_whenLookingUpASlice_shouldFindItWithoutCopying() {
+        // given
+        OffHeapBytesMap map = new OffHeapBytesMap(100);
+        map.put(bytes("needle"), 42);
+        ByteBuffer haystack = ByteBuffer.wrap(bytes("hay-needle-hay"));
+        haystack.position(4)
+            .limit(10);
+
+        // when
+        long value = map.getOrDefault(haystack, -1);
+
+        // then
+        assertThat(value).isEqualTo(42);
+        assertThat(haystack.position()).isEqualTo(4);
+        assertThat(map.containsKey(haystack)).isTrue();
+    }
+
+    @Test
+    void givenManyKeys_whenTablesGrowAndPagesFillUp_shouldFindEveryKey() {
+        // given
+        OffHeapBytesMap map = new OffHeapBytesMap(4, 2, 256);
+
+        // when
+        for (int i = 0; i < 50_000; i++) {
+            map.put(bytes("key-" + i), i);
+        }
+
+        // then
+        assertThat(map.size()).isEqualTo(50_000);
+        for (int i = 0; i < 50_000; i++) {
+            assertThat(map.getOrDefault(bytes("key-" + i), -1)).isEqualTo(i);
+        }
+        assertThat(map.containsKey(bytes("key-50000"))).isFalse();
+        assertThat(map.offHeapBytes()).isGreaterThan(50_000L * 8);
+    }
+
+    @Test
+    void givenConcurrentWriters_whenAddingOverlappingKeys_shouldKeepEveryKeyOnce() throws Exception {
+        // given
+        OffHeapBytesMap map = new OffHeapBytesMap(16, 16, 4096);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> added = new ArrayList<>();
+
+        // when
+        for (int thread = 0; thread < 4; thread++) {
+            added.add(executor.submit(() -> {
+                int count = 0;
+                for (int i = 0; i < 20_000; i++) {
+                    if (map.putIfAbsent(bytes("key-" + i), i)) {
+                        count++;
+                    }
+                }
+                return count;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> result : added) {
+            total += result.get();
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(total).isEqualTo(20_000);
+        assertThat(map.size()).isEqualTo(20_000);
+    }
+
+    @Test
+    void givenKeyLargerThanAPage_whenPut_shouldBeRejected() {
+        OffHeapBytesMap map = new OffHeapBytesMap(1, 4, 64);
+
+        assertThatThrownBy(() -> map.put(new byte[57], 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenClosedMap_whenRetrieving_shouldFail() {
+        OffHeapBytesMap map = new OffHeapBytesMap(10);
+        map.close();
+
+        assertThatThrownBy(() -> map.getOrDefault(bytes("key"), -1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,92 @@
+package com.baeldung.map.multikey;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConcurrentMultiKeyUserCacheUnitTest {
+    private final AtomicLong now = new AtomicLong();
+    private ConcurrentMultiKeyUserCache cache;
+
+    @BeforeEach
+    public void setup() {
+        cache = new ConcurrentMultiKeyUserCache(3, 10, TimeUnit.SECONDS, now::get);
+        cache.store(1L, "a", new ConcurrentMultiKeyUserCache.CompositeKey("acme", "alice"), new User("User A"));
+        cache.store(2L, "b", null, new User("User B"));
+    }
+
+    @Test
+    public void getByEveryKey() {
+        assertEquals("User A", cache.getById(1L).getName());
+        assertEquals("User A", cache.getById("a").getName());
+        assertEquals("User A", cache.getByKey(new ConcurrentMultiKeyUserCache.CompositeKey("acme", "alice")).getName());
+        assertNull(cache.getById("c"));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void storeReplacesEntriesSharingAKey() {
+        cache.store(3L, "a", null, new User("User A2"));
+
+        assertEquals("User A2", cache.getById("a").getName());
+        assertNull(cache.getById(1L));
+        assertNull(cache.getByKey(new ConcurrentMultiKeyUserCache.CompositeKey("acme", "alice")));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void expiredEntriesAreMissesAndCleanedUp() {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertNull(cache.getById(1L));
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void fullCacheEvictsTheEntryNotUsedRecentlyFromEveryIndex() {
+        cache.storeById(3L, new User("User 3"));
+        assertNotNull(cache.getById(1L));
+
+        cache.store(4L, "d", null, new User("User 4"));
+
+        assertEquals(3, cache.size());
+        assertNull(cache.getById(2L));
+        assertNull(cache.getById("b"));
+        assertNotNull(cache.getById("a"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void invalidateRemovesEveryKey() {
+        cache.invalidate(1L);
+
+        assertNull(cache.getById("a"));
+        assertNull(cache.getByKey(new ConcurrentMultiKeyUserCache.CompositeKey("acme", "alice")));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void longKeyTableKeepsProbeSequencesAfterRemoval() {
+        LongKeyTable<String> table = new LongKeyTable<>(4);
+        for (long i = 0; i < 1000; i++) {
+            table.put(i * 1024, "v" + i);
+        }
+        for (long i = 0; i < 1000; i += 2) {
+            assertEquals("v" + i, table.remove(i * 1024));
+        }
+
+        assertEquals(500, table.size());
+        for (long i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 0 ? null : "v" + i, table.get(i * 1024));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.baeldung.map.multikey;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Prints lookups per second by long and by string id for the caches of this package, all holding the same users.
+ */
+class MultiKeyUserCacheManualTest {
+
+    private static final int USERS = 100_000;
+    private static final int ROUNDS = 30;
+
+    @Test
+    void whenLookingUpUsers_thenThroughputIsPrinted() {
+        String[] stringIds = new String[USERS];
+        User[] users = new User[USERS];
+        for (int i = 0; i < USERS; i++) {
+            stringIds[i] = "user-" + i;
+            users[i] = new User("User " + i);
+        }
+
+        MultipleMapsUserCache multipleMaps = new MultipleMapsUserCache();
+        BaseClassUserCache baseClass = new BaseClassUserCache();
+        WrapperClassUserCache wrapperClass = new WrapperClassUserCache();
+        WrapperInterfaceUserCache wrapperInterface = new WrapperInterfaceUserCache();
+        ConcurrentMultiKeyUserCache concurrent = new ConcurrentMultiKeyUserCache(USERS, 1, TimeUnit.HOURS);
+        for (int i = 0; i < USERS; i++) {
+            multipleMaps.storeById((long) i, users[i]);
+            multipleMaps.storeById(stringIds[i], users[i]);
+            baseClass.storeById((long) i, users[i]);
+            baseClass.storeById(stringIds[i], users[i]);
+            wrapperClass.storeById(new WrapperClassUserCache.CacheKey((long) i), users[i]);
+            wrapperClass.storeById(new WrapperClassUserCache.CacheKey(stringIds[i]), users[i]);
+            wrapperInterface.storeById(new WrapperInterfaceUserCache.LongCacheKey((long) i), users[i]);
+            wrapperInterface.storeById(new WrapperInterfaceUserCache.StringCacheKey(stringIds[i]), users[i]);
+            concurrent.store(i, stringIds[i], null, users[i]);
+        }
+
+        measure("MultipleMapsUserCache", id -> multipleMaps.getById(id), index -> found(multipleMaps.getById(stringIds[index])));
+        measure("BaseClassUserCache", id -> baseClass.getById(id), index -> found(baseClass.getById(stringIds[index])));
+        measure("WrapperClassUserCache", id -> wrapperClass.getById(new WrapperClassUserCache.CacheKey(id)),
+            index -> found(wrapperClass.getById(new WrapperClassUserCache.CacheKey(stringIds[index]))));
+        measure("WrapperInterfaceUserCache", id -> wrapperInterface.getById(new WrapperInterfaceUserCache.LongCacheKey(id)),
+            index -> found(wrapperInterface.getById(new WrapperInterfaceUserCache.StringCacheKey(stringIds[index]))));
+        measure("ConcurrentMultiKeyUserCache", concurrent::getById, index -> found(concurrent.getById(stringIds[index])));
+    }
+
+    private static void measure(String name, LongFunction<User> byLong, ToIntFunction<Integer> byString) {
+        double longRate = 0;
+        double stringRate = 0;
+        // the first half of the rounds warms up
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (int i = 0; i < USERS; i++) {
+                found += found(byLong.apply(i));
+            }
+            long longNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < USERS; i++) {
+                found += byString.applyAsInt(i);
+            }
+            long stringNanos = System.nanoTime() - start;
+            if (found != 2 * USERS) {
+                throw new IllegalStateException(name + " lost users");
+            }
+            if (round >= ROUNDS / 2) {
+                longRate += USERS * 1e9 / longNanos / (ROUNDS - ROUNDS / 2);
+                stringRate += USERS * 1e9 / stringNanos / (ROUNDS - ROUNDS / 2);
+            }
+        }
+        System.out.printf("%-28s by long id %,12.0f/s   by string id %,12.0f/s%n", name, longRate, stringRate);
+    }
+
+    private static int found(User user) {
+        return user == null ? 0 : 1;
+    }
+}
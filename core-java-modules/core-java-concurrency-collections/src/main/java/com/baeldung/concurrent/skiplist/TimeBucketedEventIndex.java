@@ -0,0 +1,240 @@
+package com.baeldung.concurrent.skiplist;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sliding-window alternative to {@link EventWindowSort}: instead of one skip list keyed by boxed
+ * {@link java.time.ZonedDateTime}s, events go into a ring of time buckets that hold primitive epoch-millisecond
+ * timestamps. Appends only claim a slot with an atomic increment, and a bucket that falls out of the window is
+ * evicted in O(1) by swapping in a fresh segment when its slot in the ring is reused.
+ * <p>
+ * Every bucket keeps a running count, sum, min and max, so ranges that cover whole buckets are answered from those
+ * aggregates, and only the buckets at the edges of a range are scanned.
+ */
+class TimeBucketedEventIndex {
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    // a timestamp slot holding this value was claimed but not written yet
+    private static final long UNPUBLISHED = Long.MIN_VALUE;
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int maxChunksPerBucket;
+    private final AtomicReferenceArray<Segment> ring;
+
+    /**
+     * @param bucketMillis the time span of one bucket
+     * @param bucketCount how many buckets are kept, the window covers {@code bucketMillis * bucketCount}
+     * @param maxEventsPerBucket events beyond this number in one bucket are rejected
+     */
+    TimeBucketedEventIndex(long bucketMillis, int bucketCount, int maxEventsPerBucket) {
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+        this.maxChunksPerBucket = (int) (((long) maxEventsPerBucket + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+        this.ring = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    void acceptEvent(Event event) {
+        append(event.getEventTime()
+          .toInstant()
+          .toEpochMilli(), 1);
+    }
+
+    /**
+     * @return false when the timestamp is older than the window or its bucket is full
+     */
+    boolean append(long epochMillis, long value) {
+        Segment segment = segmentFor(Math.floorDiv(epochMillis, bucketMillis));
+        return segment != null && segment.append(epochMillis, value);
+    }
+
+    long countFromLastMinute() {
+        long now = System.currentTimeMillis();
+        return count(now - 60_000, now + 1);
+    }
+
+    long count(long fromMillis, long toMillis) {
+        return aggregate(fromMillis, toMillis).getCount();
+    }
+
+    /**
+     * Aggregates the events with {@code fromMillis <= timestamp < toMillis}.
+     */
+    WindowAggregate aggregate(long fromMillis, long toMillis) {
+        WindowAggregate result = new WindowAggregate();
+        if (fromMillis >= toMillis) {
+            return result;
+        }
+        long firstBucket = Math.floorDiv(fromMillis, bucketMillis);
+        long lastBucket = Math.floorDiv(toMillis - 1, bucketMillis);
+        // older buckets than the ring can hold have been evicted
+        firstBucket = Math.max(firstBucket, lastBucket - bucketCount + 1);
+        for (long bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            Segment segment = ring.get(slot(bucket));
+            if (segment == null || segment.bucket != bucket) {
+                continue;
+            }
+            long bucketStart = bucket * bucketMillis;
+            if (fromMillis <= bucketStart && bucketStart + bucketMillis <= toMillis) {
+                segment.addTotalsTo(result);
+            } else {
+                segment.scan(fromMillis, toMillis, result);
+            }
+        }
+        return result;
+    }
+
+    private Segment segmentFor(long bucket) {
+        int slot = slot(bucket);
+        while (true) {
+            Segment current = ring.get(slot);
+            if (current != null && current.bucket == bucket) {
+                return current;
+            }
+            if (current != null && current.bucket > bucket) {
+                return null;
+            }
+            // the slot is empty or holds a bucket that left the window: replacing it is the eviction
+            Segment fresh = new Segment(bucket, maxChunksPerBucket);
+            if (ring.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) bucketCount);
+    }
+
+    static class WindowAggregate {
+
+        private long count;
+        private long sum;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        private void add(long count, long sum, long min, long max) {
+            this.count += count;
+            this.sum += sum;
+            this.min = Math.min(this.min, min);
+            this.max = Math.max(this.max, max);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        long getSum() {
+            return sum;
+        }
+
+        long getMin() {
+            return min;
+        }
+
+        long getMax() {
+            return max;
+        }
+
+        double getAverage() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+    }
+
+    private static class Segment {
+
+        final long bucket;
+        final AtomicReferenceArray<AtomicLongArray[]> chunks;
+        final long capacity;
+        final AtomicInteger cursor = new AtomicInteger();
+        final LongAdder count = new LongAdder();
+        final LongAdder sum = new LongAdder();
+        final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+        Segment(long bucket, int maxChunks) {
+            this.bucket = bucket;
+            this.chunks = new AtomicReferenceArray<>(maxChunks);
+            this.capacity = Math.min(Integer.MAX_VALUE, (long) maxChunks * CHUNK_SIZE);
+        }
+
+        boolean append(long epochMillis, long value) {
+            // checking first keeps the cursor of a full bucket from growing until it overflows
+            if (cursor.get() >= capacity) {
+                return false;
+            }
+            int index = cursor.getAndIncrement();
+            if (index >= capacity) {
+                return false;
+            }
+            AtomicLongArray[] chunk = chunk(index >>> CHUNK_SHIFT);
+            int offset = index & (CHUNK_SIZE - 1);
+            chunk[1].lazySet(offset, value);
+            // the timestamp is written last, it marks the slot as readable
+            chunk[0].lazySet(offset, epochMillis);
+
+            count.increment();
+            sum.add(value);
+            updateMin(value);
+            updateMax(value);
+            return true;
+        }
+
+        void addTotalsTo(WindowAggregate result) {
+            long total = count.sum();
+            if (total > 0) {
+                result.add(total, sum.sum(), min.get(), max.get());
+            }
+        }
+
+        void scan(long fromMillis, long toMillis, WindowAggregate result) {
+            int claimed = (int) Math.min(cursor.get(), capacity);
+            for (int index = 0; index < claimed; index++) {
+                AtomicLongArray[] chunk = chunks.get(index >>> CHUNK_SHIFT);
+                if (chunk == null) {
+                    // the chunk is still being created by the first writer into it
+                    index |= CHUNK_SIZE - 1;
+                    continue;
+                }
+                int offset = index & (CHUNK_SIZE - 1);
+                long timestamp = chunk[0].get(offset);
+                if (timestamp != UNPUBLISHED && fromMillis <= timestamp && timestamp < toMillis) {
+                    long value = chunk[1].get(offset);
+                    result.add(1, value, value, value);
+                }
+            }
+        }
+
+        private AtomicLongArray[] chunk(int chunkIndex) {
+            AtomicLongArray[] chunk = chunks.get(chunkIndex);
+            if (chunk == null) {
+                AtomicLongArray timestamps = new AtomicLongArray(CHUNK_SIZE);
+                for (int i = 0; i < CHUNK_SIZE; i++) {
+                    timestamps.lazySet(i, UNPUBLISHED);
+                }
+                AtomicLongArray[] created = { timestamps, new AtomicLongArray(CHUNK_SIZE) };
+                chunk = chunks.compareAndSet(chunkIndex, null, created) ? created : chunks.get(chunkIndex);
+            }
+            return chunk;
+        }
+
+        private void updateMin(long value) {
+            long current;
+            while (value < (current = min.get()) && !min.compareAndSet(current, value)) {
+                // retry with the new minimum
+            }
+        }
+
+        private void updateMax(long value) {
+            long current;
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                // retry with the new maximum
+            }
+        }
+    }
+}
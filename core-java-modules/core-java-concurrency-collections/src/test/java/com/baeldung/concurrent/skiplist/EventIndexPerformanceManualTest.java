@@ -0,0 +1,62 @@
+package com.baeldung.concurrent.skiplist;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Appends events from several threads and prints the throughput of {@link EventWindowSort} and
+ * {@link TimeBucketedEventIndex}, followed by the time of counting the last minute of events.
+ * The skip list also has to box every timestamp into a {@link ZonedDateTime}, as its API requires.
+ */
+public class EventIndexPerformanceManualTest {
+
+    private static final int THREADS = 4;
+    private static final int EVENTS_PER_THREAD = 2_000_000;
+
+    @Test
+    public void givenProducers_whenAppendingEvents_thenCompareThroughput() throws InterruptedException {
+        EventWindowSort skipList = new EventWindowSort();
+        TimeBucketedEventIndex buckets = new TimeBucketedEventIndex(1000, 120, 4 * 1024 * 1024);
+
+        for (int round = 0; round < 3; round++) {
+            long skipListNanos = timeAppends(timestamp -> skipList.acceptEvent(new Event(ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC), "event")));
+            long bucketNanos = timeAppends(timestamp -> buckets.append(timestamp, 1));
+            System.out.printf("skip list: %,.0f events/s, buckets: %,.0f events/s%n", eventsPerSecond(skipListNanos), eventsPerSecond(bucketNanos));
+        }
+
+        long start = System.nanoTime();
+        int skipListCount = skipList.getEventsFromLastMinute()
+          .size();
+        long skipListQuery = System.nanoTime() - start;
+        start = System.nanoTime();
+        long bucketCount = buckets.countFromLastMinute();
+        long bucketQuery = System.nanoTime() - start;
+        System.out.printf("last minute: skip list %,d distinct timestamps in %,d us, buckets %,d events in %,d us%n", skipListCount, skipListQuery / 1000, bucketCount, bucketQuery / 1000);
+    }
+
+    private static long timeAppends(LongConsumer append) throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int i = 0; i < THREADS; i++) {
+            executorService.execute(() -> {
+                for (int n = 0; n < EVENTS_PER_THREAD; n++) {
+                    append.accept(System.currentTimeMillis() - (n & 0x7FFF));
+                }
+            });
+        }
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+
+    private static double eventsPerSecond(long nanos) {
+        return (double) THREADS * EVENTS_PER_THREAD / nanos * 1e9;
+    }
+}
@@ -0,0 +1,80 @@
+package com.baeldung.concurrent.skiplist;
+
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimeBucketedEventIndexUnitTest {
+
+    @Test
+    public void givenEventsInSeveralBuckets_whenAggregatingRange_thenOnlyEventsInRangeAreCounted() {
+        TimeBucketedEventIndex index = new TimeBucketedEventIndex(1000, 10, 10_000);
+        for (long timestamp = 0; timestamp < 5000; timestamp += 10) {
+            index.append(timestamp, timestamp / 10);
+        }
+
+        // 1000-2999 are whole buckets, 555-999 and 3000-3454 are scanned
+        TimeBucketedEventIndex.WindowAggregate aggregate = index.aggregate(555, 3455);
+
+        assertEquals(290, aggregate.getCount());
+        assertEquals(56, aggregate.getMin());
+        assertEquals(345, aggregate.getMax());
+        assertEquals(IntStream.rangeClosed(56, 345)
+          .sum(), aggregate.getSum());
+    }
+
+    @Test
+    public void givenWindowMovedOn_whenAggregating_thenOldBucketsAreEvicted() {
+        TimeBucketedEventIndex index = new TimeBucketedEventIndex(1000, 3, 10_000);
+        index.append(500, 1);
+        index.append(1500, 1);
+
+        // bucket 3 reuses the ring slot of bucket 0
+        assertTrue(index.append(3500, 1));
+
+        assertEquals(0, index.count(0, 1000));
+        assertEquals(2, index.count(0, 4000));
+        assertFalse(index.append(200, 1));
+    }
+
+    @Test
+    public void givenFullBucket_whenAppending_thenEventIsRejected() {
+        TimeBucketedEventIndex index = new TimeBucketedEventIndex(1000, 3, 1);
+
+        assertTrue(index.append(10, 1));
+        // capacity is rounded up to a whole chunk of 4096 events
+        IntStream.range(1, 4096)
+          .forEach(i -> index.append(10, 1));
+
+        assertFalse(index.append(10, 1));
+        assertEquals(4096, index.count(0, 1000));
+    }
+
+    @Test
+    public void givenConcurrentProducers_whenCountingFromLastMinute_thenNoEventIsLost() throws Exception {
+        TimeBucketedEventIndex index = new TimeBucketedEventIndex(1000, 120, 1_000_000);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Future<?>> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            producers.add(executorService.submit(() -> IntStream.range(0, 25_000)
+              .forEach(n -> index.acceptEvent(new Event(ZonedDateTime.now()
+                .minusSeconds(n % 30), "event")))));
+        }
+        for (Future<?> producer : producers) {
+            producer.get();
+        }
+        executorService.shutdown();
+
+        assertEquals(100_000, index.countFromLastMinute());
+    }
+}
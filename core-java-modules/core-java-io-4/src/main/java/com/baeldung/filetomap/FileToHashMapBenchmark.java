@@ -0,0 +1,106 @@
+package com.baeldung.filetomap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the load time of {@link FileToHashMap} with {@link MappedFileIndex}. Run with {@code -prof gc} to see
+ * the allocation rate; {@link #main(String[])} additionally prints the heap retained by each loaded structure.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class FileToHashMapBenchmark {
+
+    @Param({ "1000000" })
+    public int lines;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        file = generateFile(lines);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Map<String, String> byBufferedReader() {
+        return FileToHashMap.byBufferedReader(file.toString(), FileToHashMap.DupKeyOption.OVERWRITE);
+    }
+
+    @Benchmark
+    public Map<String, String> byStream() {
+        return FileToHashMap.byStream(file.toString(), FileToHashMap.DupKeyOption.OVERWRITE);
+    }
+
+    @Benchmark
+    public int byMappedFileIndex() throws IOException {
+        try (MappedFileIndex index = MappedFileIndex.load(file.toString(), FileToHashMap.DupKeyOption.OVERWRITE)) {
+            return index.size();
+        }
+    }
+
+    static Path generateFile(int lines) throws IOException {
+        Path path = Files.createTempFile("filetomap", ".txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < lines; i++) {
+                writer.write("key" + i + ":value of line " + i);
+                writer.newLine();
+            }
+        }
+        return path;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path file = generateFile(args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000);
+        try {
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+            long before = usedHeap(memory);
+            Map<String, String> map = FileToHashMap.byBufferedReader(file.toString(), FileToHashMap.DupKeyOption.OVERWRITE);
+            System.out.printf("HashMap:         %,d entries, %,d bytes retained on heap%n", map.size(), usedHeap(memory) - before);
+            map = null;
+
+            before = usedHeap(memory);
+            try (MappedFileIndex index = MappedFileIndex.load(file.toString(), FileToHashMap.DupKeyOption.OVERWRITE)) {
+                System.out.printf("MappedFileIndex: %,d entries, %,d bytes retained on heap%n", index.size(), usedHeap(memory) - before);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        org.openjdk.jmh.Main.main(new String[] { FileToHashMapBenchmark.class.getSimpleName() });
+    }
+
+    private static long usedHeap(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage()
+            .getUsed();
+    }
+}
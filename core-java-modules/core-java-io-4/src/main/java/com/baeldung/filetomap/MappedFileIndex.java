@@ -0,0 +1,319 @@
+package com.baeldung.filetomap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Read-only view of a {@code key:value} file that keeps the file memory-mapped and only indexes the byte offsets
+ * of every entry. The file is split into newline-aligned chunks which are parsed in parallel, and the offsets are
+ * stored in an open-addressing table living in a direct buffer. Values are decoded straight from the mapping on
+ * every {@link #get(String)}.
+ */
+public class MappedFileIndex implements AutoCloseable {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    // chunk, position in chunk, key length, value length
+    private static final int SLOT_SIZE = 4 * Integer.BYTES;
+
+    // the table is a single direct buffer of at most Integer.MAX_VALUE bytes, and its capacity a power of two
+    static final int MAX_CAPACITY = Integer.highestOneBit(Integer.MAX_VALUE / SLOT_SIZE);
+
+    private final MappedByteBuffer[] chunks;
+    private final ByteBuffer table;
+    // a slot can't be told empty from its content, as keys may be empty
+    private final BitSet occupied;
+    private final int mask;
+    private int size;
+    private volatile boolean closed;
+
+    private MappedFileIndex(MappedByteBuffer[] chunks, int capacity) {
+        this.chunks = chunks;
+        this.table = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+        this.occupied = new BitSet(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public static MappedFileIndex load(String filePath, FileToHashMap.DupKeyOption dupKeyOption) throws IOException {
+        return load(Paths.get(filePath), dupKeyOption, DEFAULT_CHUNK_SIZE, Runtime.getRuntime()
+            .availableProcessors());
+    }
+
+    static MappedFileIndex load(Path path, FileToHashMap.DupKeyOption dupKeyOption, int chunkSize, int parallelism) throws IOException {
+        MappedByteBuffer[] chunks = mapChunks(path, chunkSize);
+        ChunkEntries[] entries = parseChunks(chunks, parallelism);
+
+        long total = 0;
+        for (ChunkEntries chunkEntries : entries) {
+            total += chunkEntries.count;
+        }
+        MappedFileIndex index = new MappedFileIndex(chunks, tableCapacity(total));
+
+        // chunks are merged in file order, so OVERWRITE keeps the last value and DISCARD the first one
+        for (int chunk = 0; chunk < entries.length; chunk++) {
+            ChunkEntries chunkEntries = entries[chunk];
+            for (int i = 0; i < chunkEntries.count; i++) {
+                int[] data = chunkEntries.data;
+                int base = i * ChunkEntries.FIELDS;
+                if (index.insert(chunk, data[base], data[base + 1], data[base + 2], data[base + 3], dupKeyOption)) {
+                    index.size++;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @throws IllegalStateException if the index has been closed, also when it's closed during the lookup
+     */
+    public String get(String key) {
+        if (closed) {
+            throw closedException();
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(keyBytes);
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            if (!occupied.get(slot)) {
+                return null;
+            }
+            int offset = slot * SLOT_SIZE;
+            int keyLength = table.getInt(offset + 8);
+            if (keyLength != keyBytes.length) {
+                continue;
+            }
+            ByteBuffer chunk = chunks[table.getInt(offset)];
+            if (chunk == null) {
+                throw closedException();
+            }
+            int position = table.getInt(offset + 4);
+            if (equalsAt(chunk, position, keyBytes)) {
+                return decode(chunk, position + keyLength + 1, table.getInt(offset + 12));
+            }
+        }
+    }
+
+    public boolean containsKey(String key) {
+        return get(key) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drops the references to the mapped chunks. The mapping itself is released by the garbage collector, as
+     * Java offers no public API to unmap a {@link MappedByteBuffer} eagerly. Lookups running at the same time
+     * either complete or fail with an {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Arrays.fill(chunks, null);
+    }
+
+    private static IllegalStateException closedException() {
+        return new IllegalStateException("Index has been closed");
+    }
+
+    /**
+     * @return the smallest power of two that keeps the table at most 75% full
+     * @throws IllegalArgumentException if that table wouldn't fit in a direct buffer
+     */
+    static int tableCapacity(long entries) {
+        long minimum = Math.max(2, (entries * 4 + 2) / 3);
+        long capacity = Long.highestOneBit(minimum - 1) << 1;
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many entries to index: " + entries + ", at most " + MAX_CAPACITY / 4 * 3 + " are supported");
+        }
+        return (int) capacity;
+    }
+
+    private boolean insert(int chunk, int position, int keyLength, int valueLength, int hash, FileToHashMap.DupKeyOption dupKeyOption) {
+        ByteBuffer source = chunks[chunk];
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int offset = slot * SLOT_SIZE;
+            if (!occupied.get(slot)) {
+                occupied.set(slot);
+                writeSlot(offset, chunk, position, keyLength, valueLength);
+                return true;
+            }
+            int slotKeyLength = table.getInt(offset + 8);
+            if (slotKeyLength == keyLength && sameBytes(chunks[table.getInt(offset)], table.getInt(offset + 4), source, position, keyLength)) {
+                if (FileToHashMap.DupKeyOption.OVERWRITE == dupKeyOption) {
+                    writeSlot(offset, chunk, position, keyLength, valueLength);
+                }
+                return false;
+            }
+        }
+    }
+
+    private void writeSlot(int offset, int chunk, int position, int keyLength, int valueLength) {
+        table.putInt(offset, chunk);
+        table.putInt(offset + 4, position);
+        table.putInt(offset + 8, keyLength);
+        table.putInt(offset + 12, valueLength);
+    }
+
+    private static MappedByteBuffer[] mapChunks(Path path, int chunkSize) throws IOException {
+        List<MappedByteBuffer> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long start = 0;
+            while (start < fileSize) {
+                long end = Math.min(fileSize, start + chunkSize);
+                if (end < fileSize) {
+                    end = nextLineStart(channel, end, fileSize);
+                }
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+        }
+        return chunks.toArray(new MappedByteBuffer[0]);
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long fileSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < fileSize) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return fileSize;
+    }
+
+    private static ChunkEntries[] parseChunks(MappedByteBuffer[] chunks, int parallelism) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, chunks.length)));
+        try {
+            List<Future<ChunkEntries>> futures = new ArrayList<>(chunks.length);
+            for (MappedByteBuffer chunk : chunks) {
+                futures.add(executor.submit(() -> parseChunk(chunk)));
+            }
+            ChunkEntries[] entries = new ChunkEntries[chunks.length];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = futures.get(i)
+                    .get();
+            }
+            return entries;
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            throw new IOException("Interrupted while indexing file", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to index file", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static ChunkEntries parseChunk(ByteBuffer chunk) {
+        ChunkEntries entries = new ChunkEntries();
+        int limit = chunk.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int separator = -1;
+            int hash = 0;
+            int position = lineStart;
+            while (position < limit) {
+                byte b = chunk.get(position);
+                if (b == '\n') {
+                    break;
+                }
+                if (separator < 0) {
+                    if (b == ':') {
+                        separator = position;
+                    } else {
+                        hash = 31 * hash + b;
+                    }
+                }
+                position++;
+            }
+            int lineEnd = position;
+            if (lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (separator >= lineStart) {
+                entries.add(lineStart, separator - lineStart, lineEnd - separator - 1, mix(hash));
+            }
+            lineStart = position + 1;
+        }
+        return entries;
+    }
+
+    static int hash(byte[] bytes) {
+        int hash = 0;
+        for (byte b : bytes) {
+            hash = 31 * hash + b;
+        }
+        return mix(hash);
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equalsAt(ByteBuffer chunk, int position, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (chunk.get(position + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameBytes(ByteBuffer left, int leftPosition, ByteBuffer right, int rightPosition, int length) {
+        for (int i = 0; i < length; i++) {
+            if (left.get(leftPosition + i) != right.get(rightPosition + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(ByteBuffer chunk, int position, int length) {
+        // decodes from a slice of the mapping, no intermediate byte[] copy of the value is made
+        ByteBuffer value = chunk.duplicate();
+        value.position(position)
+            .limit(position + length);
+        return StandardCharsets.UTF_8.decode(value)
+            .toString();
+    }
+
+    static class ChunkEntries {
+
+        static final int FIELDS = 4;
+
+        int[] data = new int[FIELDS * 1024];
+        int count;
+
+        void add(int position, int keyLength, int valueLength, int hash) {
+            int base = count * FIELDS;
+            if (base + FIELDS > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[base] = position;
+            data[base + 1] = keyLength;
+            data[base + 2] = valueLength;
+            data[base + 3] = hash;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.baeldung.md5checksum;
+
+import com.google.common.hash.Hashing;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.XXHash32;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Supplier;
+import java.util.zip.Checksum;
+
+public enum ChecksumAlgorithm {
+
+    MD5("MD5"),
+    SHA_256("SHA-256"),
+    CRC32C(() -> new GuavaChecksum(Hashing.crc32c())),
+    XXHASH32(XXHash32::new);
+
+    private final String digestName;
+    private final Supplier<Checksum> checksumFactory;
+
+    ChecksumAlgorithm(String digestName) {
+        this.digestName = digestName;
+        this.checksumFactory = null;
+    }
+
+    ChecksumAlgorithm(Supplier<Checksum> checksumFactory) {
+        this.digestName = null;
+        this.checksumFactory = checksumFactory;
+    }
+
+    /**
+     * Only cryptographic digests can be combined into a tree hash, plain checksums are not meant to be chained.
+     */
+    public boolean isMessageDigest() {
+        return digestName != null;
+    }
+
+    MessageDigest newMessageDigest() {
+        if (!isMessageDigest()) {
+            throw new IllegalArgumentException(name() + " is not a message digest");
+        }
+        try {
+            return MessageDigest.getInstance(digestName);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every JVM has to support " + digestName, e);
+        }
+    }
+
+    Hasher newHasher() {
+        if (isMessageDigest()) {
+            MessageDigest digest = newMessageDigest();
+            return new Hasher() {
+                @Override
+                public void update(byte[] bytes, int offset, int length) {
+                    digest.update(bytes, offset, length);
+                }
+
+                @Override
+                public String hex() {
+                    return Hex.encodeHexString(digest.digest());
+                }
+            };
+        }
+        Checksum checksum = checksumFactory.get();
+        return new Hasher() {
+            @Override
+            public void update(byte[] bytes, int offset, int length) {
+                checksum.update(bytes, offset, length);
+            }
+
+            @Override
+            public String hex() {
+                return String.format("%08x", checksum.getValue());
+            }
+        };
+    }
+
+    interface Hasher {
+
+        void update(byte[] bytes, int offset, int length);
+
+        String hex();
+    }
+
+    /**
+     * {@code java.util.zip.CRC32C} only exists since Java 9, Guava provides the same checksum on Java 8.
+     * <p>
+     * A Guava hasher can only be hashed once, so the value is kept until {@link #reset()}, and the checksum can't be
+     * updated any further once it has been read.
+     */
+    private static class GuavaChecksum implements Checksum {
+
+        private final com.google.common.hash.HashFunction function;
+        private com.google.common.hash.Hasher hasher;
+        private com.google.common.hash.HashCode value;
+
+        GuavaChecksum(com.google.common.hash.HashFunction function) {
+            this.function = function;
+            reset();
+        }
+
+        @Override
+        public void update(int b) {
+            checkNotHashed();
+            hasher.putByte((byte) b);
+        }
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            checkNotHashed();
+            hasher.putBytes(bytes, offset, length);
+        }
+
+        private void checkNotHashed() {
+            if (value != null) {
+                throw new IllegalStateException("The checksum has been read already, reset it first");
+            }
+        }
+
+        @Override
+        public long getValue() {
+            if (value == null) {
+                value = hasher.hash();
+            }
+            return value.padToLong();
+        }
+
+        @Override
+        public void reset() {
+            hasher = function.newHasher();
+            value = null;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.baeldung.md5checksum;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link Md5ChecksumGenerator} against {@link StreamingChecksumEngine}. Divide the file size by the
+ * reported time per operation to get MB/s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ChecksumBenchmark {
+
+    private static final Set<ChecksumAlgorithm> ALL_ALGORITHMS = EnumSet.allOf(ChecksumAlgorithm.class);
+
+    @Param({ "256" })
+    public int fileSizeMb;
+
+    private Path file;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("checksum", ".bin");
+        byte[] block = new byte[1024 * 1024];
+        Random random = new Random(42);
+        for (int i = 0; i < fileSizeMb; i++) {
+            random.nextBytes(block);
+            Files.write(file, block, StandardOpenOption.APPEND);
+        }
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime()
+            .availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String md5WithApacheCommons() throws IOException {
+        return Md5ChecksumGenerator.genWithApacheCommons(file.toString());
+    }
+
+    @Benchmark
+    public String md5WithGuava() throws IOException {
+        return Md5ChecksumGenerator.genWithGuava(file.toString());
+    }
+
+    @Benchmark
+    public String md5WithMessageDigest() throws IOException, NoSuchAlgorithmException {
+        return Md5ChecksumGenerator.genWithMessageDigest(file.toString());
+    }
+
+    @Benchmark
+    public Map<ChecksumAlgorithm, String> md5WithStreamingEngine() throws IOException {
+        return StreamingChecksumEngine.checksums(file, EnumSet.of(ChecksumAlgorithm.MD5));
+    }
+
+    @Benchmark
+    public Map<ChecksumAlgorithm, String> allAlgorithmsInSinglePass() throws IOException {
+        return StreamingChecksumEngine.checksums(file, ALL_ALGORITHMS);
+    }
+
+    @Benchmark
+    public String md5TreeHash() throws IOException {
+        return StreamingChecksumEngine.treeHash(file, ChecksumAlgorithm.MD5, StreamingChecksumEngine.DEFAULT_LEAF_SIZE, executor);
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(args);
+    }
+}
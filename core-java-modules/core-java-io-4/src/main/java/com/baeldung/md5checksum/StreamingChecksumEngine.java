@@ -0,0 +1,134 @@
+package com.baeldung.md5checksum;
+
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Computes several checksums of a file in a single pass, hashes very large files as a tree of leaves in parallel
+ * and hashes whole directories concurrently.
+ * <p>
+ * The file is read through a {@link FileChannel} into one reusable heap buffer: the {@link MessageDigest} and
+ * {@link java.util.zip.Checksum} implementations work on arrays, so a direct or mapped buffer would only be copied
+ * into a temporary array by each of them.
+ */
+public class StreamingChecksumEngine {
+
+    static final int BUFFER_SIZE = 256 * 1024;
+    static final int DEFAULT_LEAF_SIZE = 8 * 1024 * 1024;
+
+    public static Map<ChecksumAlgorithm, String> checksums(Path file, Set<ChecksumAlgorithm> algorithms) throws IOException {
+        Map<ChecksumAlgorithm, ChecksumAlgorithm.Hasher> hashers = new EnumMap<>(ChecksumAlgorithm.class);
+        for (ChecksumAlgorithm algorithm : algorithms) {
+            hashers.put(algorithm, algorithm.newHasher());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                for (ChecksumAlgorithm.Hasher hasher : hashers.values()) {
+                    hasher.update(buffer.array(), 0, buffer.position());
+                }
+                buffer.clear();
+            }
+        }
+
+        Map<ChecksumAlgorithm, String> result = new EnumMap<>(ChecksumAlgorithm.class);
+        hashers.forEach((algorithm, hasher) -> result.put(algorithm, hasher.hex()));
+        return result;
+    }
+
+    /**
+     * Splits the file into leaves of {@code leafSize} bytes, digests the leaves in parallel and returns the digest
+     * of the concatenated leaf digests. The result therefore differs from the plain digest of the file.
+     */
+    public static String treeHash(Path file, ChecksumAlgorithm algorithm, int leafSize, ExecutorService executor) throws IOException {
+        if (!algorithm.isMessageDigest()) {
+            throw new IllegalArgumentException("Tree hashes need a message digest, got " + algorithm);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Future<byte[]>> leaves = new ArrayList<>();
+            for (long start = 0; start < size || leaves.isEmpty(); start += leafSize) {
+                long leafStart = start;
+                int length = (int) Math.min(leafSize, size - start);
+                leaves.add(executor.submit(() -> digestLeaf(channel, algorithm, leafStart, length)));
+            }
+
+            MessageDigest root = algorithm.newMessageDigest();
+            for (Future<byte[]> leaf : leaves) {
+                root.update(await(leaf));
+            }
+            return Hex.encodeHexString(root.digest());
+        }
+    }
+
+    public static Map<Path, Map<ChecksumAlgorithm, String>> checksumTree(Path directory, Set<ChecksumAlgorithm> algorithms, ExecutorService executor) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile)
+                .sorted()
+                .collect(Collectors.toList());
+        }
+
+        Map<Path, Future<Map<ChecksumAlgorithm, String>>> pending = new LinkedHashMap<>();
+        for (Path file : files) {
+            pending.put(file, executor.submit(() -> checksums(file, algorithms)));
+        }
+        Map<Path, Map<ChecksumAlgorithm, String>> result = new LinkedHashMap<>();
+        for (Map.Entry<Path, Future<Map<ChecksumAlgorithm, String>>> entry : pending.entrySet()) {
+            result.put(entry.getKey(), await(entry.getValue()));
+        }
+        return result;
+    }
+
+    private static byte[] digestLeaf(FileChannel channel, ChecksumAlgorithm algorithm, long start, int length) throws IOException {
+        MessageDigest digest = algorithm.newMessageDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(BUFFER_SIZE, Math.max(1, length)));
+        long position = start;
+        long end = start + length;
+        while (position < end) {
+            buffer.clear()
+                .limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                break;
+            }
+            digest.update(buffer.array(), 0, read);
+            position += read;
+        }
+        return digest.digest();
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            throw new IOException("Interrupted while hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
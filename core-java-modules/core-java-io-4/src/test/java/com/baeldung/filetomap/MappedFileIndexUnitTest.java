@@ -0,0 +1,100 @@
+package com.baeldung.filetomap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MappedFileIndexUnitTest {
+
+    private Path filePath;
+    private Path tempFile;
+
+    @Before
+    public void setPath() throws URISyntaxException {
+        filePath = Paths.get(ClassLoader.getSystemResource("filetomap/theLordOfRings.txt").toURI());
+    }
+
+    @After
+    public void deleteTempFile() throws IOException {
+        if (tempFile != null) {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Test
+    public void givenInputFile_whenLoadWithOverwrite_shouldKeepLastValue() throws IOException {
+        try (MappedFileIndex index = MappedFileIndex.load(filePath.toString(), FileToHashMap.DupKeyOption.OVERWRITE)) {
+            assertThat(index.size()).isEqualTo(3);
+            assertThat(index.get("title")).isEqualTo("The Lord of the Rings: The Return of the King");
+            assertThat(index.get("director")).isEqualTo("Peter Jackson");
+            assertThat(index.get("actor")).isEqualTo("Ian McKellen");
+            assertThat(index.get("Gandalf")).isNull();
+        }
+    }
+
+    @Test
+    public void givenInputFile_whenLoadWithDiscard_shouldKeepFirstValue() throws IOException {
+        try (MappedFileIndex index = MappedFileIndex.load(filePath.toString(), FileToHashMap.DupKeyOption.DISCARD)) {
+            assertThat(index.get("actor")).isEqualTo("Sean Astin");
+        }
+    }
+
+    @Test
+    public void givenManySmallChunks_whenLoadInParallel_shouldMatchHashMapLoader() throws IOException {
+        tempFile = Files.createTempFile("mappedfileindex", ".txt");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            lines.add("key" + (i % 7_000) + ":välue " + i);
+        }
+        lines.add("no separator here");
+        Files.write(tempFile, lines, StandardCharsets.UTF_8);
+
+        // 100 byte chunks force almost every chunk boundary to fall in the middle of a line
+        try (MappedFileIndex index = MappedFileIndex.load(tempFile, FileToHashMap.DupKeyOption.OVERWRITE, 100, 4)) {
+            assertThat(index.size()).isEqualTo(7_000);
+            FileToHashMap.byStream(tempFile.toString(), FileToHashMap.DupKeyOption.OVERWRITE)
+                .forEach((key, value) -> assertThat(index.get(key)).isEqualTo(value));
+        }
+    }
+
+    @Test
+    public void givenEmptyKey_whenLoad_shouldMatchHashMapLoader() throws IOException {
+        tempFile = Files.createTempFile("mappedfileindex", ".txt");
+        Files.write(tempFile, Arrays.asList(":no key", "key:value"), StandardCharsets.UTF_8);
+
+        try (MappedFileIndex index = MappedFileIndex.load(tempFile.toString(), FileToHashMap.DupKeyOption.OVERWRITE)) {
+            assertThat(index.size()).isEqualTo(2);
+            assertThat(index.get("")).isEqualTo("no key");
+            assertThat(index.get("key")).isEqualTo("value");
+            assertThat(FileToHashMap.byStream(tempFile.toString(), FileToHashMap.DupKeyOption.OVERWRITE)).containsEntry("", "no key");
+        }
+    }
+
+    @Test
+    public void givenTooManyEntries_whenSizingTheTable_shouldFailInsteadOfOverflowing() {
+        long maxEntries = MappedFileIndex.MAX_CAPACITY / 4 * 3;
+        assertThat(MappedFileIndex.tableCapacity(maxEntries)).isEqualTo(MappedFileIndex.MAX_CAPACITY);
+        assertThatThrownBy(() -> MappedFileIndex.tableCapacity(maxEntries + 1)).isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Too many entries");
+    }
+
+    @Test
+    public void givenClosedIndex_whenGet_shouldFail() throws IOException {
+        MappedFileIndex index = MappedFileIndex.load(filePath.toString(), FileToHashMap.DupKeyOption.OVERWRITE);
+        index.close();
+        assertThatThrownBy(() -> index.get("title")).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,105 @@
+package com.baeldung.md5checksum;
+
+import com.google.common.hash.Hashing;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.XXHash32;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingChecksumEngineUnitTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private byte[] content;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // larger than the read buffer so several reads are needed
+        content = new byte[StreamingChecksumEngine.BUFFER_SIZE * 3 + 17];
+        new Random(7).nextBytes(content);
+        file = Files.write(tempDir.resolve("data.bin"), content);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenFile_whenChecksumsInSinglePass_thenEveryAlgorithmMatchesReference() throws IOException {
+        Map<ChecksumAlgorithm, String> checksums = StreamingChecksumEngine.checksums(file, EnumSet.allOf(ChecksumAlgorithm.class));
+
+        long crc32c = Hashing.crc32c()
+            .hashBytes(content)
+            .padToLong();
+        XXHash32 xxHash32 = new XXHash32();
+        xxHash32.update(content, 0, content.length);
+
+        assertThat(checksums).containsEntry(ChecksumAlgorithm.MD5, Md5ChecksumGenerator.genWithApacheCommons(file.toString()))
+            .containsEntry(ChecksumAlgorithm.SHA_256, DigestUtils.sha256Hex(content))
+            .containsEntry(ChecksumAlgorithm.CRC32C, String.format("%08x", crc32c))
+            .containsEntry(ChecksumAlgorithm.XXHASH32, String.format("%08x", xxHash32.getValue()));
+    }
+
+    @Test
+    void givenCheckValue_whenCrc32c_thenKnownVectorIsReturned() {
+        ChecksumAlgorithm.Hasher hasher = ChecksumAlgorithm.CRC32C.newHasher();
+        byte[] checkValue = "123456789".getBytes(StandardCharsets.US_ASCII);
+        hasher.update(checkValue, 0, checkValue.length);
+
+        assertThat(hasher.hex()).isEqualTo("e3069283");
+        assertThat(hasher.hex()).isEqualTo("e3069283");
+    }
+
+    @Test
+    void givenFile_whenTreeHash_thenDigestOfLeafDigestsIsReturned() throws Exception {
+        int leafSize = 100_000;
+        MessageDigest root = MessageDigest.getInstance("SHA-256");
+        for (int start = 0; start < content.length; start += leafSize) {
+            root.update(DigestUtils.sha256(Arrays.copyOfRange(content, start, Math.min(content.length, start + leafSize))));
+        }
+
+        String treeHash = StreamingChecksumEngine.treeHash(file, ChecksumAlgorithm.SHA_256, leafSize, executor);
+
+        assertThat(treeHash).isEqualTo(Hex.encodeHexString(root.digest()));
+    }
+
+    @Test
+    void givenChecksumAlgorithm_whenTreeHash_thenRejected() {
+        assertThatThrownBy(() -> StreamingChecksumEngine.treeHash(file, ChecksumAlgorithm.CRC32C, 1024, executor)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenDirectory_whenChecksumTree_thenEveryFileIsHashed() throws IOException {
+        Path nested = Files.createDirectories(tempDir.resolve("nested"));
+        Path other = Files.write(nested.resolve("other.txt"), "hello".getBytes());
+
+        Map<Path, Map<ChecksumAlgorithm, String>> checksums = StreamingChecksumEngine.checksumTree(tempDir, EnumSet.of(ChecksumAlgorithm.MD5), executor);
+
+        assertThat(checksums).hasSize(2);
+        assertThat(checksums.get(other)).containsEntry(ChecksumAlgorithm.MD5, DigestUtils.md5Hex("hello"));
+        assertThat(checksums.get(file)).containsEntry(ChecksumAlgorithm.MD5, DigestUtils.md5Hex(content));
+    }
+}
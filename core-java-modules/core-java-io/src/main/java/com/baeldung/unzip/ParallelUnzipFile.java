@@ -0,0 +1,78 @@
+package com.baeldung.unzip;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts the entries of an archive concurrently. Unlike {@link java.util.zip.ZipInputStream}, {@link ZipFile} reads
+ * the central directory and can open a stream for every entry independently, so each entry is inflated on its own
+ * thread and written with {@link FileChannel#transferFrom}.
+ */
+public class ParallelUnzipFile {
+
+    public static List<File> unzip(File zip, File destDir, ExecutorService executor) throws IOException {
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            List<ZipEntry> files = new ArrayList<>();
+            for (ZipEntry zipEntry : Collections.list(zipFile.entries())) {
+                File newFile = UnzipFile.newFile(destDir, zipEntry);
+                File directory = zipEntry.isDirectory() ? newFile : newFile.getParentFile();
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("Failed to create directory " + directory);
+                }
+                if (!zipEntry.isDirectory()) {
+                    files.add(zipEntry);
+                }
+            }
+
+            List<Future<File>> extracted = new ArrayList<>(files.size());
+            for (ZipEntry zipEntry : files) {
+                extracted.add(executor.submit(() -> extract(zipFile, zipEntry, UnzipFile.newFile(destDir, zipEntry))));
+            }
+            List<File> result = new ArrayList<>(extracted.size());
+            try {
+                for (Future<File> future : extracted) {
+                    result.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                    .interrupt();
+                throw new IOException("Interrupted while extracting " + zip, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            } finally {
+                extracted.forEach(future -> future.cancel(true));
+            }
+            return result;
+        }
+    }
+
+    private static File extract(ZipFile zipFile, ZipEntry zipEntry, File newFile) throws IOException {
+        try (InputStream in = zipFile.getInputStream(zipEntry);
+             ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(newFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long transferred;
+            // transferFrom stops early when the source has no more bytes, the entry size may also be unknown (-1)
+            while ((transferred = target.transferFrom(source, position, 1024 * 1024)) > 0) {
+                position += transferred;
+            }
+        }
+        return newFile;
+    }
+}
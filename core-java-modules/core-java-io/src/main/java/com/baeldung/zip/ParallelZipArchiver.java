@@ -0,0 +1,442 @@
+package com.baeldung.zip;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Builds ZIP archives by compressing the entries in parallel and appending them to the archive in their original
+ * order. {@link java.util.zip.ZipOutputStream} can't accept data that was deflated elsewhere, so the archive
+ * structure (local headers, central directory) is written here directly. ZIP64 isn't supported, archives are limited
+ * to 4 GB and 65535 entries.
+ * <p>
+ * Files that are already compressed are stored as they are, and so is every entry that deflating wouldn't shrink.
+ */
+public class ParallelZipArchiver {
+
+    static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList("zip", "jar", "war", "gz", "tgz", "bz2", "xz", "7z", "rar", "png", "jpg", "jpeg", "gif", "webp", "mp3", "mp4", "avi", "mkv", "pdf"));
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int UTF8_NAMES_FLAG = 1 << 11;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MAX_ZIP32_SIZE = 0xFFFFFFFFL;
+    private static final int MAX_ZIP32_ENTRIES = 0xFFFF;
+
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final int inMemoryThreshold;
+    private final int compressionLevel;
+
+    public ParallelZipArchiver(ExecutorService executor, int maxInFlight) {
+        this(executor, maxInFlight, 4 * 1024 * 1024, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param maxInFlight how many entries may be compressed ahead of the one being written, which bounds memory use
+     * @param inMemoryThreshold files larger than this are compressed into a temporary file instead of a byte array
+     */
+    public ParallelZipArchiver(ExecutorService executor, int maxInFlight, int inMemoryThreshold, int compressionLevel) {
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.inMemoryThreshold = inMemoryThreshold;
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Same layout as {@link ZipDirectory}: every entry is prefixed with the name of the zipped directory, and hidden
+     * files and directories are left out along with everything below them.
+     */
+    public void zipDirectory(Path sourceDirectory, Path zipFile) throws IOException {
+        Path root = sourceDirectory.getParent() == null ? sourceDirectory : sourceDirectory.getParent();
+        List<Path> paths = new ArrayList<>();
+        Files.walkFileTree(sourceDirectory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (Files.isHidden(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                paths.add(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!Files.isHidden(file)) {
+                    paths.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(paths);
+        List<Source> sources = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            String name = root.relativize(path)
+                .toString()
+                .replace('\\', '/');
+            sources.add(new Source(Files.isDirectory(path) ? name + "/" : name, path));
+        }
+        write(sources, zipFile);
+    }
+
+    /**
+     * Same layout as {@link ZipMultipleFiles}: every file becomes a top level entry named after the file.
+     */
+    public void zipFiles(List<Path> files, Path zipFile) throws IOException {
+        List<Source> sources = new ArrayList<>(files.size());
+        for (Path file : files) {
+            sources.add(new Source(file.getFileName()
+                .toString(), file));
+        }
+        write(sources, zipFile);
+    }
+
+    private void write(List<Source> sources, Path zipFile) throws IOException {
+        if (sources.size() > MAX_ZIP32_ENTRIES) {
+            throw new IOException("Too many entries for a ZIP archive without ZIP64: " + sources.size());
+        }
+        Deque<Future<PreparedEntry>> inFlight = new ArrayDeque<>();
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<CentralDirectoryRecord> records = new ArrayList<>(sources.size());
+        int next = 0;
+        try (CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(zipFile), BUFFER_SIZE))) {
+            while (next < sources.size() || !inFlight.isEmpty()) {
+                while (next < sources.size() && inFlight.size() < maxInFlight) {
+                    Source source = sources.get(next++);
+                    inFlight.add(executor.submit(() -> aborted.get() ? null : prepare(source)));
+                }
+                PreparedEntry entry = await(inFlight.poll());
+                try {
+                    records.add(writeLocalEntry(out, entry));
+                } finally {
+                    entry.release();
+                }
+            }
+            writeCentralDirectory(out, records);
+        } finally {
+            // only left over when writing failed
+            if (!inFlight.isEmpty()) {
+                aborted.set(true);
+                releaseAll(inFlight);
+            }
+        }
+    }
+
+    /**
+     * Waits for the entries that are still being compressed, so that their temporary files can be deleted too.
+     * Entries that haven't started yet are skipped once the archive is aborted.
+     */
+    private static void releaseAll(Deque<Future<PreparedEntry>> inFlight) {
+        for (Future<PreparedEntry> pending = inFlight.poll(); pending != null; pending = inFlight.poll()) {
+            try {
+                PreparedEntry entry = pending.get();
+                if (entry != null) {
+                    entry.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                    .interrupt();
+                pending.cancel(true);
+                inFlight.forEach(future -> future.cancel(true));
+                return;
+            } catch (ExecutionException | IOException e) {
+                // the archive has failed already, this entry's failure adds nothing
+            }
+        }
+    }
+
+    PreparedEntry prepare(Source source) throws IOException {
+        PreparedEntry entry = new PreparedEntry(source.name, dosTime(source.path));
+        if (Files.isDirectory(source.path)) {
+            entry.method = STORED;
+            entry.data = new byte[0];
+            return entry;
+        }
+
+        entry.size = Files.size(source.path);
+        boolean alreadyCompressed = COMPRESSED_EXTENSIONS.contains(extension(source.name));
+        entry.method = alreadyCompressed ? STORED : DEFLATED;
+        if (alreadyCompressed) {
+            // stored data is streamed straight from the source file when the entry is written
+            entry.crc = crc(source.path);
+            entry.compressedSize = entry.size;
+            entry.storedFile = source.path;
+            return entry;
+        }
+
+        Deflater deflater = new Deflater(compressionLevel, true);
+        CRC32 crc = new CRC32();
+        boolean deflated = false;
+        try {
+            OutputStream target;
+            if (entry.size > inMemoryThreshold) {
+                entry.tempFile = Files.createTempFile("zip-entry", ".deflate");
+                target = Files.newOutputStream(entry.tempFile);
+            } else {
+                target = new ByteArrayOutputStream((int) Math.max(32, entry.size / 2));
+            }
+            try (InputStream in = Files.newInputStream(source.path); DeflaterOutputStream deflaterOut = new DeflaterOutputStream(target, deflater, BUFFER_SIZE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int length;
+                while ((length = in.read(buffer)) >= 0) {
+                    crc.update(buffer, 0, length);
+                    deflaterOut.write(buffer, 0, length);
+                }
+            }
+            entry.crc = crc.getValue();
+            entry.compressedSize = deflater.getBytesWritten();
+            if (target instanceof ByteArrayOutputStream) {
+                entry.data = ((ByteArrayOutputStream) target).toByteArray();
+            }
+            deflated = true;
+        } finally {
+            deflater.end();
+            if (!deflated) {
+                entry.release();
+            }
+        }
+
+        if (entry.compressedSize >= entry.size) {
+            entry.release();
+            entry.method = STORED;
+            entry.compressedSize = entry.size;
+            entry.storedFile = source.path;
+        }
+        return entry;
+    }
+
+    private static CentralDirectoryRecord writeLocalEntry(CountingOutputStream out, PreparedEntry entry) throws IOException {
+        if (out.count > MAX_ZIP32_SIZE || entry.compressedSize > MAX_ZIP32_SIZE || entry.size > MAX_ZIP32_SIZE) {
+            throw new IOException("Archive too large without ZIP64: " + entry.name);
+        }
+        CentralDirectoryRecord record = new CentralDirectoryRecord(entry, out.count);
+        byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer header = littleEndian(30 + name.length);
+        header.putInt(0x04034b50)
+            .putShort((short) 20)
+            .putShort((short) UTF8_NAMES_FLAG)
+            .putShort((short) entry.method)
+            .putInt((int) entry.dosTime)
+            .putInt((int) entry.crc)
+            .putInt((int) entry.compressedSize)
+            .putInt((int) entry.size)
+            .putShort((short) name.length)
+            .putShort((short) 0)
+            .put(name);
+        out.write(header.array());
+
+        if (entry.data != null) {
+            out.write(entry.data);
+        } else {
+            Files.copy(entry.tempFile != null ? entry.tempFile : entry.storedFile, out);
+        }
+        return record;
+    }
+
+    private static void writeCentralDirectory(CountingOutputStream out, List<CentralDirectoryRecord> records) throws IOException {
+        long start = out.count;
+        for (CentralDirectoryRecord record : records) {
+            byte[] name = record.name.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer header = littleEndian(46 + name.length);
+            header.putInt(0x02014b50)
+                .putShort((short) 20)
+                .putShort((short) 20)
+                .putShort((short) UTF8_NAMES_FLAG)
+                .putShort((short) record.method)
+                .putInt((int) record.dosTime)
+                .putInt((int) record.crc)
+                .putInt((int) record.compressedSize)
+                .putInt((int) record.size)
+                .putShort((short) name.length)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putInt(0)
+                .putInt((int) record.offset)
+                .put(name);
+            out.write(header.array());
+        }
+        long size = out.count - start;
+        if (start > MAX_ZIP32_SIZE) {
+            throw new IOException("Archive too large without ZIP64");
+        }
+
+        ByteBuffer end = littleEndian(22);
+        end.putInt(0x06054b50)
+            .putShort((short) 0)
+            .putShort((short) 0)
+            .putShort((short) records.size())
+            .putShort((short) records.size())
+            .putInt((int) size)
+            .putInt((int) start)
+            .putShort((short) 0);
+        out.write(end.array());
+    }
+
+    private static long crc(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = in.read(buffer)) >= 0) {
+                crc.update(buffer, 0, length);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static long dosTime(Path path) throws IOException {
+        LocalDateTime time = LocalDateTime.ofInstant(Files.getLastModifiedTime(path)
+            .toInstant(), ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (long) (time.getYear() - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16 | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    private static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1)
+            .toLowerCase(Locale.ROOT);
+    }
+
+    private static ByteBuffer littleEndian(int size) {
+        return ByteBuffer.allocate(size)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            throw new IOException("Interrupted while compressing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    static class Source {
+
+        final String name;
+        final Path path;
+
+        Source(String name, Path path) {
+            this.name = name;
+            this.path = path;
+        }
+    }
+
+    static class PreparedEntry {
+
+        final String name;
+        final long dosTime;
+        int method;
+        long crc;
+        long size;
+        long compressedSize;
+        byte[] data;
+        Path tempFile;
+        Path storedFile;
+
+        PreparedEntry(String name, long dosTime) {
+            this.name = name;
+            this.dosTime = dosTime;
+        }
+
+        void release() throws IOException {
+            data = null;
+            if (tempFile != null) {
+                Files.deleteIfExists(tempFile);
+                tempFile = null;
+            }
+        }
+    }
+
+    private static class CentralDirectoryRecord {
+
+        final String name;
+        final long dosTime;
+        final int method;
+        final long crc;
+        final long size;
+        final long compressedSize;
+        final long offset;
+
+        CentralDirectoryRecord(PreparedEntry entry, long offset) {
+            this.name = entry.name;
+            this.dosTime = entry.dosTime;
+            this.method = entry.method;
+            this.crc = entry.crc;
+            this.size = entry.size;
+            this.compressedSize = entry.compressedSize;
+            this.offset = offset;
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+        private long count;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            delegate.write(bytes, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.baeldung.zip;
+
+import com.baeldung.unzip.ParallelUnzipFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Zips and unzips a generated tree of text files, comparing the serial {@link ZipOutputStream} approach of
+ * {@link ZipDirectory} with {@link ParallelZipArchiver} and {@link ParallelUnzipFile}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class ParallelZipBenchmark {
+
+    @Param({ "5000" })
+    public int files;
+
+    private Path workDir;
+    private Path sourceDir;
+    private Path serialZip;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("zip-benchmark");
+        sourceDir = Files.createDirectories(workDir.resolve("tree"));
+        Random random = new Random(1);
+        for (int i = 0; i < files; i++) {
+            Path dir = Files.createDirectories(sourceDir.resolve("dir" + i % 50));
+            StringBuilder content = new StringBuilder();
+            for (int line = random.nextInt(2000); line >= 0; line--) {
+                content.append("line ")
+                    .append(random.nextInt(1000))
+                    .append(" of file ")
+                    .append(i)
+                    .append('\n');
+            }
+            Files.write(dir.resolve("file" + i + ".txt"), content.toString()
+                .getBytes());
+        }
+        serialZip = workDir.resolve("serial.zip");
+        zipSerially();
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime()
+            .availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        try (Stream<Path> walk = Files.walk(workDir)) {
+            walk.sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public long zipSerially() throws IOException {
+        try (ZipOutputStream zipOut = new ZipOutputStream(new FileOutputStream(serialZip.toFile()))) {
+            ZipDirectory.zipFile(sourceDir.toFile(), sourceDir.getFileName()
+                .toString(), zipOut);
+        }
+        return Files.size(serialZip);
+    }
+
+    @Benchmark
+    public long zipInParallel() throws IOException {
+        Path zip = workDir.resolve("parallel.zip");
+        new ParallelZipArchiver(executor, 64).zipDirectory(sourceDir, zip);
+        return Files.size(zip);
+    }
+
+    @Benchmark
+    public int unzipInParallel() throws IOException {
+        return ParallelUnzipFile.unzip(serialZip.toFile(), Files.createTempDirectory(workDir, "unzipped")
+            .toFile(), executor)
+            .size();
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(args);
+    }
+}
@@ -19,7 +19,7 @@ public class ZipDirectory {
         fos.close();
     }
 
-    private static void zipFile(final File fileToZip, final String fileName, final ZipOutputStream zipOut) throws IOException {
+    static void zipFile(final File fileToZip, final String fileName, final ZipOutputStream zipOut) throws IOException {
         if (fileToZip.isHidden()) {
             return;
         }
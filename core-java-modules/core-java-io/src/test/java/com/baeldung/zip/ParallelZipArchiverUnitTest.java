@@ -0,0 +1,144 @@
+package com.baeldung.zip;
+
+import com.baeldung.unzip.ParallelUnzipFile;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelZipArchiverUnitTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ExecutorService executor;
+    private Path sourceDir;
+
+    @BeforeEach
+    public void createSourceTree() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        sourceDir = Files.createDirectories(tempDir.resolve("zipTest"));
+        Path nested = Files.createDirectories(sourceDir.resolve("nested"));
+        for (int i = 0; i < 50; i++) {
+            Files.write(nested.resolve("file" + i + ".txt"), String.join("\n", Collections.nCopies(i * 20, "text of file " + i))
+                .getBytes());
+        }
+        byte[] noise = new byte[100_000];
+        new Random(3).nextBytes(noise);
+        Files.write(sourceDir.resolve("image.png"), noise);
+        Files.write(sourceDir.resolve("large.txt"), String.join("\n", Collections.nCopies(50_000, "a large line"))
+            .getBytes());
+    }
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void givenDirectory_whenZippedInParallel_thenEntriesAreReadableInOrder() throws IOException {
+        Path zip = tempDir.resolve("parallel.zip");
+
+        // a low in-memory threshold makes large.txt spill to a temporary file
+        new ParallelZipArchiver(executor, 8, 64 * 1024, Deflater.DEFAULT_COMPRESSION).zipDirectory(sourceDir, zip);
+
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            List<String> names = Collections.list(zipFile.entries())
+                .stream()
+                .map(ZipEntry::getName)
+                .collect(Collectors.toList());
+            List<String> sorted = names.stream()
+                .sorted()
+                .collect(Collectors.toList());
+            assertEquals(sorted, names);
+            assertEquals(54, names.size());
+            assertTrue(zipFile.getEntry("zipTest/")
+                .isDirectory());
+
+            assertEntry(zipFile, "zipTest/large.txt", ZipEntry.DEFLATED);
+            assertEntry(zipFile, "zipTest/nested/file7.txt", ZipEntry.DEFLATED);
+            assertEntry(zipFile, "zipTest/image.png", ZipEntry.STORED);
+            // deflating an empty file doesn't pay off either
+            assertEntry(zipFile, "zipTest/nested/file0.txt", ZipEntry.STORED);
+        }
+    }
+
+    @Test
+    public void givenHiddenDirectory_whenZippedInParallel_thenItsSubtreeIsLeftOut() throws IOException {
+        Path hidden = Files.createDirectories(sourceDir.resolve(".hidden")
+            .resolve("visible"));
+        Files.write(hidden.resolve("file.txt"), "inside a hidden directory".getBytes());
+        Files.write(sourceDir.resolve(".hiddenFile"), "hidden".getBytes());
+        Path zip = tempDir.resolve("hidden.zip");
+
+        new ParallelZipArchiver(executor, 8).zipDirectory(sourceDir, zip);
+
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            assertEquals(54, zipFile.size());
+            assertTrue(Collections.list(zipFile.entries())
+                .stream()
+                .noneMatch(entry -> entry.getName()
+                    .contains(".hidden")));
+        }
+    }
+
+    @Test
+    public void givenFiles_whenZippedInParallel_thenEntriesAreNamedAfterFiles() throws IOException {
+        Path zip = tempDir.resolve("files.zip");
+        List<Path> files = Arrays.asList(sourceDir.resolve("large.txt"), sourceDir.resolve("image.png"));
+
+        new ParallelZipArchiver(executor, 2).zipFiles(files, zip);
+
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            assertEquals(2, zipFile.size());
+            assertEntry(zipFile, "large.txt", ZipEntry.DEFLATED);
+            assertEntry(zipFile, "image.png", ZipEntry.STORED);
+        }
+    }
+
+    @Test
+    public void givenParallelZip_whenUnzippedInParallel_thenFilesAreRestored() throws IOException {
+        Path zip = tempDir.resolve("roundtrip.zip");
+        new ParallelZipArchiver(executor, 8).zipDirectory(sourceDir, zip);
+        File destDir = Files.createDirectories(tempDir.resolve("unzipped"))
+            .toFile();
+
+        List<File> extracted = ParallelUnzipFile.unzip(zip.toFile(), destDir, executor);
+
+        assertEquals(52, extracted.size());
+        for (String name : Arrays.asList("large.txt", "image.png", "nested/file0.txt", "nested/file49.txt")) {
+            assertArrayEquals(Files.readAllBytes(sourceDir.resolve(name)), Files.readAllBytes(destDir.toPath()
+                .resolve("zipTest")
+                .resolve(name)));
+        }
+    }
+
+    private void assertEntry(ZipFile zipFile, String name, int method) throws IOException {
+        ZipEntry entry = zipFile.getEntry(name);
+        assertEquals(method, entry.getMethod());
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            assertArrayEquals(Files.readAllBytes(tempDir.resolve(name.startsWith("zipTest") ? name : "zipTest/" + name)), IOUtils.toByteArray(in));
+        }
+    }
+}
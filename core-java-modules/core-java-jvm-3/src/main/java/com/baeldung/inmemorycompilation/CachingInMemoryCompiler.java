@@ -0,0 +1,325 @@
+package com.baeldung.inmemorycompilation;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles sources in memory like {@link InMemoryFileManager}, but caches the byte code under a hash of the sources,
+ * first in memory and optionally in a directory, so that unchanged sources are compiled once and not on every run.
+ * <p>
+ * All sources passed to one {@link #compile(Map)} call go through a single compiler task and may refer to each
+ * other. {@link #compileAll(List, ExecutorService)} compiles independent groups of sources on several threads, each
+ * with its own compiler task and file manager. File managers are reused between tasks, as opening the class path is a
+ * large part of the cost of a small compilation.
+ * <p>
+ * The memory cache keeps the most recently used groups of sources, and concurrent requests for the same sources wait
+ * for a single compilation.
+ */
+public class CachingInMemoryCompiler implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingInMemoryCompiler.class);
+
+    public static final int DEFAULT_MEMORY_CACHE_SIZE = 1024;
+
+    private static final String CACHE_FILE_SUFFIX = ".classes";
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    private final Path cacheDirectory;
+    private final List<String> options;
+    // in access order and guarded by itself, the futures of running compilations included
+    private final Map<String, CompletableFuture<Map<String, byte[]>>> memoryCache;
+    private final Queue<StandardJavaFileManager> fileManagers = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong compilations = new AtomicLong();
+
+    /**
+     * Keeps compiled classes in memory only.
+     */
+    public CachingInMemoryCompiler() {
+        this(null);
+    }
+
+    /**
+     * @param cacheDirectory directory for compiled classes that outlive this instance, or null to cache in memory only
+     */
+    public CachingInMemoryCompiler(Path cacheDirectory) {
+        this(cacheDirectory, DEFAULT_MEMORY_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheDirectory directory for compiled classes that outlive this instance, or null to cache in memory only
+     * @param memoryCacheSize the number of groups of sources whose classes are kept in memory
+     */
+    public CachingInMemoryCompiler(Path cacheDirectory, int memoryCacheSize) {
+        if (compiler == null) {
+            throw new IllegalStateException("No system Java compiler, a JDK is required");
+        }
+        this.cacheDirectory = cacheDirectory;
+        this.options = Collections.unmodifiableList(Arrays.asList("-classpath", System.getProperty("java.class.path")));
+        this.memoryCache = new LinkedHashMap<String, CompletableFuture<Map<String, byte[]>>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Map<String, byte[]>>> eldest) {
+                return size() > memoryCacheSize;
+            }
+        };
+    }
+
+    public ClassLoader compile(String qualifiedClassName, String sourceCode) {
+        return compile(Collections.singletonMap(qualifiedClassName, sourceCode));
+    }
+
+    /**
+     * @param sources source code by qualified class name, compiled together in one compiler task
+     * @return a class loader for the compiled classes, including nested and anonymous ones
+     */
+    public ClassLoader compile(Map<String, String> sources) {
+        return new InMemoryClassLoader(getClass().getClassLoader(), compiledClasses(sources));
+    }
+
+    /**
+     * Compiles every group of sources in its own compiler task on {@code executor}.
+     *
+     * @return a class loader per group, in the order of {@code sourceGroups}
+     */
+    public List<ClassLoader> compileAll(List<Map<String, String>> sourceGroups, ExecutorService executor) throws InterruptedException {
+        List<Future<ClassLoader>> results = new ArrayList<>(sourceGroups.size());
+        for (Map<String, String> sources : sourceGroups) {
+            results.add(executor.submit(() -> compile(sources)));
+        }
+        List<ClassLoader> classLoaders = new ArrayList<>(results.size());
+        for (Future<ClassLoader> result : results) {
+            try {
+                classLoaders.add(result.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return classLoaders;
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getCompilations() {
+        return compilations.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        StandardJavaFileManager fileManager;
+        while ((fileManager = fileManagers.poll()) != null) {
+            fileManager.close();
+        }
+    }
+
+    Map<String, byte[]> compiledClasses(Map<String, String> sources) {
+        String key = cacheKey(sources);
+        CompletableFuture<Map<String, byte[]>> load = new CompletableFuture<>();
+        CompletableFuture<Map<String, byte[]>> cached;
+        synchronized (memoryCache) {
+            cached = memoryCache.putIfAbsent(key, load);
+        }
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            return await(cached);
+        }
+        try {
+            Map<String, byte[]> classes = readCacheFile(key);
+            if (classes != null) {
+                diskHits.incrementAndGet();
+            } else {
+                classes = compileSources(sources);
+                compilations.incrementAndGet();
+                writeCacheFile(key, classes);
+            }
+            load.complete(classes);
+            return classes;
+        } catch (RuntimeException | Error e) {
+            // failures aren't cached, only the callers already waiting get them
+            synchronized (memoryCache) {
+                memoryCache.remove(key, load);
+            }
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Map<String, byte[]> await(CompletableFuture<Map<String, byte[]>> compilation) {
+        try {
+            return compilation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Map<String, byte[]> compileSources(Map<String, String> sources) {
+        StandardJavaFileManager standardManager = fileManagers.poll();
+        if (standardManager == null) {
+            standardManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+        }
+        try {
+            InMemoryFileManager manager = new InMemoryFileManager(standardManager);
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            List<JavaFileObject> sourceFiles = sources.entrySet()
+                .stream()
+                .map(source -> new JavaSourceFromString(source.getKey(), source.getValue()))
+                .collect(Collectors.toList());
+
+            if (!compiler.getTask(null, manager, diagnostics, options, null, sourceFiles)
+                .call()) {
+                throw new CompilationException(diagnostics.getDiagnostics()
+                    .stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(System.lineSeparator())));
+            }
+
+            Map<String, byte[]> classes = new HashMap<>();
+            manager.getBytesMap()
+                .forEach((name, classAsBytes) -> classes.put(name, classAsBytes.getBytes()));
+            return Collections.unmodifiableMap(classes);
+        } finally {
+            // only the wrapper is dropped, the standard file manager stays open for the next task
+            fileManagers.offer(standardManager);
+        }
+    }
+
+    /**
+     * Hashes the sources in name order together with the Java version. The class path is left out, as it differs
+     * between runs of the same application, so a cache directory has to be cleared when compiled sources depend on
+     * constants of classes that changed.
+     */
+    private String cacheKey(Map<String, String> sources) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, System.getProperty("java.version"));
+        new TreeMap<>(sources).forEach((name, source) -> {
+            update(digest, name);
+            update(digest, source);
+        });
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16))
+                .append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // the length keeps ("ab", "c") and ("a", "bc") apart
+        digest.update(new byte[] { (byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16), (byte) (bytes.length >>> 8), (byte) bytes.length });
+        digest.update(bytes);
+    }
+
+    private Map<String, byte[]> readCacheFile(String key) {
+        if (cacheDirectory == null) {
+            return null;
+        }
+        try {
+            // read at once, so that the lengths in the file can be checked against its size
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(cacheDirectory.resolve(key + CACHE_FILE_SUFFIX))));
+            int count = in.readInt();
+            // every class takes at least the lengths of its name and byte code
+            if (count < 0 || count > in.available() / (Short.BYTES + Integer.BYTES)) {
+                throw new IOException("Corrupt class count " + count);
+            }
+            Map<String, byte[]> classes = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                int length = in.readInt();
+                if (length < 0 || length > in.available()) {
+                    throw new IOException("Corrupt length " + length + " of class " + name);
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                classes.put(name, bytes);
+            }
+            return Collections.unmodifiableMap(classes);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable cache file for {}", key, e);
+            return null;
+        }
+    }
+
+    private void writeCacheFile(String key, Map<String, byte[]> classes) {
+        if (cacheDirectory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(cacheDirectory);
+            // written aside and moved into place, so readers never see a partial file
+            Path temp = Files.createTempFile(cacheDirectory, key, ".tmp");
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(file)) {
+                out.writeInt(classes.size());
+                for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    out.write(entry.getValue());
+                }
+            }
+            Files.move(temp, cacheDirectory.resolve(key + CACHE_FILE_SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the classes were compiled fine, they are just not cached on disk
+            LOGGER.warn("Could not write cache file for {}", key, e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.baeldung.inmemorycompilation;
+
+/**
+ * Thrown when in-memory sources don't compile, with the compiler diagnostics as message.
+ */
+public class CompilationException extends RuntimeException {
+
+    public CompilationException(String diagnostics) {
+        super(diagnostics);
+    }
+}
@@ -3,28 +3,40 @@ package com.baeldung.inmemorycompilation;
 import static java.util.Objects.requireNonNull;
 
 import java.util.Map;
+import java.util.function.Function;
 
 public class InMemoryClassLoader extends ClassLoader {
 
-    private final InMemoryFileManager manager;
+    private final Function<String, byte[]> compiledClasses;
 
     public InMemoryClassLoader(ClassLoader parent, InMemoryFileManager manager) {
         super(parent);
-        this.manager = requireNonNull(manager, "manager must not be null");
+        requireNonNull(manager, "manager must not be null");
+        this.compiledClasses = name -> {
+            JavaClassAsBytes classAsBytes = manager.getBytesMap()
+                .get(name);
+            return classAsBytes == null ? null : classAsBytes.getBytes();
+        };
+    }
+
+    /**
+     * Defines classes from byte code that was compiled before, for example by {@link CachingInMemoryCompiler}.
+     */
+    public InMemoryClassLoader(ClassLoader parent, Map<String, byte[]> compiledClasses) {
+        super(parent);
+        requireNonNull(compiledClasses, "compiledClasses must not be null");
+        this.compiledClasses = compiledClasses::get;
     }
 
     @Override
     protected Class<?> findClass(String name) throws ClassNotFoundException {
 
-        Map<String, JavaClassAsBytes> compiledClasses = manager
-            .getBytesMap();
+        byte[] bytes = compiledClasses.apply(name);
 
-        if (compiledClasses.containsKey(name)) {
-            byte[] bytes = compiledClasses.get(name)
-                                          .getBytes();
+        if (bytes != null) {
             return defineClass(name, bytes, 0, bytes.length);
         } else {
-            throw new ClassNotFoundException();
+            throw new ClassNotFoundException(name);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package com.baeldung.inmemorycompilation;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prints how long it takes to get a class loader for a set of small rule classes: compiled one by one with a fresh
+ * compiler, one by one with a warm compiler, all in one compiler task, in parallel tasks, and from the memory and
+ * disk caches.
+ */
+public class CachingInMemoryCompilerManualTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingInMemoryCompilerManualTest.class);
+
+    private static final int RULES = 50;
+
+    @Test
+    public void whenRulesAreCompiled_ThenCompileTimesArePrinted() throws Exception {
+        Path cacheDirectory = Files.createTempDirectory("compiled-rules");
+        int threads = Runtime.getRuntime()
+            .availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler()) {
+                compiler.compile(rules("Cold", 1));
+            }
+            report("cold, first compilation in this JVM", 1, start);
+
+            try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler(cacheDirectory)) {
+                start = System.nanoTime();
+                for (int i = 0; i < RULES; i++) {
+                    compiler.compile(rules("Single" + i + "_", 1));
+                }
+                report("one compiler task per rule", RULES, start);
+
+                start = System.nanoTime();
+                compiler.compile(rules("Batch", RULES));
+                report("all rules in one compiler task", RULES, start);
+
+                List<Map<String, String>> groups = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    groups.add(rules("Parallel" + i + "_", RULES / threads));
+                }
+                start = System.nanoTime();
+                compiler.compileAll(groups, executor);
+                report(threads + " compiler tasks in parallel", RULES / threads * threads, start);
+
+                start = System.nanoTime();
+                for (int i = 0; i < RULES; i++) {
+                    compiler.compile(rules("Single" + i + "_", 1));
+                }
+                report("warm, from the memory cache", RULES, start);
+            }
+
+            try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler(cacheDirectory)) {
+                start = System.nanoTime();
+                for (int i = 0; i < RULES; i++) {
+                    compiler.compile(rules("Single" + i + "_", 1));
+                }
+                report("warm, from the cache directory", RULES, start);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<String, String> rules(String prefix, int count) {
+        Map<String, String> sources = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String className = prefix + i;
+            sources.put("com.baeldung.inmemorycompilation." + className, CachingInMemoryCompilerUnitTest.rule(className, className));
+        }
+        return sources;
+    }
+
+    private static void report(String scenario, int rules, long start) {
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        LOGGER.info(String.format("%-40s %8.1f ms total, %6.2f ms per rule", scenario, millis, millis / rules));
+    }
+}
@@ -0,0 +1,208 @@
+package com.baeldung.inmemorycompilation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CachingInMemoryCompilerUnitTest {
+
+    private static final String PACKAGE = "com.baeldung.inmemorycompilation";
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    public void whenSameSourceIsCompiledTwice_ThenSecondCompilationComesFromMemory() throws Exception {
+        try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler()) {
+            ClassLoader first = compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "one"));
+            ClassLoader second = compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "one"));
+
+            assertEquals("one", run(first, "Rule1"));
+            assertEquals("one", run(second, "Rule1"));
+            assertNotSame(first, second);
+            assertEquals(1, compiler.getCompilations());
+            assertEquals(1, compiler.getMemoryHits());
+        }
+    }
+
+    @Test
+    public void whenSourceChanges_ThenItIsCompiledAgain() throws Exception {
+        try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler()) {
+            compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "one"));
+            ClassLoader changed = compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "two"));
+
+            assertEquals("two", run(changed, "Rule1"));
+            assertEquals(2, compiler.getCompilations());
+        }
+    }
+
+    @Test
+    public void whenCompilerIsRecreated_ThenClassesAreReadFromCacheDirectory() throws Exception {
+        try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler(cacheDirectory)) {
+            compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "one"));
+        }
+        try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler(cacheDirectory)) {
+            ClassLoader classLoader = compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "one"));
+
+            assertEquals("one", run(classLoader, "Rule1"));
+            assertEquals(0, compiler.getCompilations());
+            assertEquals(1, compiler.getDiskHits());
+        }
+    }
+
+    @Test
+    public void whenCacheFileIsCorrupt_ThenSourcesAreCompiledAgain() throws Exception {
+        try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler(cacheDirectory)) {
+            compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "one"));
+        }
+        Path cacheFile;
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            cacheFile = files.findFirst()
+                .get();
+        }
+        for (int[] header : new int[][] { { Integer.MAX_VALUE }, { -1 }, { 1, Integer.MAX_VALUE }, { 1, -5 } }) {
+            writeCacheFile(cacheFile, header);
+            try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler(cacheDirectory)) {
+                ClassLoader classLoader = compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "one"));
+
+                assertEquals("one", run(classLoader, "Rule1"));
+                assertEquals(1, compiler.getCompilations());
+            }
+        }
+    }
+
+    @Test
+    public void whenSameSourceIsCompiledConcurrently_ThenItIsCompiledOnce() throws Exception {
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler()) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ClassLoader>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "one"));
+                }));
+            }
+            start.countDown();
+
+            for (Future<ClassLoader> result : results) {
+                assertEquals("one", run(result.get(), "Rule1"));
+            }
+            assertEquals(1, compiler.getCompilations());
+            assertEquals(threads - 1, compiler.getMemoryHits());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void whenMemoryCacheIsFull_ThenTheLeastRecentlyUsedSourcesAreCompiledAgain() throws Exception {
+        try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler(null, 2)) {
+            compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "one"));
+            compiler.compile(PACKAGE + ".Rule2", rule("Rule2", "two"));
+            compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "one"));
+            compiler.compile(PACKAGE + ".Rule3", rule("Rule3", "three"));
+
+            compiler.compile(PACKAGE + ".Rule1", rule("Rule1", "one"));
+            assertEquals(3, compiler.getCompilations());
+            compiler.compile(PACKAGE + ".Rule2", rule("Rule2", "two"));
+            assertEquals(4, compiler.getCompilations());
+        }
+    }
+
+    @Test
+    public void whenSourcesAreCompiledTogether_ThenTheyCanReferToEachOther() throws Exception {
+        Map<String, String> sources = new HashMap<>();
+        sources.put(PACKAGE + ".Greeting", "package " + PACKAGE + ";\n" + "class Greeting {\n" + "    static final String TEXT = \"hello\";\n" + "}\n");
+        sources.put(PACKAGE + ".Greeter", "package " + PACKAGE + ";\n" + "public class Greeter implements java.util.function.Supplier<String> {\n"
+            + "    public String get() {\n" + "        return Greeting.TEXT;\n" + "    }\n" + "}\n");
+
+        try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler()) {
+            assertEquals("hello", run(compiler.compile(sources), "Greeter"));
+            assertEquals(1, compiler.getCompilations());
+        }
+    }
+
+    @Test
+    public void whenGroupsAreCompiledInParallel_ThenEveryGroupGetsItsOwnClassLoader() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler()) {
+            List<Map<String, String>> groups = Arrays.asList(group("Rule1", "one"), group("Rule2", "two"), group("Rule3", "three"));
+
+            List<ClassLoader> classLoaders = compiler.compileAll(groups, executor);
+
+            assertEquals("one", run(classLoaders.get(0), "Rule1"));
+            assertEquals("two", run(classLoaders.get(1), "Rule2"));
+            assertEquals("three", run(classLoaders.get(2), "Rule3"));
+            assertEquals(3, compiler.getCompilations());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void whenSourceDoesNotCompile_ThenDiagnosticsAreReported() throws Exception {
+        try (CachingInMemoryCompiler compiler = new CachingInMemoryCompiler()) {
+            CompilationException exception = assertThrows(CompilationException.class,
+                () -> compiler.compile(PACKAGE + ".Broken", "package " + PACKAGE + ";\npublic class Broken { int x = \"text\"; }\n"));
+
+            assertTrue(exception.getMessage()
+                .contains("Broken.java"));
+            assertEquals(0, compiler.getCompilations());
+        }
+    }
+
+    /**
+     * Writes a cache file that starts with the given ints, as if it had been cut off or overwritten.
+     */
+    private static void writeCacheFile(Path cacheFile, int[] header) throws IOException {
+        try (OutputStream file = Files.newOutputStream(cacheFile);
+             DataOutputStream out = new DataOutputStream(file)) {
+            out.writeInt(header[0]);
+            if (header.length > 1) {
+                out.writeUTF(PACKAGE + ".Rule1");
+                out.writeInt(header[1]);
+            }
+        }
+    }
+
+    static String rule(String className, String result) {
+        return "package " + PACKAGE + ";\n" + "public class " + className + " implements java.util.function.Supplier<String> {\n"
+            + "    public String get() {\n" + "        return \"" + result + "\";\n" + "    }\n" + "}\n";
+    }
+
+    private static Map<String, String> group(String className, String result) {
+        Map<String, String> sources = new HashMap<>();
+        sources.put(PACKAGE + "." + className, rule(className, result));
+        return sources;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String run(ClassLoader classLoader, String className) throws Exception {
+        Class<?> clazz = classLoader.loadClass(PACKAGE + "." + className);
+        return ((Supplier<String>) clazz.getDeclaredConstructor()
+            .newInstance()).get();
+    }
+}
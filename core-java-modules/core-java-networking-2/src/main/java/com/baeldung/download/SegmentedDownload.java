@@ -0,0 +1,341 @@
+package com.baeldung.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Downloads a file over several HTTP range requests at once. Every segment is written at its own position of a
+ * preallocated file, and the progress of each segment is checkpointed to a journal next to the file, so a download
+ * that was interrupted, even by a crash, continues where the segments left off.
+ * <p>
+ * The journal holds the file length, the validator of the resource (its ETag, or else its Last-Modified date) and the
+ * segment count, followed by the start, end (exclusive) and number of completed bytes of every segment. A journal is
+ * only resumed when the resource still has the same length and validator, the file still has that length, and the
+ * segments cover the file without gaps or overlaps. The file is forced to disk before every checkpoint, so the journal
+ * never counts bytes that a crash could lose, which is also why segments only checkpoint once per interval of time.
+ * The journal is deleted once the download completes.
+ */
+public class SegmentedDownload {
+
+    static final String JOURNAL_SUFFIX = ".journal";
+
+    // length, validator length and segment count, the validator itself follows
+    private static final int HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+    private static final int MAX_VALIDATOR_SIZE = 1024;
+    private static final int SEGMENT_RECORD_SIZE = 3 * Long.BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int segments;
+    private final ExecutorService executor;
+    private final long checkpointIntervalNanos;
+
+    public SegmentedDownload(int segments, ExecutorService executor) {
+        this(segments, executor, Duration.ofSeconds(1));
+    }
+
+    SegmentedDownload(int segments, ExecutorService executor, Duration checkpointInterval) {
+        this.segments = segments;
+        this.executor = executor;
+        this.checkpointIntervalNanos = checkpointInterval.toNanos();
+    }
+
+    public long download(String downloadUrl, String saveAsFileName) throws IOException, URISyntaxException {
+        URI uri = new URI(downloadUrl);
+        Path target = Paths.get(saveAsFileName);
+        Path journalPath = Paths.get(saveAsFileName + JOURNAL_SUFFIX);
+
+        Resource resource = rangedResource(uri);
+        long length = resource.length;
+        if (length < 0) {
+            // the server can't serve ranges, fall back to a single stream
+            Files.deleteIfExists(journalPath);
+            FileDownload.downloadWithJavaNIO(downloadUrl, saveAsFileName);
+            return Files.size(target);
+        }
+
+        long downloaded = 0;
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            byte[] validator = resource.validator.getBytes(StandardCharsets.UTF_8);
+            List<Segment> plan = file.size() == length ? readJournal(journal, length, validator) : null;
+            if (plan == null) {
+                plan = split(length);
+                file.truncate(0);
+                preallocate(file, length);
+                writeJournal(journal, length, validator, plan);
+            }
+
+            long recordsOffset = HEADER_SIZE + validator.length;
+            AtomicBoolean stopped = new AtomicBoolean();
+            List<Future<Long>> results = new ArrayList<>(plan.size());
+            for (Segment segment : plan) {
+                results.add(executor.submit(() -> fetch(uri, resource.validator, segment, file, journal, recordsOffset, stopped)));
+            }
+            // every segment is awaited, also after an interrupt, so that no task writes to the channels once they are
+            // closed
+            IOException failure = null;
+            for (Future<Long> result : results) {
+                try {
+                    downloaded += await(result, stopped);
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (stopped.get()) {
+                InterruptedIOException interrupted = new InterruptedIOException("Interrupted while downloading");
+                if (failure != null) {
+                    interrupted.addSuppressed(failure);
+                }
+                throw interrupted;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            file.force(false);
+        }
+        Files.delete(journalPath);
+        return downloaded;
+    }
+
+    /**
+     * @return the resource, with a length of -1 when it is unknown or the server doesn't accept byte ranges
+     */
+    private static Resource rangedResource(URI uri) throws IOException {
+        HttpURLConnection head = (HttpURLConnection) uri.toURL()
+            .openConnection();
+        try {
+            head.setRequestMethod("HEAD");
+            long length = head.getContentLengthLong();
+            boolean acceptsRanges = "bytes".equalsIgnoreCase(head.getHeaderField("Accept-Ranges"));
+            String validator = head.getHeaderField("ETag");
+            if (validator == null) {
+                validator = head.getHeaderField("Last-Modified");
+            }
+            if (validator == null || validator.length() > MAX_VALIDATOR_SIZE) {
+                validator = "";
+            }
+            return new Resource(acceptsRanges ? length : -1, validator);
+        } finally {
+            head.disconnect();
+        }
+    }
+
+    private List<Segment> split(long length) {
+        int count = (int) Math.max(1, Math.min(segments, length));
+        long segmentSize = length / count;
+        List<Segment> plan = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = i * segmentSize;
+            long end = i == count - 1 ? length : start + segmentSize;
+            plan.add(new Segment(i, start, end, 0));
+        }
+        return plan;
+    }
+
+    private static void preallocate(FileChannel file, long length) throws IOException {
+        if (length > 0) {
+            file.write(ByteBuffer.wrap(new byte[1]), length - 1);
+        }
+    }
+
+    private long fetch(URI uri, String validator, Segment segment, FileChannel file, FileChannel journal, long recordsOffset, AtomicBoolean stopped)
+        throws IOException {
+        long position = segment.start + segment.completed;
+        if (position >= segment.end || stopped.get()) {
+            return 0;
+        }
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL()
+            .openConnection();
+        connection.setRequestProperty("Range", "bytes=" + position + "-" + (segment.end - 1));
+        if (!validator.isEmpty() && !validator.startsWith("W/")) {
+            // the server answers with the whole resource instead of the range if it has changed in the meantime
+            connection.setRequestProperty("If-Range", validator);
+        }
+        try (InputStream in = connection.getInputStream()) {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("Expected a partial response for segment " + segment.index + " but got " + connection.getResponseCode());
+            }
+            byte[] bytes = new byte[BUFFER_SIZE];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            long lastCheckpoint = System.nanoTime();
+            int read;
+            try {
+                while (position < segment.end && !stopped.get() && (read = in.read(bytes, 0, (int) Math.min(bytes.length, segment.end - position))) > 0) {
+                    buffer.clear()
+                        .limit(read);
+                    while (buffer.hasRemaining()) {
+                        position += file.write(buffer, position);
+                    }
+                    if (System.nanoTime() - lastCheckpoint >= checkpointIntervalNanos) {
+                        checkpoint(file, journal, recordsOffset, segment, position);
+                        lastCheckpoint = System.nanoTime();
+                    }
+                }
+            } finally {
+                // whatever reached the file is kept, even when the connection broke
+                checkpoint(file, journal, recordsOffset, segment, position);
+            }
+            if (stopped.get()) {
+                return position - (segment.start + segment.completed);
+            }
+            if (position < segment.end) {
+                throw new IOException("Segment " + segment.index + " ended early at byte " + position);
+            }
+        } finally {
+            connection.disconnect();
+        }
+        return segment.end - (segment.start + segment.completed);
+    }
+
+    private static void checkpoint(FileChannel file, FileChannel journal, long recordsOffset, Segment segment, long position) throws IOException {
+        // the bytes have to be on disk before the journal counts them
+        file.force(false);
+        ByteBuffer completed = ByteBuffer.allocate(Long.BYTES)
+            .putLong(0, position - segment.start);
+        journal.write(completed, recordsOffset + (long) segment.index * SEGMENT_RECORD_SIZE + 2 * Long.BYTES);
+    }
+
+    private static void writeJournal(FileChannel journal, long length, byte[] validator, List<Segment> plan) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + validator.length + plan.size() * SEGMENT_RECORD_SIZE);
+        buffer.putLong(length)
+            .putInt(validator.length)
+            .putInt(plan.size())
+            .put(validator);
+        for (Segment segment : plan) {
+            buffer.putLong(segment.start)
+                .putLong(segment.end)
+                .putLong(segment.completed);
+        }
+        buffer.flip();
+        journal.truncate(0);
+        while (buffer.hasRemaining()) {
+            journal.write(buffer, buffer.position());
+        }
+        journal.force(false);
+    }
+
+    /**
+     * @return the segments recorded in the journal, or null when there is no usable journal for this version of the
+     * resource, or its segments don't split the file into consecutive ranges
+     */
+    static List<Segment> readJournal(FileChannel journal, long length, byte[] validator) throws IOException {
+        if (journal.size() < HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(journal, header, 0);
+        int validatorLength = header.getInt(Long.BYTES);
+        int count = header.getInt(Long.BYTES + Integer.BYTES);
+        long recordsOffset = HEADER_SIZE + (long) validatorLength;
+        if (header.getLong(0) != length || validatorLength != validator.length || count <= 0
+            || journal.size() != recordsOffset + (long) count * SEGMENT_RECORD_SIZE) {
+            return null;
+        }
+        ByteBuffer journaled = ByteBuffer.allocate(validatorLength);
+        readFully(journal, journaled, HEADER_SIZE);
+        if (!journaled.equals(ByteBuffer.wrap(validator))) {
+            return null;
+        }
+        ByteBuffer records = ByteBuffer.allocate(count * SEGMENT_RECORD_SIZE);
+        readFully(journal, records, recordsOffset);
+        List<Segment> plan = new ArrayList<>(count);
+        long next = 0;
+        for (int i = 0; i < count; i++) {
+            Segment segment = new Segment(i, records.getLong(), records.getLong(), records.getLong());
+            if (segment.start != next || segment.end < segment.start || segment.completed < 0 || segment.completed > segment.end - segment.start) {
+                return null;
+            }
+            plan.add(segment);
+            next = segment.end;
+        }
+        return next == length ? plan : null;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Journal ended unexpectedly");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Waits for the segment until it's done. An interrupt tells all the segments to stop after their current read,
+     * which is still awaited, and is restored afterwards.
+     *
+     * @return the bytes the segment downloaded
+     */
+    private static long await(Future<Long> result, AtomicBoolean stopped) throws IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return result.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    stopped.set(true);
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread()
+                    .interrupt();
+            }
+        }
+    }
+
+    private static class Resource {
+
+        final long length;
+        final String validator;
+
+        Resource(long length, String validator) {
+            this.length = length;
+            this.validator = validator;
+        }
+    }
+
+    static class Segment {
+
+        final int index;
+        final long start;
+        final long end;
+        final long completed;
+
+        Segment(int index, long start, long end, long completed) {
+            this.index = index;
+            this.start = start;
+            this.end = end;
+            this.completed = completed;
+        }
+    }
+}
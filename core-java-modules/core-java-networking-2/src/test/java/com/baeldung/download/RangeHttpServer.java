@@ -0,0 +1,129 @@
+package com.baeldung.download;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded HTTP server serving one in-memory file with support for single byte ranges. It can throttle every
+ * connection, to mimic per-connection bandwidth limits, and break off a number of responses halfway. The ETag of the
+ * file can be changed to mimic a new version of it, ranges are only served for the current ETag.
+ */
+class RangeHttpServer implements AutoCloseable {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d*)");
+
+    private final HttpServer server;
+    private final byte[] content;
+    private final long bytesPerSecondPerConnection;
+    private final AtomicInteger responsesToBreak = new AtomicInteger();
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private volatile String etag = "\"v1\"";
+
+    RangeHttpServer(byte[] content, long bytesPerSecondPerConnection) throws IOException {
+        this.content = content;
+        this.bytesPerSecondPerConnection = bytesPerSecondPerConnection;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/file", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    String url() {
+        return "http://localhost:" + server.getAddress()
+            .getPort() + "/file";
+    }
+
+    void breakNextResponses(int count) {
+        responsesToBreak.set(count);
+    }
+
+    void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    List<String> requestedRanges() {
+        return ranges;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders()
+            .set("Accept-Ranges", "bytes");
+        exchange.getResponseHeaders()
+            .set("ETag", etag);
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders()
+                .set("Content-Length", String.valueOf(content.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        int start = 0;
+        int end = content.length - 1;
+        int status = 200;
+        String range = exchange.getRequestHeaders()
+            .getFirst("Range");
+        String ifRange = exchange.getRequestHeaders()
+            .getFirst("If-Range");
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            Matcher matcher = RANGE.matcher(range);
+            if (!matcher.matches()) {
+                exchange.sendResponseHeaders(416, -1);
+                exchange.close();
+                return;
+            }
+            ranges.add(range);
+            start = Integer.parseInt(matcher.group(1));
+            if (!matcher.group(2)
+                .isEmpty()) {
+                end = Math.min(end, Integer.parseInt(matcher.group(2)));
+            }
+            status = 206;
+            exchange.getResponseHeaders()
+                .set("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+        }
+
+        int length = end - start + 1;
+        boolean breakOff = responsesToBreak.getAndDecrement() > 0;
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            int toSend = breakOff ? length / 2 : length;
+            int chunk = 16 * 1024;
+            for (int offset = 0; offset < toSend; offset += chunk) {
+                int size = Math.min(chunk, toSend - offset);
+                body.write(content, start + offset, size);
+                body.flush();
+                throttle(size);
+            }
+            if (breakOff) {
+                throw new IOException("Response broken off on purpose");
+            }
+        }
+    }
+
+    private void throttle(int bytes) {
+        if (bytesPerSecondPerConnection > 0) {
+            try {
+                Thread.sleep(bytes * 1000L / bytesPerSecondPerConnection);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                    .interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
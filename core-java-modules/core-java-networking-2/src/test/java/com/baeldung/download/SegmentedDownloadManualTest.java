@@ -0,0 +1,36 @@
+package com.baeldung.download;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prints the download throughput per segment count against a local server that limits every connection to
+ * 4 MB/s, which is how most servers and CDNs cap a single stream.
+ */
+public class SegmentedDownloadManualTest {
+
+    @Test
+    public void givenThrottledServer_whenDownloadingWithMoreSegments_thenThroughputScales() throws Exception {
+        byte[] content = new byte[32 * 1024 * 1024];
+        new Random(9).nextBytes(content);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try (RangeHttpServer server = new RangeHttpServer(content, 4 * 1024 * 1024)) {
+            for (int segments : new int[] { 1, 2, 4, 8, 16 }) {
+                Path target = Files.createTempFile("segmented", ".dat");
+                Files.delete(target);
+                long start = System.nanoTime();
+                new SegmentedDownload(segments, executor).download(server.url(), target.toString());
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%2d segments: %6.1f MB/s%n", segments, content.length / seconds / (1024 * 1024));
+                Files.delete(target);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
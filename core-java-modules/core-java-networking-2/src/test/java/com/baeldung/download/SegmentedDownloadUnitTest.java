@@ -0,0 +1,200 @@
+package com.baeldung.download;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SegmentedDownloadUnitTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] content;
+    private RangeHttpServer server;
+    private ExecutorService executor;
+    private String fileName;
+
+    @Before
+    public void setUp() throws IOException {
+        content = new byte[1024 * 1024 + 13];
+        new Random(5).nextBytes(content);
+        server = new RangeHttpServer(content, 0);
+        executor = Executors.newFixedThreadPool(4);
+        fileName = folder.getRoot()
+            .toPath()
+            .resolve("file.dat")
+            .toString();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        server.close();
+    }
+
+    @Test
+    public void givenRangeServer_whenDownloadingInSegments_thenFileIsComplete() throws Exception {
+        long downloaded = new SegmentedDownload(4, executor).download(server.url(), fileName);
+
+        assertEquals(content.length, downloaded);
+        assertEquals(4, server.requestedRanges()
+            .size());
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(fileName)));
+        assertFalse(Files.exists(Paths.get(fileName + SegmentedDownload.JOURNAL_SUFFIX)));
+    }
+
+    @Test
+    public void givenBrokenConnections_whenDownloadingAgain_thenOnlyMissingBytesAreFetched() throws Exception {
+        SegmentedDownload download = new SegmentedDownload(4, executor, Duration.ZERO);
+        server.breakNextResponses(4);
+        try {
+            download.download(server.url(), fileName);
+            fail("Every segment should have been broken off");
+        } catch (IOException expected) {
+            assertTrue(Files.exists(Paths.get(fileName + SegmentedDownload.JOURNAL_SUFFIX)));
+        }
+
+        long resumed = download.download(server.url(), fileName);
+
+        assertTrue(resumed < content.length);
+        assertTrue(server.requestedRanges()
+            .stream()
+            .skip(4)
+            .noneMatch(range -> range.equals("bytes=0-262146")));
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(fileName)));
+        assertFalse(Files.exists(Paths.get(fileName + SegmentedDownload.JOURNAL_SUFFIX)));
+    }
+
+    @Test
+    public void givenChangedResource_whenDownloadingAgain_thenDownloadStartsOver() throws Exception {
+        SegmentedDownload download = new SegmentedDownload(4, executor, Duration.ZERO);
+        interruptDownload(download);
+        server.setEtag("\"v2\"");
+
+        long downloaded = download.download(server.url(), fileName);
+
+        assertEquals(content.length, downloaded);
+        assertTrue(server.requestedRanges()
+            .stream()
+            .skip(4)
+            .anyMatch(range -> range.equals("bytes=0-262146")));
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(fileName)));
+    }
+
+    @Test
+    public void givenTruncatedFile_whenDownloadingAgain_thenDownloadStartsOver() throws Exception {
+        SegmentedDownload download = new SegmentedDownload(4, executor, Duration.ZERO);
+        interruptDownload(download);
+        try (FileChannel file = FileChannel.open(Paths.get(fileName), StandardOpenOption.WRITE)) {
+            file.truncate(content.length / 2);
+        }
+
+        long downloaded = download.download(server.url(), fileName);
+
+        assertEquals(content.length, downloaded);
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(fileName)));
+    }
+
+    @Test
+    public void givenJournalOfOtherFile_whenDownloading_thenDownloadStartsOver() throws Exception {
+        Path journal = Paths.get(fileName + SegmentedDownload.JOURNAL_SUFFIX);
+        Files.write(journal, new byte[] { 1, 2, 3 });
+
+        long downloaded = new SegmentedDownload(3, executor).download(server.url(), fileName);
+
+        assertEquals(content.length, downloaded);
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(fileName)));
+    }
+
+    @Test
+    public void givenJournalWithInconsistentSegments_whenRead_thenItIsNotResumed() throws Exception {
+        long length = 300;
+        assertNotNull(readJournal(length, 0, 100, 50, 100, 300, 0));
+        assertNull(readJournal(length, 0, 100, 0, 120, 300, 0));
+        assertNull(readJournal(length, 0, 100, 0, 80, 300, 0));
+        assertNull(readJournal(length, 0, 100, 101, 100, 300, 0));
+        assertNull(readJournal(length, 0, 100, -1, 100, 300, 0));
+        assertNull(readJournal(length, 0, 100, 0, 300, 100, 0));
+        assertNull(readJournal(length, 0, 100, 0, 100, 200, 0));
+    }
+
+    @Test(timeout = 10_000)
+    public void givenDownloadingThread_whenInterrupted_thenEverySegmentHasStoppedWhenItReturns() throws Exception {
+        server.close();
+        server = new RangeHttpServer(content, 256 * 1024);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread downloading = new Thread(() -> {
+            try {
+                new SegmentedDownload(4, executor).download(server.url(), fileName);
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        downloading.start();
+        Thread.sleep(300);
+
+        downloading.interrupt();
+        downloading.join();
+
+        assertTrue(failure.get() instanceof InterruptedIOException);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(100, TimeUnit.MILLISECONDS));
+        assertTrue(Files.exists(Paths.get(fileName + SegmentedDownload.JOURNAL_SUFFIX)));
+    }
+
+    /**
+     * @param segments start, end and completed bytes of every segment
+     */
+    private List<SegmentedDownload.Segment> readJournal(long length, long... segments) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + 2 * Integer.BYTES + segments.length * Long.BYTES);
+        buffer.putLong(length)
+            .putInt(0)
+            .putInt(segments.length / 3);
+        for (long value : segments) {
+            buffer.putLong(value);
+        }
+        buffer.flip();
+        Path journal = folder.newFile()
+            .toPath();
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(buffer);
+            return SegmentedDownload.readJournal(channel, length, new byte[0]);
+        }
+    }
+
+    private void interruptDownload(SegmentedDownload download) throws Exception {
+        server.breakNextResponses(4);
+        try {
+            download.download(server.url(), fileName);
+            fail("Every segment should have been broken off");
+        } catch (IOException expected) {
+            assertTrue(Files.exists(Paths.get(fileName + SegmentedDownload.JOURNAL_SUFFIX)));
+        }
+    }
+}
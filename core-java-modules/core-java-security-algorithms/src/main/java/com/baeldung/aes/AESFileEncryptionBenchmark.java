@@ -0,0 +1,118 @@
+package com.baeldung.aes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link AESUtil#encryptFile} and {@link AESUtil#decryptFile} with the chunked, parallel
+ * {@link ChunkedAESGCMFileCipher}. Every operation processes {@code sizeMb} megabytes, so MB/s is
+ * {@code sizeMb} divided by the reported seconds per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AESFileEncryptionBenchmark {
+
+    private static final String ALGORITHM = "AES/CBC/PKCS5Padding";
+
+    @Param({ "64" })
+    public int sizeMb;
+
+    private Path directory;
+    private File plain;
+    private File cbcEncrypted;
+    private File gcmEncrypted;
+    private File output;
+    private SecretKey key;
+    private IvParameterSpec iv;
+    private ExecutorService executor;
+    private ChunkedAESGCMFileCipher chunkedCipher;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("aes-benchmark");
+        plain = directory.resolve("plain")
+            .toFile();
+        byte[] block = new byte[1024 * 1024];
+        new Random(42).nextBytes(block);
+        try (OutputStream out = Files.newOutputStream(plain.toPath())) {
+            for (int i = 0; i < sizeMb; i++) {
+                out.write(block);
+            }
+        }
+        key = AESUtil.generateKey(128);
+        iv = AESUtil.generateIv();
+        int threads = Runtime.getRuntime()
+            .availableProcessors();
+        executor = Executors.newFixedThreadPool(threads);
+        chunkedCipher = new ChunkedAESGCMFileCipher(executor, threads);
+
+        cbcEncrypted = directory.resolve("cbc")
+            .toFile();
+        gcmEncrypted = directory.resolve("gcm")
+            .toFile();
+        output = directory.resolve("output")
+            .toFile();
+        AESUtil.encryptFile(ALGORITHM, key, iv, plain, cbcEncrypted);
+        chunkedCipher.encryptFile(key, plain, gcmEncrypted);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        for (File file : new File[] { plain, cbcEncrypted, gcmEncrypted, output }) {
+            Files.deleteIfExists(file.toPath());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void encryptWithAESUtil() throws Exception {
+        AESUtil.encryptFile(ALGORITHM, key, iv, plain, output);
+    }
+
+    @Benchmark
+    public void decryptWithAESUtil() throws Exception {
+        AESUtil.decryptFile(ALGORITHM, key, iv, cbcEncrypted, output);
+    }
+
+    @Benchmark
+    public void encryptChunkedGcm() throws Exception {
+        chunkedCipher.encryptFile(key, plain, output);
+    }
+
+    @Benchmark
+    public void decryptChunkedGcm() throws Exception {
+        chunkedCipher.decryptFile(key, gcmEncrypted, output);
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(args);
+    }
+}
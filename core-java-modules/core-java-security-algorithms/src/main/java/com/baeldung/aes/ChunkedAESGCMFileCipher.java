@@ -0,0 +1,313 @@
+package com.baeldung.aes;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encrypts files as a sequence of independently authenticated AES-GCM chunks, so that chunks can be encrypted and
+ * decrypted in parallel, and a single chunk can be decrypted without reading the rest of the file.
+ * <p>
+ * Layout of an encrypted file:
+ * <pre>
+ * header: magic "AGCM" | version (1 byte) | chunk size (int) | plaintext length (long) | nonce prefix (8 bytes)
+ * chunk:  ciphertext of up to chunk size bytes | 16 byte GCM tag
+ * </pre>
+ * The nonce of a chunk is the random nonce prefix of the file followed by the chunk index. The associated data of
+ * every chunk is the header, its index and whether it is the last chunk, so chunks can't be reordered, swapped
+ * between files or cut off without failing authentication.
+ * <p>
+ * The header is authenticated with every chunk, but only once the chunk is decrypted, so its chunk size is checked
+ * against {@link #MAX_CHUNK_SIZE} before any buffer is allocated for it. Decrypting a whole file also fails if any
+ * bytes follow the last chunk.
+ */
+public class ChunkedAESGCMFileCipher {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    public static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    static final int HEADER_SIZE = 4 + 1 + Integer.BYTES + Long.BYTES + 8;
+    static final int TAG_SIZE = 16;
+
+    private static final byte[] MAGIC = { 'A', 'G', 'C', 'M' };
+    private static final byte VERSION = 1;
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    public ChunkedAESGCMFileCipher(ExecutorService executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    public void encryptFile(SecretKey key, File inputFile, File outputFile) throws IOException, GeneralSecurityException {
+        encryptFile(key, inputFile, outputFile, DEFAULT_CHUNK_SIZE);
+    }
+
+    public void encryptFile(SecretKey key, File inputFile, File outputFile, int chunkSize) throws IOException, GeneralSecurityException {
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be between 1 and " + MAX_CHUNK_SIZE + ": " + chunkSize);
+        }
+        try (FileChannel input = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] noncePrefix = new byte[8];
+            new SecureRandom().nextBytes(noncePrefix);
+            Header header = new Header(chunkSize, input.size(), noncePrefix);
+            writeFully(output, ByteBuffer.wrap(header.bytes), 0);
+
+            processChunks(header, () -> new ChunkWorker(key, header, chunkSize, chunkSize + TAG_SIZE) {
+                @Override
+                void process(long chunk) throws IOException, GeneralSecurityException {
+                    in.clear()
+                        .limit(header.plaintextLength(chunk));
+                    readFully(input, in, chunk * chunkSize);
+                    in.flip();
+                    out.clear();
+                    cipher(Cipher.ENCRYPT_MODE, chunk).doFinal(in, out);
+                    out.flip();
+                    writeFully(output, out, header.ciphertextOffset(chunk));
+                }
+            });
+        }
+    }
+
+    /**
+     * Deletes the decrypted file again if any chunk fails, or bytes follow the last chunk, so that no unauthenticated
+     * plaintext is left behind.
+     */
+    public void decryptFile(SecretKey key, File encryptedFile, File decryptedFile) throws IOException, GeneralSecurityException {
+        boolean decrypted = false;
+        try {
+            try (FileChannel input = FileChannel.open(encryptedFile.toPath(), StandardOpenOption.READ);
+                 FileChannel output = FileChannel.open(decryptedFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                Header header = Header.read(input);
+                long end = header.ciphertextOffset(header.chunkCount() - 1) + header.plaintextLength(header.chunkCount() - 1) + TAG_SIZE;
+                if (input.size() > end) {
+                    throw new IOException("Unexpected " + (input.size() - end) + " bytes after the last chunk");
+                }
+                processChunks(header, () -> new ChunkWorker(key, header, header.chunkSize + TAG_SIZE, header.chunkSize) {
+                    @Override
+                    void process(long chunk) throws IOException, GeneralSecurityException {
+                        decryptChunk(input, chunk, this);
+                        writeFully(output, out, chunk * header.chunkSize);
+                    }
+                });
+            }
+            decrypted = true;
+        } finally {
+            if (!decrypted) {
+                Files.deleteIfExists(decryptedFile.toPath());
+            }
+        }
+    }
+
+    /**
+     * Decrypts only the chunk with the given index, which holds the plaintext from {@code index * chunkSize} on.
+     */
+    public static byte[] decryptChunk(SecretKey key, File encryptedFile, long index) throws IOException, GeneralSecurityException {
+        try (FileChannel input = FileChannel.open(encryptedFile.toPath(), StandardOpenOption.READ)) {
+            Header header = Header.read(input);
+            if (index < 0 || index >= header.chunkCount()) {
+                throw new IllegalArgumentException("No chunk " + index + " in a file of " + header.chunkCount() + " chunks");
+            }
+            ChunkWorker worker = new ChunkWorker(key, header, header.chunkSize + TAG_SIZE, header.chunkSize) {
+                @Override
+                void process(long chunk) {
+                }
+            };
+            decryptChunk(input, index, worker);
+            byte[] plainText = new byte[worker.out.remaining()];
+            worker.out.get(plainText);
+            return plainText;
+        }
+    }
+
+    private static void decryptChunk(FileChannel input, long chunk, ChunkWorker worker) throws IOException, GeneralSecurityException {
+        Header header = worker.header;
+        worker.in.clear()
+            .limit(header.plaintextLength(chunk) + TAG_SIZE);
+        readFully(input, worker.in, header.ciphertextOffset(chunk));
+        worker.in.flip();
+        worker.out.clear();
+        worker.cipher(Cipher.DECRYPT_MODE, chunk)
+            .doFinal(worker.in, worker.out);
+        worker.out.flip();
+    }
+
+    /**
+     * Every worker takes the next unprocessed chunk until none is left, reusing its cipher and direct buffers.
+     */
+    private void processChunks(Header header, WorkerFactory workers) throws IOException, GeneralSecurityException {
+        long chunkCount = header.chunkCount();
+        AtomicLong nextChunk = new AtomicLong();
+        List<Future<Void>> results = new ArrayList<>();
+        for (int i = 0; i < Math.min(parallelism, chunkCount); i++) {
+            results.add(executor.submit(() -> {
+                ChunkWorker worker = workers.create();
+                long chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                    worker.process(chunk);
+                }
+                return null;
+            }));
+        }
+        Throwable failure = null;
+        for (Future<Void> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                    .interrupt();
+                throw new IOException("Interrupted while processing chunks", e);
+            } catch (ExecutionException e) {
+                // stop the other workers as soon as one failed
+                nextChunk.set(chunkCount);
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof GeneralSecurityException) {
+            throw (GeneralSecurityException) failure;
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure != null) {
+            throw new IOException(failure);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private interface WorkerFactory {
+
+        ChunkWorker create() throws GeneralSecurityException;
+    }
+
+    private abstract static class ChunkWorker {
+
+        final SecretKey key;
+        final Header header;
+        final Cipher cipher;
+        final ByteBuffer in;
+        final ByteBuffer out;
+        final ByteBuffer aad = ByteBuffer.allocate(HEADER_SIZE + Long.BYTES + 1);
+        final byte[] nonce = new byte[12];
+
+        ChunkWorker(SecretKey key, Header header, int inSize, int outSize) throws GeneralSecurityException {
+            this.key = key;
+            this.header = header;
+            this.cipher = Cipher.getInstance(TRANSFORMATION);
+            this.in = ByteBuffer.allocateDirect(inSize);
+            this.out = ByteBuffer.allocateDirect(outSize);
+            System.arraycopy(header.noncePrefix, 0, nonce, 0, 8);
+            aad.put(header.bytes);
+        }
+
+        abstract void process(long chunk) throws IOException, GeneralSecurityException;
+
+        Cipher cipher(int mode, long chunk) throws GeneralSecurityException {
+            if (chunk > 0xFFFFFFFFL) {
+                throw new GeneralSecurityException("Too many chunks for a 32 bit chunk counter");
+            }
+            ByteBuffer.wrap(nonce, 8, 4)
+                .putInt((int) chunk);
+            cipher.init(mode, key, new GCMParameterSpec(TAG_SIZE * 8, nonce));
+            aad.position(HEADER_SIZE);
+            aad.putLong(chunk)
+                .put((byte) (chunk == header.chunkCount() - 1 ? 1 : 0));
+            cipher.updateAAD(aad.array());
+            return cipher;
+        }
+    }
+
+    private static class Header {
+
+        final int chunkSize;
+        final long length;
+        final byte[] noncePrefix;
+        final byte[] bytes;
+
+        Header(int chunkSize, long length, byte[] noncePrefix) {
+            this.chunkSize = chunkSize;
+            this.length = length;
+            this.noncePrefix = noncePrefix;
+            this.bytes = ByteBuffer.allocate(HEADER_SIZE)
+                .put(MAGIC)
+                .put(VERSION)
+                .putInt(chunkSize)
+                .putLong(length)
+                .put(noncePrefix)
+                .array();
+        }
+
+        static Header read(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, buffer, 0);
+            buffer.flip();
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(MAGIC, magic) || buffer.get() != VERSION) {
+                throw new IOException("Not a chunked AES-GCM file");
+            }
+            int chunkSize = buffer.getInt();
+            long length = buffer.getLong();
+            byte[] noncePrefix = new byte[8];
+            buffer.get(noncePrefix);
+            if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE || length < 0) {
+                throw new IOException("Corrupt chunked AES-GCM header");
+            }
+            return new Header(chunkSize, length, noncePrefix);
+        }
+
+        long chunkCount() {
+            // an empty file still gets one, empty, chunk so that its tag authenticates the header
+            return Math.max(1, (length + chunkSize - 1) / chunkSize);
+        }
+
+        int plaintextLength(long chunk) {
+            return (int) Math.min(chunkSize, length - chunk * chunkSize);
+        }
+
+        long ciphertextOffset(long chunk) {
+            return HEADER_SIZE + chunk * (chunkSize + (long) TAG_SIZE);
+        }
+    }
+}
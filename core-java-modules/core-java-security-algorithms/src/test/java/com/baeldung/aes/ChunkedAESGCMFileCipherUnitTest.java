@@ -0,0 +1,153 @@
+package com.baeldung.aes;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.SecretKey;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class ChunkedAESGCMFileCipherUnitTest implements WithAssertions {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    @TempDir
+    Path tempDir;
+
+    private ExecutorService executor;
+    private ChunkedAESGCMFileCipher fileCipher;
+    private SecretKey key;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+        fileCipher = new ChunkedAESGCMFileCipher(executor, 4);
+        key = AESUtil.generateKey(256);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenFileOfSeveralChunks_whenEncryptAndDecrypt_thenContentIsRestored() throws Exception {
+        byte[] content = randomBytes(10 * CHUNK_SIZE + 123);
+        File encrypted = encrypt(content);
+
+        File decrypted = tempDir.resolve("decrypted")
+            .toFile();
+        fileCipher.decryptFile(key, encrypted, decrypted);
+
+        assertThat(encrypted).hasSize(ChunkedAESGCMFileCipher.HEADER_SIZE + content.length + 11L * ChunkedAESGCMFileCipher.TAG_SIZE);
+        assertThat(Files.readAllBytes(decrypted.toPath())).isEqualTo(content);
+    }
+
+    @Test
+    void givenEmptyFile_whenEncryptAndDecrypt_thenDecryptedFileIsEmpty() throws Exception {
+        File encrypted = encrypt(new byte[0]);
+
+        File decrypted = tempDir.resolve("decrypted")
+            .toFile();
+        fileCipher.decryptFile(key, encrypted, decrypted);
+
+        assertThat(decrypted).isEmpty();
+    }
+
+    @Test
+    void givenEncryptedFile_whenDecryptChunk_thenOnlyThatRangeIsReturned() throws Exception {
+        byte[] content = randomBytes(5 * CHUNK_SIZE + 10);
+        File encrypted = encrypt(content);
+
+        byte[] third = ChunkedAESGCMFileCipher.decryptChunk(key, encrypted, 2);
+        byte[] last = ChunkedAESGCMFileCipher.decryptChunk(key, encrypted, 5);
+
+        assertThat(third).isEqualTo(Arrays.copyOfRange(content, 2 * CHUNK_SIZE, 3 * CHUNK_SIZE));
+        assertThat(last).isEqualTo(Arrays.copyOfRange(content, 5 * CHUNK_SIZE, content.length));
+    }
+
+    @Test
+    void givenTamperedChunk_whenDecrypt_thenAuthenticationFails() throws Exception {
+        File encrypted = encrypt(randomBytes(3 * CHUNK_SIZE));
+        try (RandomAccessFile file = new RandomAccessFile(encrypted, "rw")) {
+            long position = ChunkedAESGCMFileCipher.HEADER_SIZE + CHUNK_SIZE + ChunkedAESGCMFileCipher.TAG_SIZE + 7;
+            file.seek(position);
+            int original = file.read();
+            file.seek(position);
+            file.write(original ^ 1);
+        }
+
+        File decrypted = tempDir.resolve("decrypted")
+            .toFile();
+        assertThatThrownBy(() -> fileCipher.decryptFile(key, encrypted, decrypted)).isInstanceOf(AEADBadTagException.class);
+        assertThat(decrypted).doesNotExist();
+        assertThat(ChunkedAESGCMFileCipher.decryptChunk(key, encrypted, 0)).hasSize(CHUNK_SIZE);
+    }
+
+    @Test
+    void givenTruncatedFile_whenLastRemainingChunkIsDecrypted_thenAuthenticationFails() throws Exception {
+        File encrypted = encrypt(randomBytes(3 * CHUNK_SIZE));
+        long twoChunks = ChunkedAESGCMFileCipher.HEADER_SIZE + 2L * (CHUNK_SIZE + ChunkedAESGCMFileCipher.TAG_SIZE);
+        try (RandomAccessFile file = new RandomAccessFile(encrypted, "rw")) {
+            file.setLength(twoChunks);
+            // pretend the file always had two chunks
+            file.seek(9);
+            file.writeLong(2L * CHUNK_SIZE);
+        }
+
+        assertThatThrownBy(() -> ChunkedAESGCMFileCipher.decryptChunk(key, encrypted, 1)).isInstanceOf(AEADBadTagException.class);
+    }
+
+    @Test
+    void givenBytesAppendedAfterTheLastChunk_whenDecrypt_thenDecryptionFails() throws Exception {
+        File encrypted = encrypt(randomBytes(2 * CHUNK_SIZE + 5));
+        try (RandomAccessFile file = new RandomAccessFile(encrypted, "rw")) {
+            file.seek(file.length());
+            file.write(new byte[] { 1, 2, 3 });
+        }
+
+        File decrypted = tempDir.resolve("decrypted")
+            .toFile();
+        assertThatThrownBy(() -> fileCipher.decryptFile(key, encrypted, decrypted)).isInstanceOf(IOException.class)
+            .hasMessageContaining("3 bytes after the last chunk");
+        assertThat(decrypted).doesNotExist();
+    }
+
+    @Test
+    void givenHugeChunkSizeInHeader_whenDecrypt_thenRejectedBeforeAllocating() throws Exception {
+        File encrypted = encrypt(randomBytes(CHUNK_SIZE));
+        try (RandomAccessFile file = new RandomAccessFile(encrypted, "rw")) {
+            file.seek(5);
+            file.writeInt(Integer.MAX_VALUE - ChunkedAESGCMFileCipher.TAG_SIZE);
+        }
+
+        assertThatThrownBy(() -> ChunkedAESGCMFileCipher.decryptChunk(key, encrypted, 0)).isInstanceOf(IOException.class)
+            .hasMessageContaining("Corrupt");
+    }
+
+    private File encrypt(byte[] content) throws Exception {
+        Path plain = tempDir.resolve("plain");
+        Files.write(plain, content);
+        File encrypted = tempDir.resolve("encrypted")
+            .toFile();
+        fileCipher.encryptFile(key, plain.toFile(), encrypted, CHUNK_SIZE);
+        return encrypted;
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,187 @@
+package com.baeldung.streams.processing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Splittable alternative to {@link CustomBatchIterator}. Every batch but the last one holds exactly {@code batchSize}
+ * elements, also when the stream runs in parallel, because splits only ever happen at batch boundaries:
+ * <ul>
+ * <li>a random access {@link List} is split by index, and its batches are read-only views of the list</li>
+ * <li>any other source is split like {@link java.util.Spliterators#spliteratorUnknownSize}, by buffering a growing
+ * number of whole batches into an array that the split off part then serves views of</li>
+ * </ul>
+ */
+public class BatchSpliterator<T> implements Spliterator<List<T>> {
+
+    // elements buffered by the first split of a source that can't be split by index, later splits take more
+    private static final int SPLIT_UNIT = 1 << 10;
+    private static final int MAX_SPLIT = 1 << 25;
+
+    private final int batchSize;
+    private final Spliterator<T> source;
+    private final List<T> elements;
+    private int from;
+    private final int to;
+    private int splitBatches;
+
+    private BatchSpliterator(Spliterator<T> source, int batchSize) {
+        this(source, null, 0, 0, batchSize);
+    }
+
+    private BatchSpliterator(List<T> elements, int from, int to, int batchSize) {
+        this(null, elements, from, to, batchSize);
+    }
+
+    private BatchSpliterator(Spliterator<T> source, List<T> elements, int from, int to, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.source = source;
+        this.elements = elements;
+        this.from = from;
+        this.to = to;
+        this.batchSize = batchSize;
+    }
+
+    public static <T> Stream<List<T>> batchStreamOf(Stream<T> stream, int batchSize) {
+        return StreamSupport.stream(new BatchSpliterator<>(stream.spliterator(), batchSize), stream.isParallel())
+            .onClose(stream::close);
+    }
+
+    /**
+     * The batches are views of {@code list}, which must not be modified while the stream is consumed.
+     */
+    public static <T> Stream<List<T>> batchStreamOf(List<T> list, int batchSize, boolean parallel) {
+        if (list instanceof RandomAccess) {
+            return StreamSupport.stream(new BatchSpliterator<>(list, 0, list.size(), batchSize), parallel);
+        }
+        return batchStreamOf(parallel ? list.parallelStream() : list.stream(), batchSize);
+    }
+
+    /**
+     * Hands every batch of a sequential traversal to {@code action} in the same, reused list, so no list is allocated
+     * per batch. The list is only valid until {@code action} returns.
+     */
+    public static <T> void forEachBatch(Stream<T> stream, int batchSize, Consumer<? super List<T>> action) {
+        List<T> batch = new ArrayList<>(batchSize);
+        List<T> view = Collections.unmodifiableList(batch);
+        Spliterator<T> source = stream.spliterator();
+        while (source.tryAdvance(batch::add)) {
+            if (batch.size() == batchSize) {
+                action.accept(view);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            action.accept(view);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super List<T>> action) {
+        Objects.requireNonNull(action);
+        if (elements != null) {
+            if (from >= to) {
+                return false;
+            }
+            int end = Math.min(to, from + batchSize);
+            List<T> batch = Collections.unmodifiableList(elements.subList(from, end));
+            from = end;
+            action.accept(batch);
+            return true;
+        }
+        List<T> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && source.tryAdvance(batch::add)) {
+            // fill the batch
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        action.accept(batch);
+        return true;
+    }
+
+    @Override
+    public Spliterator<List<T>> trySplit() {
+        if (elements != null) {
+            int batches = batchCount(to - from);
+            if (batches < 2) {
+                return null;
+            }
+            int mid = from + (batches >>> 1) * batchSize;
+            Spliterator<List<T>> prefix = new BatchSpliterator<>(elements, from, mid, batchSize);
+            from = mid;
+            return prefix;
+        }
+        return splitSource();
+    }
+
+    private Spliterator<List<T>> splitSource() {
+        long remaining = source.estimateSize();
+        if (remaining <= batchSize) {
+            return null;
+        }
+        splitBatches = Math.min(Math.max(1, MAX_SPLIT / batchSize), splitBatches + Math.max(1, SPLIT_UNIT / batchSize));
+        long batches = Math.min(splitBatches, (remaining + batchSize - 1) / batchSize);
+        // whole batches only, so that the rest of the source starts at a batch boundary
+        Buffer<T> buffer = new Buffer<>((int) batches * batchSize);
+        while (buffer.size < buffer.elements.length && source.tryAdvance(buffer)) {
+            // fill the buffer
+        }
+        if (buffer.size == 0) {
+            return null;
+        }
+        return new BatchSpliterator<>(buffer.asList(), 0, buffer.size, batchSize);
+    }
+
+    @Override
+    public long estimateSize() {
+        if (elements != null) {
+            return batchCount(to - from);
+        }
+        long size = source.estimateSize();
+        return size == Long.MAX_VALUE ? size : (size + batchSize - 1) / batchSize;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | NONNULL;
+        if (elements != null) {
+            return characteristics | SIZED | SUBSIZED;
+        }
+        return characteristics | (source.characteristics() & SIZED);
+    }
+
+    private static class Buffer<T> implements Consumer<T> {
+
+        final Object[] elements;
+        int size;
+
+        Buffer(int capacity) {
+            this.elements = new Object[capacity];
+        }
+
+        @Override
+        public void accept(T element) {
+            elements[size++] = element;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> asList() {
+            return (List<T>) Arrays.asList(elements);
+        }
+    }
+
+    private int batchCount(int size) {
+        return (int) (((long) size + batchSize - 1) / batchSize);
+    }
+}
@@ -0,0 +1,101 @@
+package com.baeldung.streams.processing;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.collect.Iterators;
+
+/**
+ * Batches a million boxed integers and sums every batch, comparing {@link CustomBatchIterator}, Guava's
+ * {@link Iterators#partition} and {@link BatchSpliterator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchingBenchmark {
+
+    @Param({ "100" })
+    public int batchSize;
+
+    private List<Integer> data;
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(args);
+    }
+
+    @Setup
+    public void setUp() {
+        data = IntStream.range(0, 1_000_000)
+            .boxed()
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public long customBatchIterator() {
+        return CustomBatchIterator.batchStreamOf(data.stream(), batchSize)
+            .mapToLong(BatchingBenchmark::sum)
+            .sum();
+    }
+
+    @Benchmark
+    public long guavaPartition() {
+        long total = 0;
+        var batches = Iterators.partition(data.iterator(), batchSize);
+        while (batches.hasNext()) {
+            total += sum(batches.next());
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long batchSpliteratorOverStream() {
+        return BatchSpliterator.batchStreamOf(data.stream(), batchSize)
+            .mapToLong(BatchingBenchmark::sum)
+            .sum();
+    }
+
+    @Benchmark
+    public long batchSpliteratorOverList() {
+        return BatchSpliterator.batchStreamOf(data, batchSize, false)
+            .mapToLong(BatchingBenchmark::sum)
+            .sum();
+    }
+
+    @Benchmark
+    public long batchSpliteratorOverListInParallel() {
+        return BatchSpliterator.batchStreamOf(data, batchSize, true)
+            .mapToLong(BatchingBenchmark::sum)
+            .sum();
+    }
+
+    @Benchmark
+    public void forEachBatchWithReusedList(Blackhole blackhole) {
+        BatchSpliterator.forEachBatch(data.stream(), batchSize, batch -> blackhole.consume(sum(batch)));
+    }
+
+    private static long sum(List<Integer> batch) {
+        long sum = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            sum += batch.get(i);
+        }
+        return sum;
+    }
+}
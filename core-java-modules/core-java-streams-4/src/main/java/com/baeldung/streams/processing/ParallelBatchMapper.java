@@ -0,0 +1,101 @@
+package com.baeldung.streams.processing;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Maps a stream batch by batch on an {@link Executor}, for example to turn single lookups into bulk database or
+ * HTTP calls. The results keep the order of the source, and at most {@code maxInFlight} batches are submitted and
+ * not yet consumed at any time, so a slow consumer or a large source doesn't pile up batches in memory.
+ */
+public class ParallelBatchMapper {
+
+    private ParallelBatchMapper() {
+    }
+
+    public static <T, R> Stream<R> parallelBatchMap(Stream<T> stream, int batchSize, Function<? super List<T>, ? extends List<? extends R>> batchFunction,
+        Executor executor) {
+        return parallelBatchMap(stream, batchSize, batchFunction, executor, Runtime.getRuntime()
+            .availableProcessors());
+    }
+
+    /**
+     * @param batchFunction returns one result per element of the batch, in the same order
+     */
+    public static <T, R> Stream<R> parallelBatchMap(Stream<T> stream, int batchSize, Function<? super List<T>, ? extends List<? extends R>> batchFunction,
+        Executor executor, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("At least one batch must be allowed in flight: " + maxInFlight);
+        }
+        Spliterator<List<T>> batches = BatchSpliterator.batchStreamOf(stream.sequential(), batchSize)
+            .spliterator();
+        Iterator<List<? extends R>> results = new InFlightBatches<>(batches, batchFunction, executor, maxInFlight);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED), false)
+            .<R> flatMap(List::stream)
+            .onClose(stream::close);
+    }
+
+    private static class InFlightBatches<T, R> implements Iterator<List<? extends R>> {
+
+        private final Spliterator<List<T>> batches;
+        private final Function<? super List<T>, ? extends List<? extends R>> batchFunction;
+        private final Executor executor;
+        private final int maxInFlight;
+        private final ArrayDeque<CompletableFuture<List<? extends R>>> inFlight;
+        private boolean exhausted;
+
+        InFlightBatches(Spliterator<List<T>> batches, Function<? super List<T>, ? extends List<? extends R>> batchFunction, Executor executor,
+            int maxInFlight) {
+            this.batches = batches;
+            this.batchFunction = batchFunction;
+            this.executor = executor;
+            this.maxInFlight = maxInFlight;
+            this.inFlight = new ArrayDeque<>(maxInFlight);
+        }
+
+        @Override
+        public boolean hasNext() {
+            submitBatches();
+            return !inFlight.isEmpty();
+        }
+
+        @Override
+        public List<? extends R> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                // the oldest batch stays in flight until it's done, then its slot goes to the next batch
+                List<? extends R> result = inFlight.peek()
+                    .join();
+                inFlight.poll();
+                submitBatches();
+                return result;
+            } catch (CompletionException e) {
+                inFlight.forEach(batch -> batch.cancel(false));
+                inFlight.clear();
+                exhausted = true;
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        private void submitBatches() {
+            while (!exhausted && inFlight.size() < maxInFlight) {
+                exhausted = !batches.tryAdvance(batch -> inFlight.add(CompletableFuture.supplyAsync(() -> batchFunction.apply(batch), executor)));
+            }
+        }
+    }
+}
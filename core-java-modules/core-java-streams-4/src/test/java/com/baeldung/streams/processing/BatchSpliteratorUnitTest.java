@@ -0,0 +1,160 @@
+package com.baeldung.streams.processing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BatchSpliteratorUnitTest {
+
+    private static final int BATCH_SIZE = 10;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void givenAStreamOfData_whenIsProcessingInBatchUsingBatchSpliterator_thenFourBatchesAreObtained() {
+        List<List<Integer>> result = BatchSpliterator.batchStreamOf(IntStream.range(0, 34)
+            .boxed(), BATCH_SIZE)
+            .collect(Collectors.toList());
+
+        assertThat(result).containsExactly(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), List.of(10, 11, 12, 13, 14, 15, 16, 17, 18, 19),
+            List.of(20, 21, 22, 23, 24, 25, 26, 27, 28, 29), List.of(30, 31, 32, 33));
+    }
+
+    @Test
+    public void givenAParallelStream_whenIsProcessingInBatch_thenOnlyTheLastBatchIsPartial() {
+        List<Integer> data = IntStream.range(0, 100_003)
+            .boxed()
+            .collect(Collectors.toList());
+
+        assertBatchesInOrder(BatchSpliterator.batchStreamOf(data.parallelStream()
+            .filter(i -> true), BATCH_SIZE), data);
+        assertBatchesInOrder(BatchSpliterator.batchStreamOf(data, BATCH_SIZE, true), data);
+        assertBatchesInOrder(BatchSpliterator.batchStreamOf(new LinkedList<>(data), BATCH_SIZE, true), data);
+    }
+
+    @Test
+    public void givenARandomAccessList_whenSplit_thenBothHalvesStartAtABatchBoundary() {
+        List<Integer> data = IntStream.range(0, 95)
+            .boxed()
+            .collect(Collectors.toList());
+        var suffix = BatchSpliterator.batchStreamOf(data, BATCH_SIZE, false)
+            .spliterator();
+
+        var prefix = suffix.trySplit();
+
+        assertThat(prefix.estimateSize()).isEqualTo(5);
+        assertThat(suffix.estimateSize()).isEqualTo(5);
+        suffix.tryAdvance(batch -> assertThat(batch).startsWith(50));
+    }
+
+    @Test
+    public void givenAStream_whenForEachBatch_thenTheSameListIsReused() {
+        List<List<Integer>> copies = new ArrayList<>();
+        List<List<Integer>> instances = new ArrayList<>();
+
+        BatchSpliterator.forEachBatch(IntStream.range(0, 25)
+            .boxed(), BATCH_SIZE, batch -> {
+                copies.add(List.copyOf(batch));
+                instances.add(batch);
+            });
+
+        assertThat(copies).extracting(List::size)
+            .containsExactly(10, 10, 5);
+        assertThat(copies.get(2)).containsExactly(20, 21, 22, 23, 24);
+        assertThat(instances.get(0)).isSameAs(instances.get(1))
+            .isSameAs(instances.get(2));
+    }
+
+    @Test
+    public void givenASlowBatchFunction_whenParallelBatchMap_thenOrderIsKeptAndInFlightBatchesAreBounded() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<Integer> result = ParallelBatchMapper.<Integer, Integer> parallelBatchMap(IntStream.range(0, 1000)
+            .boxed(), BATCH_SIZE, batch -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(batch.get(0) % 3);
+                running.decrementAndGet();
+                return batch.stream()
+                    .map(i -> i * 2)
+                    .collect(Collectors.toList());
+            }, executor, 3)
+            .collect(Collectors.toList());
+
+        assertThat(result).isEqualTo(IntStream.range(0, 1000)
+            .mapToObj(i -> i * 2)
+            .collect(Collectors.toList()));
+        assertThat(maxRunning.get()).isBetween(1, 3);
+    }
+
+    @Test
+    public void givenALazyConsumer_whenParallelBatchMap_thenOnlyBoundedBatchesAreRead() {
+        AtomicInteger read = new AtomicInteger();
+        Stream<Integer> source = IntStream.range(0, 1_000_000)
+            .boxed()
+            .peek(i -> read.incrementAndGet());
+
+        List<Integer> firstFive = ParallelBatchMapper.<Integer, Integer> parallelBatchMap(source, BATCH_SIZE, batch -> batch, executor, 2)
+            .limit(5)
+            .collect(Collectors.toList());
+
+        assertThat(firstFive).containsExactly(0, 1, 2, 3, 4);
+        assertThat(read.get()).isLessThanOrEqualTo(3 * BATCH_SIZE);
+    }
+
+    @Test
+    public void givenAFailingBatch_whenParallelBatchMap_thenTheFailureIsRethrown() {
+        Stream<Integer> mapped = ParallelBatchMapper.parallelBatchMap(IntStream.range(0, 100)
+            .boxed(), BATCH_SIZE, batch -> {
+                if (batch.contains(42)) {
+                    throw new IllegalStateException("bulk call failed");
+                }
+                return batch;
+            }, executor, 2);
+
+        assertThatThrownBy(() -> mapped.collect(Collectors.toList())).isInstanceOf(IllegalStateException.class)
+            .hasMessage("bulk call failed");
+    }
+
+    private static void assertBatchesInOrder(Stream<List<Integer>> batches, List<Integer> data) {
+        List<List<Integer>> result = batches.collect(Collectors.toList());
+        for (int i = 0; i < result.size() - 1; i++) {
+            assertThat(result.get(i)).hasSize(BATCH_SIZE);
+        }
+        assertThat(result.stream()
+            .flatMap(List::stream)
+            .collect(Collectors.toList())).isEqualTo(data);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.baeldung.wordcount;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Word counts in an open-addressing table. The characters of all words are appended to one shared {@code char[]},
+ * and a slot holds only the hash, the offset and length of its word, and the count, all in primitive arrays. Adding an
+ * occurrence of a known word therefore allocates nothing.
+ */
+public class WordFrequencies {
+
+    private int[] hashes;
+    private int[] offsets;
+    private int[] lengths;
+    private long[] counts;
+    private int mask;
+    private int distinctWords;
+    private long totalWords;
+
+    private char[] characters = new char[1 << 12];
+    private int charactersUsed;
+
+    WordFrequencies() {
+        this(1 << 10);
+    }
+
+    WordFrequencies(int capacity) {
+        allocate(capacity);
+    }
+
+    /**
+     * @return how often the word occurred, ignoring case
+     */
+    public long count(String word) {
+        int[] codePoints = word.codePoints()
+            .map(Character::toLowerCase)
+            .toArray();
+        char[] chars = new String(codePoints, 0, codePoints.length).toCharArray();
+        int hash = hash(chars, 0, chars.length);
+        for (int slot = hash & mask; counts[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && equalsAt(slot, chars, 0, chars.length)) {
+                return counts[slot];
+            }
+        }
+        return 0;
+    }
+
+    public int distinctWords() {
+        return distinctWords;
+    }
+
+    public long totalWords() {
+        return totalWords;
+    }
+
+    /**
+     * @return the {@code n} most frequent words, most frequent first
+     */
+    public List<Map.Entry<String, Long>> mostFrequent(int n) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(distinctWords);
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] != 0) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(new String(characters, offsets[slot], lengths[slot]), counts[slot]));
+            }
+        }
+        entries.sort(Map.Entry.<String, Long> comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+        return entries.subList(0, Math.min(n, entries.size()));
+    }
+
+    void add(char[] word, int offset, int length, long occurrences) {
+        add(word, offset, length, hash(word, offset, length), occurrences);
+    }
+
+    /**
+     * @param hash the {@link #hash(char[], int, int)} of the word, for callers that computed it while reading the word
+     */
+    void add(char[] word, int offset, int length, int hash, long occurrences) {
+        int slot = hash & mask;
+        while (counts[slot] != 0) {
+            if (hashes[slot] == hash && equalsAt(slot, word, offset, length)) {
+                counts[slot] += occurrences;
+                totalWords += occurrences;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (distinctWords + 1 > (mask + 1) / 4 * 3) {
+            grow();
+            slot = hash & mask;
+            while (counts[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+        }
+        hashes[slot] = hash;
+        offsets[slot] = store(word, offset, length);
+        lengths[slot] = length;
+        counts[slot] = occurrences;
+        distinctWords++;
+        totalWords += occurrences;
+    }
+
+    void addAll(WordFrequencies other) {
+        for (int slot = 0; slot < other.counts.length; slot++) {
+            if (other.counts[slot] != 0) {
+                add(other.characters, other.offsets[slot], other.lengths[slot], other.hashes[slot], other.counts[slot]);
+            }
+        }
+    }
+
+    static int hash(char[] word, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + word[i];
+        }
+        return mix(hash);
+    }
+
+    static int mix(int hash) {
+        return hash ^ (hash >>> 15);
+    }
+
+    private boolean equalsAt(int slot, char[] word, int offset, int length) {
+        if (lengths[slot] != length) {
+            return false;
+        }
+        int stored = offsets[slot];
+        for (int i = 0; i < length; i++) {
+            if (characters[stored + i] != word[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int store(char[] word, int offset, int length) {
+        if (charactersUsed + length > characters.length) {
+            characters = Arrays.copyOf(characters, Math.max(characters.length * 2, charactersUsed + length));
+        }
+        System.arraycopy(word, offset, characters, charactersUsed, length);
+        charactersUsed += length;
+        return charactersUsed - length;
+    }
+
+    private void allocate(int capacity) {
+        hashes = new int[capacity];
+        offsets = new int[capacity];
+        lengths = new int[capacity];
+        counts = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private void grow() {
+        int[] oldHashes = hashes;
+        int[] oldOffsets = offsets;
+        int[] oldLengths = lengths;
+        long[] oldCounts = counts;
+        allocate(oldCounts.length * 2);
+        for (int i = 0; i < oldCounts.length; i++) {
+            if (oldCounts[i] != 0) {
+                // the cached hash places the word without reading its characters
+                int slot = oldHashes[i] & mask;
+                while (counts[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[i];
+                offsets[slot] = oldOffsets[i];
+                lengths[slot] = oldLengths[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
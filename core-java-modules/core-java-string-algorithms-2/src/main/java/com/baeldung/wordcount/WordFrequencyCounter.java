@@ -0,0 +1,223 @@
+package com.baeldung.wordcount;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts word frequencies with the word definition of {@link WordCounter#countWordsManually(String)}: a word is a
+ * run of letters and apostrophes. Words are compared ignoring case.
+ * <p>
+ * The text is scanned straight from a {@link CharBuffer} or from UTF-8 bytes in a {@link ByteBuffer}, decoding into a
+ * reused scratch array, so no substring or other object is created per word. Files are memory-mapped in chunks that
+ * are counted in parallel. A chunk boundary is moved forward to the next ASCII separator, so no word and no multi-byte
+ * character is ever split between two chunks.
+ */
+public class WordFrequencyCounter {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private final WordFrequencies frequencies;
+    private char[] word = new char[64];
+    private int wordLength;
+    // the hash of the word is built up while it is read, so the table doesn't need to read the word again
+    private int wordHash;
+
+    private WordFrequencyCounter(WordFrequencies frequencies) {
+        this.frequencies = frequencies;
+    }
+
+    public static WordFrequencies count(CharSequence text) {
+        return count(CharBuffer.wrap(text));
+    }
+
+    public static WordFrequencies count(CharBuffer text) {
+        WordFrequencyCounter counter = new WordFrequencyCounter(new WordFrequencies());
+        counter.scan(text);
+        return counter.frequencies;
+    }
+
+    public static WordFrequencies countUtf8(ByteBuffer text) {
+        WordFrequencyCounter counter = new WordFrequencyCounter(new WordFrequencies());
+        counter.scanUtf8(text, text.position(), text.limit());
+        return counter.frequencies;
+    }
+
+    public static WordFrequencies countFile(Path file) throws IOException {
+        return countFile(file, DEFAULT_CHUNK_SIZE, Runtime.getRuntime()
+            .availableProcessors());
+    }
+
+    /**
+     * Counts the words of a UTF-8 file. Every worker counts into its own table, and the tables are merged at the end.
+     */
+    public static WordFrequencies countFile(Path file, int chunkSize, int parallelism) throws IOException {
+        List<MappedByteBuffer> chunks = mapChunks(file, chunkSize);
+        int workers = Math.max(1, Math.min(parallelism, chunks.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            AtomicInteger nextChunk = new AtomicInteger();
+            List<Future<WordFrequencies>> results = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                results.add(executor.submit(() -> {
+                    WordFrequencyCounter counter = new WordFrequencyCounter(new WordFrequencies());
+                    int chunk;
+                    while ((chunk = nextChunk.getAndIncrement()) < chunks.size()) {
+                        MappedByteBuffer buffer = chunks.get(chunk);
+                        counter.scanUtf8(buffer, 0, buffer.limit());
+                    }
+                    return counter.frequencies;
+                }));
+            }
+            WordFrequencies total = results.get(0)
+                .get();
+            for (int i = 1; i < results.size(); i++) {
+                total.addAll(results.get(i)
+                    .get());
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            throw new IOException("Interrupted while counting words", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to count words", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void scan(CharBuffer text) {
+        for (int i = text.position(); i < text.limit(); i++) {
+            char c = text.get(i);
+            if (isAllowedInWord(c)) {
+                append(Character.toLowerCase(c));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.limit() && Character.isLetter(Character.toCodePoint(c, text.get(i + 1)))) {
+                appendLowerCase(Character.toCodePoint(c, text.get(++i)));
+            } else {
+                endWord();
+            }
+        }
+        endWord();
+    }
+
+    private void scanUtf8(ByteBuffer text, int from, int to) {
+        int i = from;
+        while (i < to) {
+            int b = text.get(i);
+            if (b >= 0) {
+                // ASCII, by far the most common case
+                if (b == '\'' || (b | 0x20) >= 'a' && (b | 0x20) <= 'z') {
+                    append((char) (b | 0x20));
+                } else {
+                    endWord();
+                }
+                i++;
+                continue;
+            }
+            int length = (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : (b & 0xF8) == 0xF0 ? 4 : 1;
+            int codePoint = length == 1 || i + length > to ? -1 : decode(text, i, length);
+            if (codePoint >= 0 && Character.isLetter(codePoint)) {
+                appendLowerCase(codePoint);
+            } else {
+                // punctuation, symbols and malformed bytes all end a word
+                endWord();
+            }
+            i += codePoint >= 0 ? length : 1;
+        }
+        endWord();
+    }
+
+    /**
+     * @return the code point, or -1 if the continuation bytes are malformed
+     */
+    private static int decode(ByteBuffer text, int start, int length) {
+        int codePoint = text.get(start) & (0x7F >> length);
+        for (int i = 1; i < length; i++) {
+            int b = text.get(start + i);
+            if ((b & 0xC0) != 0x80) {
+                return -1;
+            }
+            codePoint = codePoint << 6 | b & 0x3F;
+        }
+        return codePoint;
+    }
+
+    private static boolean isAllowedInWord(char c) {
+        return c == '\'' || Character.isLetter(c);
+    }
+
+    private void appendLowerCase(int codePoint) {
+        int lowerCase = Character.toLowerCase(codePoint);
+        if (Character.isBmpCodePoint(lowerCase)) {
+            append((char) lowerCase);
+        } else {
+            append(Character.highSurrogate(lowerCase));
+            append(Character.lowSurrogate(lowerCase));
+        }
+    }
+
+    private void append(char c) {
+        if (wordLength == word.length) {
+            word = Arrays.copyOf(word, word.length * 2);
+        }
+        word[wordLength++] = c;
+        wordHash = 31 * wordHash + c;
+    }
+
+    private void endWord() {
+        if (wordLength > 0) {
+            frequencies.add(word, 0, wordLength, WordFrequencies.mix(wordHash), 1);
+            wordLength = 0;
+            wordHash = 0;
+        }
+    }
+
+    private static List<MappedByteBuffer> mapChunks(Path file, int chunkSize) throws IOException {
+        List<MappedByteBuffer> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long start = 0;
+            while (start < fileSize) {
+                long end = Math.min(fileSize, start + chunkSize);
+                if (end < fileSize) {
+                    end = nextSeparator(channel, end, fileSize);
+                }
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * @return the position of the first ASCII byte at or after {@code position} that can't be part of a word
+     */
+    private static long nextSeparator(FileChannel channel, long position, long fileSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < fileSize) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b >= 0 && b != '\'' && !((b | 0x20) >= 'a' && (b | 0x20) <= 'z')) {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return fileSize;
+    }
+}
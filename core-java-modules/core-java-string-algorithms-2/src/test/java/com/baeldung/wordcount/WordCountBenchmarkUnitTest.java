@@ -0,0 +1,171 @@
+package com.baeldung.wordcount;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the existing {@link WordCounter} methods, a {@code split} into a {@link HashMap} and
+ * {@link WordFrequencyCounter} on a generated corpus. Corpora of several GB are supported with
+ * {@code -p sizeMb=4096}, but only by the benchmarks that read the file: a Java {@link String} can't hold more than
+ * 2^31 characters, so the benchmarks on a {@code String} fail their setup for such sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = { "-Xms4g", "-Xmx4g" })
+public class WordCountBenchmarkUnitTest {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opts = new OptionsBuilder().include(WordCountBenchmarkUnitTest.class.getSimpleName())
+            .warmupIterations(2)
+            .measurementIterations(5)
+            .build();
+
+        new Runner(opts).run();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Corpus {
+
+        @Param({ "256" })
+        public int sizeMb;
+
+        Path file;
+
+        @Setup(Level.Trial)
+        public void createCorpus() throws IOException {
+            file = Paths.get(System.getProperty("java.io.tmpdir"), "wordcount-corpus-" + sizeMb + "mb.txt");
+            long size = sizeMb * 1024L * 1024L;
+            // generating GBs of text takes longer than counting them, so the file is kept for later runs
+            if (!Files.exists(file) || Files.size(file) != size) {
+                writeCorpus(file, size);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Text {
+
+        String text;
+
+        @Setup(Level.Trial)
+        public void readCorpus(Corpus corpus) throws IOException {
+            text = new String(Files.readAllBytes(corpus.file), StandardCharsets.UTF_8);
+        }
+
+        @TearDown(Level.Trial)
+        public void release() {
+            text = null;
+        }
+    }
+
+    @Benchmark
+    public int countWordsUsingRegex(Text text) {
+        return WordCounter.countWordsUsingRegex(text.text);
+    }
+
+    @Benchmark
+    public int countWordsUsingTokenizer(Text text) {
+        return WordCounter.countWordsUsingTokenizer(text.text);
+    }
+
+    @Benchmark
+    public int countWordsManually(Text text) {
+        return WordCounter.countWordsManually(text.text);
+    }
+
+    @Benchmark
+    public int frequenciesUsingSplitAndHashMap(Text text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String word : text.text.split("[^\\p{L}']+")) {
+            if (!word.isEmpty()) {
+                frequencies.merge(word.toLowerCase(), 1, Integer::sum);
+            }
+        }
+        return frequencies.size();
+    }
+
+    @Benchmark
+    public int frequenciesFromString(Text text) {
+        return WordFrequencyCounter.count(text.text)
+            .distinctWords();
+    }
+
+    @Benchmark
+    public int frequenciesFromMappedFileSingleThreaded(Corpus corpus) throws IOException {
+        return WordFrequencyCounter.countFile(corpus.file, WordFrequencyCounter.DEFAULT_CHUNK_SIZE, 1)
+            .distinctWords();
+    }
+
+    @Benchmark
+    public int frequenciesFromMappedFile(Corpus corpus) throws IOException {
+        return WordFrequencyCounter.countFile(corpus.file)
+            .distinctWords();
+    }
+
+    /**
+     * Writes words drawn from a skewed vocabulary of 50,000 words, a few of them with non-ASCII letters, separated by
+     * spaces, punctuation and line breaks.
+     */
+    private static void writeCorpus(Path file, long size) throws IOException {
+        Random random = new Random(42);
+        String[] vocabulary = new String[50_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 2 + random.nextInt(9);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            if (i % 100 == 0) {
+                word.append('é');
+            }
+            if (i % 50 == 0) {
+                word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+            }
+            vocabulary[i] = word.toString();
+        }
+        String[] separators = { " ", " ", " ", " ", ", ", ". ", "\n", " - " };
+        long written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            while (written < size) {
+                // squaring favours the first words of the vocabulary, roughly like natural language
+                double skewed = random.nextDouble();
+                String word = vocabulary[(int) (skewed * skewed * vocabulary.length)];
+                String separator = separators[random.nextInt(separators.length)];
+                long length = word.getBytes(StandardCharsets.UTF_8).length + separator.length();
+                if (written + length > size) {
+                    for (; written < size; written++) {
+                        writer.write(' ');
+                    }
+                    break;
+                }
+                writer.write(word);
+                writer.write(separator);
+                written += length;
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.baeldung.wordcount;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class WordFrequencyCounterUnitTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void givenText_whenCountingFrequencies_thenWordsAreCountedIgnoringCase() {
+        WordFrequencies frequencies = WordFrequencyCounter.count("The farmer's wife--she was from Albuquerque. THE end, the END");
+
+        assertEquals(11, frequencies.totalWords());
+        assertEquals(8, frequencies.distinctWords());
+        assertEquals(3, frequencies.count("the"));
+        assertEquals(2, frequencies.count("End"));
+        assertEquals(1, frequencies.count("farmer's"));
+        assertEquals(0, frequencies.count("farmer"));
+    }
+
+    @Test
+    public void givenText_whenCountingFrequencies_thenTotalMatchesManualCount() {
+        String text = "no&one#should%ever-write-like,this but   well";
+
+        assertEquals(WordCounter.countWordsManually(text), WordFrequencyCounter.count(text)
+            .totalWords());
+    }
+
+    @Test
+    public void givenNonAsciiText_whenCountingUtf8Bytes_thenResultMatchesCharBuffer() {
+        String text = "Ärger über Öl, ärger! Ωμέγα ωμέγα 𝐀𝐁 𝐀𝐁 – naïve café café";
+
+        WordFrequencies fromChars = WordFrequencyCounter.count(CharBuffer.wrap(text));
+        WordFrequencies fromBytes = WordFrequencyCounter.countUtf8(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(fromChars.mostFrequent(100), fromBytes.mostFrequent(100));
+        assertEquals(2, fromBytes.count("ÄRGER"));
+        assertEquals(2, fromBytes.count("ωμέγα"));
+        assertEquals(2, fromBytes.count("𝐀𝐁"));
+        assertEquals(2, fromBytes.count("café"));
+        assertEquals(11, fromBytes.totalWords());
+    }
+
+    @Test
+    public void givenSupplementaryLetters_whenCounting_thenWordsAreCountedIgnoringCase() {
+        String text = "\uD801\uDC00\uD801\uDC01 \uD801\uDC28\uD801\uDC29";
+
+        WordFrequencies fromChars = WordFrequencyCounter.count(CharBuffer.wrap(text));
+        WordFrequencies fromBytes = WordFrequencyCounter.countUtf8(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, fromChars.distinctWords());
+        assertEquals(2, fromChars.count("\uD801\uDC28\uD801\uDC29"));
+        assertEquals(2, fromChars.count("\uD801\uDC00\uD801\uDC01"));
+        assertEquals(fromChars.mostFrequent(10), fromBytes.mostFrequent(10));
+    }
+
+    @Test
+    public void givenMalformedUtf8_whenCounting_thenInvalidBytesSeparateWords() {
+        byte[] bytes = { 'a', 'b', (byte) 0xC3, 'c', (byte) 0xFF, 'a', 'b', (byte) 0xE2, (byte) 0x82 };
+
+        WordFrequencies frequencies = WordFrequencyCounter.countUtf8(ByteBuffer.wrap(bytes));
+
+        assertEquals(2, frequencies.count("ab"));
+        assertEquals(1, frequencies.count("c"));
+        assertEquals(3, frequencies.totalWords());
+    }
+
+    @Test
+    public void givenManyDistinctWords_whenCounting_thenTableGrows() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append("w")
+                .append(Integer.toString(i, 26).replace('0', 'z').replaceAll("[1-9]", "q"))
+                .append(' ');
+        }
+        Map<String, Long> expected = new HashMap<>();
+        for (String word : text.toString().split(" ")) {
+            expected.merge(word, 1L, Long::sum);
+        }
+
+        WordFrequencies frequencies = WordFrequencyCounter.count(text);
+
+        assertEquals(expected.size(), frequencies.distinctWords());
+        expected.forEach((word, count) -> assertEquals(word, (long) count, frequencies.count(word)));
+    }
+
+    @Test
+    public void givenFileSplitIntoSmallChunks_whenCountingInParallel_thenWordsAcrossBoundariesAreCountedOnce() throws IOException {
+        Random random = new Random(7);
+        String[] words = { "alpha", "Beta", "gämma", "δέλτα", "it's", "x" };
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            text.append(words[random.nextInt(words.length)])
+                .append(i % 13 == 0 ? ",\n" : " ");
+        }
+        Path file = folder.newFile("corpus.txt")
+            .toPath();
+        Files.write(file, text.toString()
+            .getBytes(StandardCharsets.UTF_8));
+
+        WordFrequencies expected = WordFrequencyCounter.count(text);
+        WordFrequencies actual = WordFrequencyCounter.countFile(file, 1000, 4);
+
+        assertEquals(50_000, actual.totalWords());
+        assertEquals(expected.mostFrequent(10), actual.mostFrequent(10));
+    }
+
+    @Test
+    public void givenFrequencies_whenAskingForMostFrequent_thenTiesAreSortedByWord() {
+        WordFrequencies frequencies = WordFrequencyCounter.count("b a c b a d b");
+
+        assertEquals(Arrays.asList(new AbstractMap.SimpleImmutableEntry<>("b", 3L), new AbstractMap.SimpleImmutableEntry<>("a", 2L)), frequencies.mostFrequent(2));
+    }
+}
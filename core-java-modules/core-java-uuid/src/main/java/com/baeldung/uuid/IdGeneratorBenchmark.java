@@ -0,0 +1,78 @@
+package com.baeldung.uuid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the identifier generators from all available cores, run with {@code -t 1} for a single thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    private static final String NAMESPACE_URL = "6ba7b811-9dad-11d1-80b4-00c04fd430c8";
+
+    private final TimeOrderedUUIDGenerator timeOrdered = new TimeOrderedUUIDGenerator();
+    private final SnowflakeIdGenerator snowflake = new SnowflakeIdGenerator(1);
+    private final SnowflakeIdGenerator snowflakeWithThreadBlocks = new SnowflakeIdGenerator(1, 64);
+
+    @Benchmark
+    public UUID randomUUID() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID type1UUID() {
+        return UUIDGenerator.generateType1UUID();
+    }
+
+    @Benchmark
+    public UUID type5UUID() {
+        return UUIDGenerator.generateType5UUID(NAMESPACE_URL, "baeldung.com");
+    }
+
+    @Benchmark
+    public UUID type7UUID() {
+        return timeOrdered.next();
+    }
+
+    @Benchmark
+    public UUID[] type7UUIDBatchOf64() {
+        return timeOrdered.nextN(64);
+    }
+
+    @Benchmark
+    public long snowflakeId() {
+        return snowflake.nextId();
+    }
+
+    @Benchmark
+    public long snowflakeIdFromThreadBlock() {
+        return snowflakeWithThreadBlocks.nextId();
+    }
+
+    @Benchmark
+    public long[] snowflakeIdBatchOf64() {
+        return snowflake.nextN(64);
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(args);
+    }
+}
@@ -0,0 +1,90 @@
+package com.baeldung.uuid;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Generates Snowflake-style 64 bit identifiers: 41 bits of milliseconds since a custom epoch, a 10 bit worker id and
+ * a 12 bit sequence. Every worker (process or node) needs its own worker id for the identifiers to be unique across
+ * workers.
+ * <p>
+ * With a thread block size above one, every thread reserves that many sequence numbers at once and hands them out
+ * without touching the shared counter again. Identifiers then still are unique and roughly time-ordered, but only
+ * strictly increasing per thread. A block is dropped once the clock moved past it, so its timestamps never lag.
+ */
+public class SnowflakeIdGenerator {
+
+    // 2020-01-01T00:00:00Z
+    public static final long DEFAULT_EPOCH = 1577836800000L;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int WORKER_BITS = 10;
+    private static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+
+    private final TimestampSequence sequence;
+    private final long epoch;
+    private final long workerBits;
+    private final int threadBlockSize;
+    private final ThreadLocal<long[]> threadBlock = ThreadLocal.withInitial(() -> new long[2]);
+
+    public SnowflakeIdGenerator(int workerId) {
+        this(workerId, 1);
+    }
+
+    public SnowflakeIdGenerator(int workerId, int threadBlockSize) {
+        this(workerId, threadBlockSize, DEFAULT_EPOCH, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int workerId, int threadBlockSize, long epoch, LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId must be between 0 and " + MAX_WORKER_ID + ": " + workerId);
+        }
+        if (threadBlockSize < 1 || threadBlockSize > 1 << SEQUENCE_BITS) {
+            throw new IllegalArgumentException("threadBlockSize must be between 1 and " + (1 << SEQUENCE_BITS) + ": " + threadBlockSize);
+        }
+        this.sequence = new TimestampSequence(SEQUENCE_BITS, () -> clock.getAsLong() - epoch);
+        this.epoch = epoch;
+        this.workerBits = (long) workerId << SEQUENCE_BITS;
+        this.threadBlockSize = threadBlockSize;
+    }
+
+    public long nextId() {
+        if (threadBlockSize == 1) {
+            return toId(sequence.next());
+        }
+        // block[0] is the next value of the block, block[1] the end of the block (exclusive)
+        long[] block = threadBlock.get();
+        if (block[0] == block[1] || sequence.millisOf(block[0]) < sequence.currentMillis()) {
+            block[0] = sequence.reserve(threadBlockSize);
+            block[1] = block[0] + threadBlockSize;
+        }
+        return toId(block[0]++);
+    }
+
+    /**
+     * Reserves {@code count} identifiers at once, which costs a single atomic update for every 4096 of them. Batches
+     * of more than five milliseconds of identifiers wait for the clock to catch up.
+     */
+    public long[] nextN(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; ) {
+            int reserved = Math.min(count - i, sequence.maxReservation());
+            long first = sequence.reserve(reserved);
+            for (int end = i + reserved; i < end; i++) {
+                ids[i] = toId(first++);
+            }
+        }
+        return ids;
+    }
+
+    public long timestampOf(long id) {
+        return (id >>> (WORKER_BITS + SEQUENCE_BITS)) + epoch;
+    }
+
+    public static int workerIdOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_WORKER_ID);
+    }
+
+    private long toId(long value) {
+        return sequence.millisOf(value) << (WORKER_BITS + SEQUENCE_BITS) | workerBits | sequence.sequenceOf(value);
+    }
+}
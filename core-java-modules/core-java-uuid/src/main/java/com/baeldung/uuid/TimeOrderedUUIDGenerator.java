@@ -0,0 +1,60 @@
+package com.baeldung.uuid;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates version 7 UUIDs: a 48 bit Unix timestamp in milliseconds, followed by a 12 bit counter and 62 random
+ * bits. The counter makes the UUIDs of one generator strictly increasing, even within a millisecond, so they sort by
+ * creation time.
+ * <p>
+ * The random bits come from {@link ThreadLocalRandom}, which doesn't contend between threads. Use
+ * {@link UUID#randomUUID()} where the identifiers must not be guessable.
+ */
+public class TimeOrderedUUIDGenerator {
+
+    private static final int COUNTER_BITS = 12;
+
+    private final TimestampSequence sequence;
+
+    public TimeOrderedUUIDGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedUUIDGenerator(LongSupplier clock) {
+        this.sequence = new TimestampSequence(COUNTER_BITS, clock);
+    }
+
+    public UUID next() {
+        return toUUID(sequence.next(), ThreadLocalRandom.current());
+    }
+
+    /**
+     * Reserves {@code count} UUIDs at once, which costs a single atomic update for every 4096 of them. Batches
+     * of more than five milliseconds of UUIDs wait for the clock to catch up.
+     */
+    public UUID[] nextN(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID[] uuids = new UUID[count];
+        for (int i = 0; i < count; ) {
+            int reserved = Math.min(count - i, sequence.maxReservation());
+            long first = sequence.reserve(reserved);
+            for (int end = i + reserved; i < end; i++) {
+                uuids[i] = toUUID(first++, random);
+            }
+        }
+        return uuids;
+    }
+
+    public static long timestampOf(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    private static UUID toUUID(long value, ThreadLocalRandom random) {
+        // value holds the timestamp in its upper bits and the counter in the lower 12 bits, as the UUID layout does
+        long mostSigBits = (value >>> COUNTER_BITS) << 16 | 0x7000L | (value & 0x0FFFL);
+        long leastSigBits = random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
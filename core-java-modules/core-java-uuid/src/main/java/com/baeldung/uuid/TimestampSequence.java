@@ -0,0 +1,76 @@
+package com.baeldung.uuid;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out strictly increasing values made of a millisecond timestamp followed by a sequence number. When the
+ * sequence of one millisecond is used up, the values continue into the next millisecond, and when the clock goes
+ * backwards they continue from the last value, so they never repeat.
+ * <p>
+ * The values may run at most {@link #MAX_DRIFT_MILLIS} ahead of the clock, beyond that callers wait for the clock to
+ * catch up, also after the clock went further backwards than that. That keeps the timestamps of the values accurate,
+ * and a restarted process from handing out values again that the previous one had borrowed from the future. A single
+ * reservation is at most one millisecond of values, so it can't push the other callers into that wait for longer
+ * than a millisecond.
+ */
+final class TimestampSequence {
+
+    static final long MAX_DRIFT_MILLIS = 5;
+
+    private final int sequenceBits;
+    private final LongSupplier clock;
+    // the next free value, (millis << sequenceBits) | sequence
+    private final AtomicLong next = new AtomicLong();
+
+    TimestampSequence(int sequenceBits, LongSupplier clock) {
+        this.sequenceBits = sequenceBits;
+        this.clock = clock;
+    }
+
+    long next() {
+        return reserve(1);
+    }
+
+    /**
+     * Reserves {@code count} consecutive values with a single CAS and returns the first one.
+     *
+     * @param count between 1 and {@link #maxReservation()}
+     */
+    long reserve(int count) {
+        if (count < 1 || count > maxReservation()) {
+            throw new IllegalArgumentException("count must be between 1 and " + maxReservation() + ": " + count);
+        }
+        while (true) {
+            long now = clock.getAsLong();
+            long current = next.get();
+            long start = Math.max(current, now << sequenceBits);
+            if (millisOf(start) - now > MAX_DRIFT_MILLIS) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            } else if (next.compareAndSet(current, start + count)) {
+                return start;
+            }
+        }
+    }
+
+    /**
+     * @return the values of one millisecond
+     */
+    int maxReservation() {
+        return 1 << sequenceBits;
+    }
+
+    long millisOf(long value) {
+        return value >>> sequenceBits;
+    }
+
+    long sequenceOf(long value) {
+        return value & ((1L << sequenceBits) - 1);
+    }
+
+    long currentMillis() {
+        return clock.getAsLong();
+    }
+}
@@ -4,13 +4,17 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 public final class UUIDGenerator {
 
     private static final char[] hexArray = "0123456789ABCDEF".toCharArray();
 
+    // MessageDigest isn't thread-safe, and looking one up is expensive, so every thread keeps its own
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> messageDigest("MD5"));
+    private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(() -> messageDigest("SHA-1"));
+
     private UUIDGenerator() {
     }
 
@@ -26,7 +30,7 @@ public final class UUIDGenerator {
     }
 
     private static long get64LeastSignificantBitsForVersion1() {
-        final long random63BitLong = new Random().nextLong() & 0x3FFFFFFFFFFFFFFFL;
+        final long random63BitLong = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL;
         long variant3BitFlag = 0x8000000000000000L;
         return random63BitLong | variant3BitFlag;
     }
@@ -49,7 +53,19 @@ public final class UUIDGenerator {
         final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
         final byte[] result = joinBytes(nameSpaceBytes, nameBytes);
 
-        return UUID.nameUUIDFromBytes(result);
+        return type3UUIDFromBytes(result);
+    }
+
+    /**
+     * Same as {@link UUID#nameUUIDFromBytes(byte[])}, without looking up a new MD5 digest on every call
+     */
+    public static UUID type3UUIDFromBytes(byte[] name) {
+        final byte[] bytes = MD5.get().digest(name);
+        bytes[6] &= 0x0f; /* clear version        */
+        bytes[6] |= 0x30; /* set to version 3     */
+        bytes[8] &= 0x3f; /* clear variant        */
+        bytes[8] |= 0x80; /* set to IETF variant  */
+        return constructType5UUID(bytes);
     }
 
     /**
@@ -72,13 +88,7 @@ public final class UUIDGenerator {
     }
 
     public static UUID type5UUIDFromBytes(byte[] name) {
-        final MessageDigest md;
-        try {
-            md = MessageDigest.getInstance("SHA-1");
-        } catch (NoSuchAlgorithmException exception) {
-            throw new InternalError("SHA-1 not supported", exception);
-        }
-        final byte[] bytes = Arrays.copyOfRange(md.digest(name), 0, 16);
+        final byte[] bytes = Arrays.copyOfRange(SHA1.get().digest(name), 0, 16);
         bytes[6] &= 0x0f; /* clear version        */
         bytes[6] |= 0x50; /* set to version 5     */
         bytes[8] &= 0x3f; /* clear variant        */
@@ -131,25 +141,26 @@ public final class UUIDGenerator {
 
     public static UUID generateType5UUID(String name) {
 
-        try {
-
-            final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
-            final MessageDigest md = MessageDigest.getInstance("SHA-1");
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
 
-            final byte[] hash = md.digest(bytes);
+        final byte[] hash = SHA1.get().digest(bytes);
 
-            long msb = getLeastAndMostSignificantBitsVersion5(hash, 0);
-            long lsb = getLeastAndMostSignificantBitsVersion5(hash, 8);
-            // Set the version field
-            msb &= ~(0xfL << 12);
-            msb |= 5L << 12;
-            // Set the variant field to 2
-            lsb &= ~(0x3L << 62);
-            lsb |= 2L << 62;
-            return new UUID(msb, lsb);
+        long msb = getLeastAndMostSignificantBitsVersion5(hash, 0);
+        long lsb = getLeastAndMostSignificantBitsVersion5(hash, 8);
+        // Set the version field
+        msb &= ~(0xfL << 12);
+        msb |= 5L << 12;
+        // Set the variant field to 2
+        lsb &= ~(0x3L << 62);
+        lsb |= 2L << 62;
+        return new UUID(msb, lsb);
+    }
 
-        } catch (NoSuchAlgorithmException e) {
-            throw new AssertionError(e);
+    private static MessageDigest messageDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new InternalError(algorithm + " not supported", exception);
         }
     }
 
@@ -0,0 +1,63 @@
+package com.baeldung.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Generates 20 million identifiers from every available core, prints the rate and checks that none of them collide.
+ * Needs about 400 MB of heap.
+ */
+class IdGeneratorCollisionManualTest {
+
+    private static final int TOTAL_IDS = 20_000_000;
+
+    @Test
+    void givenSnowflakeGenerator_whenGeneratingFromAllCores_thenNoCollisions() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 256);
+        assertUnique("Snowflake with thread blocks", generator::nextId);
+    }
+
+    @Test
+    void givenTimeOrderedGenerator_whenGeneratingFromAllCores_thenNoCollisions() throws Exception {
+        TimeOrderedUUIDGenerator generator = new TimeOrderedUUIDGenerator();
+        // the most significant bits hold timestamp and counter, they alone have to be unique
+        assertUnique("UUIDv7", () -> generator.next()
+            .getMostSignificantBits());
+    }
+
+    private static void assertUnique(String name, LongSupplier generator) throws Exception {
+        int threads = Runtime.getRuntime()
+            .availableProcessors();
+        int perThread = TOTAL_IDS / threads;
+        long[] ids = new long[perThread * threads];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        Future<?>[] results = new Future<?>[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            results[t] = executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids[offset + i] = generator.getAsLong();
+                }
+            });
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        long nanos = System.nanoTime() - start;
+        executor.shutdown();
+        System.out.printf("%s: %,.0f ids/s on %d threads%n", name, ids.length / (nanos / 1e9), threads);
+
+        Arrays.sort(ids);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i - 1] != ids[i], "duplicate id " + ids[i]);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.baeldung.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorUnitTest {
+
+    private static final long NOW = SnowflakeIdGenerator.DEFAULT_EPOCH + 123_456_789L;
+
+    @Test
+    void shouldEncodeTimestampAndWorkerId() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42, 1, SnowflakeIdGenerator.DEFAULT_EPOCH, () -> NOW);
+
+        long id = generator.nextId();
+
+        assertEquals(NOW, generator.timestampOf(id));
+        assertEquals(42, SnowflakeIdGenerator.workerIdOf(id));
+        assertEquals(id + 1, generator.nextId());
+    }
+
+    @Test
+    void shouldRejectWorkerIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+    }
+
+    @Test
+    void shouldReturnIncreasingIdsInBatch() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1, SnowflakeIdGenerator.DEFAULT_EPOCH, () -> NOW);
+
+        long[] ids = generator.nextN(5000);
+
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i - 1] < ids[i]);
+        }
+        // the 4096 sequence numbers of a millisecond are used up, the batch continues in the next one
+        assertEquals(NOW + 1, generator.timestampOf(ids[4999]));
+    }
+
+    @Test
+    void shouldWaitForTheClockWhenRunningTooFarAhead() throws Exception {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1, SnowflakeIdGenerator.DEFAULT_EPOCH, clock::get);
+        // uses up the sequences of every millisecond the ids may borrow
+        generator.nextN((int) (TimestampSequence.MAX_DRIFT_MILLIS + 1) * 4096);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        Future<Long> id = executor.submit(generator::nextId);
+
+        assertThrows(TimeoutException.class, () -> id.get(100, TimeUnit.MILLISECONDS));
+        clock.incrementAndGet();
+        assertEquals(NOW + TimestampSequence.MAX_DRIFT_MILLIS + 1, generator.timestampOf(id.get(5, TimeUnit.SECONDS)));
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldMakeALargeBatchWaitForTheClockInsteadOfRunningAhead() throws Exception {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1, SnowflakeIdGenerator.DEFAULT_EPOCH, clock::get);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        Future<long[]> batch = executor.submit(() -> generator.nextN((int) (TimestampSequence.MAX_DRIFT_MILLIS + 2) * 4096));
+
+        assertThrows(TimeoutException.class, () -> batch.get(100, TimeUnit.MILLISECONDS));
+        clock.incrementAndGet();
+        long[] ids = batch.get(5, TimeUnit.SECONDS);
+        assertEquals(NOW + 1 + TimestampSequence.MAX_DRIFT_MILLIS, generator.timestampOf(ids[ids.length - 1]));
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldGenerateUniqueIdsFromConcurrentThreadsWithThreadBlocks() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, 64);
+        int threads = 4;
+        int idsPerThread = 250_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Future<?>[] results = new Future<?>[threads];
+        long[] ids = new long[threads * idsPerThread];
+        for (int t = 0; t < threads; t++) {
+            int offset = t * idsPerThread;
+            results[t] = executor.submit(() -> {
+                for (int i = 0; i < idsPerThread; i++) {
+                    ids[offset + i] = generator.nextId();
+                }
+            });
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        Arrays.sort(ids);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i - 1] != ids[i], "duplicate id " + ids[i]);
+        }
+    }
+}
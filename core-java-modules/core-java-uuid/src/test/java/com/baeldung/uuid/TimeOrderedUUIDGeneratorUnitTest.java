@@ -0,0 +1,62 @@
+package com.baeldung.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeOrderedUUIDGeneratorUnitTest {
+
+    @Test
+    void shouldGenerateType7UUIDWithCorrectVersionVariantAndTimestamp() {
+        TimeOrderedUUIDGenerator generator = new TimeOrderedUUIDGenerator(() -> 1_700_000_000_000L);
+
+        UUID uuid = generator.next();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(1_700_000_000_000L, TimeOrderedUUIDGenerator.timestampOf(uuid));
+    }
+
+    @Test
+    void shouldStayMonotonicWithinTheSameMillisecond() {
+        TimeOrderedUUIDGenerator generator = new TimeOrderedUUIDGenerator(() -> 1_700_000_000_000L);
+
+        UUID previous = generator.next();
+        // more UUIDs than the 12 bit counter holds, the last ones borrow from the next milliseconds
+        for (int i = 0; i < 10_000; i++) {
+            UUID current = generator.next();
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), current.getMostSignificantBits()) < 0);
+            previous = current;
+        }
+    }
+
+    @Test
+    void shouldStayMonotonicWhenTheClockGoesBackwards() {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        TimeOrderedUUIDGenerator generator = new TimeOrderedUUIDGenerator(clock::get);
+
+        UUID before = generator.next();
+        clock.addAndGet(-TimestampSequence.MAX_DRIFT_MILLIS);
+        UUID after = generator.next();
+
+        assertTrue(Long.compareUnsigned(before.getMostSignificantBits(), after.getMostSignificantBits()) < 0);
+    }
+
+    @Test
+    void shouldReserveConsecutiveUUIDsInBatches() {
+        TimeOrderedUUIDGenerator generator = new TimeOrderedUUIDGenerator(() -> 1_700_000_000_000L);
+
+        UUID[] batch = generator.nextN(100);
+        UUID next = generator.next();
+
+        assertEquals(100, batch.length);
+        for (int i = 1; i < batch.length; i++) {
+            assertEquals(batch[i - 1].getMostSignificantBits() + 1, batch[i].getMostSignificantBits());
+        }
+        assertEquals(batch[99].getMostSignificantBits() + 1, next.getMostSignificantBits());
+    }
+}
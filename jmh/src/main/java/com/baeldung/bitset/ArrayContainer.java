@@ -0,0 +1,162 @@
+package com.baeldung.bitset;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A sorted array of up to {@link #MAX_ARRAY_SIZE} values, for sparse containers.
+ */
+class ArrayContainer extends Container {
+
+    private char[] values;
+    private int size;
+
+    ArrayContainer() {
+        this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    int cardinality() {
+        return size;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    @Override
+    Container add(char value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return this;
+        }
+        if (size == MAX_ARRAY_SIZE) {
+            return toBitmap().add(value);
+        }
+        index = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, size * 2));
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        return this;
+    }
+
+    @Override
+    Container remove(char value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+        return this;
+    }
+
+    @Override
+    void toChars(char[] buffer) {
+        System.arraycopy(values, 0, buffer, 0, size);
+    }
+
+    @Override
+    void orInto(long[] words) {
+        for (int i = 0; i < size; i++) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+    }
+
+    @Override
+    void clearFrom(long[] words) {
+        for (int i = 0; i < size; i++) {
+            words[values[i] >>> 6] &= ~(1L << values[i]);
+        }
+    }
+
+    @Override
+    int runCount() {
+        int runs = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || values[i] != values[i - 1] + 1) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+    @Override
+    Container copy() {
+        return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 4)), size);
+    }
+
+    @Override
+    int type() {
+        return TYPE_ARRAY;
+    }
+
+    @Override
+    int serializedSize() {
+        return 2 * size;
+    }
+
+    @Override
+    void serialize(ByteBuffer buffer) {
+        for (int i = 0; i < size; i++) {
+            buffer.putChar(values[i]);
+        }
+    }
+
+    /**
+     * @return the values that are, or with {@code keep} false aren't, in {@code other}, or null if there are none
+     */
+    Container filter(Container other, boolean keep) {
+        char[] result = new char[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (other.contains(values[i]) == keep) {
+                result[count++] = values[i];
+            }
+        }
+        return count == 0 ? null : new ArrayContainer(result, count);
+    }
+
+    Container union(ArrayContainer other) {
+        char[] result = new char[size + other.size];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            char left = values[i];
+            char right = other.values[j];
+            if (left <= right) {
+                result[count++] = left;
+                i++;
+                if (left == right) {
+                    j++;
+                }
+            } else {
+                result[count++] = right;
+                j++;
+            }
+        }
+        while (i < size) {
+            result[count++] = values[i++];
+        }
+        while (j < other.size) {
+            result[count++] = other.values[j++];
+        }
+        if (count > MAX_ARRAY_SIZE) {
+            return new ArrayContainer(result, count).toBitmap();
+        }
+        return new ArrayContainer(result, count);
+    }
+
+    private Container toBitmap() {
+        return new BitmapContainer(toWords(), size);
+    }
+}
@@ -0,0 +1,118 @@
+package com.baeldung.bitset;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A bitmap of all 2^16 possible values, for dense containers.
+ */
+class BitmapContainer extends Container {
+
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer(long[] words, int cardinality) {
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return (words[value >>> 6] & 1L << value) != 0;
+    }
+
+    @Override
+    Container add(char value) {
+        long word = words[value >>> 6];
+        long updated = word | 1L << value;
+        if (updated != word) {
+            words[value >>> 6] = updated;
+            cardinality++;
+        }
+        return this;
+    }
+
+    @Override
+    Container remove(char value) {
+        long word = words[value >>> 6];
+        long updated = word & ~(1L << value);
+        if (updated == word) {
+            return this;
+        }
+        words[value >>> 6] = updated;
+        cardinality--;
+        return cardinality > MAX_ARRAY_SIZE ? this : Container.fromWords(words);
+    }
+
+    @Override
+    void toChars(char[] buffer) {
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                buffer[count++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+            }
+        }
+    }
+
+    @Override
+    void orInto(long[] target) {
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            target[i] |= words[i];
+        }
+    }
+
+    @Override
+    void clearFrom(long[] target) {
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            target[i] &= ~words[i];
+        }
+    }
+
+    @Override
+    long[] toWords() {
+        return words.clone();
+    }
+
+    @Override
+    long[] wordsView() {
+        return words;
+    }
+
+    @Override
+    int runCount() {
+        int runs = 0;
+        long previous = 0;
+        for (long word : words) {
+            // a run starts at every set bit whose lower neighbour, possibly in the previous word, is clear
+            runs += Long.bitCount(word & ~(word << 1 | previous >>> 63));
+            previous = word;
+        }
+        return runs;
+    }
+
+    @Override
+    Container copy() {
+        return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    int type() {
+        return TYPE_BITMAP;
+    }
+
+    @Override
+    int serializedSize() {
+        return 8 * BITMAP_WORDS;
+    }
+
+    @Override
+    void serialize(ByteBuffer buffer) {
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.baeldung.bitset;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of {@code int} values in the style of Roaring bitmaps. Values are split by their high 16 bits into
+ * containers, and each container stores the low 16 bits as a sorted array, a bitmap or a list of runs, whichever is
+ * the smallest. Unlike {@link java.util.BitSet}, the memory used depends on the number and the clustering of the
+ * values rather than on the largest one, and {@link #and}, {@link #or} and {@link #andNot} skip whole containers that
+ * only one side has.
+ * <p>
+ * Values are ordered as unsigned integers, so negative values come after all positive ones.
+ * <p>
+ * The {@link #serialize serialized form} is little-endian and keeps 8-byte alignment, so that it can be memory-mapped
+ * and queried in place with {@link MappedCompressedBitmap}:
+ * <pre>
+ * header:    cookie "CBM1" (int) | container count (int)
+ * directory: per container: key (int) | type (int) | cardinality (int) | offset of its data (int)
+ * data:      array: cardinality values (char) | bitmap: 1024 words (long) | run: run count (int), (start, length - 1) pairs (char)
+ * </pre>
+ */
+public class CompressedBitmap {
+
+    static final int COOKIE = 'C' << 24 | 'B' << 16 | 'M' << 8 | '1';
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    static final int DIRECTORY_ENTRY_SIZE = 4 * Integer.BYTES;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public CompressedBitmap() {
+        this(new char[4], new Container[4], 0);
+    }
+
+    private CompressedBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public void add(int value) {
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, key, new ArrayContainer());
+        }
+        containers[index] = containers[index].add((char) value);
+    }
+
+    public void remove(int value) {
+        int index = indexOf((char) (value >>> 16));
+        if (index >= 0) {
+            Container container = containers[index].remove((char) value);
+            if (container.cardinality() == 0) {
+                System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+                System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+                containers[--size] = null;
+            } else {
+                containers[index] = container;
+            }
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Converts every container to runs where that takes less memory. This is worth calling once a bitmap is built,
+     * because a run container is turned back into an array or bitmap by the next {@link #add} or {@link #remove}.
+     */
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = Container.optimize(containers[i]);
+        }
+    }
+
+    public static CompressedBitmap and(CompressedBitmap left, CompressedBitmap right) {
+        CompressedBitmap result = new CompressedBitmap(new char[Math.min(left.size, right.size) + 1], new Container[Math.min(left.size, right.size) + 1], 0);
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            if (left.keys[i] < right.keys[j]) {
+                i++;
+            } else if (left.keys[i] > right.keys[j]) {
+                j++;
+            } else {
+                result.append(left.keys[i], Container.and(left.containers[i++], right.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    public static CompressedBitmap or(CompressedBitmap left, CompressedBitmap right) {
+        CompressedBitmap result = new CompressedBitmap(new char[left.size + right.size + 1], new Container[left.size + right.size + 1], 0);
+        int i = 0;
+        int j = 0;
+        while (i < left.size || j < right.size) {
+            if (j == right.size || i < left.size && left.keys[i] < right.keys[j]) {
+                result.append(left.keys[i], left.containers[i++].copy());
+            } else if (i == left.size || left.keys[i] > right.keys[j]) {
+                result.append(right.keys[j], right.containers[j++].copy());
+            } else {
+                result.append(left.keys[i], Container.or(left.containers[i++], right.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    public static CompressedBitmap andNot(CompressedBitmap left, CompressedBitmap right) {
+        CompressedBitmap result = new CompressedBitmap(new char[left.size + 1], new Container[left.size + 1], 0);
+        int j = 0;
+        for (int i = 0; i < left.size; i++) {
+            while (j < right.size && right.keys[j] < left.keys[i]) {
+                j++;
+            }
+            if (j < right.size && right.keys[j] == left.keys[i]) {
+                result.append(left.keys[i], Container.andNot(left.containers[i], right.containers[j]));
+            } else {
+                result.append(left.keys[i], left.containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    public void forEach(IntConsumer action) {
+        char[] buffer = new char[0];
+        for (int i = 0; i < size; i++) {
+            Container container = containers[i];
+            if (buffer.length < container.cardinality()) {
+                buffer = new char[Math.max(container.cardinality(), Container.MAX_ARRAY_SIZE)];
+            }
+            container.toChars(buffer);
+            int high = keys[i] << 16;
+            for (int j = 0; j < container.cardinality(); j++) {
+                action.accept(high | buffer[j]);
+            }
+        }
+    }
+
+    /**
+     * @return an iterator over the values in unsigned order, which must not be used after the bitmap is modified
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            private int containerIndex;
+            private char[] buffer = new char[0];
+            private int position;
+            private int count;
+            private int high;
+
+            @Override
+            public boolean hasNext() {
+                while (position == count && containerIndex < size) {
+                    Container container = containers[containerIndex];
+                    count = container.cardinality();
+                    if (buffer.length < count) {
+                        buffer = new char[Math.max(count, Container.MAX_ARRAY_SIZE)];
+                    }
+                    container.toChars(buffer);
+                    high = keys[containerIndex++] << 16;
+                    position = 0;
+                }
+                return position < count;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return high | buffer[position++];
+            }
+        };
+    }
+
+    public int serializedSizeInBytes() {
+        int size = dataOffset();
+        for (int i = 0; i < this.size; i++) {
+            size = align(size + containers[i].serializedSize());
+        }
+        return size;
+    }
+
+    /**
+     * Writes the bitmap at the position of {@code buffer} and advances the position past it. The buffer must have
+     * {@link #serializedSizeInBytes()} bytes remaining, and the data is only 8-byte aligned in a mapped file if the
+     * position is.
+     */
+    public void serialize(ByteBuffer buffer) {
+        ByteBuffer out = buffer.slice()
+            .order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(COOKIE)
+            .putInt(size);
+        int offset = dataOffset();
+        for (int i = 0; i < size; i++) {
+            out.putInt(keys[i])
+                .putInt(containers[i].type())
+                .putInt(containers[i].cardinality())
+                .putInt(offset);
+            offset = align(offset + containers[i].serializedSize());
+        }
+        for (int i = 0; i < size; i++) {
+            containers[i].serialize(out);
+            out.position(align(out.position()));
+        }
+        buffer.position(buffer.position() + out.position());
+    }
+
+    public static CompressedBitmap deserialize(ByteBuffer buffer) {
+        return new MappedCompressedBitmap(buffer).toCompressedBitmap();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompressedBitmap)) {
+            return false;
+        }
+        CompressedBitmap other = (CompressedBitmap) o;
+        if (size != other.size || !Arrays.equals(Arrays.copyOf(keys, size), Arrays.copyOf(other.keys, other.size))) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!Arrays.equals(containers[i].wordsView(), other.containers[i].wordsView())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + keys[i];
+            hash = 31 * hash + Arrays.hashCode(containers[i].wordsView());
+        }
+        return hash;
+    }
+
+    int containerCount() {
+        return size;
+    }
+
+    char key(int index) {
+        return keys[index];
+    }
+
+    Container container(int index) {
+        return containers[index];
+    }
+
+    void append(char key, Container container) {
+        if (container != null) {
+            insert(size, key, container);
+        }
+    }
+
+    private int indexOf(char key) {
+        // most bitmaps are filled in ascending order, so the last container is checked first
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private int dataOffset() {
+        return align(HEADER_SIZE + size * DIRECTORY_ENTRY_SIZE);
+    }
+
+    static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+}
@@ -0,0 +1,166 @@
+package com.baeldung.bitset;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares {@link CompressedBitmap} with {@link BitSet} for two sets of {@code size} possible values. With the
+ * {@code random} layout every value is set with probability {@code density}, with the {@code clustered} layout the
+ * values come in runs of up to 1000 values, as in sorted columns or time ranges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class CompressedBitmapBenchmark {
+
+    @Param({"10000000"})
+    public int size;
+
+    @Param({"0.001", "0.01", "0.1", "0.5"})
+    public double density;
+
+    @Param({"random", "clustered"})
+    public String layout;
+
+    private BitSet leftBitSet;
+    private BitSet rightBitSet;
+    private CompressedBitmap left;
+    private CompressedBitmap right;
+    private MappedCompressedBitmap mappedLeft;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        leftBitSet = new BitSet(size);
+        rightBitSet = new BitSet(size);
+        left = new CompressedBitmap();
+        right = new CompressedBitmap();
+        fill(random, leftBitSet, left);
+        fill(random, rightBitSet, right);
+        left.runOptimize();
+        right.runOptimize();
+
+        ByteBuffer serialized = ByteBuffer.allocateDirect(left.serializedSizeInBytes());
+        left.serialize(serialized);
+        serialized.flip();
+        mappedLeft = new MappedCompressedBitmap(serialized);
+    }
+
+    private void fill(Random random, BitSet bitSet, CompressedBitmap bitmap) {
+        if ("clustered".equals(layout)) {
+            int start = 0;
+            while (start < size) {
+                int length = 1 + random.nextInt(1000);
+                if (random.nextDouble() < density) {
+                    for (int i = start; i < Math.min(size, start + length); i++) {
+                        bitSet.set(i);
+                        bitmap.add(i);
+                    }
+                }
+                start += length;
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                if (random.nextDouble() < density) {
+                    bitSet.set(i);
+                    bitmap.add(i);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public BitSet andBitSet() {
+        BitSet result = (BitSet) leftBitSet.clone();
+        result.and(rightBitSet);
+        return result;
+    }
+
+    @Benchmark
+    public CompressedBitmap andCompressedBitmap() {
+        return CompressedBitmap.and(left, right);
+    }
+
+    @Benchmark
+    public CompressedBitmap andMappedCompressedBitmap() {
+        return mappedLeft.and(right);
+    }
+
+    @Benchmark
+    public BitSet orBitSet() {
+        BitSet result = (BitSet) leftBitSet.clone();
+        result.or(rightBitSet);
+        return result;
+    }
+
+    @Benchmark
+    public CompressedBitmap orCompressedBitmap() {
+        return CompressedBitmap.or(left, right);
+    }
+
+    @Benchmark
+    public BitSet andNotBitSet() {
+        BitSet result = (BitSet) leftBitSet.clone();
+        result.andNot(rightBitSet);
+        return result;
+    }
+
+    @Benchmark
+    public CompressedBitmap andNotCompressedBitmap() {
+        return CompressedBitmap.andNot(left, right);
+    }
+
+    @Benchmark
+    public int cardinalityBitSet() {
+        return leftBitSet.cardinality();
+    }
+
+    @Benchmark
+    public long cardinalityCompressedBitmap() {
+        return left.cardinality();
+    }
+
+    @Benchmark
+    public long iterateBitSet() {
+        long sum = 0;
+        for (int i = leftBitSet.nextSetBit(0); i >= 0; i = leftBitSet.nextSetBit(i + 1)) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long iterateCompressedBitmap() {
+        long sum = 0;
+        for (PrimitiveIterator.OfInt values = left.iterator(); values.hasNext(); ) {
+            sum += values.nextInt();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public boolean getBitSet() {
+        return leftBitSet.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public boolean getCompressedBitmap() {
+        return left.contains(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public boolean getMappedCompressedBitmap() {
+        return mappedLeft.contains(ThreadLocalRandom.current().nextInt(size));
+    }
+}
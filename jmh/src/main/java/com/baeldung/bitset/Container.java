@@ -0,0 +1,215 @@
+package com.baeldung.bitset;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The low 16 bits of the values in a {@link CompressedBitmap} that share the same high 16 bits. A container picks the
+ * representation that is smallest for its values: a sorted array for up to {@link #MAX_ARRAY_SIZE} values, a bitmap
+ * of 2^16 bits beyond that, or a list of runs for values that come in long consecutive stretches.
+ * <p>
+ * Containers are mutable, and an operation that needs another representation returns a new container instead of
+ * {@code this}. Binary operations on two containers that aren't arrays work on the 1024 words of a bitmap.
+ */
+abstract class Container {
+
+    static final int MAX_ARRAY_SIZE = 4096;
+    static final int BITMAP_WORDS = 1 << 16 >>> 6;
+
+    static final int TYPE_ARRAY = 0;
+    static final int TYPE_BITMAP = 1;
+    static final int TYPE_RUN = 2;
+
+    abstract int cardinality();
+
+    abstract boolean contains(char value);
+
+    abstract Container add(char value);
+
+    /**
+     * @return the container without the value, which may be empty
+     */
+    abstract Container remove(char value);
+
+    /**
+     * Writes the values in ascending order to {@code buffer}, which must hold at least {@link #cardinality()} values.
+     */
+    abstract void toChars(char[] buffer);
+
+    abstract void orInto(long[] words);
+
+    abstract void clearFrom(long[] words);
+
+    abstract int runCount();
+
+    abstract Container copy();
+
+    abstract int type();
+
+    abstract int serializedSize();
+
+    abstract void serialize(ByteBuffer buffer);
+
+    /**
+     * @return the values as the words of a bitmap, which the caller may modify
+     */
+    long[] toWords() {
+        long[] words = new long[BITMAP_WORDS];
+        orInto(words);
+        return words;
+    }
+
+    /**
+     * @return the values as the words of a bitmap, which the caller must not modify
+     */
+    long[] wordsView() {
+        return toWords();
+    }
+
+    static Container deserialize(ByteBuffer buffer, int type, int cardinality, int offset) {
+        switch (type) {
+        case TYPE_ARRAY:
+            char[] values = new char[cardinality];
+            for (int i = 0; i < cardinality; i++) {
+                values[i] = buffer.getChar(offset + 2 * i);
+            }
+            return new ArrayContainer(values, cardinality);
+        case TYPE_BITMAP:
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] = buffer.getLong(offset + 8 * i);
+            }
+            return new BitmapContainer(words, cardinality);
+        case TYPE_RUN:
+            int runCount = buffer.getInt(offset);
+            char[] runs = new char[2 * runCount];
+            for (int i = 0; i < runs.length; i++) {
+                runs[i] = buffer.getChar(offset + 4 + 2 * i);
+            }
+            return new RunContainer(runs, runCount, cardinality);
+        default:
+            throw new IllegalArgumentException("Unknown container type " + type);
+        }
+    }
+
+    /**
+     * @return the smallest container for the bits set in {@code words}, or null if none is set
+     */
+    static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return fromWords(words, cardinality);
+    }
+
+    private static Container fromWords(long[] words, int cardinality) {
+        if (cardinality == 0) {
+            return null;
+        }
+        if (cardinality > MAX_ARRAY_SIZE) {
+            return new BitmapContainer(words, cardinality);
+        }
+        // one spare slot, the lowest bit of every word is written even when the word is zero
+        char[] values = new char[cardinality + 1];
+        int size = 0;
+        for (int i = 0; size < cardinality; i++) {
+            long word = words[i];
+            // sparse words hold at most one value, which is stored without a hard to predict branch
+            values[size] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+            size += (int) ((word | -word) >>> 63);
+            for (word &= word - 1; word != 0; word &= word - 1) {
+                values[size++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return new ArrayContainer(values, size);
+    }
+
+    /**
+     * @return a run container if that is smaller than the current representation, otherwise an array or a bitmap
+     */
+    static Container optimize(Container container) {
+        int cardinality = container.cardinality();
+        int runs = container.runCount();
+        int runSize = RunContainer.serializedSize(runs);
+        int otherSize = cardinality <= MAX_ARRAY_SIZE ? 2 * cardinality : 8 * BITMAP_WORDS;
+        if (runSize < otherSize) {
+            return container instanceof RunContainer ? container : RunContainer.of(container, runs);
+        }
+        return container instanceof RunContainer ? fromWords(container.toWords()) : container;
+    }
+
+    static Container and(Container left, Container right) {
+        if (left instanceof ArrayContainer) {
+            return ((ArrayContainer) left).filter(right, true);
+        }
+        if (right instanceof ArrayContainer) {
+            return ((ArrayContainer) right).filter(left, true);
+        }
+        long[] words = left.toWords();
+        long[] other = right.wordsView();
+        int cardinality = 0;
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            words[i] &= other[i];
+            cardinality += Long.bitCount(words[i]);
+        }
+        return fromWords(words, cardinality);
+    }
+
+    static Container or(Container left, Container right) {
+        if (left instanceof ArrayContainer && right instanceof ArrayContainer) {
+            return ((ArrayContainer) left).union((ArrayContainer) right);
+        }
+        // the bitmap side is copied, the other side is added to the copy
+        if (left instanceof ArrayContainer) {
+            Container swap = left;
+            left = right;
+            right = swap;
+        }
+        long[] words = left.toWords();
+        right.orInto(words);
+        return fromWords(words);
+    }
+
+    static Container andNot(Container left, Container right) {
+        if (left instanceof ArrayContainer) {
+            return ((ArrayContainer) left).filter(right, false);
+        }
+        long[] words = left.toWords();
+        right.clearFrom(words);
+        return fromWords(words);
+    }
+
+    static void setRange(long[] words, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        if (first == last) {
+            words[first] |= (-1L << from) & (-1L >>> -to);
+            return;
+        }
+        words[first] |= -1L << from;
+        for (int i = first + 1; i < last; i++) {
+            words[i] = -1L;
+        }
+        words[last] |= -1L >>> -to;
+    }
+
+    static void clearRange(long[] words, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        if (first == last) {
+            words[first] &= ~((-1L << from) & (-1L >>> -to));
+            return;
+        }
+        words[first] &= ~(-1L << from);
+        for (int i = first + 1; i < last; i++) {
+            words[i] = 0;
+        }
+        words[last] &= ~(-1L >>> -to);
+    }
+}
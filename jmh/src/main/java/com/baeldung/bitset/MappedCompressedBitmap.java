@@ -0,0 +1,200 @@
+package com.baeldung.bitset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+
+/**
+ * Read-only view of a {@link CompressedBitmap#serialize serialized} bitmap, typically a memory-mapped file. Nothing
+ * is read up front: {@link #contains} and {@link #cardinality} read the directory and at most one container straight
+ * from the buffer, and {@link #and} only copies the containers whose keys the other bitmap has as well.
+ */
+public class MappedCompressedBitmap {
+
+    private final ByteBuffer buffer;
+    private final int size;
+
+    public MappedCompressedBitmap(ByteBuffer buffer) {
+        this.buffer = buffer.slice()
+            .order(ByteOrder.LITTLE_ENDIAN);
+        if (this.buffer.remaining() < CompressedBitmap.HEADER_SIZE || this.buffer.getInt(0) != CompressedBitmap.COOKIE) {
+            throw new IllegalArgumentException("Not a serialized compressed bitmap");
+        }
+        this.size = this.buffer.getInt(Integer.BYTES);
+        validate();
+    }
+
+    public static MappedCompressedBitmap map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new MappedCompressedBitmap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = indexOf(value >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) value;
+        int offset = offset(index);
+        switch (type(index)) {
+        case Container.TYPE_ARRAY:
+            return arrayContains(offset, cardinality(index), low);
+        case Container.TYPE_BITMAP:
+            return (buffer.getLong(offset + 8 * (low >>> 6)) & 1L << low) != 0;
+        default:
+            return runContains(offset, low);
+        }
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += cardinality(i);
+        }
+        return cardinality;
+    }
+
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (int i = 0; i < other.containerCount(); i++) {
+            int index = indexOf(other.key(i));
+            if (index >= 0) {
+                result.append(other.key(i), Container.and(container(index), other.container(i)));
+            }
+        }
+        return result;
+    }
+
+    public void forEach(IntConsumer action) {
+        toCompressedBitmap().forEach(action);
+    }
+
+    public CompressedBitmap toCompressedBitmap() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < size; i++) {
+            bitmap.append((char) key(i), container(i));
+        }
+        return bitmap;
+    }
+
+    /**
+     * Checks the directory once, so that lookups can't read past the buffer or binary search unsorted keys.
+     */
+    private void validate() {
+        if (size < 0 || size > 1 << 16 || directory(size) > buffer.limit()) {
+            throw new IllegalArgumentException("Invalid container count " + size);
+        }
+        int previousKey = -1;
+        for (int i = 0; i < size; i++) {
+            int key = key(i);
+            if (key <= previousKey || key > 0xFFFF) {
+                throw new IllegalArgumentException("Container keys out of order at " + i);
+            }
+            previousKey = key;
+            int cardinality = cardinality(i);
+            if (cardinality < 0 || cardinality > 1 << 16) {
+                throw new IllegalArgumentException("Invalid cardinality " + cardinality + " of container " + i);
+            }
+            int offset = offset(i);
+            if (offset < 0 || offset > buffer.limit() || serializedSize(i) > buffer.limit() - offset) {
+                throw new IllegalArgumentException("Container " + i + " extends past the end of the buffer");
+            }
+        }
+    }
+
+    private long serializedSize(int index) {
+        switch (type(index)) {
+        case Container.TYPE_ARRAY:
+            return 2L * cardinality(index);
+        case Container.TYPE_BITMAP:
+            return 8L * Container.BITMAP_WORDS;
+        case Container.TYPE_RUN:
+            if (buffer.limit() - offset(index) < Integer.BYTES) {
+                return Long.MAX_VALUE;
+            }
+            int runCount = buffer.getInt(offset(index));
+            return runCount < 0 ? Long.MAX_VALUE : RunContainer.serializedSize(0) + 4L * runCount;
+        default:
+            throw new IllegalArgumentException("Unknown container type " + type(index));
+        }
+    }
+
+    private Container container(int index) {
+        return Container.deserialize(buffer, type(index), cardinality(index), offset(index));
+    }
+
+    private int indexOf(int key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleKey = key(middle);
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private boolean arrayContains(int offset, int cardinality, char value) {
+        int low = 0;
+        int high = cardinality - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char middleValue = buffer.getChar(offset + 2 * middle);
+            if (middleValue < value) {
+                low = middle + 1;
+            } else if (middleValue > value) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean runContains(int offset, char value) {
+        int runs = offset + Integer.BYTES;
+        int low = 0;
+        int high = buffer.getInt(offset) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getChar(runs + 4 * middle) <= value) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high >= 0 && value - buffer.getChar(runs + 4 * high) <= buffer.getChar(runs + 4 * high + 2);
+    }
+
+    private int key(int index) {
+        return buffer.getInt(directory(index));
+    }
+
+    private int type(int index) {
+        return buffer.getInt(directory(index) + 4);
+    }
+
+    private int cardinality(int index) {
+        return buffer.getInt(directory(index) + 8);
+    }
+
+    private int offset(int index) {
+        return buffer.getInt(directory(index) + 12);
+    }
+
+    private static int directory(int index) {
+        return CompressedBitmap.HEADER_SIZE + index * CompressedBitmap.DIRECTORY_ENTRY_SIZE;
+    }
+}
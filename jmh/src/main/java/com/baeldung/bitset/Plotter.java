@@ -10,6 +10,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.BitSet;
+import java.util.Random;
 
 public class Plotter {
 
@@ -34,5 +35,44 @@ public class Plotter {
                 }
             }
         }
+
+        plotDensities(Paths.get("density-footprint.csv"), 10_000_000);
+    }
+
+    /**
+     * Writes the footprint of a {@link BitSet} and a {@link CompressedBitmap} holding random values out of
+     * {@code bits}, for a range of densities, both with the values spread out and with the values in runs.
+     */
+    static void plotDensities(Path path, int bits) throws IOException {
+        try (BufferedWriter stream = Files.newBufferedWriter(path, StandardOpenOption.CREATE)) {
+            stream.write("density,bitset,compressed,compressedClustered\n");
+
+            for (double density : new double[] { 0.0001, 0.001, 0.01, 0.05, 0.1, 0.25, 0.5, 0.75, 1 }) {
+                System.out.println("Density => " + density);
+
+                Random random = new Random(42);
+                BitSet bitSet = new BitSet(bits);
+                CompressedBitmap compressed = new CompressedBitmap();
+                CompressedBitmap clustered = new CompressedBitmap();
+                for (int i = 0; i < bits; i++) {
+                    if (random.nextDouble() < density) {
+                        bitSet.set(i);
+                        compressed.add(i);
+                    }
+                    // runs of 1000 values, with the same overall density
+                    if ((i / 1000 * 0x9E3779B9L & 0xFFFF) < density * 0x10000) {
+                        clustered.add(i);
+                    }
+                }
+                compressed.runOptimize();
+                clustered.runOptimize();
+
+                long bitSetSize = GraphLayout.parseInstance(bitSet).totalSize();
+                long compressedSize = GraphLayout.parseInstance(compressed).totalSize();
+                long clusteredSize = GraphLayout.parseInstance(clustered).totalSize();
+
+                stream.write(density + "," + bitSetSize + "," + compressedSize + "," + clusteredSize + "\n");
+            }
+        }
     }
 }
@@ -0,0 +1,136 @@
+package com.baeldung.bitset;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sorted runs of consecutive values, each stored as its start and its length minus one, for containers with long
+ * stretches of values. Run containers are only created by {@link CompressedBitmap#runOptimize()}, and adding or
+ * removing a value turns them back into an array or a bitmap.
+ */
+class RunContainer extends Container {
+
+    private final char[] runs;
+    private final int runCount;
+    private final int cardinality;
+
+    RunContainer(char[] runs, int runCount, int cardinality) {
+        this.runs = runs;
+        this.runCount = runCount;
+        this.cardinality = cardinality;
+    }
+
+    static RunContainer of(Container container, int runCount) {
+        char[] values = new char[container.cardinality()];
+        container.toChars(values);
+        char[] runs = new char[2 * runCount];
+        int run = -1;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || values[i] != values[i - 1] + 1) {
+                run++;
+                runs[2 * run] = values[i];
+            } else {
+                runs[2 * run + 1]++;
+            }
+        }
+        return new RunContainer(runs, runCount, values.length);
+    }
+
+    static int serializedSize(int runCount) {
+        return Integer.BYTES + 4 * runCount;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+        // the last run that starts at or before the value
+        int low = 0;
+        int high = runCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (runs[2 * middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high >= 0 && value - runs[2 * high] <= runs[2 * high + 1];
+    }
+
+    @Override
+    Container add(char value) {
+        return contains(value) ? this : Container.fromWords(toWords())
+            .add(value);
+    }
+
+    @Override
+    Container remove(char value) {
+        if (!contains(value)) {
+            return this;
+        }
+        long[] words = toWords();
+        words[value >>> 6] &= ~(1L << value);
+        Container container = Container.fromWords(words);
+        return container == null ? new ArrayContainer() : container;
+    }
+
+    @Override
+    void toChars(char[] buffer) {
+        int count = 0;
+        for (int run = 0; run < runCount; run++) {
+            int start = runs[2 * run];
+            int end = start + runs[2 * run + 1];
+            for (int value = start; value <= end; value++) {
+                buffer[count++] = (char) value;
+            }
+        }
+    }
+
+    @Override
+    void orInto(long[] words) {
+        for (int run = 0; run < runCount; run++) {
+            int start = runs[2 * run];
+            Container.setRange(words, start, start + runs[2 * run + 1] + 1);
+        }
+    }
+
+    @Override
+    void clearFrom(long[] words) {
+        for (int run = 0; run < runCount; run++) {
+            int start = runs[2 * run];
+            Container.clearRange(words, start, start + runs[2 * run + 1] + 1);
+        }
+    }
+
+    @Override
+    int runCount() {
+        return runCount;
+    }
+
+    @Override
+    Container copy() {
+        // runs are never modified in place
+        return this;
+    }
+
+    @Override
+    int type() {
+        return TYPE_RUN;
+    }
+
+    @Override
+    int serializedSize() {
+        return serializedSize(runCount);
+    }
+
+    @Override
+    void serialize(ByteBuffer buffer) {
+        buffer.putInt(runCount);
+        for (int i = 0; i < 2 * runCount; i++) {
+            buffer.putChar(runs[i]);
+        }
+    }
+}
@@ -13,5 +13,20 @@ public class Sizing {
 
         BitSet bitSet = new BitSet(10_000);
         System.out.println(GraphLayout.parseInstance(bitSet).toPrintable());
+
+        // 100 values spread over 10,000,000 take a small array container each, a BitSet of that size takes 1.25 MB
+        CompressedBitmap sparse = new CompressedBitmap();
+        for (int i = 0; i < 10_000_000; i += 100_000) {
+            sparse.add(i);
+        }
+        System.out.println(GraphLayout.parseInstance(sparse).toFootprint());
+
+        // a single run of 1,000,000 values becomes 16 run containers of one run each
+        CompressedBitmap run = new CompressedBitmap();
+        for (int i = 0; i < 1_000_000; i++) {
+            run.add(i);
+        }
+        run.runOptimize();
+        System.out.println(GraphLayout.parseInstance(run).toFootprint());
     }
 }
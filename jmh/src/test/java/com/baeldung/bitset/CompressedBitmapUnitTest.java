@@ -0,0 +1,153 @@
+package com.baeldung.bitset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedBitmapUnitTest {
+
+    // values of the first 8 containers, which is enough for every container type and for containers only one side has
+    private static final int MAX_VALUE = 8 << 16;
+
+    @Test
+    void givenRandomValues_whenAddedAndRemoved_thenTheBitmapMatchesABitSet() {
+        Random random = new Random(1);
+        for (int round = 0; round < 20; round++) {
+            BitSet expected = new BitSet();
+            CompressedBitmap bitmap = randomBitmap(random, expected);
+
+            for (int i = 0; i < 20_000; i++) {
+                int value = random.nextInt(MAX_VALUE);
+                if (random.nextBoolean()) {
+                    bitmap.add(value);
+                    expected.set(value);
+                } else {
+                    bitmap.remove(value);
+                    expected.clear(value);
+                }
+            }
+
+            assertMatches(bitmap, expected);
+            bitmap.runOptimize();
+            assertMatches(bitmap, expected);
+        }
+    }
+
+    @Test
+    void givenRandomBitmaps_whenCombined_thenTheResultsMatchBitSets() {
+        Random random = new Random(2);
+        Set<Integer> containerTypes = new HashSet<>();
+        for (int round = 0; round < 20; round++) {
+            BitSet leftBits = new BitSet();
+            BitSet rightBits = new BitSet();
+            CompressedBitmap left = randomBitmap(random, leftBits);
+            CompressedBitmap right = randomBitmap(random, rightBits);
+            if (random.nextBoolean()) {
+                left.runOptimize();
+                right.runOptimize();
+            }
+            collectContainerTypes(left, containerTypes);
+            collectContainerTypes(right, containerTypes);
+
+            BitSet and = (BitSet) leftBits.clone();
+            and.and(rightBits);
+            BitSet or = (BitSet) leftBits.clone();
+            or.or(rightBits);
+            BitSet andNot = (BitSet) leftBits.clone();
+            andNot.andNot(rightBits);
+
+            assertMatches(CompressedBitmap.and(left, right), and);
+            assertMatches(CompressedBitmap.or(left, right), or);
+            assertMatches(CompressedBitmap.andNot(left, right), andNot);
+            // the operands are left as they were
+            assertMatches(left, leftBits);
+            assertMatches(right, rightBits);
+        }
+        assertThat(containerTypes).containsExactlyInAnyOrder(Container.TYPE_ARRAY, Container.TYPE_BITMAP, Container.TYPE_RUN);
+    }
+
+    @Test
+    void givenNegativeValues_whenIterated_thenTheyComeAfterThePositiveOnes() {
+        CompressedBitmap bitmap = CompressedBitmap.of(-1, 7, Integer.MIN_VALUE, 0, Integer.MAX_VALUE);
+
+        PrimitiveIterator.OfInt iterator = bitmap.iterator();
+        int[] values = new int[5];
+        for (int i = 0; iterator.hasNext(); i++) {
+            values[i] = iterator.nextInt();
+        }
+
+        assertThat(values).containsExactly(0, 7, Integer.MAX_VALUE, Integer.MIN_VALUE, -1);
+        assertThat(bitmap.contains(-1)).isTrue();
+        assertThat(bitmap.contains(-2)).isFalse();
+    }
+
+    /**
+     * Fills every container with another pattern: scattered values (an array container), many values (a bitmap
+     * container), long stretches (runs once optimized), or nothing at all.
+     */
+    static CompressedBitmap randomBitmap(Random random, BitSet bits) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int key = 0; key < MAX_VALUE >>> 16; key++) {
+            int base = key << 16;
+            switch (random.nextInt(4)) {
+            case 0:
+                for (int i = random.nextInt(Container.MAX_ARRAY_SIZE); i > 0; i--) {
+                    add(bitmap, bits, base + random.nextInt(1 << 16));
+                }
+                break;
+            case 1:
+                for (int i = Container.MAX_ARRAY_SIZE + random.nextInt(40_000); i > 0; i--) {
+                    add(bitmap, bits, base + random.nextInt(1 << 16));
+                }
+                break;
+            case 2:
+                for (int run = random.nextInt(20); run >= 0; run--) {
+                    int start = random.nextInt(1 << 16);
+                    int end = Math.min(1 << 16, start + random.nextInt(5_000));
+                    for (int value = start; value < end; value++) {
+                        add(bitmap, bits, base + value);
+                    }
+                }
+                break;
+            default:
+                break;
+            }
+        }
+        return bitmap;
+    }
+
+    static void assertMatches(CompressedBitmap bitmap, BitSet expected) {
+        assertThat(bitmap.cardinality()).isEqualTo(expected.cardinality());
+        assertThat(bitmap.isEmpty()).isEqualTo(expected.isEmpty());
+        assertThat(bitmap.iterator()).toIterable()
+            .containsExactlyElementsOf(() -> expected.stream()
+                .iterator());
+        IntStream.Builder forEach = IntStream.builder();
+        bitmap.forEach(forEach);
+        assertThat(forEach.build()
+            .toArray()).isEqualTo(expected.stream()
+                .toArray());
+        for (int value = 0; value < MAX_VALUE; value += 7) {
+            assertThat(bitmap.contains(value)).isEqualTo(expected.get(value));
+        }
+    }
+
+    private static void add(CompressedBitmap bitmap, BitSet bits, int value) {
+        bitmap.add(value);
+        bits.set(value);
+    }
+
+    private static void collectContainerTypes(CompressedBitmap bitmap, Set<Integer> types) {
+        for (int i = 0; i < bitmap.containerCount(); i++) {
+            types.add(bitmap.container(i)
+                .type());
+        }
+    }
+}
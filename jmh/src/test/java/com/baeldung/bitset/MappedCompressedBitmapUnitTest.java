@@ -0,0 +1,89 @@
+package com.baeldung.bitset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedCompressedBitmapUnitTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void givenSerializedBitmap_whenMapped_thenItHoldsTheSameValues() throws IOException {
+        Random random = new Random(3);
+        for (int round = 0; round < 10; round++) {
+            BitSet bits = new BitSet();
+            CompressedBitmap bitmap = CompressedBitmapUnitTest.randomBitmap(random, bits);
+            bitmap.runOptimize();
+            BitSet otherBits = new BitSet();
+            CompressedBitmap other = CompressedBitmapUnitTest.randomBitmap(random, otherBits);
+
+            ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+            bitmap.serialize(buffer);
+            assertThat(buffer.hasRemaining()).isFalse();
+            Path file = Files.write(tempDir.resolve("bitmap" + round), buffer.array());
+
+            MappedCompressedBitmap mapped = MappedCompressedBitmap.map(file);
+
+            assertThat(mapped.cardinality()).isEqualTo(bits.cardinality());
+            for (int value = 0; value < 8 << 16; value += 5) {
+                assertThat(mapped.contains(value)).isEqualTo(bits.get(value));
+            }
+            IntStream.Builder values = IntStream.builder();
+            mapped.forEach(values);
+            assertThat(values.build()
+                .toArray()).isEqualTo(bits.stream()
+                    .toArray());
+            assertThat(mapped.toCompressedBitmap()).isEqualTo(bitmap);
+            assertThat(CompressedBitmap.deserialize(ByteBuffer.wrap(buffer.array()))).isEqualTo(bitmap);
+
+            BitSet and = (BitSet) bits.clone();
+            and.and(otherBits);
+            CompressedBitmapUnitTest.assertMatches(mapped.and(other), and);
+        }
+    }
+
+    @Test
+    void givenOtherBytes_whenMapped_thenRejected() {
+        assertThatThrownBy(() -> new MappedCompressedBitmap(ByteBuffer.allocate(16))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenTruncatedOrCorruptedBitmap_whenMapped_thenRejected() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        IntStream.range(0, 5000)
+            .forEach(value -> bitmap.add(value * 3));
+        bitmap.add(1 << 20);
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+        bitmap.serialize(buffer);
+        byte[] bytes = buffer.array();
+
+        assertThatThrownBy(() -> new MappedCompressedBitmap(ByteBuffer.wrap(bytes, 0, bytes.length - 8))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MappedCompressedBitmap(withInt(bytes, Integer.BYTES, 1 << 20))).isInstanceOf(IllegalArgumentException.class);
+        int firstEntry = CompressedBitmap.HEADER_SIZE;
+        assertThatThrownBy(() -> new MappedCompressedBitmap(withInt(bytes, firstEntry + 12, Integer.MAX_VALUE))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MappedCompressedBitmap(withInt(bytes, firstEntry + 12, -8))).isInstanceOf(IllegalArgumentException.class);
+        int secondEntry = firstEntry + CompressedBitmap.DIRECTORY_ENTRY_SIZE;
+        assertThatThrownBy(() -> new MappedCompressedBitmap(withInt(bytes, secondEntry + 8, 1 << 16))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MappedCompressedBitmap(withInt(bytes, secondEntry, 0))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ByteBuffer withInt(byte[] bytes, int index, int value) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.clone())
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(index, value);
+        return buffer;
+    }
+}
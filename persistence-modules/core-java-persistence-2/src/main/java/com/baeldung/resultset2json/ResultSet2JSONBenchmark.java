@@ -0,0 +1,135 @@
+package com.baeldung.resultset2json;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.JSONArray;
+
+/**
+ * Exports a table of generated rows as JSON with {@link ResultSet2JSON} and with {@link StreamingResultSet2JSON}, and
+ * prints the rows per second and the peak heap used by each. The JSON goes to a stream that only counts the bytes.
+ * <p>
+ * The table is kept in an H2 file database in the temp directory, so its pages don't count as heap of the exporters,
+ * and is only generated again when the row count changes. Usage: {@code ResultSet2JSONBenchmark [rows]}, 5 million
+ * rows by default.
+ */
+public class ResultSet2JSONBenchmark {
+
+    private static final String URL = "jdbc:h2:" + Paths.get(System.getProperty("java.io.tmpdir"), "rs2json-benchmark")
+        .toAbsolutePath() + ";LAZY_QUERY_EXECUTION=TRUE";
+    private static final String QUERY = "SELECT * FROM EXPORT";
+
+    public static void main(String... args) throws Exception {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000;
+        try (Connection connection = DriverManager.getConnection(URL, "user", "password")) {
+            createTable(connection, rows);
+
+            run("JSONArray, then written", () -> {
+                try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(QUERY)) {
+                    JSONArray array = ResultSet2JSON.resultSet2JdbcWithoutJOOQ(resultSet);
+                    CountingOutputStream out = new CountingOutputStream();
+                    try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                        array.write(writer);
+                    }
+                    return new long[] { array.length(), out.count };
+                }
+            });
+            run("Streaming, fetch size 1000", () -> {
+                CountingOutputStream out = new CountingOutputStream();
+                long exported = new StreamingResultSet2JSON().export(connection, QUERY, out);
+                return new long[] { exported, out.count };
+            });
+        }
+    }
+
+    private static void createTable(Connection connection, long rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS EXPORT (ID BIGINT PRIMARY KEY, USERNAME VARCHAR(32), SCORE DOUBLE, PRICE DECIMAL(10, 2), "
+                + "CREATED TIMESTAMP, ACTIVE BOOLEAN)");
+            try (ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM EXPORT")) {
+                count.next();
+                if (count.getLong(1) == rows) {
+                    return;
+                }
+            }
+            System.out.println("Generating " + rows + " rows...");
+            statement.execute("TRUNCATE TABLE EXPORT");
+            statement.execute("INSERT INTO EXPORT SELECT X, CONCAT('user', X), RAND(), CAST(MOD(X, 100000) / 100.0 AS DECIMAL(10, 2)), "
+                + "TIMESTAMP '2022-01-01 00:00:00' + X * INTERVAL '1' SECOND, MOD(X, 2) = 0 FROM SYSTEM_RANGE(1, " + rows + ")");
+        }
+    }
+
+    private static void run(String name, Export export) throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage()
+            .getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread()
+                .isInterrupted()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage()
+                    .getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        long start = System.nanoTime();
+        String result;
+        try {
+            long[] exported = export.run();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            result = String.format("%,d rows, %,d MB of JSON in %.1f s, %,.0f rows/s", exported[0], exported[1] >> 20, seconds, exported[0] / seconds);
+        } catch (OutOfMemoryError e) {
+            result = String.format("out of memory after %.1f s", (System.nanoTime() - start) / 1e9);
+        } catch (Exception e) {
+            result = "failed: " + e;
+        }
+        sampler.interrupt();
+        sampler.join();
+        System.out.printf("%-28s %s, peak heap %,d MB%n", name, result, (peak.get() - baseline) >> 20);
+    }
+
+    @FunctionalInterface
+    private interface Export {
+
+        /**
+         * @return the rows and bytes exported
+         */
+        long[] run() throws SQLException, IOException;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
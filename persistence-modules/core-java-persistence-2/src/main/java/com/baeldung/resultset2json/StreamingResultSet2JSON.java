@@ -0,0 +1,221 @@
+package com.baeldung.resultset2json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * Writes a {@link ResultSet} as a JSON array of objects straight to an {@link OutputStream}, one row at a time, so
+ * unlike {@link ResultSet2JSON} no {@code JSONArray} of the whole result is built in memory.
+ * <p>
+ * The column names and the way every column is read and written are looked up once from the
+ * {@link ResultSetMetaData}, so the per-row work is only the typed getter of each column and the generator call.
+ */
+public class StreamingResultSet2JSON {
+
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final JsonFactory jsonFactory;
+    private final int fetchSize;
+
+    public StreamingResultSet2JSON() {
+        this(new JsonFactory(), DEFAULT_FETCH_SIZE);
+    }
+
+    public StreamingResultSet2JSON(JsonFactory jsonFactory, int fetchSize) {
+        this.jsonFactory = jsonFactory;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Runs the query on a forward-only, read-only cursor and writes its rows to the stream, which is left open.
+     *
+     * @return the number of rows written
+     */
+    public long export(Connection connection, String sql, OutputStream out) throws SQLException, IOException {
+        String database = connection.getMetaData()
+            .getDatabaseProductName();
+        boolean autoCommit = connection.getAutoCommit();
+        // PostgreSQL only fetches in chunks, instead of the whole result at once, outside of auto-commit
+        if ("PostgreSQL".equals(database) && autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        boolean exported = false;
+        try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // MySQL streams row by row only with this fetch size, any other one reads the whole result first
+            statement.setFetchSize("MySQL".equals(database) ? Integer.MIN_VALUE : fetchSize);
+            long rows;
+            try (ResultSet resultSet = statement.executeQuery(sql)) {
+                rows = write(resultSet, out);
+            }
+            exported = true;
+            return rows;
+        } finally {
+            if (connection.getAutoCommit() != autoCommit) {
+                // the transaction was only started for the cursor, so a failed export must not commit anything
+                if (exported) {
+                    connection.commit();
+                } else {
+                    connection.rollback();
+                }
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining rows of the result set to the stream, which is left open.
+     *
+     * @return the number of rows written
+     */
+    public long write(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+        Column[] columns = columns(resultSet.getMetaData());
+        long rows = 0;
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartArray();
+            while (resultSet.next()) {
+                generator.writeStartObject();
+                for (Column column : columns) {
+                    generator.writeFieldName(column.name);
+                    column.writer.write(resultSet, column.index, generator);
+                }
+                generator.writeEndObject();
+                rows++;
+            }
+            generator.writeEndArray();
+        }
+        return rows;
+    }
+
+    private static Column[] columns(ResultSetMetaData md) throws SQLException {
+        Column[] columns = new Column[md.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            int index = i + 1;
+            columns[i] = new Column(index, md.getColumnLabel(index), writerFor(md.getColumnType(index)));
+        }
+        return columns;
+    }
+
+    private static ValueWriter writerFor(int sqlType) {
+        switch (sqlType) {
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER:
+            return (rs, i, generator) -> {
+                int value = rs.getInt(i);
+                if (rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            };
+        case Types.BIGINT:
+            return (rs, i, generator) -> {
+                long value = rs.getLong(i);
+                if (rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            };
+        case Types.REAL:
+        case Types.FLOAT:
+        case Types.DOUBLE:
+            return (rs, i, generator) -> {
+                double value = rs.getDouble(i);
+                // JSON has no NaN or infinities
+                if (rs.wasNull() || Double.isNaN(value) || Double.isInfinite(value)) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            };
+        case Types.DECIMAL:
+        case Types.NUMERIC:
+            // writeNumber(BigDecimal) writes null for a null value
+            return (rs, i, generator) -> generator.writeNumber(rs.getBigDecimal(i));
+        case Types.BIT:
+        case Types.BOOLEAN:
+            return (rs, i, generator) -> {
+                boolean value = rs.getBoolean(i);
+                if (rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeBoolean(value);
+                }
+            };
+        case Types.DATE:
+            return temporal(LocalDate.class);
+        case Types.TIME:
+            return temporal(LocalTime.class);
+        case Types.TIMESTAMP:
+            return temporal(LocalDateTime.class);
+        case Types.TIMESTAMP_WITH_TIMEZONE:
+            return temporal(OffsetDateTime.class);
+        case Types.BINARY:
+        case Types.VARBINARY:
+        case Types.LONGVARBINARY:
+        case Types.BLOB:
+            return (rs, i, generator) -> {
+                byte[] value = rs.getBytes(i);
+                if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeBinary(value);
+                }
+            };
+        default:
+            // writeString writes null for a null value
+            return (rs, i, generator) -> generator.writeString(rs.getString(i));
+        }
+    }
+
+    /**
+     * Dates and times are written in their ISO-8601 form.
+     */
+    private static ValueWriter temporal(Class<?> type) {
+        return (rs, i, generator) -> {
+            Object value = rs.getObject(i, type);
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(value.toString());
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter {
+
+        void write(ResultSet resultSet, int index, JsonGenerator generator) throws SQLException, IOException;
+    }
+
+    private static class Column {
+
+        final int index;
+        final SerializedString name;
+        final ValueWriter writer;
+
+        Column(int index, String name, ValueWriter writer) {
+            this.index = index;
+            // the name is quoted and encoded once, not for every row
+            this.name = new SerializedString(name);
+            this.writer = writer;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.baeldung.resultset2json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+public class StreamingResultSet2JSONUnitTest {
+
+    JSONArray array = new JSONArray(
+        "[{\"USERNAME\":\"doe1\",\"First name\":\"John\",\"ID\":\"7173\",\"Last name\":\"Doe\"},{\"USERNAME\":\"smith3\",\"First name\":\"Dana\",\"ID\":\"3722\",\"Last name\":\"Smith\"},{\"USERNAME\":\"john22\",\"First name\":\"John\",\"ID\":\"5490\",\"Last name\":\"Wang\"}]");
+
+    @Test
+    void whenResultSetWritten_shouldMatchJSON() throws SQLException, IOException {
+        Connection dbConnection = DriverManager.getConnection("jdbc:h2:mem:rs2jdbc4", "user", "password");
+        Statement stmt = dbConnection.createStatement();
+        stmt.execute("CREATE TABLE words AS SELECT * FROM CSVREAD('./example.csv')");
+        ResultSet resultSet = stmt.executeQuery("SELECT * FROM words");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = new StreamingResultSet2JSON().write(resultSet, out);
+
+        resultSet.close();
+
+        assertThat(rows).isEqualTo(3);
+        assertTrue(array.similar(new JSONArray(new String(out.toByteArray(), StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void whenTypedColumnsExported_shouldWriteJSONTypes() throws SQLException, IOException {
+        Connection dbConnection = DriverManager.getConnection("jdbc:h2:mem:rs2jdbc5", "user", "password");
+        Statement stmt = dbConnection.createStatement();
+        stmt.execute("CREATE TABLE typed (ID BIGINT, QUANTITY INT, SCORE DOUBLE, PRICE DECIMAL(10, 2), ACTIVE BOOLEAN, "
+            + "CREATED TIMESTAMP, RELEASED DATE, DATA VARBINARY(4), NOTE VARCHAR(20))");
+        stmt.execute("INSERT INTO typed VALUES (1, 7, 0.5, 12.30, TRUE, TIMESTAMP '2022-04-09 10:15:30', DATE '2022-04-09', X'CAFE', 'a \"quoted\" note')");
+        stmt.execute("INSERT INTO typed VALUES (2, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL)");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = new StreamingResultSet2JSON(new JsonFactory(), 1).export(dbConnection, "SELECT * FROM typed ORDER BY ID", out);
+
+        JSONArray result = new JSONArray(new String(out.toByteArray(), StandardCharsets.UTF_8));
+        JSONObject first = result.getJSONObject(0);
+        assertThat(rows).isEqualTo(2);
+        assertThat(first.getLong("ID")).isEqualTo(1);
+        assertThat(first.getInt("QUANTITY")).isEqualTo(7);
+        assertThat(first.getDouble("SCORE")).isEqualTo(0.5);
+        assertThat(first.getBigDecimal("PRICE")).isEqualByComparingTo("12.30");
+        assertThat(first.getBoolean("ACTIVE")).isTrue();
+        assertThat(first.getString("CREATED")).isEqualTo("2022-04-09T10:15:30");
+        assertThat(first.getString("RELEASED")).isEqualTo("2022-04-09");
+        assertThat(first.getString("DATA")).isEqualTo("yv4=");
+        assertThat(first.getString("NOTE")).isEqualTo("a \"quoted\" note");
+        JSONObject second = result.getJSONObject(1);
+        assertThat(second.keySet()).hasSize(9);
+        for (String column : new String[] { "QUANTITY", "SCORE", "PRICE", "ACTIVE", "CREATED", "RELEASED", "DATA", "NOTE" }) {
+            assertThat(second.isNull(column)).as(column)
+                .isTrue();
+        }
+    }
+
+    @Test
+    void whenDoublesAreNotFinite_shouldWriteNull() throws SQLException, IOException {
+        Connection dbConnection = DriverManager.getConnection("jdbc:h2:mem:rs2jdbc7", "user", "password");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new StreamingResultSet2JSON().export(dbConnection,
+            "SELECT CAST('NaN' AS DOUBLE) AS NAN, CAST('Infinity' AS DOUBLE) AS POSITIVE, CAST('-Infinity' AS DOUBLE) AS NEGATIVE", out);
+
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("[{\"NAN\":null,\"POSITIVE\":null,\"NEGATIVE\":null}]");
+    }
+
+    @Test
+    void whenExported_shouldLeaveStreamAndConnectionUsable() throws SQLException, IOException {
+        Connection dbConnection = DriverManager.getConnection("jdbc:h2:mem:rs2jdbc6", "user", "password");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingResultSet2JSON exporter = new StreamingResultSet2JSON();
+
+        long first = exporter.export(dbConnection, "SELECT X AS N FROM SYSTEM_RANGE(1, 2500)", out);
+        out.write('\n');
+        long second = exporter.export(dbConnection, "SELECT X AS N FROM SYSTEM_RANGE(1, 0)", out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertThat(first).isEqualTo(2500);
+        assertThat(second).isZero();
+        assertThat(new JSONArray(lines[0]).getJSONObject(2499)
+            .getLong("N")).isEqualTo(2500);
+        assertThat(lines[1]).isEqualTo("[]");
+        assertThat(dbConnection.getAutoCommit()).isTrue();
+    }
+}
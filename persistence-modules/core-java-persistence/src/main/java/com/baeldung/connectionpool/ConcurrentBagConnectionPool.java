@@ -0,0 +1,516 @@
+package com.baeldung.connectionpool;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe alternative to {@link BasicConnectionPool}, organised like the concurrent bag of HikariCP:
+ * <ul>
+ * <li>every pooled connection has an atomic state, and it is borrowed by a compare-and-set from idle to in use, so
+ * there is no lock on the borrow and release paths</li>
+ * <li>each thread first tries the connections it released itself, most recent first, which avoids contention and
+ * keeps a thread on a connection whose caches are warm</li>
+ * <li>a connection is only validated with {@link Connection#isValid(int)} when it has been idle for longer than
+ * {@link Settings#validationBypass}, instead of on every borrow</li>
+ * <li>when the pool is at its maximum size, borrowers wait up to {@link Settings#acquireTimeout} and are handed
+ * released connections in arrival order through a fair {@link SynchronousQueue}</li>
+ * <li>a background thread closes connections that have been idle too long or reached their maximum lifetime, checks
+ * long idle connections before the database or a firewall drops them, and refills the pool to its minimum</li>
+ * </ul>
+ * The time taken by every {@link #getConnection()} is recorded in {@link #getAcquireLatency()}.
+ */
+public class ConcurrentBagConnectionPool implements ConnectionPool {
+
+    private static final int THREAD_LOCAL_CAPACITY = 16;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final Settings settings;
+
+    private final CopyOnWriteArrayList<PooledConnection> connections = new CopyOnWriteArrayList<>();
+    private final Map<Connection, PooledConnection> byConnection = new ConcurrentHashMap<>();
+    private final ThreadLocal<List<WeakReference<PooledConnection>>> recentlyReleased = ThreadLocal.withInitial(ArrayList::new);
+    private final SynchronousQueue<PooledConnection> handoff = new SynchronousQueue<>(true);
+    private final AtomicInteger waiters = new AtomicInteger();
+    // the waiters that are polling the handoff queue right now, only they can take a connection from it
+    private final AtomicInteger polling = new AtomicInteger();
+    // connections in the pool plus those being opened, so that the maximum size holds while opening
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown;
+
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public static ConcurrentBagConnectionPool create(String url, String user, String password) throws SQLException {
+        return create(url, user, password, new Settings());
+    }
+
+    public static ConcurrentBagConnectionPool create(String url, String user, String password, Settings settings) throws SQLException {
+        ConcurrentBagConnectionPool pool = new ConcurrentBagConnectionPool(url, user, password, settings);
+        try {
+            pool.fillToMinimum();
+        } catch (SQLException e) {
+            pool.shutdown();
+            throw e;
+        }
+        return pool;
+    }
+
+    private ConcurrentBagConnectionPool(String url, String user, String password, Settings settings) {
+        if (settings.minIdle > settings.maxPoolSize) {
+            throw new IllegalArgumentException("minIdle " + settings.minIdle + " is larger than maxPoolSize " + settings.maxPoolSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.settings = settings;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = settings.housekeepingPeriod.toMillis();
+        housekeeper.scheduleWithFixedDelay(this::runHousekeeping, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + settings.acquireTimeout.toNanos();
+        try {
+            PooledConnection pooled = borrowFromThreadLocal();
+            if (pooled == null) {
+                pooled = borrow(deadline);
+            }
+            return pooled.connection;
+        } finally {
+            acquireLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean releaseConnection(Connection connection) {
+        PooledConnection pooled = connection == null ? null : byConnection.get(connection);
+        if (pooled == null || pooled.state.get() != PooledConnection.IN_USE) {
+            return false;
+        }
+        if (shutdown || isClosed(connection)) {
+            remove(pooled);
+            return true;
+        }
+        pooled.lastAccessed = System.nanoTime();
+        if (!pooled.state.compareAndSet(PooledConnection.IN_USE, PooledConnection.IDLE)) {
+            return false;
+        }
+
+        // a single attempt, which only succeeds if a borrower is polling, otherwise the connection stays idle in the
+        // bag, where a waiting borrower finds it on its next scan, at most one poll timeout later
+        if (polling.get() > 0 && handoff.offer(pooled)) {
+            return true;
+        }
+        rememberInThread(pooled);
+        return true;
+    }
+
+    /**
+     * @return the connections that are currently idle
+     */
+    @Override
+    public List<Connection> getConnectionPool() {
+        List<Connection> idle = new ArrayList<>();
+        for (PooledConnection pooled : connections) {
+            if (pooled.state.get() == PooledConnection.IDLE) {
+                idle.add(pooled.connection);
+            }
+        }
+        return Collections.unmodifiableList(idle);
+    }
+
+    @Override
+    public int getSize() {
+        return connections.size();
+    }
+
+    public int getIdleCount() {
+        int idle = 0;
+        for (PooledConnection pooled : connections) {
+            if (pooled.state.get() == PooledConnection.IDLE) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+
+    public int getWaitingThreads() {
+        return waiters.get();
+    }
+
+    public LatencyHistogram getAcquireLatency() {
+        return acquireLatency;
+    }
+
+    public long getAcquireTimeouts() {
+        return acquireTimeouts.sum();
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public String getUser() {
+        return user;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Closes all connections, including those that are still borrowed.
+     */
+    @Override
+    public void shutdown() throws SQLException {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        SQLException failure = null;
+        for (PooledConnection pooled : connections) {
+            if (pooled.state.getAndSet(PooledConnection.REMOVED) == PooledConnection.REMOVED) {
+                continue;
+            }
+            connections.remove(pooled);
+            byConnection.remove(pooled.connection);
+            totalConnections.decrementAndGet();
+            try {
+                pooled.connection.close();
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Evicts idle connections beyond the minimum that were idle longer than {@link Settings#idleTimeout} and idle
+     * connections older than {@link Settings#maxLifetime}, validates idle connections that weren't used for
+     * {@link Settings#keepaliveTime}, and opens connections up to the minimum.
+     */
+    void runHousekeeping() {
+        long now = System.nanoTime();
+        long idleTimeout = settings.idleTimeout.toNanos();
+        long maxLifetime = settings.maxLifetime.toNanos();
+        long keepaliveTime = settings.keepaliveTime.toNanos();
+        int idle = getIdleCount();
+        for (PooledConnection pooled : connections) {
+            // reserving keeps borrowers away while the connection is checked or closed
+            if (!pooled.state.compareAndSet(PooledConnection.IDLE, PooledConnection.RESERVED)) {
+                continue;
+            }
+            boolean expired = now - pooled.createdAt > maxLifetime;
+            boolean idleTooLong = idle > settings.minIdle && now - pooled.lastAccessed > idleTimeout;
+            if (expired || idleTooLong) {
+                idle--;
+                evictions.increment();
+                remove(pooled);
+            } else if (now - pooled.lastChecked() > keepaliveTime && !isValid(pooled)) {
+                idle--;
+                remove(pooled);
+            } else {
+                pooled.state.set(PooledConnection.IDLE);
+            }
+        }
+        try {
+            fillToMinimum();
+        } catch (SQLException e) {
+            // the database is unreachable, the next run tries again
+        }
+    }
+
+    private PooledConnection borrowFromThreadLocal() {
+        List<WeakReference<PooledConnection>> recent = recentlyReleased.get();
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            PooledConnection pooled = recent.remove(i)
+                .get();
+            if (pooled != null && pooled.state.compareAndSet(PooledConnection.IDLE, PooledConnection.IN_USE)) {
+                if (isUsable(pooled)) {
+                    return pooled;
+                }
+            }
+        }
+        return null;
+    }
+
+    private PooledConnection borrow(long deadline) throws SQLException {
+        waiters.incrementAndGet();
+        try {
+            while (true) {
+                if (shutdown) {
+                    throw new SQLException("Connection pool has been shut down");
+                }
+                for (PooledConnection pooled : connections) {
+                    if (pooled.state.compareAndSet(PooledConnection.IDLE, PooledConnection.IN_USE) && isUsable(pooled)) {
+                        return pooled;
+                    }
+                }
+                PooledConnection created = tryOpen();
+                if (created != null) {
+                    return created;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    acquireTimeouts.increment();
+                    throw new SQLTransientConnectionException("No connection available within " + settings.acquireTimeout.toMillis() + " ms, pool size "
+                        + getSize() + ", waiting threads " + waiters.get());
+                }
+                // waiting is bounded, so that a connection that was removed in the meantime leaves room to open one
+                PooledConnection handedOff;
+                polling.incrementAndGet();
+                try {
+                    handedOff = handoff.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(10)), TimeUnit.NANOSECONDS);
+                } finally {
+                    polling.decrementAndGet();
+                }
+                if (handedOff != null && handedOff.state.compareAndSet(PooledConnection.IDLE, PooledConnection.IN_USE) && isUsable(handedOff)) {
+                    return handedOff;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Validates a borrowed connection if it has been idle for a while, and removes it if it is broken.
+     *
+     * @return false if the connection was removed
+     */
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.nanoTime() - pooled.lastChecked() <= settings.validationBypass.toNanos() || isValid(pooled)) {
+            return true;
+        }
+        remove(pooled);
+        return false;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            if (pooled.connection.isValid(settings.validationTimeoutSeconds)) {
+                pooled.lastValidated = System.nanoTime();
+                return true;
+            }
+        } catch (SQLException e) {
+            // treated like a failed validation
+        }
+        validationFailures.increment();
+        return false;
+    }
+
+    /**
+     * @return a new connection that is already in use, or null if the pool is at its maximum size
+     */
+    private PooledConnection tryOpen() throws SQLException {
+        int total;
+        do {
+            total = totalConnections.get();
+            if (total >= settings.maxPoolSize) {
+                return null;
+            }
+        } while (!totalConnections.compareAndSet(total, total + 1));
+        return open(PooledConnection.IN_USE);
+    }
+
+    private void fillToMinimum() throws SQLException {
+        while (!shutdown && getIdleCount() < settings.minIdle) {
+            int total = totalConnections.get();
+            if (total >= settings.maxPoolSize) {
+                return;
+            }
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                PooledConnection pooled = open(PooledConnection.IDLE);
+                if (polling.get() > 0) {
+                    handoff.offer(pooled);
+                }
+            }
+        }
+    }
+
+    private PooledConnection open(int state) throws SQLException {
+        Connection connection;
+        try {
+            connection = DriverManager.getConnection(url, user, password);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+        PooledConnection pooled = new PooledConnection(connection, state);
+        byConnection.put(connection, pooled);
+        connections.add(pooled);
+        return pooled;
+    }
+
+    private void remove(PooledConnection pooled) {
+        if (pooled.state.getAndSet(PooledConnection.REMOVED) == PooledConnection.REMOVED) {
+            return;
+        }
+        connections.remove(pooled);
+        byConnection.remove(pooled.connection);
+        totalConnections.decrementAndGet();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            // the connection is dropped either way
+        }
+    }
+
+    private void rememberInThread(PooledConnection pooled) {
+        List<WeakReference<PooledConnection>> recent = recentlyReleased.get();
+        if (recent.size() == THREAD_LOCAL_CAPACITY) {
+            recent.remove(0);
+        }
+        // weak, so that connections removed from the pool aren't kept alive by threads that used them
+        recent.add(new WeakReference<>(pooled));
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static class PooledConnection {
+
+        static final int IDLE = 0;
+        static final int IN_USE = 1;
+        static final int RESERVED = 2;
+        static final int REMOVED = -1;
+
+        final Connection connection;
+        final AtomicInteger state;
+        final long createdAt = System.nanoTime();
+        // when it was last released, which is what the idle timeout is measured from
+        volatile long lastAccessed = createdAt;
+        volatile long lastValidated = createdAt;
+
+        PooledConnection(Connection connection, int state) {
+            this.connection = connection;
+            this.state = new AtomicInteger(state);
+        }
+
+        /**
+         * @return when the connection was last known to work
+         */
+        long lastChecked() {
+            return Math.max(lastAccessed, lastValidated);
+        }
+    }
+
+    /**
+     * The tuning of a {@link ConcurrentBagConnectionPool}. The defaults follow {@link BasicConnectionPool} for the
+     * sizes and HikariCP for the timings.
+     */
+    public static class Settings {
+
+        private int minIdle = 10;
+        private int maxPoolSize = 20;
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+        private Duration validationBypass = Duration.ofMillis(500);
+        private int validationTimeoutSeconds = 5;
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        private Duration maxLifetime = Duration.ofMinutes(30);
+        private Duration keepaliveTime = Duration.ofMinutes(2);
+        private Duration housekeepingPeriod = Duration.ofSeconds(30);
+
+        public Settings minIdle(int minIdle) {
+            this.minIdle = minIdle;
+            return this;
+        }
+
+        public Settings maxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+            return this;
+        }
+
+        /**
+         * How long {@link #getConnection()} waits for a connection when the pool is at its maximum size.
+         */
+        public Settings acquireTimeout(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+            return this;
+        }
+
+        /**
+         * How long a connection may be idle and still be handed out without validating it first.
+         */
+        public Settings validationBypass(Duration validationBypass) {
+            this.validationBypass = validationBypass;
+            return this;
+        }
+
+        public Settings validationTimeoutSeconds(int validationTimeoutSeconds) {
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+            return this;
+        }
+
+        public Settings idleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        public Settings maxLifetime(Duration maxLifetime) {
+            this.maxLifetime = maxLifetime;
+            return this;
+        }
+
+        public Settings keepaliveTime(Duration keepaliveTime) {
+            this.keepaliveTime = keepaliveTime;
+            return this;
+        }
+
+        public Settings housekeepingPeriod(Duration housekeepingPeriod) {
+            this.housekeepingPeriod = housekeepingPeriod;
+            return this;
+        }
+    }
+}
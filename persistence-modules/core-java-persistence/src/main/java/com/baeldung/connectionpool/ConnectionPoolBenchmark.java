@@ -0,0 +1,108 @@
+package com.baeldung.connectionpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to borrow and return a connection to an in-memory H2 database with {@link ConcurrentBagConnectionPool} and the
+ * HikariCP, DBCP and c3p0 data sources of this package. {@link BasicConnectionPool} isn't thread-safe, so every
+ * benchmark thread gets a pool of its own. {@link #main} runs the benchmarks with 1, 4 and 16 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:test";
+
+    private ConcurrentBagConnectionPool concurrentBagPool;
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 1, 4, 16 }) {
+            new Runner(new OptionsBuilder().include(ConnectionPoolBenchmark.class.getSimpleName())
+                .threads(threads)
+                .build()).run();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        concurrentBagPool = ConcurrentBagConnectionPool.create(URL, "user", "password");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        concurrentBagPool.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadPool {
+
+        BasicConnectionPool basicPool;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            basicPool = BasicConnectionPool.create(URL, "user", "password");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            basicPool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Connection concurrentBagConnectionPool() throws SQLException {
+        Connection connection = concurrentBagPool.getConnection();
+        concurrentBagPool.releaseConnection(connection);
+        return connection;
+    }
+
+    @Benchmark
+    public Connection basicConnectionPool(ThreadPool threadPool) throws SQLException {
+        Connection connection = threadPool.basicPool.getConnection();
+        threadPool.basicPool.releaseConnection(connection);
+        return connection;
+    }
+
+    @Benchmark
+    public Connection hikariCP() throws SQLException {
+        Connection connection = HikariCPDataSource.getConnection();
+        connection.close();
+        return connection;
+    }
+
+    @Benchmark
+    public Connection dbcp() throws SQLException {
+        Connection connection = DBCPDataSource.getConnection();
+        connection.close();
+        return connection;
+    }
+
+    @Benchmark
+    public Connection c3p0() throws SQLException {
+        Connection connection = C3p0DataSource.getConnection();
+        connection.close();
+        return connection;
+    }
+}
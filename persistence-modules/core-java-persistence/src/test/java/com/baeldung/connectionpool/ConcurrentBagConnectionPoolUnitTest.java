@@ -0,0 +1,201 @@
+package com.baeldung.connectionpool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ConcurrentBagConnectionPoolUnitTest {
+
+    private static final String URL = "jdbc:h2:mem:test";
+
+    private ConcurrentBagConnectionPool connectionPool;
+
+    @After
+    public void shutdownPool() throws SQLException {
+        if (connectionPool != null) {
+            connectionPool.shutdown();
+        }
+    }
+
+    @Test
+    public void givenNewPool_whenCreated_thenMinimumIdleConnectionsAreOpen() throws Exception {
+        connectionPool = ConcurrentBagConnectionPool.create(URL, "user", "password");
+
+        assertThat(connectionPool.getSize()).isEqualTo(10);
+        assertThat(connectionPool.getIdleCount()).isEqualTo(10);
+        assertThat(connectionPool.getConnectionPool()).hasSize(10);
+    }
+
+    @Test
+    public void givenPool_whenCalledGetConnectionAndRelease_thenConnectionIsIdleAgain() throws Exception {
+        connectionPool = ConcurrentBagConnectionPool.create(URL, "user", "password");
+
+        Connection connection = connectionPool.getConnection();
+        assertTrue(connection.isValid(1));
+        assertThat(connectionPool.getIdleCount()).isEqualTo(9);
+
+        assertThat(connectionPool.releaseConnection(connection)).isTrue();
+        assertThat(connectionPool.releaseConnection(connection)).isFalse();
+        assertThat(connectionPool.getIdleCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void givenThreadReleasedConnection_whenItAsksAgain_thenItGetsTheSameConnection() throws Exception {
+        connectionPool = ConcurrentBagConnectionPool.create(URL, "user", "password");
+
+        Connection first = connectionPool.getConnection();
+        Connection second = connectionPool.getConnection();
+        connectionPool.releaseConnection(first);
+        connectionPool.releaseConnection(second);
+
+        assertThat(connectionPool.getConnection()).isSameAs(second);
+        assertThat(connectionPool.getConnection()).isSameAs(first);
+    }
+
+    @Test
+    public void givenExhaustedPool_whenCalledGetConnection_thenTimesOut() throws Exception {
+        connectionPool = ConcurrentBagConnectionPool.create(URL, "user", "password", new ConcurrentBagConnectionPool.Settings().minIdle(1)
+            .maxPoolSize(2)
+            .acquireTimeout(Duration.ofMillis(100)));
+        connectionPool.getConnection();
+        connectionPool.getConnection();
+
+        long start = System.nanoTime();
+        try {
+            connectionPool.getConnection();
+            fail();
+        } catch (SQLTransientConnectionException e) {
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(100);
+        }
+        assertThat(connectionPool.getSize()).isEqualTo(2);
+        assertThat(connectionPool.getAcquireTimeouts()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenExhaustedPool_whenConnectionIsReleased_thenWaitingThreadGetsIt() throws Exception {
+        connectionPool = ConcurrentBagConnectionPool.create(URL, "user", "password", new ConcurrentBagConnectionPool.Settings().minIdle(1)
+            .maxPoolSize(1)
+            .acquireTimeout(Duration.ofSeconds(10)));
+        Connection connection = connectionPool.getConnection();
+
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return connectionPool.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (connectionPool.getWaitingThreads() == 0) {
+            Thread.sleep(1);
+        }
+        connectionPool.releaseConnection(connection);
+
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isSameAs(connection);
+    }
+
+    @Test
+    public void givenBrokenIdleConnection_whenValidatedOnBorrow_thenItIsReplaced() throws Exception {
+        connectionPool = ConcurrentBagConnectionPool.create(URL, "user", "password", new ConcurrentBagConnectionPool.Settings().minIdle(1)
+            .maxPoolSize(1)
+            .validationBypass(Duration.ZERO));
+        Connection connection = connectionPool.getConnection();
+        connectionPool.releaseConnection(connection);
+        // the pool can't notice that the connection broke while it was idle
+        connection.close();
+        Thread.sleep(1);
+
+        Connection replacement = connectionPool.getConnection();
+
+        assertThat(replacement).isNotSameAs(connection);
+        assertTrue(replacement.isValid(1));
+        assertThat(connectionPool.getValidationFailures()).isEqualTo(1);
+        assertThat(connectionPool.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenIdleConnectionsAboveMinimum_whenHousekeepingRuns_thenTheyAreEvicted() throws Exception {
+        connectionPool = ConcurrentBagConnectionPool.create(URL, "user", "password", new ConcurrentBagConnectionPool.Settings().minIdle(2)
+            .idleTimeout(Duration.ZERO));
+        List<Connection> borrowed = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            borrowed.add(connectionPool.getConnection());
+        }
+        borrowed.forEach(connectionPool::releaseConnection);
+        Thread.sleep(1);
+
+        connectionPool.runHousekeeping();
+
+        assertThat(connectionPool.getSize()).isEqualTo(2);
+        assertThat(connectionPool.getEvictions()).isEqualTo(3);
+    }
+
+    @Test
+    public void givenManyThreads_whenBorrowingConcurrently_thenNoConnectionIsSharedAndLatencyIsRecorded() throws Exception {
+        connectionPool = ConcurrentBagConnectionPool.create(URL, "user", "password", new ConcurrentBagConnectionPool.Settings().minIdle(2)
+            .maxPoolSize(4));
+        List<Connection> inUse = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    Connection connection = connectionPool.getConnection();
+                    synchronized (inUse) {
+                        assertThat(inUse).doesNotContain(connection);
+                        inUse.add(connection);
+                    }
+                    inUse.remove(connection);
+                    assertThat(connectionPool.releaseConnection(connection)).isTrue();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(connectionPool.getSize()).isLessThanOrEqualTo(4);
+        assertThat(connectionPool.getAcquireLatency()
+            .getCount()).isEqualTo(8 * 500);
+        assertThat(connectionPool.getAcquireLatency()
+            .getPercentileNanos(99)).isGreaterThan(0);
+    }
+
+    @Test
+    public void givenShutdownPool_whenCalledGetConnection_thenError() throws Exception {
+        ConcurrentBagConnectionPool cp = ConcurrentBagConnectionPool.create(URL, "user", "password");
+        Connection connection = cp.getConnection();
+
+        cp.shutdown();
+
+        assertThat(cp.getSize()).isEqualTo(0);
+        assertThat(connection.isClosed()).isTrue();
+        try {
+            cp.getConnection();
+            fail();
+        } catch (SQLException e) {
+            assertThat(e.getMessage()).contains("shut down");
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.Collections;
 
@@ -21,6 +22,11 @@ public class SpringJdbcBatchPerformanceApplication implements CommandLineRunner
     @Autowired
     @Qualifier("simpleProductService")
     private ProductService simpleProductService;
+    @Autowired
+    @Qualifier("bulkProductService")
+    private ProductService bulkProductService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     public static void main(String[] args) {
         SpringApplication.run(SpringJdbcBatchPerformanceApplication.class, args);
@@ -32,16 +38,31 @@ public class SpringJdbcBatchPerformanceApplication implements CommandLineRunner
 
         for (int recordCount : recordCounts) {
             long regularElapsedTime = simpleProductService.createProducts(recordCount);
+            truncate();
             long batchElapsedTime = batchProductService.createProducts(recordCount);
+            truncate();
+            long bulkElapsedTime = bulkProductService.createProducts(recordCount);
+            truncate();
 
-            System.out.println(String.join("", Collections.nCopies(50, "-")));
-            System.out.format("%-20s%-5s%-10s%-5s%8sms\n", "Regular inserts", "|", recordCount, "|", regularElapsedTime);
-            System.out.format("%-20s%-5s%-10s%-5s%8sms\n", "Batch inserts", "|", recordCount, "|", batchElapsedTime);
-            System.out.printf("Total gain: %d %s\n", calculateGainInPercent(regularElapsedTime, batchElapsedTime), "%");
+            System.out.println(String.join("", Collections.nCopies(65, "-")));
+            System.out.format("%-20s%-5s%-10s%-5s%8sms%-5s%10s rows/s\n", "Regular inserts", "|", recordCount, "|", regularElapsedTime, "|", rowsPerSecond(recordCount, regularElapsedTime));
+            System.out.format("%-20s%-5s%-10s%-5s%8sms%-5s%10s rows/s\n", "Batch inserts", "|", recordCount, "|", batchElapsedTime, "|", rowsPerSecond(recordCount, batchElapsedTime));
+            System.out.format("%-20s%-5s%-10s%-5s%8sms%-5s%10s rows/s\n", "Bulk writer", "|", recordCount, "|", bulkElapsedTime, "|", rowsPerSecond(recordCount, bulkElapsedTime));
+            System.out.printf("Total gain: %d %s (batch), %d %s (bulk writer)\n", calculateGainInPercent(regularElapsedTime, batchElapsedTime), "%",
+              calculateGainInPercent(regularElapsedTime, bulkElapsedTime), "%");
         }
 
     }
 
+    private void truncate() {
+        // every run starts from an empty table, so that later runs don't pay for a larger index
+        jdbcTemplate.execute("TRUNCATE TABLE PRODUCT");
+    }
+
+    long rowsPerSecond(int recordCount, long elapsedMillis) {
+        return recordCount * 1000L / Math.max(1, elapsedMillis);
+    }
+
     int calculateGainInPercent(long before, long after) {
         return (int) Math.floor(100D * (before - after) / before);
     }
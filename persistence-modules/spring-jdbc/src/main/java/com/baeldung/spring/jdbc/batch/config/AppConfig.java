@@ -1,12 +1,14 @@
 package com.baeldung.spring.jdbc.batch.config;
 
 import com.baeldung.spring.jdbc.batch.repo.BatchProductRepository;
+import com.baeldung.spring.jdbc.batch.repo.BulkProductWriter;
 import com.baeldung.spring.jdbc.batch.repo.SimpleProductRepository;
 import com.baeldung.spring.jdbc.batch.service.ProductService;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.Clock;
 import java.util.Random;
@@ -24,4 +26,14 @@ public class AppConfig {
     public ProductService batchProductService(BatchProductRepository batchProductRepository) {
         return new ProductService(batchProductRepository, new Random(), Clock.systemUTC());
     }
+
+    @Bean
+    public BulkProductWriter bulkProductWriter(JdbcTemplate jdbcTemplate) {
+        return new BulkProductWriter(jdbcTemplate);
+    }
+
+    @Bean
+    public ProductService bulkProductService(BulkProductWriter bulkProductWriter) {
+        return new ProductService(bulkProductWriter, new Random(), Clock.systemUTC());
+    }
 }
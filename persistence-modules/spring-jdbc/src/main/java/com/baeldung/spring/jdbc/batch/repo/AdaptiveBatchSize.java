@@ -0,0 +1,75 @@
+package com.baeldung.spring.jdbc.batch.repo;
+
+/**
+ * Hill-climbs the batch size towards the highest throughput: after every window of batches it keeps growing (or
+ * shrinking) the size while the rows per second improve, and turns around when they get worse. A batch that takes
+ * longer than the latency limit halves the size right away, so that batches don't hold locks or risk timeouts for too
+ * long.
+ */
+class AdaptiveBatchSize {
+
+    private static final double GROWTH = 1.5;
+    // throughput changes below this are treated as noise
+    private static final double TOLERANCE = 0.05;
+
+    private final int min;
+    private final int max;
+    private final long maxLatencyNanos;
+    private final int samplesPerStep;
+
+    private volatile int size;
+    private int direction = 1;
+    private double lastThroughput;
+    private long windowRows;
+    private long windowNanos;
+    private int windowSamples;
+
+    AdaptiveBatchSize(int initial, int min, int max, long maxLatencyNanos, int samplesPerStep) {
+        this.min = min;
+        this.max = max;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.samplesPerStep = samplesPerStep;
+        this.size = clamp(initial);
+    }
+
+    int get() {
+        return size;
+    }
+
+    /**
+     * Records how long a batch of the given number of rows took to write.
+     */
+    synchronized void record(int rows, long nanos) {
+        if (nanos > maxLatencyNanos) {
+            resize(size / 2);
+            direction = -1;
+            return;
+        }
+        // batches cut at an older size, or at the end of the input, say nothing about the current size
+        if (rows != size) {
+            return;
+        }
+        windowRows += rows;
+        windowNanos += nanos;
+        if (++windowSamples < samplesPerStep) {
+            return;
+        }
+        double throughput = (double) windowRows / windowNanos;
+        if (throughput < lastThroughput * (1 - TOLERANCE)) {
+            direction = -direction;
+        }
+        lastThroughput = throughput;
+        resize(direction > 0 ? (int) Math.ceil(size * GROWTH) : (int) (size / GROWTH));
+    }
+
+    private void resize(int newSize) {
+        size = clamp(newSize);
+        windowRows = 0;
+        windowNanos = 0;
+        windowSamples = 0;
+    }
+
+    private int clamp(int value) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,321 @@
+package com.baeldung.spring.jdbc.batch.repo;
+
+import com.baeldung.spring.jdbc.batch.model.Product;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writes large numbers of products over several connections at once. The caller thread cuts the input into batches,
+ * and every writer thread takes batches from a bounded queue and commits each of them on its own connection, so only
+ * a few batches are in memory at any time, however long the input is.
+ * <p>
+ * The batch size is tuned from the observed throughput by {@link AdaptiveBatchSize}. On databases that support it,
+ * rows are inserted with multi-row {@code VALUES} statements, which saves a round trip, or at least a statement
+ * execution, per row.
+ * <p>
+ * Unlike {@link BatchProductRepository}, the import isn't one transaction: every batch is committed by itself, and
+ * the batches committed before a failure stay in the table. The writer connections don't take part in a transaction
+ * of the caller either, so the pool needs one connection per writer on top of the caller's.
+ */
+public class BulkProductWriter implements ProductRepository {
+
+    private static final String INSERT = "INSERT INTO PRODUCT (TITLE, CREATED_TS, PRICE) VALUES ";
+    private static final Set<String> MULTI_ROW_VALUES_DATABASES = new HashSet<>(Arrays.asList("H2", "HSQL Database Engine", "MariaDB", "MySQL", "PostgreSQL"));
+    private static final List<Product> END = Collections.emptyList();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int writers;
+    private final int rowsPerStatement;
+    private final AdaptiveBatchSize batchSize;
+    private volatile Boolean multiRowValues;
+
+    public BulkProductWriter(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, 4, 100);
+    }
+
+    /**
+     * @param writers the number of connections written to in parallel
+     * @param rowsPerStatement the rows inserted by one multi-row statement, 1 disables the rewriting
+     */
+    public BulkProductWriter(JdbcTemplate jdbcTemplate, int writers, int rowsPerStatement) {
+        this(jdbcTemplate, writers, rowsPerStatement, new AdaptiveBatchSize(1000, 100, 50_000, TimeUnit.SECONDS.toNanos(1), writers));
+    }
+
+    BulkProductWriter(JdbcTemplate jdbcTemplate, int writers, int rowsPerStatement, AdaptiveBatchSize batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writers = writers;
+        this.rowsPerStatement = rowsPerStatement;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void saveAll(List<Product> products) {
+        write(products.iterator());
+    }
+
+    /**
+     * @return the number of rows written
+     */
+    public long write(Stream<Product> products) {
+        return write(products.iterator());
+    }
+
+    /**
+     * @return the number of rows written
+     */
+    public long write(Iterator<Product> products) {
+        int statementRows = supportsMultiRowValues() ? rowsPerStatement : 1;
+        List<Product> first = nextBatch(products);
+        if (!products.hasNext()) {
+            // input that fits into one batch isn't worth starting the writers for
+            return first.isEmpty() ? 0 : writeOnCallerThread(first, statementRows);
+        }
+        Import current = new Import(writers);
+        current.put(first);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<Long>> results = new ArrayList<>(writers);
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> writeBatches(connection, current, statementRows));
+                    } catch (Throwable e) {
+                        // errors as well, or the caller would wait for a writer that is gone
+                        current.aborted = true;
+                        throw e;
+                    }
+                }));
+            }
+            try {
+                produce(products, current);
+            } finally {
+                current.finish();
+            }
+            return await(results);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    int getBatchSize() {
+        return batchSize.get();
+    }
+
+    boolean supportsMultiRowValues() {
+        if (multiRowValues == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData()
+              .getDatabaseProductName());
+            multiRowValues = MULTI_ROW_VALUES_DATABASES.contains(database);
+        }
+        return multiRowValues;
+    }
+
+    private void produce(Iterator<Product> products, Import current) {
+        while (products.hasNext() && !current.aborted) {
+            current.put(nextBatch(products));
+        }
+    }
+
+    private List<Product> nextBatch(Iterator<Product> products) {
+        int size = batchSize.get();
+        List<Product> batch = new ArrayList<>(size);
+        while (batch.size() < size && products.hasNext()) {
+            batch.add(products.next());
+        }
+        return batch;
+    }
+
+    /**
+     * Writes a single batch on a connection of its own, the connection of a transaction the caller might be in must
+     * not be committed.
+     */
+    private long writeOnCallerThread(List<Product> batch, int statementRows) {
+        Import current = new Import(1);
+        current.put(batch);
+        current.finish();
+        try (Connection connection = jdbcTemplate.getDataSource()
+          .getConnection()) {
+            return writeBatches(connection, current, statementRows);
+        } catch (SQLException e) {
+            throw jdbcTemplate.getExceptionTranslator()
+              .translate("Bulk insert", INSERT, e);
+        }
+    }
+
+    private long writeBatches(Connection connection, Import current, int statementRows) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement single = connection.prepareStatement(insert(1));
+             PreparedStatement multi = statementRows > 1 ? connection.prepareStatement(insert(statementRows)) : null) {
+            long written = 0;
+            List<Product> batch;
+            while ((batch = current.take()) != END) {
+                long start = System.nanoTime();
+                try {
+                    writeBatch(batch, single, multi, statementRows);
+                    connection.commit();
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                }
+                batchSize.record(batch.size(), System.nanoTime() - start);
+                written += batch.size();
+            }
+            return written;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void writeBatch(List<Product> batch, PreparedStatement single, PreparedStatement multi, int statementRows) throws SQLException {
+        int row = 0;
+        if (multi != null && batch.size() >= statementRows) {
+            for (; row + statementRows <= batch.size(); row += statementRows) {
+                for (int i = 0; i < statementRows; i++) {
+                    bind(multi, 3 * i, batch.get(row + i));
+                }
+                multi.addBatch();
+            }
+            multi.executeBatch();
+        }
+        if (row < batch.size()) {
+            for (; row < batch.size(); row++) {
+                bind(single, 0, batch.get(row));
+                single.addBatch();
+            }
+            single.executeBatch();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, int offset, Product product) throws SQLException {
+        ps.setString(offset + 1, product.getTitle());
+        ps.setTimestamp(offset + 2, Timestamp.valueOf(product.getCreatedTs()));
+        ps.setBigDecimal(offset + 3, product.getPrice());
+    }
+
+    private static String insert(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT.length() + rows * 11);
+        sql.append(INSERT);
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    private static long await(List<Future<Long>> results) {
+        long written = 0;
+        Throwable failure = null;
+        for (Future<Long> result : results) {
+            try {
+                written += result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                  .interrupt();
+                throw new IllegalStateException("Interrupted while writing products", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+        return written;
+    }
+
+    /**
+     * The batches of one {@link #write(Iterator)} call on their way from the caller to the writers.
+     */
+    private static class Import {
+
+        final BlockingQueue<List<Product>> batches;
+        final int writers;
+        volatile boolean aborted;
+
+        Import(int writers) {
+            // two batches per writer keep the writers busy while the caller cuts the next batch
+            this.batches = new ArrayBlockingQueue<>(2 * writers);
+            this.writers = writers;
+        }
+
+        void put(List<Product> batch) {
+            try {
+                while (!aborted && !batches.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                    // a writer that failed stops taking batches, check again
+                }
+            } catch (InterruptedException e) {
+                aborted = true;
+                Thread.currentThread()
+                  .interrupt();
+                throw new IllegalStateException("Interrupted while writing products", e);
+            }
+        }
+
+        List<Product> take() {
+            try {
+                List<Product> batch = batches.take();
+                // after a failure the remaining batches are dropped
+                return aborted ? END : batch;
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                  .interrupt();
+                throw new IllegalStateException("Interrupted while writing products", e);
+            }
+        }
+
+        /**
+         * Tells every writer that no more batches follow.
+         */
+        void finish() {
+            boolean interrupted = false;
+            for (int i = 0; i < writers; i++) {
+                while (true) {
+                    if (aborted) {
+                        // the batches left are dropped anyway, and failed writers no longer drain the queue
+                        batches.removeIf(batch -> batch != END);
+                    }
+                    try {
+                        if (batches.offer(END, 100, TimeUnit.MILLISECONDS)) {
+                            break;
+                        }
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        aborted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread()
+                  .interrupt();
+            }
+        }
+    }
+}
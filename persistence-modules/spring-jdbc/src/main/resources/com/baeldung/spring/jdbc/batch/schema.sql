@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS PRODUCT (
+    ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+    TITLE VARCHAR(255),
+    CREATED_TS TIMESTAMP,
+    PRICE DECIMAL(19, 2)
+);
@@ -0,0 +1,235 @@
+package com.baeldung.spring.jdbc.batch.repo;
+
+import com.baeldung.spring.jdbc.batch.model.Product;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class BulkProductWriterUnitTest {
+
+    private static final String INSERT_ONE = "INSERT INTO PRODUCT (TITLE, CREATED_TS, PRICE) VALUES (?, ?, ?)";
+    private static final String INSERT_HUNDRED = INSERT_ONE + String.join("", Collections.nCopies(99, ", (?, ?, ?)"));
+
+    EmbeddedDatabase dataSource;
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+          .generateUniqueName(true)
+          .addScript("classpath:com/baeldung/spring/jdbc/batch/schema.sql")
+          .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void givenLazyStream_whenWrite_thenEveryRowIsInserted() {
+        BulkProductWriter writer = new BulkProductWriter(jdbcTemplate, 4, 100);
+
+        long written = writer.write(products(25_003));
+
+        assertThat(written).isEqualTo(25_003);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRODUCT", Long.class)).isEqualTo(25_003);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(PRICE) FROM PRODUCT", BigDecimal.class)).isEqualByComparingTo(expectedPriceSum(25_003));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT TITLE) FROM PRODUCT", Integer.class)).isEqualTo(4);
+    }
+
+    @Test
+    void givenRewritingEnabled_whenWrite_thenRowsAreSentInMultiRowStatements() {
+        RecordingDataSource recording = new RecordingDataSource(dataSource);
+        BulkProductWriter writer = new BulkProductWriter(new JdbcTemplate(recording), 2, 100);
+
+        writer.write(products(5_000));
+
+        assertThat(recording.batchedRows.keySet()).isSubsetOf(INSERT_ONE, INSERT_HUNDRED);
+        assertThat(recording.batchedRows(INSERT_HUNDRED)).isGreaterThan(0);
+        assertThat(100 * recording.batchedRows(INSERT_HUNDRED) + recording.batchedRows(INSERT_ONE)).isEqualTo(5_000);
+    }
+
+    @Test
+    void givenRewritingDisabled_whenWrite_thenEveryRowIsInsertedByItself() {
+        RecordingDataSource recording = new RecordingDataSource(dataSource);
+        BulkProductWriter writer = new BulkProductWriter(new JdbcTemplate(recording), 2, 1);
+
+        writer.write(products(5_000));
+
+        assertThat(recording.batchedRows.keySet()).containsOnly(INSERT_ONE);
+        assertThat(recording.batchedRows(INSERT_ONE)).isEqualTo(5_000);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(PRICE) FROM PRODUCT", BigDecimal.class)).isEqualByComparingTo(expectedPriceSum(5_000));
+    }
+
+    @Test
+    void givenFailingRow_whenWrite_thenFailureIsThrownAndWritingStops() {
+        BulkProductWriter writer = new BulkProductWriter(jdbcTemplate, 4, 100);
+        Stream<Product> withBrokenRow = products(100_000).peek(product -> {
+            if (product.getPrice()
+              .intValue() == 5_000) {
+                product.setCreatedTs(null);
+            }
+        });
+
+        assertThatThrownBy(() -> writer.write(withBrokenRow)).isInstanceOf(NullPointerException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRODUCT", Long.class)).isLessThan(100_000);
+    }
+
+    @Test
+    void givenWriterFailingWithError_whenWrite_thenErrorIsThrownInsteadOfWaitingForever() {
+        BulkProductWriter writer = new BulkProductWriter(jdbcTemplate, 1, 100);
+        Stream<Product> withBrokenRow = products(100_000).map(product -> product.getPrice()
+          .intValue() == 5_000 ? new BrokenProduct() : product);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThatThrownBy(() -> writer.write(withBrokenRow)).isInstanceOf(AssertionError.class)
+          .hasMessage("broken"));
+    }
+
+    @Test
+    void givenSlowBatches_whenWrite_thenBatchSizeShrinks() {
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1000, 100, 50_000, TimeUnit.MILLISECONDS.toNanos(1), 1);
+        BulkProductWriter writer = new BulkProductWriter(jdbcTemplate, 1, 100, batchSize);
+
+        writer.write(products(20_000));
+
+        assertThat(writer.getBatchSize()).isLessThan(1000);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRODUCT", Long.class)).isEqualTo(20_000);
+    }
+
+    @Test
+    void givenImprovingThroughput_whenRecord_thenBatchSizeKeepsGrowing() {
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1000, 100, 50_000, TimeUnit.SECONDS.toNanos(1), 2);
+
+        // every batch takes the same time, whatever its size
+        for (int i = 0; i < 20; i++) {
+            batchSize.record(batchSize.get(), 1_000_000);
+        }
+
+        assertThat(batchSize.get()).isEqualTo(50_000);
+    }
+
+    @Test
+    void givenWorseThroughput_whenRecord_thenBatchSizeTurnsAround() {
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1000, 100, 50_000, TimeUnit.SECONDS.toNanos(1), 1);
+
+        batchSize.record(1000, 1_000_000);
+        assertThat(batchSize.get()).isEqualTo(1500);
+        // the larger batches are slower per row
+        batchSize.record(1500, 3_000_000);
+        assertThat(batchSize.get()).isEqualTo(1000);
+        // batches of another size don't count
+        batchSize.record(1500, 1);
+        assertThat(batchSize.get()).isEqualTo(1000);
+    }
+
+    private static Stream<Product> products(int count) {
+        LocalDateTime createdTs = LocalDateTime.of(2022, 4, 9, 10, 15, 30);
+        return IntStream.range(0, count)
+          .mapToObj(i -> {
+              Product product = new Product();
+              product.setTitle(new String[] { "car", "plane", "house", "yacht" }[i % 4]);
+              product.setCreatedTs(createdTs);
+              product.setPrice(BigDecimal.valueOf(i));
+              return product;
+          });
+    }
+
+    private static BigDecimal expectedPriceSum(long count) {
+        return BigDecimal.valueOf(count * (count - 1) / 2);
+    }
+
+    private static class BrokenProduct extends Product {
+
+        @Override
+        public String getTitle() {
+            throw new AssertionError("broken");
+        }
+    }
+
+    /**
+     * Counts the rows added to the batches of every prepared statement, by SQL.
+     */
+    private static class RecordingDataSource extends DelegatingDataSource {
+
+        final Map<String, LongAdder> batchedRows = new ConcurrentHashMap<>();
+
+        RecordingDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        long batchedRows(String sql) {
+            LongAdder rows = batchedRows.get(sql);
+            return rows == null ? 0 : rows.sum();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return proxy(Connection.class, (method, args) -> {
+                Object result = invoke(method, connection, args);
+                if (method.getName()
+                  .equals("prepareStatement")) {
+                    String sql = (String) args[0];
+                    PreparedStatement statement = (PreparedStatement) result;
+                    return proxy(PreparedStatement.class, (statementMethod, statementArgs) -> {
+                        if (statementMethod.getName()
+                          .equals("addBatch") && statementArgs == null) {
+                            batchedRows.computeIfAbsent(sql, key -> new LongAdder())
+                              .increment();
+                        }
+                        return invoke(statementMethod, statement, statementArgs);
+                    });
+                }
+                return result;
+            });
+        }
+
+        private static <T> T proxy(Class<T> type, Handler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> handler.handle(method, args)));
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        interface Handler {
+
+            Object handle(Method method, Object[] args) throws Throwable;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.baeldung.reactor.backpressure;
+
+import com.baeldung.reactor.NetworkTrafficProducerPush;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes network packets to any number of subscribers, with a bounded ring buffer for each of them. Unlike
+ * {@link NetworkTrafficProducerPush}, whose {@code Flux.push} runs its single consumer on the thread of the producer,
+ * every subscriber is called on a worker of its own, so a slow subscriber only fills its own buffer, and what happens
+ * then is up to the {@link Overflow} strategy:
+ * <ul>
+ * <li>{@link Overflow#DROP_OLDEST} drops the oldest packet in the buffer to make room,</li>
+ * <li>{@link Overflow#LATEST} replaces the newest packet in the buffer, so a subscriber that catches up gets the
+ * packets it has room for and then the latest one,</li>
+ * <li>{@link Overflow#BLOCK} blocks the producer until the subscriber makes room, no packet is lost.</li>
+ * </ul>
+ * Packets are copied into pooled {@link Packet} buffers, one per packet for all subscribers, which go back to the pool
+ * once every subscriber has received or dropped them. The drops and the fill of the buffers are counted, see
+ * {@link #dropped()} and {@link #lag()}.
+ */
+public class NetworkTrafficBridge {
+
+    public enum Overflow {
+        DROP_OLDEST, LATEST, BLOCK
+    }
+
+    private static final PacketSubscription[] NO_SUBSCRIBERS = new PacketSubscription[0];
+
+    private final int bufferSize;
+    private final Overflow overflow;
+    private final Scheduler scheduler;
+    private final PacketPool pool;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final Object producerLock = new Object();
+    private final Object subscribersLock = new Object();
+    private volatile PacketSubscription[] subscribers = NO_SUBSCRIBERS;
+    private volatile boolean completed;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public NetworkTrafficBridge(int bufferSize, int maxPacketSize, Overflow overflow) {
+        this(bufferSize, maxPacketSize, overflow, Schedulers.boundedElastic());
+    }
+
+    /**
+     * @param bufferSize the packets buffered for each subscriber
+     * @param maxPacketSize the largest packet accepted, the size of the pooled buffers
+     * @param scheduler the scheduler whose workers call the subscribers
+     */
+    public NetworkTrafficBridge(int bufferSize, int maxPacketSize, Overflow overflow, Scheduler scheduler) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer must hold at least one packet, got " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.overflow = overflow;
+        this.scheduler = scheduler;
+        // enough for the full buffers of a few subscribers, more are allocated when needed
+        this.pool = new PacketPool(maxPacketSize, 4 * bufferSize + 16);
+    }
+
+    /**
+     * @return the packets from the time of subscription on, which have to be retained to be used after
+     * {@code onNext} returns
+     */
+    public Flux<Packet> packets() {
+        Publisher<Packet> publisher = this::subscribe;
+        return Flux.from(publisher);
+    }
+
+    /**
+     * Publishes the remaining bytes of the buffer, which are copied, so the buffer can be reused once this returns.
+     */
+    public void onPacket(ByteBuffer packet) {
+        if (packet.remaining() > pool.packetSize()) {
+            throw new IllegalArgumentException("Packet of " + packet.remaining() + " bytes exceeds the maximum of " + pool.packetSize());
+        }
+        synchronized (producerLock) {
+            PacketSubscription[] targets = begin();
+            if (targets.length > 0) {
+                Packet pooled = pool.acquire();
+                pooled.fill(targets.length + 1)
+                    .put(packet);
+                publish(pooled, targets);
+            }
+        }
+    }
+
+    /**
+     * Publishes the packet encoded as UTF-8.
+     */
+    public void onPacket(String packet) {
+        synchronized (producerLock) {
+            PacketSubscription[] targets = begin();
+            if (targets.length > 0) {
+                Packet pooled = pool.acquire();
+                ByteBuffer data = pooled.fill(targets.length + 1);
+                if (!encodeAscii(packet, data) && !encode(packet, data)) {
+                    pooled.fill(1);
+                    pooled.release();
+                    throw new IllegalArgumentException("Packet exceeds the maximum of " + pool.packetSize() + " bytes");
+                }
+                publish(pooled, targets);
+            }
+        }
+    }
+
+    /**
+     * Completes every subscriber once it has received the packets in its buffer, and every later one right away.
+     */
+    public void complete() {
+        completed = true;
+        for (PacketSubscription subscription : subscribers) {
+            subscription.complete();
+        }
+    }
+
+    public long published() {
+        return published.sum();
+    }
+
+    public long delivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * @return the packets dropped by any subscriber, counted once for each of them
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the most packets any subscriber has waiting in its buffer
+     */
+    public int lag() {
+        int lag = 0;
+        for (PacketSubscription subscription : subscribers) {
+            lag = Math.max(lag, subscription.buffered());
+        }
+        return lag;
+    }
+
+    public int subscriberCount() {
+        return subscribers.length;
+    }
+
+    /**
+     * @return the packet buffers allocated so far, which stays low while packets are recycled
+     */
+    public long allocatedPackets() {
+        return pool.allocated();
+    }
+
+    private PacketSubscription[] begin() {
+        if (completed) {
+            throw new IllegalStateException("The bridge is completed");
+        }
+        published.increment();
+        return subscribers;
+    }
+
+    /**
+     * Copies the packet byte by byte as long as it's ASCII, which is the same in UTF-8, without the allocations of the
+     * {@link CharsetEncoder}.
+     *
+     * @return whether the packet was copied, otherwise the buffer is left empty
+     */
+    private static boolean encodeAscii(String packet, ByteBuffer data) {
+        int length = packet.length();
+        if (length > data.remaining()) {
+            return false;
+        }
+        byte[] bytes = data.array();
+        for (int i = 0; i < length; i++) {
+            char c = packet.charAt(i);
+            if (c >= 0x80) {
+                return false;
+            }
+            bytes[i] = (byte) c;
+        }
+        data.position(length);
+        return true;
+    }
+
+    /**
+     * @return whether the encoded packet fits into the buffer
+     */
+    private boolean encode(String packet, ByteBuffer data) {
+        encoder.reset();
+        data.clear();
+        CoderResult result = encoder.encode(CharBuffer.wrap(packet), data, true);
+        return result.isUnderflow() && encoder.flush(data)
+            .isUnderflow();
+    }
+
+    private void publish(Packet packet, PacketSubscription[] targets) {
+        packet.filled();
+        for (PacketSubscription target : targets) {
+            target.offer(packet);
+        }
+        // the reference of the producer, which kept the packet from being recycled while it was offered
+        packet.release();
+    }
+
+    private void subscribe(Subscriber<? super Packet> actual) {
+        PacketSubscription subscription = new PacketSubscription(this, actual, scheduler.createWorker());
+        synchronized (subscribersLock) {
+            PacketSubscription[] current = subscribers;
+            PacketSubscription[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = subscription;
+            subscribers = next;
+        }
+        actual.onSubscribe(subscription);
+        if (completed) {
+            subscription.complete();
+        }
+    }
+
+    private void remove(PacketSubscription subscription) {
+        synchronized (subscribersLock) {
+            PacketSubscription[] current = subscribers;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == subscription) {
+                    PacketSubscription[] next = new PacketSubscription[current.length - 1];
+                    System.arraycopy(current, 0, next, 0, i);
+                    System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                    subscribers = next.length == 0 ? NO_SUBSCRIBERS : next;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The buffer of one subscriber, which the producer fills and a worker drains into the subscriber as far as it
+     * requested.
+     */
+    private static final class PacketSubscription implements Subscription, Runnable {
+
+        private static final AtomicIntegerFieldUpdater<PacketSubscription> WIP = AtomicIntegerFieldUpdater.newUpdater(PacketSubscription.class, "wip");
+        private static final AtomicLongFieldUpdater<PacketSubscription> REQUESTED = AtomicLongFieldUpdater.newUpdater(PacketSubscription.class,
+            "requested");
+
+        private final NetworkTrafficBridge bridge;
+        private final Subscriber<? super Packet> actual;
+        private final Scheduler.Worker worker;
+        // guarded by this
+        private final Packet[] ring;
+        private long head;
+        private long tail;
+        private boolean producerWaiting;
+
+        private volatile int wip;
+        private volatile long requested;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        PacketSubscription(NetworkTrafficBridge bridge, Subscriber<? super Packet> actual, Scheduler.Worker worker) {
+            this.bridge = bridge;
+            this.actual = actual;
+            this.worker = worker;
+            this.ring = new Packet[bridge.bufferSize];
+        }
+
+        void offer(Packet packet) {
+            Packet drop = null;
+            synchronized (this) {
+                if (cancelled) {
+                    drop = packet;
+                } else if (tail - head < ring.length) {
+                    ring[index(tail++)] = packet;
+                } else if (bridge.overflow == Overflow.DROP_OLDEST) {
+                    drop = ring[index(head++)];
+                    ring[index(tail++)] = packet;
+                } else if (bridge.overflow == Overflow.LATEST) {
+                    int newest = index(tail - 1);
+                    drop = ring[newest];
+                    ring[newest] = packet;
+                } else {
+                    drop = await(packet);
+                }
+                if (drop != null && !cancelled) {
+                    bridge.dropped.increment();
+                }
+            }
+            if (drop != null) {
+                drop.release();
+            }
+            drain();
+        }
+
+        /**
+         * Blocks the producer until there is room for the packet, which is dropped if the subscriber cancels or the
+         * producer is interrupted in the meantime.
+         *
+         * @return the packet if it's dropped
+         */
+        private Packet await(Packet packet) {
+            try {
+                while (tail - head == ring.length && !cancelled) {
+                    producerWaiting = true;
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                    .interrupt();
+                return packet;
+            }
+            if (cancelled) {
+                return packet;
+            }
+            ring[index(tail++)] = packet;
+            return null;
+        }
+
+        private synchronized Packet poll() {
+            if (head == tail) {
+                return null;
+            }
+            int oldest = index(head++);
+            Packet packet = ring[oldest];
+            ring[oldest] = null;
+            if (producerWaiting) {
+                producerWaiting = false;
+                notifyAll();
+            }
+            return packet;
+        }
+
+        synchronized int buffered() {
+            return (int) (tail - head);
+        }
+
+        private int index(long sequence) {
+            return (int) (sequence % ring.length);
+        }
+
+        void complete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                bridge.remove(this);
+                synchronized (this) {
+                    notifyAll();
+                }
+                drain();
+            }
+        }
+
+        private void drain() {
+            if (WIP.getAndIncrement(this) == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            for (;;) {
+                long r = requested;
+                long e = 0;
+                while (e != r) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+                    boolean d = done;
+                    Packet packet = poll();
+                    if (packet == null) {
+                        if (d) {
+                            terminate();
+                            return;
+                        }
+                        break;
+                    }
+                    try {
+                        actual.onNext(packet);
+                    } catch (Throwable t) {
+                        cancel();
+                        clear();
+                        actual.onError(t);
+                        return;
+                    } finally {
+                        packet.release();
+                    }
+                    bridge.delivered.increment();
+                    e++;
+                }
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+                if (done && buffered() == 0) {
+                    terminate();
+                    return;
+                }
+                if (e != 0 && r != Long.MAX_VALUE) {
+                    REQUESTED.addAndGet(this, -e);
+                }
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void terminate() {
+            cancelled = true;
+            bridge.remove(this);
+            worker.dispose();
+            actual.onComplete();
+        }
+
+        private void clear() {
+            Packet packet;
+            while ((packet = poll()) != null) {
+                packet.release();
+            }
+            worker.dispose();
+        }
+    }
+}
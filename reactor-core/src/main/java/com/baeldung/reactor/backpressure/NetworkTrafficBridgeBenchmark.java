@@ -0,0 +1,130 @@
+package com.baeldung.reactor.backpressure;
+
+import com.baeldung.reactor.NetworkTrafficProducerPush;
+import com.baeldung.reactor.backpressure.NetworkTrafficBridge.Overflow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.Disposable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packets per second published to two subscribers by {@link NetworkTrafficBridge}, for each {@link Overflow}
+ * strategy, with subscribers that keep up and with slow ones, against {@link NetworkTrafficProducerPush}, which calls
+ * its single subscriber on the producer thread, with each packet decoded into a {@code String} as that API needs. Run
+ * with {@code -prof gc} to see the allocation per packet. The packets published, delivered and dropped, and the packet
+ * buffers allocated, are printed once per trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkTrafficBridgeBenchmark {
+
+    private static final String PACKET = "Packet[A18] src=10.0.0.1:443 dst=10.0.0.2:51234 len=1200 flags=ACK,PSH";
+    private static final int SUBSCRIBERS = 2;
+    // a few microseconds per packet
+    private static final int SLOW_SUBSCRIBER_TOKENS = 2_000;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NetworkTrafficBridgeBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+    @State(Scope.Benchmark)
+    public static class BridgeState {
+
+        @Param({ "DROP_OLDEST", "LATEST", "BLOCK" })
+        public Overflow overflow;
+
+        @Param({ "fast", "slow" })
+        public String subscriber;
+
+        NetworkTrafficBridge bridge;
+        ByteBuffer packet;
+        private final List<Disposable> subscriptions = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setUp(Blackhole blackhole) {
+            bridge = new NetworkTrafficBridge(1024, 1500, overflow);
+            boolean slow = "slow".equals(subscriber);
+            for (int i = 0; i < SUBSCRIBERS; i++) {
+                subscriptions.add(bridge.packets()
+                    .subscribe(received -> {
+                        blackhole.consume(received.buffer()
+                            .get(0));
+                        if (slow) {
+                            Blackhole.consumeCPU(SLOW_SUBSCRIBER_TOKENS);
+                        }
+                    }));
+            }
+            packet = ByteBuffer.wrap(PACKET.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            System.out.printf("%npublished %,d, delivered %,d, dropped %,d, packet buffers allocated %,d%n", bridge.published(), bridge.delivered(),
+                bridge.dropped(), bridge.allocatedPackets());
+            subscriptions.forEach(Disposable::dispose);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PushState {
+
+        @Param({ "fast", "slow" })
+        public String subscriber;
+
+        NetworkTrafficProducerPush producer;
+        byte[] packet;
+
+        @Setup(Level.Trial)
+        public void setUp(Blackhole blackhole) {
+            producer = new NetworkTrafficProducerPush();
+            boolean slow = "slow".equals(subscriber);
+            producer.subscribe(received -> {
+                blackhole.consume(received.charAt(0));
+                if (slow) {
+                    Blackhole.consumeCPU(SLOW_SUBSCRIBER_TOKENS);
+                }
+            });
+            packet = PACKET.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public void bridgeBytes(BridgeState state) {
+        state.packet.rewind();
+        state.bridge.onPacket(state.packet);
+    }
+
+    @Benchmark
+    public void bridgeStrings(BridgeState state) {
+        state.bridge.onPacket(PACKET);
+    }
+
+    @Benchmark
+    public void pushStrings(PushState state) {
+        state.producer.onPacket(new String(state.packet, StandardCharsets.UTF_8));
+    }
+}
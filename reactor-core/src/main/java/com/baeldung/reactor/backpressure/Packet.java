@@ -0,0 +1,76 @@
+package com.baeldung.reactor.backpressure;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A network packet in a pooled {@link ByteBuffer}. The same packet is delivered to every subscriber of a
+ * {@link NetworkTrafficBridge}, and goes back to the pool once each of them has received or dropped it.
+ * <p>
+ * A packet is only valid during the {@code onNext} call that delivers it. A subscriber that keeps it longer, for
+ * example behind {@code publishOn}, has to {@link #retain()} it first and {@link #release()} it when done. Since other
+ * subscribers read the same buffer, possibly at the same time, it should be read with absolute gets, or through a
+ * {@code duplicate()}.
+ */
+public final class Packet {
+
+    private static final AtomicIntegerFieldUpdater<Packet> REFERENCES = AtomicIntegerFieldUpdater.newUpdater(Packet.class, "references");
+
+    private final PacketPool pool;
+    private final ByteBuffer data;
+    private final ByteBuffer view;
+    private volatile int references;
+
+    Packet(PacketPool pool, int capacity) {
+        this.pool = pool;
+        this.data = ByteBuffer.allocate(capacity);
+        this.view = data.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return the bytes of the packet, from position 0 to its length
+     */
+    public ByteBuffer buffer() {
+        return view;
+    }
+
+    public int length() {
+        return view.limit();
+    }
+
+    /**
+     * Decodes the packet as UTF-8, which allocates a new string.
+     */
+    public String asString() {
+        return new String(data.array(), 0, view.limit(), StandardCharsets.UTF_8);
+    }
+
+    public Packet retain() {
+        REFERENCES.incrementAndGet(this);
+        return this;
+    }
+
+    public void release() {
+        int left = REFERENCES.decrementAndGet(this);
+        if (left == 0) {
+            pool.recycle(this);
+        } else if (left < 0) {
+            throw new IllegalStateException("Packet released more often than retained");
+        }
+    }
+
+    /**
+     * Prepares the buffer for a new packet, which holds the given number of references to it.
+     */
+    ByteBuffer fill(int references) {
+        this.references = references;
+        data.clear();
+        return data;
+    }
+
+    void filled() {
+        view.limit(data.position())
+            .position(0);
+    }
+}
@@ -0,0 +1,44 @@
+package com.baeldung.reactor.backpressure;
+
+import java.util.ArrayDeque;
+
+/**
+ * The packets that are free to be filled again. A packet is only allocated when none is free, and at most
+ * {@code maxIdle} free packets are kept.
+ */
+class PacketPool {
+
+    private final int packetSize;
+    private final int maxIdle;
+    private final ArrayDeque<Packet> idle;
+    private long allocated;
+
+    PacketPool(int packetSize, int maxIdle) {
+        this.packetSize = packetSize;
+        this.maxIdle = maxIdle;
+        this.idle = new ArrayDeque<>(maxIdle);
+    }
+
+    synchronized Packet acquire() {
+        Packet packet = idle.pollLast();
+        if (packet == null) {
+            allocated++;
+            packet = new Packet(this, packetSize);
+        }
+        return packet;
+    }
+
+    synchronized void recycle(Packet packet) {
+        if (idle.size() < maxIdle) {
+            idle.addLast(packet);
+        }
+    }
+
+    synchronized long allocated() {
+        return allocated;
+    }
+
+    int packetSize() {
+        return packetSize;
+    }
+}
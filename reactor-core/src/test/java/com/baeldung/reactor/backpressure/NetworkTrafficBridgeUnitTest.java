@@ -0,0 +1,229 @@
+package com.baeldung.reactor.backpressure;
+
+import com.baeldung.reactor.backpressure.NetworkTrafficBridge.Overflow;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NetworkTrafficBridgeUnitTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    public void givenTwoSubscribers_whenPacketsArePublished_thenEachSubscriberReceivesAllOfThem() {
+        NetworkTrafficBridge bridge = new NetworkTrafficBridge(16, 64, Overflow.DROP_OLDEST);
+        Flux<String> packets = bridge.packets()
+            .map(Packet::asString);
+
+        StepVerifier first = StepVerifier.create(packets)
+            .expectNext("Packet[A18]", "Packet[B27]")
+            .expectComplete()
+            .verifyLater();
+        StepVerifier second = StepVerifier.create(packets)
+            .expectNext("Packet[A18]", "Packet[B27]")
+            .expectComplete()
+            .verifyLater();
+        bridge.onPacket("Packet[A18]");
+        bridge.onPacket(ByteBuffer.wrap("Packet[B27]".getBytes(StandardCharsets.UTF_8)));
+        bridge.complete();
+
+        first.verify(TIMEOUT);
+        second.verify(TIMEOUT);
+        assertThat(bridge.published()).isEqualTo(2);
+        assertThat(bridge.delivered()).isEqualTo(4);
+        assertThat(bridge.dropped()).isZero();
+        assertThat(bridge.subscriberCount()).isZero();
+    }
+
+    @Test
+    public void givenDropOldest_whenSubscriberFallsBehind_thenTheOldestPacketsAreDropped() {
+        NetworkTrafficBridge bridge = new NetworkTrafficBridge(4, 64, Overflow.DROP_OLDEST);
+
+        StepVerifier.create(bridge.packets()
+            .map(Packet::asString), 0)
+            .then(() -> publish(bridge, 10))
+            .then(() -> assertThat(bridge.lag()).isEqualTo(4))
+            .thenRequest(10)
+            .expectNext("6", "7", "8", "9")
+            .then(bridge::complete)
+            .expectComplete()
+            .verify(TIMEOUT);
+
+        assertThat(bridge.dropped()).isEqualTo(6);
+        assertThat(bridge.lag()).isZero();
+    }
+
+    @Test
+    public void givenLatest_whenSubscriberFallsBehind_thenTheBufferedAndTheLatestPacketsAreReceived() {
+        NetworkTrafficBridge bridge = new NetworkTrafficBridge(4, 64, Overflow.LATEST);
+
+        StepVerifier.create(bridge.packets()
+            .map(Packet::asString), 0)
+            .then(() -> publish(bridge, 10))
+            .thenRequest(10)
+            .expectNext("0", "1", "2", "9")
+            .then(bridge::complete)
+            .expectComplete()
+            .verify(TIMEOUT);
+
+        assertThat(bridge.dropped()).isEqualTo(6);
+    }
+
+    @Test
+    public void givenBlock_whenSubscriberFallsBehind_thenTheProducerWaitsAndNothingIsDropped() {
+        NetworkTrafficBridge bridge = new NetworkTrafficBridge(4, 64, Overflow.BLOCK);
+        CompletableFuture<Void> producer = new CompletableFuture<>();
+
+        StepVerifier.create(bridge.packets()
+            .map(Packet::asString), 0)
+            .then(() -> CompletableFuture.runAsync(() -> publish(bridge, 10))
+                .whenComplete((ignored, error) -> producer.complete(null)))
+            .then(() -> assertThat(producer).isNotDone())
+            .thenRequest(10)
+            .expectNext("0", "1", "2", "3", "4", "5", "6", "7", "8", "9")
+            .then(producer::join)
+            .then(bridge::complete)
+            .expectComplete()
+            .verify(TIMEOUT);
+
+        assertThat(bridge.dropped()).isZero();
+    }
+
+    @Test(timeout = 5000)
+    public void givenCancelledSubscriber_whenProducerIsBlocked_thenTheProducerIsReleased() {
+        NetworkTrafficBridge bridge = new NetworkTrafficBridge(2, 64, Overflow.BLOCK);
+
+        StepVerifier.create(bridge.packets(), 0)
+            .then(() -> CompletableFuture.runAsync(() -> publish(bridge, 10)))
+            .thenAwait(Duration.ofMillis(100))
+            .thenCancel()
+            .verify(TIMEOUT);
+
+        bridge.onPacket("after");
+        assertThat(bridge.subscriberCount()).isZero();
+    }
+
+    @Test
+    public void givenManyPackets_whenSubscriberKeepsUp_thenPacketBuffersAreReused() {
+        NetworkTrafficBridge bridge = new NetworkTrafficBridge(8, 64, Overflow.BLOCK);
+
+        StepVerifier.create(bridge.packets()
+            .map(Packet::length)
+            .reduce(0L, Long::sum))
+            .then(() -> {
+                publish(bridge, 10_000);
+                bridge.complete();
+            })
+            .expectNext(IntStream.range(0, 10_000)
+                .mapToLong(i -> Integer.toString(i)
+                    .length())
+                .sum())
+            .expectComplete()
+            .verify(TIMEOUT);
+
+        // the packets in the buffer, one being received, and one being published
+        assertThat(bridge.allocatedPackets()).isLessThanOrEqualTo(10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void givenPacketLargerThanTheBuffers_whenPublished_thenItIsRejected() {
+        NetworkTrafficBridge bridge = new NetworkTrafficBridge(4, 8, Overflow.DROP_OLDEST);
+        bridge.packets()
+            .subscribe();
+
+        bridge.onPacket("Packet[A18]");
+    }
+
+    @Test
+    public void givenSubscriberFailingInOnNext_whenPacketsArrive_thenItsWorkerIsDisposedBeforeTheError() throws InterruptedException {
+        RecordingScheduler scheduler = new RecordingScheduler(Schedulers.newSingle("bridge"));
+        NetworkTrafficBridge bridge = new NetworkTrafficBridge(8, 64, Overflow.DROP_OLDEST, scheduler);
+        CountDownLatch failed = new CountDownLatch(1);
+        List<Boolean> disposedOnError = new CopyOnWriteArrayList<>();
+        // a CoreSubscriber, as Flux wraps any other subscriber into one that holds back the error after onNext throws
+        bridge.packets()
+            .subscribe(new CoreSubscriber<Packet>() {
+
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(Packet packet) {
+                    throw new IllegalStateException("subscriber bug");
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    disposedOnError.add(scheduler.workers.get(0)
+                        .isDisposed());
+                    failed.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+
+        publish(bridge, 4);
+
+        assertThat(failed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(disposedOnError).containsExactly(true);
+        assertThat(bridge.subscriberCount()).isZero();
+        scheduler.dispose();
+    }
+
+    private static void publish(NetworkTrafficBridge bridge, int packets) {
+        for (int i = 0; i < packets; i++) {
+            bridge.onPacket(Integer.toString(i));
+        }
+    }
+
+    /**
+     * Remembers the workers it creates, to check that they are disposed.
+     */
+    private static class RecordingScheduler implements Scheduler {
+
+        final List<Worker> workers = new CopyOnWriteArrayList<>();
+        private final Scheduler delegate;
+
+        RecordingScheduler(Scheduler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            return delegate.schedule(task);
+        }
+
+        @Override
+        public Worker createWorker() {
+            Worker worker = delegate.createWorker();
+            workers.add(worker);
+            return worker;
+        }
+
+        @Override
+        public void dispose() {
+            delegate.dispose();
+        }
+    }
+}
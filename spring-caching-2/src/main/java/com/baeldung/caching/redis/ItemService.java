@@ -10,7 +10,7 @@ public class ItemService {
 
     private final ItemRepository itemRepository;
 
-    @Cacheable(value = "itemCache")
+    @Cacheable(value = "itemCache", sync = true)
     public Item getItemForId(String id) {
         return itemRepository.findById(id)
                 .orElseThrow(RuntimeException::new);
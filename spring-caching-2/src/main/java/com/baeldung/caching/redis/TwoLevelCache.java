@@ -0,0 +1,285 @@
+package com.baeldung.caching.redis;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache with two levels: a Caffeine cache in this JVM (L1) in front of a Redis cache shared by all the nodes (L2).
+ * A lookup only goes over the network when the entry isn't in L1, and an entry found in L2 is kept in L1 from then on.
+ * <p>
+ * Writes go to both levels, and are published by the {@link TwoLevelCacheManager}, so that the other nodes drop their
+ * L1 copy. A node that misses the message, for example while it reconnects to Redis, keeps its copy until it expires
+ * from L1, which is why L1 should expire entries well before L2 does.
+ * <p>
+ * Concurrent misses for the same key, through {@link #get(Object, Callable)} as used by
+ * {@code @Cacheable(sync = true)}, are loaded once on each node, and the other callers wait for that load.
+ * <p>
+ * A value read from L2, or loaded, while the key is invalidated may be older than the change that invalidated it. It's
+ * only kept in L1 if the invalidation version of the key, one of a fixed number of stripes, is still the one from
+ * before the read.
+ * <p>
+ * L1 is keyed by the string that Redis stores the entry under, which is also what the invalidations carry.
+ * <p>
+ * L1 returns the same instance to every caller, so cached values shouldn't be modified.
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final int VERSION_STRIPES = 64;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local;
+    private final Cache remote;
+    private final ConversionService conversionService;
+    private final TwoLevelCacheManager cacheManager;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final ConcurrentMap<Object, CompletableFuture<ValueWrapper>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+
+    /**
+     * @param conversionService converts the keys to strings, as configured for the {@link RedisCache}
+     */
+    TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local, Cache remote, ConversionService conversionService,
+            TwoLevelCacheManager cacheManager) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.conversionService = conversionService;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = convertKey(key);
+        ValueWrapper value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        long version = version(localKey);
+        value = remote.get(key);
+        if (value != null) {
+            remoteHits.increment();
+            putLocal(localKey, version, value);
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            value = load(key, valueLoader);
+        }
+        return (T) value.get();
+    }
+
+    /**
+     * Loads the value, unless another thread is loading it already, then waits for that load instead.
+     */
+    private ValueWrapper load(Object key, Callable<?> valueLoader) {
+        CompletableFuture<ValueWrapper> load = new CompletableFuture<>();
+        CompletableFuture<ValueWrapper> running = loading.putIfAbsent(key, load);
+        if (running != null) {
+            coalescedLoads.increment();
+            return await(key, valueLoader, running);
+        }
+        try {
+            // a load that finished after our lookup has filled the cache already
+            String localKey = convertKey(key);
+            long version = version(localKey);
+            ValueWrapper value = local.getIfPresent(localKey);
+            if (value == null) {
+                value = remote.get(key);
+            }
+            if (value == null) {
+                Object loaded = valueLoader.call();
+                loads.increment();
+                value = new SimpleValueWrapper(loaded);
+                if (loaded != null) {
+                    // no invalidation, the other nodes didn't find the key in L2 either
+                    remote.put(key, loaded);
+                }
+            }
+            if (value.get() != null) {
+                // like L2, which doesn't cache nulls, L1 leaves a missing value to be loaded again
+                putLocal(localKey, version, value);
+            }
+            load.complete(value);
+            return value;
+        } catch (Throwable e) {
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    private static ValueWrapper await(Object key, Callable<?> valueLoader, CompletableFuture<ValueWrapper> load) {
+        try {
+            return load.get();
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = convertKey(key);
+        remote.put(key, value);
+        long version = versions.incrementAndGet(stripe(localKey));
+        putLocal(localKey, version, new SimpleValueWrapper(value));
+        cacheManager.publishInvalidation(name, localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String localKey = convertKey(key);
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null) {
+            invalidateLocal(localKey);
+            cacheManager.publishInvalidation(name, localKey);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = convertKey(key);
+        remote.evict(key);
+        invalidateLocal(localKey);
+        cacheManager.publishInvalidation(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        invalidateLocal(null);
+        cacheManager.publishInvalidation(name, null);
+    }
+
+    /**
+     * Drops the L1 entry of the key, or all of them if the key is null, after it was changed here or by another node.
+     * The version goes up first, so that a read that started before doesn't put the old value back.
+     *
+     * @param key the key as converted by {@link #convertKey(Object)}
+     */
+    void invalidateLocal(String key) {
+        if (key == null) {
+            for (int stripe = 0; stripe < VERSION_STRIPES; stripe++) {
+                versions.incrementAndGet(stripe);
+            }
+            local.invalidateAll();
+        } else {
+            versions.incrementAndGet(stripe(key));
+            local.invalidate(key);
+        }
+    }
+
+    /**
+     * Puts the value into L1, and takes it out again if the key was invalidated since the version was read, as it
+     * might have been read before the change. Checking after the put also covers an invalidation that runs between
+     * the check and the put.
+     */
+    private void putLocal(String key, long version, ValueWrapper value) {
+        local.put(key, value);
+        if (version(key) != version) {
+            local.invalidate(key);
+        }
+    }
+
+    private long version(String key) {
+        return versions.get(stripe(key));
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+    }
+
+    /**
+     * Converts the key to a string the way {@link RedisCache} does.
+     */
+    String convertKey(Object key) {
+        if (key instanceof String) {
+            return (String) key;
+        }
+        if (conversionService.canConvert(TypeDescriptor.forObject(key), TypeDescriptor.valueOf(String.class))) {
+            return conversionService.convert(key, String.class);
+        }
+        if (ReflectionUtils.findMethod(key.getClass(), "toString")
+                .getDeclaringClass() != Object.class) {
+            return key.toString();
+        }
+        throw new IllegalStateException("Cannot convert cache key " + key + " to String, register a Converter or override toString()");
+    }
+
+    public long localHits() {
+        return localHits.sum();
+    }
+
+    public long remoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the values loaded by this node after a miss in both levels
+     */
+    public long loads() {
+        return loads.sum();
+    }
+
+    /**
+     * @return the misses that waited for the load of another thread instead of loading the value themselves
+     */
+    public long coalescedLoads() {
+        return coalescedLoads.sum();
+    }
+}
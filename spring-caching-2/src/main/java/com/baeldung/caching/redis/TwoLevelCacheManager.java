@@ -0,0 +1,95 @@
+package com.baeldung.caching.redis;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Puts a Caffeine cache in front of every cache of a {@link RedisCacheManager}, see {@link TwoLevelCache}.
+ * <p>
+ * The changes to a cache are published on the {@link #INVALIDATION_TOPIC}, and this manager, registered as a
+ * listener of that topic, drops the changed entries from its own L1 caches when another node publishes them.
+ * <p>
+ * An invalidation is UTF-8 text: the id of the publishing node, the cache name and the key, as the string Redis stores
+ * it under, each on a line of its own. The key line is left out when the whole cache is cleared.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    public static final ChannelTopic INVALIDATION_TOPIC = new ChannelTopic("cache-invalidation");
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    private final RedisCacheManager redisCacheManager;
+    private final RedisConnectionFactory connectionFactory;
+    private final Caffeine<Object, Object> localCacheSpec;
+    private final String nodeId = UUID.randomUUID()
+            .toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param localCacheSpec the size and expiry of the L1 caches, one is built for each cache
+     */
+    public TwoLevelCacheManager(RedisCacheManager redisCacheManager, RedisConnectionFactory connectionFactory, Caffeine<Object, Object> localCacheSpec) {
+        this.redisCacheManager = redisCacheManager;
+        this.connectionFactory = connectionFactory;
+        this.localCacheSpec = localCacheSpec;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            RedisCache remote = (RedisCache) redisCacheManager.getCache(cacheName);
+            return remote == null ? null : new TwoLevelCache(cacheName, localCacheSpec.build(), remote, remote.getCacheConfiguration()
+                    .getConversionService(), this);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    /**
+     * Tells the other nodes to drop the key from their L1 cache, or all the keys of the cache if it's null.
+     */
+    void publishInvalidation(String cacheName, String key) {
+        String invalidation = nodeId + '\n' + cacheName + (key == null ? "" : '\n' + key);
+        byte[] message = invalidation.getBytes(StandardCharsets.UTF_8);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.publish(INVALIDATION_TOPIC.getTopic()
+                    .getBytes(StandardCharsets.UTF_8), message);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // the key may contain line breaks itself
+        String[] invalidation = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+        if (invalidation.length < 2) {
+            logger.warn("Ignoring unreadable cache invalidation");
+            return;
+        }
+        if (nodeId.equals(invalidation[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(invalidation[1]);
+        if (cache != null) {
+            cache.invalidateLocal(invalidation.length == 3 ? invalidation[2] : null);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.baeldung.caching.ttl.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decorates a cache with a time to live for its entries, which are reloaded before they expire, so that the callers
+ * of a frequently used entry don't all miss it at the same time and wait for the repository.
+ * <p>
+ * The reloads need the loader of {@link #get(Object, Callable)}, so the {@code @Cacheable} methods have to be
+ * {@code sync = true}. A lookup of an entry
+ * <ul>
+ * <li>older than the refresh-ahead fraction of the TTL returns it, and reloads it in the background,</li>
+ * <li>might do the same a little earlier, at random, the more likely the closer the entry is to its expiry and the
+ * longer its load took (probabilistic early expiration), which spreads out the reloads of entries loaded together,</li>
+ * <li>that has expired, or is missing, loads it and waits for it.</li>
+ * </ul>
+ * Only one load of a key runs at a time, any other caller that needs the value waits for that load. When a load fails,
+ * the callers get the expired value instead, as long as it's no older than the TTL plus the stale-if-error period.
+ * After a failure they get it right away, without waiting, while the key is reloaded in the background, at most once
+ * every tenth of the TTL until a load succeeds.
+ * <p>
+ * A background reload calls the loader of the lookup that triggered it on the refresh executor, so it runs without
+ * anything that was bound to the caller's thread: a transaction begun by an interceptor around the caching one, the
+ * security context or request scoped beans. A cached method that needs them has to set them up itself, for example
+ * with {@code @Transactional} on the repository it calls rather than on the method.
+ */
+public class RefreshAheadCache implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadCache.class);
+
+    private final Cache delegate;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final double earlyExpirationBeta;
+    private final long staleIfErrorNanos;
+    private final Executor refreshExecutor;
+    private final ConcurrentMap<Object, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    // the time of the last failed load of a key, until a load succeeds
+    private final ConcurrentMap<Object, Long> failedAt = new ConcurrentHashMap<>();
+    private final long retryAfterNanos;
+
+    /**
+     * @param refreshAheadFraction the age, as a fraction of the TTL, from which an entry is reloaded in the background,
+     * 1 or more to only reload entries once they expire
+     * @param earlyExpirationBeta how early entries are reloaded at random, 1 is a good default, 0 turns it off
+     * @param staleIfError how long an expired value may still be returned when its load fails
+     */
+    public RefreshAheadCache(Cache delegate, Duration ttl, double refreshAheadFraction, double earlyExpirationBeta, Duration staleIfError,
+            Executor refreshExecutor) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAfterNanos = (long) (ttlNanos * refreshAheadFraction);
+        this.earlyExpirationBeta = earlyExpirationBeta;
+        this.staleIfErrorNanos = staleIfError.toNanos();
+        this.refreshExecutor = refreshExecutor;
+        this.retryAfterNanos = ttlNanos / 10;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Entry entry = entry(key);
+        return entry != null && entry.age(System.nanoTime()) < ttlNanos ? new SimpleValueWrapper(entry.value) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entry entry = entry(key);
+        long now = System.nanoTime();
+        if (entry != null && entry.age(now) < ttlNanos) {
+            if ((entry.age(now) >= refreshAfterNanos || expiresEarly(entry, now)) && mayRetry(key, now)) {
+                refresh(key, valueLoader);
+            }
+            return (T) entry.value;
+        }
+        if (entry != null && entry.age(now) < ttlNanos + staleIfErrorNanos && failedAt.containsKey(key)) {
+            // the last load failed, so the callers don't wait for the next one
+            if (mayRetry(key, now)) {
+                refresh(key, valueLoader);
+            }
+            return (T) entry.value;
+        }
+        return (T) load(key, valueLoader, entry).value;
+    }
+
+    private boolean mayRetry(Object key, long now) {
+        Long failed = failedAt.get(key);
+        return failed == null || now - failed >= retryAfterNanos;
+    }
+
+    /**
+     * Decides whether to reload the entry early, with the probabilistic early expiration of Vattani, Chierichetti and
+     * Lowenstein: the entry is treated as expired if {@code now - loadTime * beta * ln(random)} is past its expiry.
+     */
+    private boolean expiresEarly(Entry entry, long now) {
+        if (earlyExpirationBeta <= 0) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current()
+                .nextDouble();
+        return now - entry.loadNanos * earlyExpirationBeta * Math.log(random) >= entry.loadedAt + ttlNanos;
+    }
+
+    private void refresh(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Entry> refresh = new CompletableFuture<>();
+        if (loading.putIfAbsent(key, refresh) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh.complete(loadEntry(key, valueLoader));
+                } catch (Throwable e) {
+                    failedAt.put(key, System.nanoTime());
+                    logger.warn("Refreshing {} of cache {} failed, the current value is used until it expires", key, getName(), e);
+                    refresh.completeExceptionally(e);
+                } finally {
+                    loading.remove(key, refresh);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(key, refresh);
+            refresh.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Loads the value, unless another thread is loading it already, then waits for that load instead.
+     *
+     * @param stale the expired entry, if any, which is returned if the load fails and it's not too old
+     */
+    private Entry load(Object key, Callable<?> valueLoader, Entry stale) {
+        CompletableFuture<Entry> load = new CompletableFuture<>();
+        CompletableFuture<Entry> running = loading.putIfAbsent(key, load);
+        try {
+            if (running != null) {
+                return running.get();
+            }
+            try {
+                // a load that finished after our lookup has filled the cache already
+                Entry entry = entry(key);
+                if (entry == null || entry.age(System.nanoTime()) >= ttlNanos) {
+                    entry = loadEntry(key, valueLoader);
+                }
+                load.complete(entry);
+                return entry;
+            } catch (Throwable e) {
+                failedAt.put(key, System.nanoTime());
+                load.completeExceptionally(e);
+                throw new ExecutionException(e);
+            } finally {
+                loading.remove(key, load);
+            }
+        } catch (ExecutionException e) {
+            if (stale != null && stale.age(System.nanoTime()) < ttlNanos + staleIfErrorNanos) {
+                logger.warn("Loading {} of cache {} failed, returning the expired value", key, getName(), e.getCause());
+                return stale;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private Entry loadEntry(Object key, Callable<?> valueLoader) throws Exception {
+        long start = System.nanoTime();
+        Object value = valueLoader.call();
+        long loadedAt = System.nanoTime();
+        Entry entry = new Entry(value, loadedAt, loadedAt - start);
+        delegate.put(key, entry);
+        failedAt.remove(key);
+        return entry;
+    }
+
+    private Entry entry(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        return wrapper == null ? null : (Entry) wrapper.get();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, new Entry(value, System.nanoTime(), 0));
+        failedAt.remove(key);
+    }
+
+    /**
+     * Replaces an expired entry like a missing one. Only missing entries are replaced atomically, two callers that find
+     * the same expired entry both put their value.
+     */
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        long now = System.nanoTime();
+        Entry entry = new Entry(value, now, 0);
+        ValueWrapper existing = delegate.putIfAbsent(key, entry);
+        if (existing != null && ((Entry) existing.get()).age(now) >= ttlNanos) {
+            delegate.put(key, entry);
+            existing = null;
+        }
+        if (existing == null) {
+            failedAt.remove(key);
+            return null;
+        }
+        return new SimpleValueWrapper(((Entry) existing.get()).value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        failedAt.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        failedAt.clear();
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long loadedAt;
+        private final long loadNanos;
+
+        Entry(Object value, long loadedAt, long loadNanos) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+            this.loadNanos = loadNanos;
+        }
+
+        long age(long now) {
+            return now - loadedAt;
+        }
+    }
+}
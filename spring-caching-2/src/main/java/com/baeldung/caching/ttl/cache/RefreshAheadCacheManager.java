@@ -0,0 +1,47 @@
+package com.baeldung.caching.ttl.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Wraps every cache of another cache manager in a {@link RefreshAheadCache}, all with the same settings.
+ */
+public class RefreshAheadCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final Duration ttl;
+    private final double refreshAheadFraction;
+    private final double earlyExpirationBeta;
+    private final Duration staleIfError;
+    private final Executor refreshExecutor;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public RefreshAheadCacheManager(CacheManager delegate, Duration ttl, double refreshAheadFraction, double earlyExpirationBeta, Duration staleIfError,
+            Executor refreshExecutor) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+        this.refreshAheadFraction = refreshAheadFraction;
+        this.earlyExpirationBeta = earlyExpirationBeta;
+        this.staleIfError = staleIfError;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache cache = delegate.getCache(cacheName);
+            return cache == null ? null : new RefreshAheadCache(cache, ttl, refreshAheadFraction, earlyExpirationBeta, staleIfError, refreshExecutor);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
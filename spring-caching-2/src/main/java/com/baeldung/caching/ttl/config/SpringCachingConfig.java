@@ -1,17 +1,42 @@
 package com.baeldung.caching.ttl.config;
 
+import com.baeldung.caching.ttl.cache.RefreshAheadCacheManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableCaching
 public class SpringCachingConfig {
 
+    private final ExecutorService cacheRefreshExecutor = Executors.newFixedThreadPool(2, cacheRefreshThreadFactory());
+
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("hotels");
+    public CacheManager cacheManager(@Value("${caching.spring.hotelListTTL}") long ttlMillis,
+            @Value("${caching.spring.hotelListRefreshAhead:0.8}") double refreshAheadFraction,
+            @Value("${caching.spring.hotelListEarlyExpirationBeta:1.0}") double earlyExpirationBeta,
+            @Value("${caching.spring.hotelListStaleIfError:43200}") long staleIfErrorMillis) {
+        return new RefreshAheadCacheManager(new ConcurrentMapCacheManager("hotels"), Duration.ofMillis(ttlMillis), refreshAheadFraction,
+                earlyExpirationBeta, Duration.ofMillis(staleIfErrorMillis), cacheRefreshExecutor);
+    }
+
+    @PreDestroy
+    public void shutdownCacheRefreshes() {
+        cacheRefreshExecutor.shutdownNow();
+    }
+
+    private static CustomizableThreadFactory cacheRefreshThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-refresh-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
     }
 }
\ No newline at end of file
@@ -6,7 +6,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -21,13 +20,12 @@ public class HotelService {
         this.hotelRepository = hotelRepository;
     }
 
-    @Cacheable("hotels")
+    @Cacheable(value = "hotels", sync = true)
     public List<Hotel> getAllHotels() {
         return hotelRepository.getAllHotels();
     }
 
     @CacheEvict(value = "hotels", allEntries = true)
-    @Scheduled(fixedRateString = "${caching.spring.hotelListTTL}")
     public void emptyHotelsCache() {
         logger.info("emptying Hotels cache");
     }
@@ -0,0 +1,226 @@
+package com.baeldung.caching.redis;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import redis.embedded.RedisServer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Two nodes, each an application context with its own near cache, sharing an embedded Redis server.
+ */
+class TwoLevelCacheIntegrationTest {
+
+    private static final int REDIS_PORT = 6390;
+    private static final long LOAD_MILLIS = 100;
+    private static final int READS = 20_000;
+
+    private static RedisServer redisServer;
+    private static ItemRepository itemRepository;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+
+        // the repository stands for a slow database, shared by both nodes
+        itemRepository = mock(ItemRepository.class);
+        given(itemRepository.findById(anyString())).willAnswer(invocation -> {
+            Thread.sleep(LOAD_MILLIS);
+            return Optional.of(new Item(invocation.getArgument(0), "an item"));
+        });
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+        redisServer.stop();
+    }
+
+    @Test
+    void givenTwoNodes_whenItemIsReadTwiceOnEach_thenItIsLoadedOnceAndServedFromBothLevels() {
+        // the counters are shared with the other tests
+        long loadsOnA = itemCache(nodeA).loads();
+        long localHitsOnA = itemCache(nodeA).localHits();
+        long remoteHitsOnB = itemCache(nodeB).remoteHits();
+        long localHitsOnB = itemCache(nodeB).localHits();
+
+        itemService(nodeA).getItemForId("item-1");
+        itemService(nodeA).getItemForId("item-1");
+        itemService(nodeB).getItemForId("item-1");
+        Item item = itemService(nodeB).getItemForId("item-1");
+
+        assertThat(item).isEqualTo(new Item("item-1", "an item"));
+        verify(itemRepository, times(1)).findById("item-1");
+        assertThat(itemCache(nodeA).loads()).isEqualTo(loadsOnA + 1);
+        assertThat(itemCache(nodeA).localHits()).isEqualTo(localHitsOnA + 1);
+        assertThat(itemCache(nodeB).remoteHits()).isEqualTo(remoteHitsOnB + 1);
+        assertThat(itemCache(nodeB).localHits()).isEqualTo(localHitsOnB + 1);
+    }
+
+    @Test
+    void givenItemCachedOnBothNodes_whenOneNodeUpdatesIt_thenTheOtherNodeDropsItsLocalCopy() throws InterruptedException {
+        itemService(nodeA).getItemForId("item-2");
+        itemService(nodeB).getItemForId("item-2");
+
+        itemCache(nodeA).put("item-2", new Item("item-2", "an updated item"));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!"an updated item".equals(itemService(nodeB).getItemForId("item-2")
+                .getDescription()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(itemService(nodeB).getItemForId("item-2")
+                .getDescription()).isEqualTo("an updated item");
+        verify(itemRepository, times(1)).findById("item-2");
+    }
+
+    @Test
+    void givenNonStringKeyCachedOnBothNodes_whenOneNodeEvictsIt_thenTheOtherNodeDropsItsLocalCopy() throws InterruptedException {
+        itemCache(nodeA).put(42L, new Item("item-42", "an item"));
+        assertThat(itemCache(nodeB).get(42L)).isNotNull();
+
+        itemCache(nodeA).evict(42L);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (itemCache(nodeB).get(42L) != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(itemCache(nodeB).get(42L)).isNull();
+    }
+
+    @Test
+    void givenLoaderReturningNull_whenReadTwice_thenNullIsCachedInNeitherLevel() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(itemCache(nodeA).<Item> get("item-missing", () -> {
+            loads.incrementAndGet();
+            return null;
+        })).isNull();
+        assertThat(itemCache(nodeA).get("item-missing")).isNull();
+        assertThat(itemCache(nodeA).<Item> get("item-missing", () -> {
+            loads.incrementAndGet();
+            return null;
+        })).isNull();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void givenConcurrentMisses_whenTheSameItemIsRequested_thenItIsLoadedOnce() throws Exception {
+        int clients = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Item>> results = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return itemService(nodeA).getItemForId("item-3");
+            }));
+        }
+        start.countDown();
+        for (Future<Item> result : results) {
+            assertThat(result.get()
+                    .getId()).isEqualTo("item-3");
+        }
+        executor.shutdown();
+
+        verify(itemRepository, times(1)).findById("item-3");
+    }
+
+    @Test
+    void givenWarmCaches_whenReading_thenLocalHitsAreFasterThanRedis() {
+        Cache nearCache = itemCache(nodeA);
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(nodeA.getBean(RedisConnectionFactory.class))
+                .cacheDefaults(nodeA.getBean(RedisCacheConfiguration.class));
+        nodeA.getBean(RedisCacheManagerBuilderCustomizer.class)
+                .customize(builder);
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+        Cache redisCache = redisCacheManager.getCache("itemCache");
+        for (int i = 0; i < 100; i++) {
+            itemService(nodeA).getItemForId("warm-" + i);
+        }
+
+        long[] nearLatencies = readLatencies(nearCache);
+        long[] redisLatencies = readLatencies(redisCache);
+
+        assertThat(percentile(nearLatencies, 50)).isLessThan(percentile(redisLatencies, 50));
+    }
+
+    private static long[] readLatencies(Cache cache) {
+        long[] latencies = new long[READS];
+        for (int i = 0; i < READS; i++) {
+            long start = System.nanoTime();
+            assertThat(cache.get("warm-" + i % 100)).isNotNull();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long percentile(long[] sortedLatencies, int percentile) {
+        return sortedLatencies[sortedLatencies.length * percentile / 100];
+    }
+
+    private static ItemService itemService(ConfigurableApplicationContext node) {
+        return node.getBean(ItemService.class);
+    }
+
+    private static TwoLevelCache itemCache(ConfigurableApplicationContext node) {
+        return (TwoLevelCache) node.getBean(CacheManager.class)
+                .getCache("itemCache");
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(NodeConfiguration.class).web(WebApplicationType.NONE)
+                .properties("spring.redis.port=" + REDIS_PORT)
+                .initializers(context -> ((GenericApplicationContext) context).registerBean(ItemRepository.class, () -> itemRepository))
+                .run();
+    }
+
+    @Configuration
+    @Import({ CacheConfig.class, ItemService.class })
+    @ImportAutoConfiguration(classes = { CacheAutoConfiguration.class, RedisAutoConfiguration.class })
+    @EnableCaching
+    static class NodeConfiguration {
+    }
+
+}
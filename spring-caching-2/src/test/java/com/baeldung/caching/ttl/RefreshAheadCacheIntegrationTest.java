@@ -0,0 +1,299 @@
+package com.baeldung.caching.ttl;
+
+import com.baeldung.caching.ttl.cache.RefreshAheadCache;
+import com.baeldung.caching.ttl.config.SpringCachingConfig;
+import com.baeldung.caching.ttl.model.Hotel;
+import com.baeldung.caching.ttl.repository.HotelRepository;
+import com.baeldung.caching.ttl.service.HotelService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class RefreshAheadCacheIntegrationTest {
+
+    private static final long LOAD_MILLIS = 50;
+    private static final long TTL_MILLIS = 1_000;
+    private static final int CLIENTS = 16;
+    private static final long LOAD_TEST_MILLIS = 4_000;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenEntryOlderThanTheRefreshAheadFraction_whenRead_thenTheCurrentValueIsReturnedAndReloadedInTheBackground() throws Exception {
+        RefreshAheadCache cache = new RefreshAheadCache(new ConcurrentMapCache("hotels"), Duration.ofMillis(400), 0.5, 0, Duration.ZERO, executor);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<Integer> loader = loads::incrementAndGet;
+
+        assertThat(cache.get("all", loader)).isEqualTo(1);
+        Thread.sleep(250);
+        assertThat(cache.get("all", loader)).isEqualTo(1);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!Integer.valueOf(2).equals(cache.get("all", Integer.class)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.get("all", Integer.class)).isEqualTo(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void givenExpiredEntry_whenItsLoadFails_thenTheExpiredValueIsReturnedWithinTheStaleIfErrorPeriod() throws Exception {
+        RefreshAheadCache cache = new RefreshAheadCache(new ConcurrentMapCache("hotels"), Duration.ofMillis(100), 1, 0, Duration.ofSeconds(5), executor);
+        cache.get("all", () -> "loaded");
+        Thread.sleep(150);
+
+        Callable<String> failingLoader = () -> {
+            throw new IllegalStateException("database down");
+        };
+
+        assertThat(cache.get("all", failingLoader)).isEqualTo("loaded");
+    }
+
+    @Test
+    void givenFailedLoad_whenReadAgainWithinTheStaleIfErrorPeriod_thenTheExpiredValueIsReturnedAtOnceAndReloadedInTheBackground() throws Exception {
+        RefreshAheadCache cache = new RefreshAheadCache(new ConcurrentMapCache("hotels"), Duration.ofMillis(100), 1, 0, Duration.ofSeconds(5), executor);
+        cache.get("all", () -> "loaded");
+        Thread.sleep(150);
+        AtomicInteger failedLoads = new AtomicInteger();
+        Callable<String> slowFailingLoader = () -> {
+            failedLoads.incrementAndGet();
+            Thread.sleep(500);
+            throw new IllegalStateException("database down");
+        };
+        assertThat(cache.get("all", slowFailingLoader)).isEqualTo("loaded");
+
+        long start = System.nanoTime();
+        assertThat(cache.get("all", slowFailingLoader)).isEqualTo("loaded");
+        assertThat(cache.get("all", slowFailingLoader)).isEqualTo("loaded");
+        assertThat(System.nanoTime() - start).isLessThan(Duration.ofMillis(250)
+                .toNanos());
+
+        // the reads right after the failure are within the retry interval, the one after it reloads in the background
+        Thread.sleep(20);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!"reloaded".equals(cache.get("all", () -> "reloaded")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.get("all", String.class)).isEqualTo("reloaded");
+        assertThat(failedLoads).hasValue(1);
+    }
+
+    @Test
+    void givenExpiredEntry_whenPutIfAbsent_thenItIsReplaced() throws Exception {
+        RefreshAheadCache cache = new RefreshAheadCache(new ConcurrentMapCache("hotels"), Duration.ofMillis(100), 1, 0, Duration.ofSeconds(5), executor);
+        cache.put("all", "first");
+
+        assertThat(cache.putIfAbsent("all", "second")
+                .get()).isEqualTo("first");
+        Thread.sleep(150);
+        assertThat(cache.putIfAbsent("all", "third")).isNull();
+        assertThat(cache.get("all", String.class)).isEqualTo("third");
+    }
+
+    @Test
+    void givenExpiredEntry_whenItsLoadFailsAfterTheStaleIfErrorPeriod_thenTheFailureIsThrown() throws Exception {
+        RefreshAheadCache cache = new RefreshAheadCache(new ConcurrentMapCache("hotels"), Duration.ofMillis(100), 1, 0, Duration.ZERO, executor);
+        cache.get("all", () -> "loaded");
+        Thread.sleep(150);
+
+        Callable<String> failingLoader = () -> {
+            throw new IllegalStateException("database down");
+        };
+
+        assertThatThrownBy(() -> cache.get("all", failingLoader)).isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void givenConcurrentMisses_whenTheSameKeyIsRead_thenItIsLoadedOnce() throws Exception {
+        RefreshAheadCache cache = new RefreshAheadCache(new ConcurrentMapCache("hotels"), Duration.ofMinutes(1), 0.8, 1, Duration.ZERO, executor);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get("all", () -> {
+                    Thread.sleep(LOAD_MILLIS);
+                    return loads.incrementAndGet();
+                });
+            }));
+        }
+        start.countDown();
+
+        for (Future<Integer> result : results) {
+            assertThat(result.get()).isEqualTo(1);
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    /**
+     * Clients that read the hotels every millisecond, first with the fixed eviction and the plain {@code @Cacheable}
+     * of before, then with {@link SpringCachingConfig} and {@link HotelService} as they are now.
+     */
+    @Test
+    void givenConcurrentClients_whenTheTtlPassesRepeatedly_thenRefreshAheadCallsTheRepositoryLessAndCutsTheTailLatency() throws Exception {
+        AtomicInteger repositoryCalls = new AtomicInteger();
+        HotelRepository hotelRepository = slowRepository(repositoryCalls);
+
+        long[] fixedEviction;
+        try (AnnotationConfigApplicationContext context = startContext(hotelRepository, FixedEvictionConfig.class)) {
+            FixedEvictionHotelService hotelService = context.getBean(FixedEvictionHotelService.class);
+            Cache hotels = context.getBean(CacheManager.class)
+                    .getCache("hotels");
+            hotelService.getAllHotels();
+            Future<?> evictions = executor.submit(() -> {
+                while (!Thread.currentThread()
+                        .isInterrupted()) {
+                    Thread.sleep(TTL_MILLIS);
+                    hotels.clear();
+                }
+                return null;
+            });
+            fixedEviction = readConcurrently(hotelService::getAllHotels);
+            evictions.cancel(true);
+        }
+        int fixedEvictionCalls = repositoryCalls.getAndSet(0);
+
+        long[] refreshAhead;
+        try (AnnotationConfigApplicationContext context = startContext(hotelRepository, SpringCachingConfig.class, HotelService.class)) {
+            HotelService hotelService = context.getBean(HotelService.class);
+            hotelService.getAllHotels();
+            refreshAhead = readConcurrently(hotelService::getAllHotels);
+        }
+        int refreshAheadCalls = repositoryCalls.get();
+
+        report("fixed eviction", fixedEvictionCalls, fixedEviction);
+        report("refresh-ahead", refreshAheadCalls, refreshAhead);
+        assertThat(refreshAheadCalls).isLessThan(fixedEvictionCalls);
+        assertThat(percentile(refreshAhead, 99.9)).isLessThan(LOAD_MILLIS * 1_000_000 / 2);
+    }
+
+    private long[] readConcurrently(Supplier<List<Hotel>> read) throws Exception {
+        List<Future<List<Long>>> clients = new ArrayList<>();
+        long end = System.currentTimeMillis() + LOAD_TEST_MILLIS;
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(executor.submit(() -> {
+                List<Long> latencies = new ArrayList<>();
+                while (System.currentTimeMillis() < end) {
+                    long start = System.nanoTime();
+                    assertThat(read.get()).hasSize(1);
+                    latencies.add(System.nanoTime() - start);
+                    Thread.sleep(1);
+                }
+                return latencies;
+            }));
+        }
+        List<Long> latencies = new ArrayList<>();
+        for (Future<List<Long>> client : clients) {
+            latencies.addAll(client.get());
+        }
+        long[] sorted = latencies.stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static long percentile(long[] sortedLatencies, double percentile) {
+        return sortedLatencies[(int) (sortedLatencies.length * percentile / 100)];
+    }
+
+    private static void report(String name, int repositoryCalls, long[] latencies) {
+        System.out.printf("%-15s %,d reads, %,d repository calls, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n", name + ":", latencies.length,
+                repositoryCalls, percentile(latencies, 50) / 1e6, percentile(latencies, 99) / 1e6, percentile(latencies, 99.9) / 1e6,
+                latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static HotelRepository slowRepository(AtomicInteger calls) {
+        HotelRepository hotelRepository = mock(HotelRepository.class);
+        given(hotelRepository.getAllHotels()).willAnswer(invocation -> {
+            calls.incrementAndGet();
+            Thread.sleep(LOAD_MILLIS);
+            return Collections.singletonList(new Hotel(1L, "Hotel", 4.5, null, "Main Street 1", 0, 0, false));
+        });
+        return hotelRepository;
+    }
+
+    private static AnnotationConfigApplicationContext startContext(HotelRepository hotelRepository, Class<?>... componentClasses) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("caching.spring.hotelListTTL", TTL_MILLIS);
+        properties.put("caching.spring.hotelListRefreshAhead", 0.8);
+        properties.put("caching.spring.hotelListEarlyExpirationBeta", 1.0);
+        properties.put("caching.spring.hotelListStaleIfError", TTL_MILLIS);
+        context.getEnvironment()
+                .getPropertySources()
+                .addFirst(new MapPropertySource("test", properties));
+        context.registerBean(HotelRepository.class, () -> hotelRepository);
+        context.register(componentClasses);
+        context.refresh();
+        return context;
+    }
+
+    @Configuration
+    @EnableCaching
+    static class FixedEvictionConfig {
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("hotels");
+        }
+
+        @Bean
+        public FixedEvictionHotelService fixedEvictionHotelService(HotelRepository hotelRepository) {
+            return new FixedEvictionHotelService(hotelRepository);
+        }
+    }
+
+    /**
+     * {@link HotelService} as it was, with a plain {@code @Cacheable}.
+     */
+    static class FixedEvictionHotelService {
+
+        private final HotelRepository hotelRepository;
+
+        FixedEvictionHotelService(HotelRepository hotelRepository) {
+            this.hotelRepository = hotelRepository;
+        }
+
+        @Cacheable("hotels")
+        public List<Hotel> getAllHotels() {
+            return hotelRepository.getAllHotels();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.baeldung.monitoring.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the lag of many consumer groups with a single admin client. Unlike {@link LagAnalyzerService}, which asks
+ * for the offsets of one group when called, every poll reads the committed offsets of all groups at once and the end
+ * offsets of all their partitions in one batched request per broker, however many groups and partitions there are.
+ * <p>
+ * The end offsets of every partition are kept for the last polls in an {@link OffsetHistory}, which estimates how
+ * many seconds behind a group is, not only how many messages. Both are exported as the gauges
+ * {@code kafka.consumer.group.lag} and {@code kafka.consumer.group.lag.seconds}, tagged with the group, topic and
+ * partition, and the time of every poll as the timer {@code kafka.consumer.group.lag.poll}.
+ * <p>
+ * A group whose committed offsets, or a partition whose end offset, can't be read is logged and keeps the lag of the
+ * previous poll, so that one failing group doesn't stop the gauges of all others.
+ */
+@Service
+public class ConsumerLagMonitor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsumerLagMonitor.class);
+
+    private final AdminClient adminClient;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Set<String> groups;
+    private final int historySize;
+    private final Timer pollTimer;
+
+    private final Map<TopicPartition, OffsetHistory> histories = new HashMap<>();
+    // replaced by every poll, so that readers always see the lags of one poll
+    private volatile Map<String, Map<TopicPartition, PartitionLag>> lags = Collections.emptyMap();
+
+    @Autowired
+    public ConsumerLagMonitor(
+            @Value("${monitor.kafka.bootstrap.config}") String bootstrapServerConfig,
+            @Value("${monitor.lag.groups:}") Set<String> groups,
+            @Value("${monitor.lag.history.size:60}") int historySize,
+            MeterRegistry meterRegistry) {
+        this(getAdminClient(bootstrapServerConfig), groups, historySize, meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * @param groups the groups to watch, all groups of the cluster when empty
+     * @param historySize the number of polls the time lag is estimated from
+     */
+    public ConsumerLagMonitor(AdminClient adminClient, Set<String> groups, int historySize, MeterRegistry meterRegistry, Clock clock) {
+        this.adminClient = adminClient;
+        this.groups = groups;
+        this.historySize = historySize;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.pollTimer = Timer.builder("kafka.consumer.group.lag.poll")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${monitor.lag.poll.interval.ms:5000}")
+    public synchronized void poll() throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
+
+        // the requests of all groups are sent at once, and only then waited for
+        Map<String, KafkaFuture<Map<TopicPartition, OffsetAndMetadata>>> requests = new HashMap<>();
+        for (String groupId : groupIds()) {
+            requests.put(groupId, adminClient.listConsumerGroupOffsets(groupId)
+                    .partitionsToOffsetAndMetadata());
+        }
+        // a group or partition that fails keeps the lag of the last poll, the others are still updated
+        Map<String, Map<TopicPartition, OffsetAndMetadata>> committed = new HashMap<>();
+        Set<String> failedGroups = new HashSet<>();
+        Map<TopicPartition, OffsetSpec> partitions = new HashMap<>();
+        for (Map.Entry<String, KafkaFuture<Map<TopicPartition, OffsetAndMetadata>>> request : requests.entrySet()) {
+            Map<TopicPartition, OffsetAndMetadata> offsets;
+            try {
+                offsets = request.getValue().get();
+            } catch (ExecutionException e) {
+                LOGGER.warn("Could not read the committed offsets of group {}", request.getKey(), e.getCause());
+                failedGroups.add(request.getKey());
+                continue;
+            }
+            committed.put(request.getKey(), offsets);
+            for (TopicPartition partition : offsets.keySet()) {
+                partitions.put(partition, OffsetSpec.latest());
+            }
+        }
+        Map<TopicPartition, ListOffsetsResultInfo> endOffsets = new HashMap<>();
+        if (!partitions.isEmpty()) {
+            ListOffsetsResult result = adminClient.listOffsets(partitions);
+            for (TopicPartition partition : partitions.keySet()) {
+                try {
+                    endOffsets.put(partition, result.partitionResult(partition).get());
+                } catch (ExecutionException e) {
+                    LOGGER.warn("Could not read the end offset of {}", partition, e.getCause());
+                }
+            }
+        }
+
+        long now = clock.millis();
+        Set<TopicPartition> watched = new HashSet<>(partitions.keySet());
+        for (String groupId : failedGroups) {
+            watched.addAll(lags.getOrDefault(groupId, Collections.emptyMap()).keySet());
+        }
+        histories.keySet().retainAll(watched);
+        for (Map.Entry<TopicPartition, ListOffsetsResultInfo> endOffset : endOffsets.entrySet()) {
+            histories.computeIfAbsent(endOffset.getKey(), partition -> new OffsetHistory(historySize))
+                    .record(now, endOffset.getValue().offset());
+        }
+        update(committed, failedGroups, endOffsets.keySet(), now);
+
+        pollTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the messages each partition of the group was behind at the last poll
+     */
+    public Map<TopicPartition, Long> lag(String groupId) {
+        Map<TopicPartition, Long> lag = new HashMap<>();
+        lags.getOrDefault(groupId, Collections.emptyMap())
+                .forEach((partition, partitionLag) -> lag.put(partition, partitionLag.offsets));
+        return lag;
+    }
+
+    /**
+     * @return the seconds each partition of the group was behind at the last poll
+     */
+    public Map<TopicPartition, Double> lagSeconds(String groupId) {
+        Map<TopicPartition, Double> lag = new HashMap<>();
+        lags.getOrDefault(groupId, Collections.emptyMap())
+                .forEach((partition, partitionLag) -> lag.put(partition, partitionLag.seconds));
+        return lag;
+    }
+
+    @PreDestroy
+    public void close() {
+        adminClient.close();
+    }
+
+    private Collection<String> groupIds() throws ExecutionException, InterruptedException {
+        if (!groups.isEmpty()) {
+            return groups;
+        }
+        List<String> groupIds = new ArrayList<>();
+        for (ConsumerGroupListing listing : adminClient.listConsumerGroups().all().get()) {
+            groupIds.add(listing.groupId());
+        }
+        return groupIds;
+    }
+
+    /**
+     * @param failedGroups the groups whose committed offsets couldn't be read by this poll
+     * @param updated the partitions whose end offsets were read by this poll
+     */
+    private void update(Map<String, Map<TopicPartition, OffsetAndMetadata>> committed, Set<String> failedGroups, Set<TopicPartition> updated, long now) {
+        Map<String, Map<TopicPartition, PartitionLag>> previous = lags;
+        Map<String, Map<TopicPartition, PartitionLag>> current = new HashMap<>();
+        for (String groupId : failedGroups) {
+            current.put(groupId, previous.getOrDefault(groupId, Collections.emptyMap()));
+        }
+        for (Map.Entry<String, Map<TopicPartition, OffsetAndMetadata>> group : committed.entrySet()) {
+            Map<TopicPartition, PartitionLag> previousLags = previous.getOrDefault(group.getKey(), Collections.emptyMap());
+            Map<TopicPartition, PartitionLag> groupLags = new HashMap<>();
+            for (Map.Entry<TopicPartition, OffsetAndMetadata> offset : group.getValue().entrySet()) {
+                OffsetHistory history = histories.get(offset.getKey());
+                if (offset.getValue() == null || history == null) {
+                    continue;
+                }
+                PartitionLag lag = previousLags.get(offset.getKey());
+                if (!updated.contains(offset.getKey())) {
+                    if (lag != null) {
+                        groupLags.put(offset.getKey(), lag);
+                    }
+                    continue;
+                }
+                if (lag == null) {
+                    lag = new PartitionLag(group.getKey(), offset.getKey());
+                }
+                long committedOffset = offset.getValue().offset();
+                lag.offsets = Math.max(0, history.latestOffset() - committedOffset);
+                lag.seconds = history.lagSeconds(committedOffset, now);
+                groupLags.put(offset.getKey(), lag);
+            }
+            current.put(group.getKey(), groupLags);
+        }
+        lags = current;
+
+        // the gauges of partitions that are gone, or no longer consumed by a group, are removed
+        previous.forEach((groupId, groupLags) -> groupLags.forEach((partition, lag) -> {
+            if (!current.getOrDefault(groupId, Collections.emptyMap()).containsKey(partition)) {
+                lag.remove();
+            }
+        }));
+        LOGGER.debug("Polled the lag of {} groups on {} partitions", current.size(), histories.size());
+    }
+
+    private static AdminClient getAdminClient(String bootstrapServerConfig) {
+        Properties config = new Properties();
+        config.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServerConfig);
+        return AdminClient.create(config);
+    }
+
+    /**
+     * The lag of one group on one partition, which its gauges read.
+     */
+    private class PartitionLag {
+
+        private final Meter offsetsGauge;
+        private final Meter secondsGauge;
+        private volatile long offsets;
+        private volatile double seconds;
+
+        PartitionLag(String groupId, TopicPartition partition) {
+            Tags tags = Tags.of("group", groupId, "topic", partition.topic(), "partition", String.valueOf(partition.partition()));
+            offsetsGauge = Gauge.builder("kafka.consumer.group.lag", this, lag -> lag.offsets)
+                    .tags(tags)
+                    .baseUnit("messages")
+                    .strongReference(true)
+                    .register(meterRegistry);
+            secondsGauge = Gauge.builder("kafka.consumer.group.lag.seconds", this, lag -> lag.seconds)
+                    .tags(tags)
+                    .baseUnit("seconds")
+                    .strongReference(true)
+                    .register(meterRegistry);
+        }
+
+        void remove() {
+            meterRegistry.remove(offsetsGauge);
+            meterRegistry.remove(secondsGauge);
+        }
+    }
+}
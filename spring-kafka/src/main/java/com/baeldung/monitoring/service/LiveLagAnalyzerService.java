@@ -1,28 +1,45 @@
 package com.baeldung.monitoring.service;
 
+import com.baeldung.monitoring.util.MonitoringUtil;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ExecutionException;
+import java.util.Map;
 
 @Service
 public class LiveLagAnalyzerService {
 
-    private final LagAnalyzerService lagAnalyzerService;
+    private static final Logger LOGGER = LoggerFactory.getLogger(LiveLagAnalyzerService.class);
+
+    private final ConsumerLagMonitor consumerLagMonitor;
     private final String groupId;
 
     @Autowired
     public LiveLagAnalyzerService(
-            LagAnalyzerService lagAnalyzerService,
+            ConsumerLagMonitor consumerLagMonitor,
             @Value(value = "${monitor.kafka.consumer.groupid}") String groupId) {
-        this.lagAnalyzerService = lagAnalyzerService;
+        this.consumerLagMonitor = consumerLagMonitor;
         this.groupId = groupId;
     }
 
+    /**
+     * Logs the lag of the group from the last poll of the {@link ConsumerLagMonitor}, without asking the cluster again.
+     */
     @Scheduled(fixedDelay = 5000L)
-    public void liveLagAnalysis() throws ExecutionException, InterruptedException {
-        lagAnalyzerService.analyzeLag(groupId);
+    public void liveLagAnalysis() {
+        Map<TopicPartition, Double> lagSeconds = consumerLagMonitor.lagSeconds(groupId);
+        for (Map.Entry<TopicPartition, Long> lagEntry : consumerLagMonitor.lag(groupId).entrySet()) {
+            LOGGER.info("Time={} | Lag for topic = {}, partition = {} is {}, about {} s",
+                    MonitoringUtil.time(),
+                    lagEntry.getKey().topic(),
+                    lagEntry.getKey().partition(),
+                    lagEntry.getValue(),
+                    String.format("%.1f", lagSeconds.get(lagEntry.getKey())));
+        }
     }
 }
@@ -0,0 +1,77 @@
+package com.baeldung.monitoring.service;
+
+/**
+ * The last end offsets of one partition and when they were read, in a ring buffer of fixed size. From these the time
+ * lag of a consumer is estimated: how long ago the message at its committed offset was appended to the partition.
+ */
+class OffsetHistory {
+
+    private final long[] times;
+    private final long[] offsets;
+    // the index of the next sample, and the number of samples kept
+    private int next;
+    private int size;
+
+    OffsetHistory(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("At least two samples are needed to estimate a rate, got " + capacity);
+        }
+        times = new long[capacity];
+        offsets = new long[capacity];
+    }
+
+    void record(long timeMillis, long endOffset) {
+        times[next] = timeMillis;
+        offsets[next] = endOffset;
+        next = (next + 1) % times.length;
+        size = Math.min(size + 1, times.length);
+    }
+
+    long latestOffset() {
+        return size == 0 ? 0 : offsets[index(size - 1)];
+    }
+
+    /**
+     * The messages appended per second over the whole history.
+     */
+    double rate() {
+        if (size < 2) {
+            return 0;
+        }
+        int oldest = index(0);
+        int newest = index(size - 1);
+        long millis = times[newest] - times[oldest];
+        return millis <= 0 ? 0 : (offsets[newest] - offsets[oldest]) * 1000.0 / millis;
+    }
+
+    /**
+     * Estimates how many seconds ago the end offset of the partition was the committed one, by interpolating between
+     * the two samples around it. An offset older than the history is extrapolated with the rate of the history, and
+     * when the end offset didn't move at all, the age of the history is the best known lower bound.
+     *
+     * @return the seconds the consumer is behind, 0 when it's caught up
+     */
+    double lagSeconds(long committedOffset, long nowMillis) {
+        if (size == 0 || committedOffset >= latestOffset()) {
+            return 0;
+        }
+        // the newest sample at or before the committed offset, the end offset only grows
+        for (int i = size - 1; i >= 0; i--) {
+            int at = index(i);
+            if (offsets[at] <= committedOffset) {
+                int after = index(i + 1);
+                double fraction = (double) (committedOffset - offsets[at]) / (offsets[after] - offsets[at]);
+                double appended = times[at] + fraction * (times[after] - times[at]);
+                return Math.max(0, (nowMillis - appended) / 1000.0);
+            }
+        }
+        int oldest = index(0);
+        double rate = rate();
+        double appended = rate > 0 ? times[oldest] - (offsets[oldest] - committedOffset) * 1000.0 / rate : times[oldest];
+        return Math.max(0, (nowMillis - appended) / 1000.0);
+    }
+
+    private int index(int sample) {
+        return (next - size + sample + times.length) % times.length;
+    }
+}
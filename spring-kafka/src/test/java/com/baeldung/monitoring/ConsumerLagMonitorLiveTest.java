@@ -0,0 +1,199 @@
+package com.baeldung.monitoring;
+
+import com.baeldung.monitoring.service.ConsumerLagMonitor;
+import com.baeldung.monitoring.simulation.ConsumerSimulator;
+import com.baeldung.monitoring.simulation.ProducerSimulator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.CreateTopicsOptions;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@RunWith(SpringRunner.class)
+@DirtiesContext
+@EmbeddedKafka(brokerProperties = {"listeners=PLAINTEXT://localhost:9086", "port=9086", "log.index.size.max.bytes=10240"})
+public class ConsumerLagMonitorLiveTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsumerLagMonitorLiveTest.class);
+
+    private static final String BOOTSTRAP_SERVER_CONFIG = "localhost:9086";
+    private static final String GROUP_ID = "lagMonitorGrp";
+    private static final String TOPIC = "lagMonitor";
+    private static final int BATCH_SIZE = 100;
+
+    private AdminClient adminClient;
+    private SimpleMeterRegistry meterRegistry;
+
+    @Before
+    public void setup() {
+        Properties config = new Properties();
+        config.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP_SERVER_CONFIG);
+        adminClient = AdminClient.create(config);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @After
+    public void tearDown() {
+        adminClient.close();
+    }
+
+    @Test
+    public void givenSimulatedProducerAndConsumer_whenConsumerCatchesUp_thenLagInMessagesAndSecondsBecomesZero() throws Exception {
+        adminClient.createTopics(Collections.singleton(new NewTopic(TOPIC, 2, (short) 1))).all().get();
+        List<TopicPartition> partitions = Arrays.asList(new TopicPartition(TOPIC, 0), new TopicPartition(TOPIC, 1));
+        commit(GROUP_ID, partitions);
+        ConsumerLagMonitor monitor = new ConsumerLagMonitor(adminClient, Collections.singleton(GROUP_ID), 10, meterRegistry, Clock.systemUTC());
+        ProducerSimulator producerSimulator = new ProducerSimulator(kafkaTemplate(), TOPIC, "true");
+
+        produce(producerSimulator);
+        monitor.poll();
+        Assert.assertEquals(BATCH_SIZE, total(monitor.lag(GROUP_ID)));
+
+        Thread.sleep(1000L);
+        produce(producerSimulator);
+        monitor.poll();
+        Assert.assertEquals(2 * BATCH_SIZE, total(monitor.lag(GROUP_ID)));
+        Assert.assertEquals(2 * BATCH_SIZE, meterRegistry.find("kafka.consumer.group.lag")
+                .tag("group", GROUP_ID)
+                .gauges()
+                .stream()
+                .mapToDouble(Gauge::value)
+                .sum(), 0);
+        // the first messages were appended before the first poll, more than the second between the polls ago
+        double maxLagSeconds = Collections.max(monitor.lagSeconds(GROUP_ID).values());
+        Assert.assertTrue("Lag of " + maxLagSeconds + " s", maxLagSeconds > 1);
+
+        KafkaMessageListenerContainer<String, String> consumer = consumerSimulator(GROUP_ID);
+        consumer.start();
+        try {
+            Awaitility.await()
+                    .atMost(30, TimeUnit.SECONDS)
+                    .until(() -> {
+                        monitor.poll();
+                        return total(monitor.lag(GROUP_ID)) == 0;
+                    });
+        } finally {
+            consumer.stop();
+        }
+        for (double lagSeconds : monitor.lagSeconds(GROUP_ID).values()) {
+            Assert.assertEquals(0, lagSeconds, 0);
+        }
+    }
+
+    @Test
+    public void givenTenThousandPartitions_whenPolling_thenAllAreCoveredByOneBatchedPoll() throws Exception {
+        List<NewTopic> topics = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            NewTopic topic = new NewTopic("lagMonitor" + i, 1000, (short) 1);
+            // a thousand partitions take a while on a small machine
+            adminClient.createTopics(Collections.singleton(topic), new CreateTopicsOptions().timeoutMs(300_000))
+                    .all()
+                    .get();
+            topics.add(topic);
+        }
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (NewTopic topic : topics) {
+            for (int partition = 0; partition < topic.numPartitions(); partition++) {
+                partitions.add(new TopicPartition(topic.name(), partition));
+            }
+        }
+        Set<String> groups = new HashSet<>(Arrays.asList(GROUP_ID + "A", GROUP_ID + "B"));
+        for (String group : groups) {
+            commit(group, partitions);
+        }
+
+        ConsumerLagMonitor monitor = new ConsumerLagMonitor(adminClient, groups, 10, meterRegistry, Clock.systemUTC());
+        for (int i = 0; i < 10; i++) {
+            monitor.poll();
+        }
+
+        for (String group : groups) {
+            Assert.assertEquals(partitions.size(), monitor.lag(group).size());
+        }
+        Assert.assertEquals(2 * groups.size() * partitions.size(), meterRegistry.find("kafka.consumer.group.lag")
+                .gauges()
+                .size() + meterRegistry.find("kafka.consumer.group.lag.seconds")
+                .gauges()
+                .size());
+        Timer poll = meterRegistry.get("kafka.consumer.group.lag.poll")
+                .timer();
+        LOGGER.info("{} polls of {} groups on {} partitions: mean {} ms, max {} ms", poll.count(), groups.size(), partitions.size(),
+                poll.mean(TimeUnit.MILLISECONDS), poll.max(TimeUnit.MILLISECONDS));
+    }
+
+    private void commit(String groupId, Collection<TopicPartition> partitions) throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> offsets = partitions.stream()
+                .collect(Collectors.toMap(partition -> partition, partition -> new OffsetAndMetadata(0)));
+        adminClient.alterConsumerGroupOffsets(groupId, offsets).all().get();
+    }
+
+    private static void produce(ProducerSimulator producerSimulator) throws Exception {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            producerSimulator.sendMessage();
+        }
+    }
+
+    private static long total(Map<TopicPartition, Long> lag) {
+        return lag.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static KafkaTemplate<String, String> kafkaTemplate() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP_SERVER_CONFIG);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps));
+    }
+
+    /**
+     * A listener container that passes every message to a {@link ConsumerSimulator}, which takes 10 ms for it.
+     */
+    private static KafkaMessageListenerContainer<String, String> consumerSimulator(String groupId) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP_SERVER_CONFIG);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        ConsumerSimulator consumerSimulator = new ConsumerSimulator();
+        ContainerProperties containerProperties = new ContainerProperties(TOPIC);
+        containerProperties.setPollTimeout(100L);
+        containerProperties.setMessageListener((MessageListener<String, String>) record -> {
+            try {
+                consumerSimulator.listenGroup(record.value());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return new KafkaMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(props), containerProperties);
+    }
+}
@@ -0,0 +1,99 @@
+package com.baeldung.monitoring.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.GroupAuthorizationException;
+import org.apache.kafka.common.errors.LeaderNotAvailableException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConsumerLagMonitorUnitTest {
+
+    private static final TopicPartition FIRST = new TopicPartition("orders", 0);
+    private static final TopicPartition SECOND = new TopicPartition("orders", 1);
+
+    private final AdminClient adminClient = mock(AdminClient.class);
+    private final Map<String, KafkaFuture<Map<TopicPartition, OffsetAndMetadata>>> committed = new HashMap<>();
+    private final Map<TopicPartition, KafkaFuture<ListOffsetsResultInfo>> endOffsets = new HashMap<>();
+    private ConsumerLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        when(adminClient.listConsumerGroupOffsets(anyString())).thenAnswer(invocation -> {
+            ListConsumerGroupOffsetsResult result = mock(ListConsumerGroupOffsetsResult.class);
+            when(result.partitionsToOffsetAndMetadata()).thenReturn(committed.get(invocation.<String> getArgument(0)));
+            return result;
+        });
+        when(adminClient.listOffsets(anyMap())).thenAnswer(invocation -> new ListOffsetsResult(new HashMap<>(endOffsets)));
+        monitor = new ConsumerLagMonitor(adminClient, new HashSet<>(Arrays.asList("billing", "shipping")), 10, new SimpleMeterRegistry(), Clock.systemUTC());
+    }
+
+    @Test
+    void givenGroupFailing_whenPolling_thenOtherGroupsAreStillUpdated() throws Exception {
+        committed.put("billing", committedOffsets(FIRST, 40));
+        committed.put("shipping", committedOffsets(FIRST, 70));
+        endOffsets.put(FIRST, endOffset(100));
+        monitor.poll();
+
+        committed.put("billing", failed(new GroupAuthorizationException("billing")));
+        committed.put("shipping", committedOffsets(FIRST, 90));
+        endOffsets.put(FIRST, endOffset(110));
+        monitor.poll();
+
+        // the failed group keeps the lag of the first poll
+        assertEquals(Collections.singletonMap(FIRST, 60L), monitor.lag("billing"));
+        assertEquals(Collections.singletonMap(FIRST, 20L), monitor.lag("shipping"));
+    }
+
+    @Test
+    void givenPartitionFailing_whenPolling_thenOtherPartitionsAreStillUpdated() throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        offsets.put(FIRST, new OffsetAndMetadata(40));
+        offsets.put(SECOND, new OffsetAndMetadata(50));
+        committed.put("billing", KafkaFuture.completedFuture(offsets));
+        committed.put("shipping", committedOffsets(FIRST, 70));
+        endOffsets.put(FIRST, endOffset(100));
+        endOffsets.put(SECOND, endOffset(100));
+        monitor.poll();
+
+        endOffsets.put(FIRST, failed(new LeaderNotAvailableException("orders-0")));
+        endOffsets.put(SECOND, endOffset(150));
+        monitor.poll();
+
+        Map<TopicPartition, Long> expected = new HashMap<>();
+        expected.put(FIRST, 60L);
+        expected.put(SECOND, 100L);
+        assertEquals(expected, monitor.lag("billing"));
+        assertEquals(Collections.singletonMap(FIRST, 30L), monitor.lag("shipping"));
+    }
+
+    private static KafkaFuture<Map<TopicPartition, OffsetAndMetadata>> committedOffsets(TopicPartition partition, long offset) {
+        return KafkaFuture.completedFuture(Collections.singletonMap(partition, new OffsetAndMetadata(offset)));
+    }
+
+    private static KafkaFuture<ListOffsetsResultInfo> endOffset(long offset) {
+        return KafkaFuture.completedFuture(new ListOffsetsResultInfo(offset, -1, Optional.empty()));
+    }
+
+    private static <T> KafkaFuture<T> failed(Exception exception) {
+        KafkaFutureImpl<T> future = new KafkaFutureImpl<>();
+        future.completeExceptionally(exception);
+        return future;
+    }
+}
@@ -0,0 +1,58 @@
+package com.baeldung.monitoring.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffsetHistoryUnitTest {
+
+    @Test
+    void givenCaughtUpConsumer_whenEstimatingLag_thenLagIsZero() {
+        OffsetHistory history = new OffsetHistory(10);
+        history.record(1_000, 100);
+        history.record(2_000, 200);
+
+        assertEquals(0, history.lagSeconds(200, 5_000));
+        assertEquals(0, history.lagSeconds(250, 5_000));
+    }
+
+    @Test
+    void givenOffsetWithinHistory_whenEstimatingLag_thenTimeIsInterpolated() {
+        OffsetHistory history = new OffsetHistory(10);
+        history.record(1_000, 100);
+        history.record(2_000, 200);
+        history.record(3_000, 400);
+
+        // offset 300 was appended half way between the second and the third sample
+        assertEquals(3.5, history.lagSeconds(300, 6_000), 1e-9);
+        assertEquals(5, history.lagSeconds(100, 6_000), 1e-9);
+        assertEquals(150, history.rate(), 1e-9);
+    }
+
+    @Test
+    void givenOffsetOlderThanHistory_whenEstimatingLag_thenTimeIsExtrapolatedWithRate() {
+        OffsetHistory history = new OffsetHistory(3);
+        for (int i = 1; i <= 5; i++) {
+            history.record(i * 1_000, i * 100);
+        }
+
+        // only the samples at 3, 4 and 5 s are kept, at 100 messages per second offset 50 was appended at 0.5 s
+        assertEquals(500, history.latestOffset());
+        assertEquals(5.5, history.lagSeconds(50, 6_000), 1e-9);
+    }
+
+    @Test
+    void givenStalledPartition_whenEstimatingLag_thenAgeOfHistoryIsLowerBound() {
+        OffsetHistory history = new OffsetHistory(3);
+        history.record(1_000, 100);
+        history.record(2_000, 100);
+
+        assertEquals(3, history.lagSeconds(40, 4_000), 1e-9);
+    }
+
+    @Test
+    void givenSingleSample_whenCreatingHistory_thenItIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new OffsetHistory(1));
+    }
+}